@@ -0,0 +1,68 @@
+package com.bryam.urlshortener.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bryam.urlshortener.util.Base62Util;
+
+//Codificar y decodificar códigos base 62 de las urls registradas
+//maxId elige el largo de los códigos, ids de una base nueva o de una con miles de millones de urls
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Base62Benchmark {
+
+    // Potencia de dos para recorrer las entradas con una mascara
+    private static final int INPUTS = 1024;
+
+    @Param({ "100000", "10000000000" })
+    private long maxId;
+
+    private final long[] ids = new long[INPUTS];
+    private final String[] codes = new String[INPUTS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < INPUTS; i++) {
+            ids[i] = random.nextLong(1, maxId);
+            codes[i] = Base62Util.encode(ids[i]);
+        }
+    }
+
+    @Benchmark
+    public String encode() {
+        return Base62Util.encode(ids[next++ & (INPUTS - 1)]);
+    }
+
+    @Benchmark
+    public long decode() {
+        return Base62Util.decode(codes[next++ & (INPUTS - 1)]);
+    }
+
+    @Benchmark
+    public boolean isValidBase62() {
+        return Base62Util.isValidBase62(codes[next++ & (INPUTS - 1)]);
+    }
+
+    @Benchmark
+    public int calculateLength() {
+        return Base62Util.calculateLength(ids[next++ & (INPUTS - 1)]);
+    }
+}
@@ -0,0 +1,67 @@
+package com.bryam.urlshortener.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bryam.urlshortener.util.HashUtil;
+
+//Hash SHA-256 de las urls anónimas y hash rápido de 64 bits de los clicks
+//urlLength cubre urls cortas y urls con parámetros de campañas
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HashUtilBenchmark {
+
+    private static final int INPUTS = 1024;
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    @Param({ "40", "300" })
+    private int urlLength;
+
+    private final String[] urls = new String[INPUTS];
+    private final String[] hashes = new String[INPUTS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < INPUTS; i++) {
+            StringBuilder url = new StringBuilder("https://example.com/");
+            while (url.length() < urlLength) {
+                url.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            urls[i] = url.toString();
+            hashes[i] = HashUtil.generateHash(urls[i]);
+        }
+    }
+
+    @Benchmark
+    public String generateHash() {
+        return HashUtil.generateHash(urls[next++ & (INPUTS - 1)]);
+    }
+
+    @Benchmark
+    public long hash64() {
+        return HashUtil.hash64(urls[next++ & (INPUTS - 1)]);
+    }
+
+    @Benchmark
+    public String extractCode() {
+        return HashUtil.extractCode(hashes[next++ & (INPUTS - 1)], 7);
+    }
+}
@@ -0,0 +1,61 @@
+package com.bryam.urlshortener.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.bryam.urlshortener.util.IpUtil;
+
+//Obtener la ip del cliente, se hace en cada redirección y en cada petición de acortar anónima
+//source elige de donde sale la ip: directa, detrás de un proxy o IPv6
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IpUtilBenchmark {
+
+    @Param({ "REMOTE_ADDR", "X_FORWARDED_FOR", "IPV6" })
+    private String source;
+
+    private MockHttpServletRequest request;
+    private String ip;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest("GET", "/abc1234");
+        switch (source) {
+            // Sin cabeceras de proxy se revisan todas antes de usar la ip directa
+            case "REMOTE_ADDR" -> request.setRemoteAddr("203.0.113.17");
+            case "X_FORWARDED_FOR" -> {
+                request.setRemoteAddr("10.0.0.5");
+                request.addHeader("X-Forwarded-For", "198.51.100.23, 10.0.0.5");
+            }
+            case "IPV6" -> request.setRemoteAddr("2001:db8:85a3:0:0:8a2e:370:7334");
+            default -> throw new IllegalArgumentException("Unknown source: " + source);
+        }
+        ip = IpUtil.getClientIpAdress(request);
+    }
+
+    @Benchmark
+    public String getClientIpAdress() {
+        return IpUtil.getClientIpAdress(request);
+    }
+
+    @Benchmark
+    public String obfuscateIP() {
+        return IpUtil.obfuscateIP(ip);
+    }
+}
@@ -0,0 +1,89 @@
+package com.bryam.urlshortener.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.bryam.urlshortener.exception.RateLimitExceededException;
+import com.bryam.urlshortener.service.impl.RateLimitServiceImpl;
+
+//Limite de uso de los usuarios anónimos con varios hilos sobre el mismo mapa
+//newClient: cada petición es de una ip nueva, se agrega al mapa y se quita para que no crezca sin limite
+//limitedClient: todos los hilos usan la misma ip ya limitada, como un cliente abusivo detrás de un proxy
+//Los hilos se cambian con -Djmh.args="-t 16"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+
+    private static final String LIMITED_IP = "203.0.113.99";
+
+    // Un solo servicio para todos los hilos, el limite es del servicio y no del cliente
+    // Solo verifyUserLimit usa el almacenamiento
+    private final RateLimitServiceImpl rateLimitService = new RateLimitServiceImpl(null);
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/shorten");
+        private final String[] ips = new String[1024];
+        private int next;
+
+        @Setup
+        public void setUp() {
+            // Ips distintas por hilo para que newClient no comparta entradas entre hilos
+            int thread = (int) (Thread.currentThread().threadId() & 0xFF);
+            for (int i = 0; i < ips.length; i++) {
+                ips[i] = "198." + thread + "." + (i >> 8) + "." + (i & 0xFF);
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/shorten");
+        request.setRemoteAddr(LIMITED_IP);
+        try {
+            while (true) {
+                rateLimitService.verifyAnonymousLimit(request);
+            }
+        } catch (RateLimitExceededException e) {
+            // La ip quedó limitada
+        }
+    }
+
+    @Benchmark
+    public String newClient(Client client) {
+        String ip = client.ips[client.next++ & (client.ips.length - 1)];
+        client.request.setRemoteAddr(ip);
+        rateLimitService.verifyAnonymousLimit(client.request);
+        rateLimitService.resetLimit(ip);
+        return ip;
+    }
+
+    @Benchmark
+    public RateLimitExceededException limitedClient(Client client) {
+        client.request.setRemoteAddr(LIMITED_IP);
+        try {
+            rateLimitService.verifyAnonymousLimit(client.request);
+            throw new IllegalStateException("Expected the client to be rate limited");
+        } catch (RateLimitExceededException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.bryam.urlshortener.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.bryam.urlshortener.UrlShortenerApplication;
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.store.UrlStore;
+
+//Almacenamiento de urls JPA sobre H2 contra el almacenamiento embebido, con la aplicación completa
+//redirect: búsqueda por código de urls ya guardadas, el camino de cada redirección
+//create: una url anónima nueva por operación, el archivo y la tabla crecen durante la medición
+//Solo el almacenamiento cambia entre las dos variantes, el resto de las tablas usa la base H2 del perfil test
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlStoreBenchmark {
+
+    private static final int SEEDED_URLS = 10_000;
+
+    @Param({ "jpa", "embedded" })
+    private String storeType;
+
+    private final String[] codes = new String[SEEDED_URLS];
+    private final AtomicLong nextUrl = new AtomicLong();
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private UrlStore urlStore;
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("url-store-benchmark");
+
+        // Argumentos de linea de comandos para reemplazar el perfil dev de application.properties
+        // El almacenamiento embebido no arranca con el archivado activo
+        context = new SpringApplicationBuilder(UrlShortenerApplication.class).run(
+                "--spring.profiles.active=test",
+                "--logging.level.root=ERROR",
+                "--spring.main.web-application-type=none",
+                "--app.store.type=" + storeType,
+                "--app.store.embedded.directory=" + directory,
+                "--app.archive.enabled=false",
+                "--app.clicks.journal.directory=" + directory.resolve("journal"),
+                "--app.imports.directory=" + directory.resolve("imports"));
+        urlStore = context.getBean(UrlStore.class);
+
+        List<Url> urls = new ArrayList<>(SEEDED_URLS);
+        for (int i = 0; i < SEEDED_URLS; i++) {
+            urls.add(anonymous("seed" + i));
+        }
+        List<Url> created = urlStore.createAll(urls, id -> null);
+        for (int i = 0; i < SEEDED_URLS; i++) {
+            codes[i] = created.get(i).getShortCode();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Url redirect(Client client) {
+        return urlStore.findByShortCode(codes[client.random.nextInt(SEEDED_URLS)]).orElseThrow();
+    }
+
+    @Benchmark
+    public Url create() {
+        return urlStore.create(anonymous("new" + nextUrl.getAndIncrement()));
+    }
+
+    // El código y el hash son únicos, igual que los de una url anónima real
+    private static Url anonymous(String code) {
+        return Url.builder()
+                .shortCode(code)
+                .fullHash(code)
+                .originalUrl("https://example.com/" + code)
+                .typeUrl(TypeUrl.ANONYMOUS)
+                .build();
+    }
+}
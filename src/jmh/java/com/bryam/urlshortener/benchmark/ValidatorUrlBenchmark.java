@@ -0,0 +1,79 @@
+package com.bryam.urlshortener.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bryam.urlshortener.exception.InvalidUrlException;
+import com.bryam.urlshortener.service.impl.ValidatorUrlServiceImpl;
+
+//Validación y normalización de la url que se acorta, se ejecutan en cada petición de acortar
+//Las urls rechazadas también se miden, la excepción es parte del costo de un rechazo
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidatorUrlBenchmark {
+
+    private static final String[] VALID = {
+            "https://example.com/",
+            "https://www.example.org/blog/2024/05/a-post-about-url-shorteners",
+            "http://Shop.Example.net:8081/products?id=123&utm_source=newsletter&utm_medium=email",
+            "https://news.example.io/guide/getting-started#installation"
+    };
+
+    private static final String[] REJECTED = {
+            "ftp://example.com/file.txt",
+            "https://phishing.com/login",
+            "http://localhost:8080/abc1234",
+            "https://example.com/admin/panel"
+    };
+
+    private ValidatorUrlServiceImpl validator;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        validator = new ValidatorUrlServiceImpl();
+        ReflectionTestUtils.setField(validator, "baseUrl", "http://localhost:8080");
+    }
+
+    @Benchmark
+    public String validateAndNormalize() {
+        String url = VALID[next++ & (VALID.length - 1)];
+        validator.validateUrlFormat(url);
+        return validator.normalizeUrl(url);
+    }
+
+    @Benchmark
+    public void validateUrlFormat() {
+        validator.validateUrlFormat(VALID[next++ & (VALID.length - 1)]);
+    }
+
+    @Benchmark
+    public String normalizeUrl() {
+        return validator.normalizeUrl(VALID[next++ & (VALID.length - 1)]);
+    }
+
+    @Benchmark
+    public InvalidUrlException validateRejected() {
+        try {
+            validator.validateUrlFormat(REJECTED[next++ & (REJECTED.length - 1)]);
+            throw new IllegalStateException("Expected the URL to be rejected");
+        } catch (InvalidUrlException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bryam.urlshortener.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+//Latencias y códigos de estado de un endpoint durante la medición
+//El histograma guarda microsegundos de 1 us a 1 minuto con 3 dígitos significativos
+class EndpointStats {
+
+    // Código de estado de las peticiones que no recibieron respuesta (timeout, conexión rechazada)
+    static final int NO_RESPONSE = -1;
+
+    private final String name;
+    private final ConcurrentHistogram latencies = new ConcurrentHistogram(1, TimeUnit.MINUTES.toMicros(1), 3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void record(int status, long latencyNanos) {
+        latencies.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(latencyNanos), 1),
+                latencies.getHighestTrackableValue()));
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    long requests() {
+        return latencies.getTotalCount();
+    }
+
+    double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMillis() {
+        return latencies.getMaxValue() / 1000.0;
+    }
+
+    Map<String, Long> statuses() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        new TreeMap<>(statuses).forEach((status, count) -> counts.put(
+                status == NO_RESPONSE ? "no_response" : String.valueOf(status), count.sum()));
+        return counts;
+    }
+
+    // Resumen para el reporte JSON
+    Map<String, Object> summary(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", requests());
+        summary.put("throughput", requests() / seconds);
+        summary.put("p50Ms", percentileMillis(50));
+        summary.put("p90Ms", percentileMillis(90));
+        summary.put("p99Ms", percentileMillis(99));
+        summary.put("p999Ms", percentileMillis(99.9));
+        summary.put("maxMs", maxMillis());
+        summary.put("statuses", statuses());
+        return summary;
+    }
+}
@@ -0,0 +1,339 @@
+package com.bryam.urlshortener.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//Generador de carga contra una instancia en marcha de la aplicación
+//Mezcla redirecciones, acortados anónimos y registrados y listados, con la proporción de loadtest.mix
+//closed: loadtest.concurrency clientes que mandan la siguiente petición al recibir la respuesta
+//open: loadtest.rate peticiones por segundo a intervalos fijos, la latencia se mide desde el momento en que
+//la petición debía salir, así una respuesta lenta no oculta las peticiones que se retrasaron detrás de ella
+//Las redirecciones eligen el código por su puesto de popularidad con una distribución de Zipf
+//Todas las opciones son propiedades del sistema -Dloadtest.*, ver los valores por defecto en main
+public class LoadTestDriver {
+
+    private static final String REDIRECT = "redirect";
+    private static final String SHORTEN_ANONYMOUS = "shorten_anonymous";
+    private static final String SHORTEN_REGISTERED = "shorten_registered";
+    private static final String LIST = "list";
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final String[] codes;
+    private final double[] popularity;
+    private final int users;
+    private final String[] endpoints;
+    private final double[] mix;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    // Solo se registran las peticiones que debían salir después del calentamiento
+    private volatile long measureFrom;
+
+    LoadTestDriver(String baseUrl, Duration timeout, String[] codes, double zipfExponent, int users,
+            Map<String, Double> mix) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(timeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.codes = codes;
+        this.popularity = zipfCdf(codes.length, zipfExponent);
+        this.users = users;
+        this.endpoints = mix.keySet().toArray(String[]::new);
+        this.mix = cumulative(mix.values());
+        for (String endpoint : endpoints) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.base-url", "http://localhost:8080");
+        Path codesFile = Path.of(System.getProperty("loadtest.codes", "seed-codes.csv"));
+        int maxCodes = Integer.getInteger("loadtest.max-codes", 2_000_000);
+        double zipfExponent = Double.parseDouble(System.getProperty("loadtest.zipf-exponent", "1.1"));
+        String mode = System.getProperty("loadtest.mode", "closed");
+        int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+        int rate = Integer.getInteger("loadtest.rate", 1000);
+        int maxInFlight = Integer.getInteger("loadtest.max-in-flight", 10_000);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup", 10);
+        int durationSeconds = Integer.getInteger("loadtest.duration", 60);
+        Duration timeout = Duration.ofMillis(Long.getLong("loadtest.timeout-ms", 5000));
+        Path report = Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json"));
+        Map<String, Double> mix = parseMix(System.getProperty("loadtest.mix",
+                REDIRECT + "=90," + SHORTEN_ANONYMOUS + "=4," + SHORTEN_REGISTERED + "=4," + LIST + "=2"));
+
+        SeedCodes seed = readCodes(codesFile, maxCodes);
+        String[] codes = seed.codes();
+        int users = Integer.getInteger("loadtest.users", seed.users());
+        LoadTestDriver driver = new LoadTestDriver(baseUrl, timeout, codes, zipfExponent, Math.max(users, 1), mix);
+
+        System.out.printf("Load test against %s: %s loop, %s, %d codes, warmup %d s, measure %d s%n", baseUrl, mode,
+                "open".equals(mode) ? rate + " req/s" : concurrency + " clients", codes.length, warmupSeconds,
+                durationSeconds);
+
+        Duration warmup = Duration.ofSeconds(warmupSeconds);
+        Duration duration = Duration.ofSeconds(durationSeconds);
+        long dropped = switch (mode) {
+            case "closed" -> driver.runClosedLoop(concurrency, warmup, duration);
+            case "open" -> driver.runOpenLoop(rate, maxInFlight, warmup, duration);
+            default -> throw new IllegalArgumentException("loadtest.mode must be closed or open, not " + mode);
+        };
+
+        driver.report(durationSeconds, dropped, mode, report);
+    }
+
+    // Cada cliente espera la respuesta antes de mandar la siguiente petición
+    long runClosedLoop(int concurrency, Duration warmup, Duration duration) {
+        long start = System.nanoTime();
+        measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        send(System.nanoTime());
+                    }
+                });
+            }
+        }
+        return 0;
+    }
+
+    // Las peticiones salen a intervalos fijos, sin esperar respuestas, hasta max-in-flight pendientes
+    long runOpenLoop(int rate, int maxInFlight, Duration warmup, Duration duration) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long dropped = 0;
+
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long intended = start; intended < end; intended += interval) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                // Con demasiadas peticiones pendientes el generador ya no mide a la aplicación, se cuentan aparte
+                if (!inFlight.tryAcquire()) {
+                    if (intended >= measureFrom) {
+                        dropped++;
+                    }
+                    continue;
+                }
+                long scheduled = intended;
+                requests.submit(() -> {
+                    try {
+                        send(scheduled);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return dropped;
+    }
+
+    private void send(long intended) {
+        EndpointStats endpoint = stats.get(pickEndpoint());
+        HttpRequest request = request(endpoint.name());
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = EndpointStats.NO_RESPONSE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (intended >= measureFrom) {
+            endpoint.record(status, System.nanoTime() - intended);
+        }
+    }
+
+    private HttpRequest request(String endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (endpoint) {
+            // Ips al azar como lo harían clientes distintos, con una sola ip el filtro de bots marcaría
+            // todos los clicks como ráfaga y el limite de uso anónimo cortaría los acortados
+            case REDIRECT -> get("/" + codes[pickRank()])
+                    .header("X-Forwarded-For", clientIp(random))
+                    .build();
+            case SHORTEN_ANONYMOUS -> post("/api/shorten", newUrl(random))
+                    .header("X-Forwarded-For", clientIp(random))
+                    .build();
+            case SHORTEN_REGISTERED -> post("/api/shorten/authenticated", newUrl(random))
+                    .header("X-User-Id", String.valueOf(1 + random.nextInt(users)))
+                    .build();
+            case LIST -> get("/api/my-links?size=20")
+                    .header("X-User-Id", String.valueOf(1 + random.nextInt(users)))
+                    .build();
+            default -> throw new IllegalArgumentException("Unknown endpoint in loadtest.mix: " + endpoint);
+        };
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout).GET();
+    }
+
+    private HttpRequest.Builder post(String path, String originalUrl) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"originalUrlRequest\":\"" + originalUrl + "\"}"));
+    }
+
+    // Rango 100.64.0.0/10 para no chocar con las redes privadas
+    private static String clientIp(ThreadLocalRandom random) {
+        return "100." + random.nextInt(64, 128) + "." + random.nextInt(256) + "." + random.nextInt(1, 255);
+    }
+
+    private static String newUrl(ThreadLocalRandom random) {
+        return "https://loadtest.example.com/new/" + Long.toHexString(random.nextLong());
+    }
+
+    private String pickEndpoint() {
+        return endpoints[search(mix, ThreadLocalRandom.current().nextDouble())];
+    }
+
+    private int pickRank() {
+        return search(popularity, ThreadLocalRandom.current().nextDouble());
+    }
+
+    // Primer indice cuyo acumulado supera el valor
+    private static int search(double[] cumulative, double value) {
+        int index = Arrays.binarySearch(cumulative, value);
+        return Math.min(index >= 0 ? index + 1 : -index - 1, cumulative.length - 1);
+    }
+
+    // Distribución acumulada de Zipf sobre los puestos, el puesto r tiene peso 1 / (r + 1)^exponente
+    private static double[] zipfCdf(int ranks, double exponent) {
+        double[] cdf = new double[ranks];
+        double total = 0;
+        for (int rank = 0; rank < ranks; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cdf[rank] = total;
+        }
+        for (int rank = 0; rank < ranks; rank++) {
+            cdf[rank] /= total;
+        }
+        return cdf;
+    }
+
+    private static double[] cumulative(Iterable<Double> weights) {
+        List<Double> values = new ArrayList<>();
+        weights.forEach(values::add);
+        double total = values.stream().mapToDouble(Double::doubleValue).sum();
+        double[] cumulative = new double[values.size()];
+        double sum = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            sum += values.get(i);
+            cumulative[i] = sum / total;
+        }
+        return cumulative;
+    }
+
+    // Formato endpoint=peso separados por coma, los pesos no necesitan sumar 100
+    private static Map<String, Double> parseMix(String mix) {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2 || !List.of(REDIRECT, SHORTEN_ANONYMOUS, SHORTEN_REGISTERED, LIST)
+                    .contains(parts[0].trim())) {
+                throw new IllegalArgumentException("loadtest.mix entries must be endpoint=weight with endpoint one of "
+                        + "redirect, shorten_anonymous, shorten_registered or list: " + entry);
+            }
+            weights.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    // Archivo del sembrado: una linea # users=N y luego puesto,código en cualquier orden
+    // Solo se cargan los max-codes mas populares, el resto de la cola no cambia mucho la distribución
+    private static SeedCodes readCodes(Path file, int maxCodes) throws IOException {
+        String[] codes = new String[maxCodes];
+        int users = 0;
+        int loaded = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("# users=")) {
+                    users = Integer.parseInt(line.substring("# users=".length()).trim());
+                    continue;
+                }
+                int comma = line.indexOf(',');
+                int rank = Integer.parseInt(line, 0, comma, 10);
+                if (rank < maxCodes) {
+                    codes[rank] = line.substring(comma + 1);
+                    loaded++;
+                }
+            }
+        }
+        if (loaded == 0) {
+            throw new IllegalStateException("No codes found in " + file.toAbsolutePath());
+        }
+        return new SeedCodes(Arrays.copyOf(codes, loaded), users);
+    }
+
+    private record SeedCodes(String[] codes, int users) {
+    }
+
+    private void report(int durationSeconds, long dropped, String mode, Path file) throws IOException {
+        System.out.printf("%n%-20s %10s %10s %9s %9s %9s %9s %9s  %s%n", "endpoint", "requests", "req/s", "p50 ms",
+                "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        Map<String, Object> endpointsReport = new LinkedHashMap<>();
+        long total = 0;
+        for (EndpointStats endpoint : stats.values()) {
+            total += endpoint.requests();
+            System.out.printf("%-20s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n", endpoint.name(),
+                    endpoint.requests(), endpoint.requests() / (double) durationSeconds,
+                    endpoint.percentileMillis(50), endpoint.percentileMillis(90), endpoint.percentileMillis(99),
+                    endpoint.percentileMillis(99.9), endpoint.maxMillis(), endpoint.statuses());
+            endpointsReport.put(endpoint.name(), endpoint.summary(durationSeconds));
+        }
+        System.out.printf("%-20s %10d %10.1f%n", "total", total, total / (double) durationSeconds);
+        if (dropped > 0) {
+            System.out.printf("%d requests were not sent because loadtest.max-in-flight was reached%n", dropped);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", mode);
+        report.put("durationSeconds", durationSeconds);
+        report.put("requests", total);
+        report.put("throughput", total / (double) durationSeconds);
+        report.put("dropped", dropped);
+        report.put("endpoints", endpointsReport);
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+}
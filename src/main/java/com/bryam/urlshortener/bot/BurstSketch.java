@@ -0,0 +1,81 @@
+package com.bryam.urlshortener.bot;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+//Conteo aproximado de clicks por clave (ip) en una ventana de tiempo, con memoria fija
+//Es un Count-Min: varias filas de contadores, cada clave suma en una casilla por fila y la
+//estimación es el mínimo, nunca cuenta de menos. Se guardan la ventana actual y la anterior,
+//y la anterior se pondera por el tiempo que falta, así la ventana se desliza sin saltos
+public class BurstSketch {
+
+    private final int depth;
+    private final int mask;
+    private final long windowMillis;
+
+    private volatile Window current;
+    private volatile Window previous;
+
+    public BurstSketch(int depth, int width, long windowMillis) {
+        this.depth = depth;
+        // El ancho se redondea a potencia de dos para calcular la casilla con una mascara
+        int size = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.mask = size - 1;
+        this.windowMillis = windowMillis;
+        long index = System.currentTimeMillis() / windowMillis;
+        this.current = new Window(index, depth * size);
+        this.previous = new Window(index - 1, depth * size);
+    }
+
+    // Sumar un click de la clave y retornar la cantidad estimada en la ventana deslizante
+    public int add(long keyHash, long nowMillis) {
+        Window window = windowFor(nowMillis);
+
+        // Doble hash: cada fila usa h1 + fila * h2 como posición
+        int h1 = (int) keyHash;
+        int h2 = (int) (keyHash >>> 32) | 1;
+        int currentCount = Integer.MAX_VALUE;
+        int previousCount = Integer.MAX_VALUE;
+        Window before = previous;
+
+        for (int row = 0; row < depth; row++) {
+            int slot = row * (mask + 1) + ((h1 + row * h2) & mask);
+            currentCount = Math.min(currentCount, window.counts.incrementAndGet(slot));
+            previousCount = Math.min(previousCount, before.counts.get(slot));
+        }
+
+        // Peso de la ventana anterior según cuanto de ella sigue dentro de la ventana deslizante
+        if (before.index != window.index - 1) {
+            return currentCount;
+        }
+        double elapsed = (double) (nowMillis - window.index * windowMillis) / windowMillis;
+        return currentCount + (int) (previousCount * (1.0 - elapsed));
+    }
+
+    private Window windowFor(long nowMillis) {
+        long index = nowMillis / windowMillis;
+        Window window = current;
+        if (window.index >= index) {
+            return window;
+        }
+        return rotate(index);
+    }
+
+    // Cambiar de ventana, la actual pasa a ser la anterior y se crea una vacía
+    private synchronized Window rotate(long index) {
+        Window window = current;
+        if (window.index >= index) {
+            return window;
+        }
+        Window next = new Window(index, window.counts.length());
+        previous = window.index == index - 1 ? window : new Window(index - 1, window.counts.length());
+        current = next;
+        return next;
+    }
+
+    private record Window(long index, AtomicIntegerArray counts) {
+
+        Window(long index, int length) {
+            this(index, new AtomicIntegerArray(length));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.bryam.urlshortener.bot;
+
+//Resultado de la clasificación de un click en la redirección
+public enum ClickVerdict {
+
+    HUMAN,
+    MISSING_USER_AGENT, // Sin User-Agent, típico de scripts y escáneres
+    BOT_USER_AGENT, // El User-Agent contiene un token de bot, crawler o vista previa de enlaces
+    PREFETCH, // El navegador precarga el enlace, no es una visita
+    IP_BURST; // Demasiados clicks de la misma ip en poco tiempo
+
+    public boolean isSuspicious() {
+        return this != HUMAN;
+    }
+}
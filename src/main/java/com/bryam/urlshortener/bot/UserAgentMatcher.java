@@ -0,0 +1,116 @@
+package com.bryam.urlshortener.bot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+
+//Automata Aho-Corasick para buscar varios tokens en un User-Agent en una sola pasada
+//Se compila una vez como tabla de transiciones completa, así cada carácter es una sola lectura
+//de arreglo, sin retrocesos y sin crear objetos. Solo distingue caracteres ASCII, sin mayúsculas
+public class UserAgentMatcher {
+
+    private static final int ALPHABET = 128;
+
+    private final int[] transitions;
+    private final boolean[] accepting;
+
+    public UserAgentMatcher(Collection<String> tokens) {
+        List<int[]> states = new ArrayList<>();
+        List<Boolean> outputs = new ArrayList<>();
+        states.add(newState());
+        outputs.add(false);
+
+        // Árbol de prefijos con los tokens
+        for (String token : tokens) {
+            String normalized = token.trim().toLowerCase(Locale.ROOT);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < normalized.length(); i++) {
+                int c = normalized.charAt(i);
+                if (c >= ALPHABET) {
+                    throw new IllegalArgumentException("User-Agent tokens must be ASCII: " + token);
+                }
+                if (states.get(state)[c] < 0) {
+                    states.get(state)[c] = states.size();
+                    states.add(newState());
+                    outputs.add(false);
+                }
+                state = states.get(state)[c];
+            }
+            outputs.set(state, true);
+        }
+
+        // Completar las transiciones con los enlaces de falla, recorriendo por niveles
+        int[] failure = new int[states.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        int[] root = states.get(0);
+        for (int c = 0; c < ALPHABET; c++) {
+            if (root[c] < 0) {
+                root[c] = 0;
+            } else {
+                failure[root[c]] = 0;
+                queue.add(root[c]);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            // Un estado también acepta si su enlace de falla acepta (un token dentro de otro)
+            if (outputs.get(failure[state])) {
+                outputs.set(state, true);
+            }
+            int[] row = states.get(state);
+            int[] failureRow = states.get(failure[state]);
+            for (int c = 0; c < ALPHABET; c++) {
+                if (row[c] < 0) {
+                    row[c] = failureRow[c];
+                } else {
+                    failure[row[c]] = failureRow[c];
+                    queue.add(row[c]);
+                }
+            }
+        }
+
+        // Tabla plana, cada transición guarda el desplazamiento de la fila destino
+        this.transitions = new int[states.size() * ALPHABET];
+        this.accepting = new boolean[states.size()];
+        for (int state = 0; state < states.size(); state++) {
+            int[] row = states.get(state);
+            for (int c = 0; c < ALPHABET; c++) {
+                transitions[state * ALPHABET + c] = row[c] * ALPHABET;
+            }
+            accepting[state] = outputs.get(state);
+        }
+    }
+
+    // Verdadero si el texto contiene alguno de los tokens, sin distinguir mayúsculas
+    public boolean matches(CharSequence text) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            } else if (c >= ALPHABET) {
+                state = 0;
+                continue;
+            }
+            state = transitions[state + c];
+            if (accepting[state / ALPHABET]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] newState() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -0,0 +1,66 @@
+package com.bryam.urlshortener.cli;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import com.bryam.urlshortener.model.enums.ExportFormat;
+import com.bryam.urlshortener.service.UrlExportService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+//Modo de linea de comandos de la exportación masiva
+//Con app.export.output la aplicación escribe todas las urls en ese archivo y termina
+//Si el nombre termina en .gz se comprime con gzip
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.export.output")
+public class UrlExportRunner implements ApplicationRunner {
+
+    private final UrlExportService urlExportService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.export.output}")
+    private String output;
+
+    @Value("${app.export.format}")
+    private ExportFormat format;
+
+    @Value("${app.export.after-id}")
+    private long afterId;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode = 0;
+        Path file = Path.of(output);
+
+        try (OutputStream stream = open(file)) {
+            long count = urlExportService.exportUrls(format, afterId, stream);
+            log.info("Export written to {} ({} URLs)", file.toAbsolutePath(), count);
+        } catch (IOException | RuntimeException e) {
+            log.error("Export to {} failed", file.toAbsolutePath(), e);
+            exitCode = 1;
+        }
+
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    private static OutputStream open(Path file) throws IOException {
+        OutputStream stream = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPOutputStream(stream, 64 * 1024) : stream;
+    }
+}
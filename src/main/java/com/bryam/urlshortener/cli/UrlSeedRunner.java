@@ -0,0 +1,228 @@
+package com.bryam.urlshortener.cli;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.util.Base62Util;
+import com.bryam.urlshortener.util.HashUtil;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+//Modo de linea de comandos que llena la tabla urls con datos para las pruebas de carga
+//Con app.seed.urls la aplicación inserta esa cantidad de urls en una tabla vacía y termina
+//Cada url tiene un puesto de popularidad al azar y sus clicks siguen una distribución de Zipf por ese puesto
+//Los códigos se escriben en app.seed.codes-output como puesto,código para que el generador de carga los use
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.seed.urls")
+public class UrlSeedRunner implements ApplicationRunner {
+
+    private static final String INSERT_URL = "INSERT INTO urls (id, short_code, original_url, type_url, state_url, "
+            + "creation_date, expiration_date, last_activation_date, user_id, full_hash, counter_clicks_total, "
+            + "counter_clicks_session, counter_clicks_suspicious, times_reactivated, is_perzonalized) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_URLS = 50_000_000;
+    private static final int HASH_CODE_LENGTH = 7;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.store.type}")
+    private String storeType;
+
+    @Value("${app.seed.urls}")
+    private int urls;
+
+    @Value("${app.seed.codes-output}")
+    private String codesOutput;
+
+    @Value("${app.seed.users}")
+    private int users;
+
+    @Value("${app.seed.anonymous-share}")
+    private double anonymousShare;
+
+    @Value("${app.seed.expired-share}")
+    private double expiredShare;
+
+    @Value("${app.seed.zipf-exponent}")
+    private double zipfExponent;
+
+    @Value("${app.seed.max-clicks}")
+    private int maxClicks;
+
+    @Value("${app.seed.batch-size}")
+    private int batchSize;
+
+    @Value("${app.seed.random-seed}")
+    private long randomSeed;
+
+    @Value("${app.url.days-expiration}")
+    private int daysExpiration;
+
+    // Códigos hash de 7 caracteres ya usados, 28 bits por código caben en 32 MB
+    private final BitSet hashCodes = new BitSet(1 << 28);
+    // Los que chocaron y se alargaron, como en el generador de códigos
+    private final Set<String> longHashCodes = new HashSet<>();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode = 0;
+        Path file = Path.of(codesOutput);
+
+        try {
+            validate();
+            long start = System.nanoTime();
+            try (Writer codes = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                seed(codes);
+            }
+            log.info("Seeded {} URLs in {} s, codes written to {}", urls,
+                    (System.nanoTime() - start) / 1_000_000_000, file.toAbsolutePath());
+        } catch (IOException | RuntimeException e) {
+            log.error("Seeding {} URLs failed", urls, e);
+            exitCode = 1;
+        }
+
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    private void validate() {
+        // Las filas se insertan directo en la tabla urls de spring.datasource
+        if (!"jpa".equals(storeType)) {
+            throw new IllegalStateException("Seeding only supports app.store.type=jpa, not " + storeType);
+        }
+        if (urls < 1 || urls > MAX_URLS) {
+            throw new IllegalStateException("app.seed.urls must be between 1 and " + MAX_URLS);
+        }
+        // Los ids y los códigos se asignan sin consultar la tabla, no puede haber urls previas
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM urls", Long.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException("Seeding needs an empty urls table, found " + existing + " URLs");
+        }
+    }
+
+    private void seed(Writer codes) throws IOException {
+        int[] ranks = popularityRanks();
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+
+        codes.write("# users=" + users + "\n");
+        for (int i = 0; i < urls; i++) {
+            long id = i + 1L;
+            Object[] row = row(id, ranks[i], now);
+            batch.add(row);
+            codes.write(ranks[i] + "," + row[1] + "\n");
+
+            if (batch.size() == batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_URL, batch);
+                batch.clear();
+            }
+            if (id % 1_000_000 == 0) {
+                log.info("Seeded {} of {} URLs", id, urls);
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_URL, batch);
+        }
+
+        restartIdentity();
+    }
+
+    // Puesto de popularidad de cada url, una permutación al azar para que las populares no sean las primeras
+    private int[] popularityRanks() {
+        int[] ranks = new int[urls];
+        for (int i = 0; i < urls; i++) {
+            ranks[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        for (int i = urls - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = ranks[i];
+            ranks[i] = ranks[j];
+            ranks[j] = swap;
+        }
+        return ranks;
+    }
+
+    // Cada fila depende solo de la semilla y del id, dos ejecuciones con la misma semilla dan los mismos datos
+    private Object[] row(long id, int rank, LocalDateTime now) {
+        SplittableRandom random = new SplittableRandom(randomSeed * 0x9E3779B97F4A7C15L + id);
+        int clicks = (int) (maxClicks / Math.pow(rank + 1, zipfExponent));
+
+        if (random.nextDouble() < anonymousShare) {
+            String originalUrl = "https://loadtest.example.com/a/" + id + "?v=" + Long.toHexString(random.nextLong());
+            String fullHash = HashUtil.generateHash(originalUrl);
+
+            // Las vencidas se crearon antes de los días de expiración, las activas dentro de ese plazo
+            boolean expired = random.nextDouble() < expiredShare;
+            LocalDateTime created = expired
+                    ? now.minusDays(daysExpiration).minusMinutes(random.nextLong(1, 60L * 24 * 60))
+                    : now.minusMinutes(random.nextLong(1, 60L * 24 * daysExpiration));
+
+            return new Object[] { id, anonymousCode(fullHash), originalUrl, TypeUrl.ANONYMOUS.name(),
+                    (expired ? StateUrl.EXPIRED : StateUrl.ACTIVE).name(), Timestamp.valueOf(created),
+                    Timestamp.valueOf(created.plusDays(daysExpiration)), Timestamp.valueOf(created), null, fullHash,
+                    clicks, 0, 0, 0, false };
+        }
+
+        long userId = 1 + random.nextInt(users);
+        LocalDateTime created = now.minusMinutes(random.nextLong(1, 60L * 24 * 365));
+        return new Object[] { id, Base62Util.encode(id), "https://loadtest.example.com/r/" + userId + "/" + id,
+                TypeUrl.REGISTERED.name(), StateUrl.ACTIVE.name(), Timestamp.valueOf(created), null,
+                Timestamp.valueOf(created), userId, null, clicks, 0, 0, 0, false };
+    }
+
+    // Mismo recorte que el generador de códigos, si el código ya se usó se prueba con uno mas largo
+    // Los códigos base62 de los ids sembrados tienen menos de 7 caracteres, no chocan con los de hash
+    private String anonymousCode(String fullHash) {
+        String code = HashUtil.extractCode(fullHash, HASH_CODE_LENGTH);
+        int prefix = Integer.parseInt(code, 16);
+        if (!hashCodes.get(prefix)) {
+            hashCodes.set(prefix);
+            return code;
+        }
+        for (int length = HASH_CODE_LENGTH + 1; length <= 10; length++) {
+            code = HashUtil.extractCode(fullHash, length);
+            if (longHashCodes.add(code)) {
+                return code;
+            }
+        }
+        throw new IllegalStateException("Could not generate a unique code for hash " + fullHash);
+    }
+
+    // MySQL mueve el auto_increment al insertar ids explícitos, H2 necesita reiniciar la identidad
+    private void restartIdentity() {
+        String product = jdbcTemplate.execute((Connection connection) -> connection.getMetaData()
+                .getDatabaseProductName());
+        if ("H2".equals(product)) {
+            jdbcTemplate.execute("ALTER TABLE urls ALTER COLUMN id RESTART WITH " + (urls + 1L));
+        }
+    }
+}
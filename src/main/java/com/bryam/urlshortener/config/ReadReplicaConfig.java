@@ -0,0 +1,112 @@
+package com.bryam.urlshortener.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.bryam.urlshortener.datasource.DataSourceRoute;
+import com.bryam.urlshortener.datasource.ReadYourWritesInterceptor;
+import com.bryam.urlshortener.datasource.RecentWriteTracker;
+import com.bryam.urlshortener.datasource.ReplicaLagMonitor;
+import com.bryam.urlshortener.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Réplicas de lectura: las transacciones readOnly van a las réplicas y las escrituras a la principal
+// Solo se activa con app.datasource.replicas.enabled=true, si no se usa el DataSource de Spring Boot
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig implements WebMvcConfigurer {
+
+    @Value("${app.datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${app.datasource.replicas.maximum-pool-size}")
+    private int replicaPoolSize;
+
+    @Value("${app.datasource.replicas.max-lag-ms}")
+    private long maxLagMs;
+
+    @Value("${app.datasource.replicas.read-your-writes-seconds}")
+    private long readYourWritesSeconds;
+
+    @Value("${app.datasource.replicas.read-your-writes-max-users}")
+    private int readYourWritesMaxUsers;
+
+    // Pool de la principal, con la configuración de spring.datasource y spring.datasource.hikari
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // Un pool por réplica, con las mismas credenciales de la principal
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+            DataSourceProperties properties, MeterRegistry meterRegistry) {
+
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(name, replica);
+        }
+
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    // DataSource que usa JPA, la conexión real se pide al ejecutar la primera sentencia
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource, maxLagMs);
+    }
+
+    @Bean
+    public RecentWriteTracker recentWriteTracker() {
+        return new RecentWriteTracker(readYourWritesSeconds * 1000, readYourWritesMaxUsers);
+    }
+
+    // Las respuestas en streaming corren en otro hilo, la marca de leer de la principal viaja con ellas
+    @Bean
+    public TaskDecorator dataSourceRouteTaskDecorator() {
+        return DataSourceRoute::propagate;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(recentWriteTracker()));
+    }
+}
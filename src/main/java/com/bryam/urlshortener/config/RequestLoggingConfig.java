@@ -0,0 +1,50 @@
+package com.bryam.urlshortener.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.bryam.urlshortener.logging.SampledRequestLogInterceptor;
+
+//Registro del log de peticiones por muestreo, con la proporción de cada endpoint
+@Configuration
+public class RequestLoggingConfig implements WebMvcConfigurer {
+
+    @Value("${app.logging.requests.sample-rates}")
+    private List<String> sampleRates;
+
+    @Value("${app.logging.requests.default-sample-rate}")
+    private double defaultSampleRate;
+
+    @Value("${app.logging.requests.slow-threshold-ms}")
+    private long slowThresholdMillis;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SampledRequestLogInterceptor(parseSampleRates(), defaultSampleRate,
+                slowThresholdMillis));
+    }
+
+    // Cada entrada es patrón=proporción, por ejemplo /{code}=0.01
+    private Map<String, Double> parseSampleRates() {
+        Map<String, Double> rates = new HashMap<>();
+        for (String entry : sampleRates) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf('=');
+            double rate = separator > 0 ? Double.parseDouble(entry.substring(separator + 1).trim()) : -1;
+            if (rate < 0 || rate > 1) {
+                throw new IllegalStateException("app.logging.requests.sample-rates entries must be "
+                        + "pattern=rate with a rate between 0 and 1: " + entry);
+            }
+            rates.put(entry.substring(0, separator).trim(), rate);
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,10 @@
+package com.bryam.urlshortener.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Habilitar las tareas programadas, como el barrido de urls expiradas
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,55 @@
+package com.bryam.urlshortener.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.bryam.urlshortener.model.Url;
+
+//Cache de segundo nivel de Hibernate, local a cada instancia
+//Las regiones se crean aquí con un tamaño máximo y un tiempo de vida, Hibernate falla si falta alguna
+//El tiempo de vida acota cuanto puede ver otra instancia una url que cambió en esta
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.cache.urls.max-entries}") long maxEntries,
+            @Value("${app.cache.urls.ttl-seconds}") long ttlSeconds) {
+
+        CacheConfiguration<Object, Object> urlCache = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds)))
+                .build();
+
+        // Cada contexto tiene su propio administrador, identificado por una URI única
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching
+                .getCachingProvider(EhcacheCachingProvider.class.getName());
+
+        return provider.getCacheManager(URI.create("urn:url-shortener:hibernate:" + UUID.randomUUID()),
+                ConfigurationBuilder.newConfigurationBuilder()
+                        .withCache(Url.CACHE_REGION, urlCache)
+                        .withCache(Url.NATURAL_ID_CACHE_REGION, urlCache)
+                        .build());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
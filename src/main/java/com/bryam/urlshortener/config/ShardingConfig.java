@@ -0,0 +1,78 @@
+package com.bryam.urlshortener.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.bryam.urlshortener.datasource.ShardRoutingDataSource;
+import com.bryam.urlshortener.util.ShardKeyUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Particiones de urls: la tabla urls se reparte en varias bases de datos según el código corto
+// Solo se activa con app.store.type=sharded, el resto de las tablas sigue en la base de spring.datasource
+// No se combina con las réplicas de lectura, las dos configuraciones reemplazan el DataSource de Spring Boot
+@Configuration
+@ConditionalOnProperty(name = "app.store.type", havingValue = "sharded")
+public class ShardingConfig {
+
+    @Value("${app.store.sharded.urls}")
+    private List<String> shardUrls;
+
+    @Value("${app.store.sharded.maximum-pool-size}")
+    private int shardPoolSize;
+
+    // Pool de la principal, con la configuración de spring.datasource y spring.datasource.hikari
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource mainDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ShardRoutingDataSource.MAIN);
+        return dataSource;
+    }
+
+    // Un pool por partición, con las mismas credenciales de la principal
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(HikariDataSource mainDataSource,
+            DataSourceProperties properties, MeterRegistry meterRegistry) {
+
+        if (shardUrls.isEmpty() || shardUrls.size() > ShardKeyUtil.MAX_SHARDS) {
+            throw new IllegalStateException("app.store.sharded.urls must list between 1 and "
+                    + ShardKeyUtil.MAX_SHARDS + " databases, got " + shardUrls.size());
+        }
+
+        List<HikariDataSource> shards = new ArrayList<>();
+        for (int i = 0; i < shardUrls.size(); i++) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("url-shard-" + i);
+            shard.setJdbcUrl(shardUrls.get(i).trim());
+            shard.setUsername(properties.determineUsername());
+            shard.setPassword(properties.determinePassword());
+            shard.setDriverClassName(properties.determineDriverClassName());
+            shard.setMaximumPoolSize(shardPoolSize);
+            shard.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shards.add(shard);
+        }
+
+        return new ShardRoutingDataSource(mainDataSource, shards);
+    }
+
+    // DataSource que usa JPA, la conexión real se pide al ejecutar la primera sentencia
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+}
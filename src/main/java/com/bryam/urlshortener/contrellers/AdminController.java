@@ -0,0 +1,106 @@
+package com.bryam.urlshortener.contrellers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bryam.urlshortener.dto.response.CacheRegionStatsResponseDTO;
+import com.bryam.urlshortener.dto.response.GlobalStatsResponseDTO;
+import com.bryam.urlshortener.exception.AdminAccessDeniedException;
+import com.bryam.urlshortener.model.enums.ExportFormat;
+import com.bryam.urlshortener.service.CacheStatisticsService;
+import com.bryam.urlshortener.service.GlobalStatsService;
+import com.bryam.urlshortener.service.UrlExportService;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class AdminController {
+
+        private final GlobalStatsService globalStatsService;
+        private final CacheStatisticsService cacheStatisticsService;
+        private final UrlExportService urlExportService;
+
+        @Value("${app.admin.token}")
+        private String adminToken;
+
+        // Estadísticas globales para el panel de administración
+        // Se leen de la tabla de estadísticas, nunca de agregados sobre la tabla urls
+        @GetMapping("/api/admin/stats")
+        public ResponseEntity<GlobalStatsResponseDTO> getGlobalStats(
+                        @RequestHeader(name = "X-Admin-Token", required = false) String token) {
+
+                verifyAdminToken(token);
+
+                log.debug("Obtaining global statistics");
+
+                return ResponseEntity.ok()
+                                .cacheControl(CacheControl.noStore())
+                                .body(globalStatsService.getGlobalStats());
+        }
+
+        // Aciertos de la cache de segundo nivel de esta instancia, por región
+        @GetMapping("/api/admin/cache")
+        public ResponseEntity<List<CacheRegionStatsResponseDTO>> getCacheStatistics(
+                        @RequestHeader(name = "X-Admin-Token", required = false) String token) {
+
+                verifyAdminToken(token);
+
+                return ResponseEntity.ok()
+                                .cacheControl(CacheControl.noStore())
+                                .body(cacheStatisticsService.getRegionStatistics());
+        }
+
+        // Exportación de todas las urls en NDJSON o CSV comprimido con gzip, en orden de id
+        // Las filas se escriben directo en la respuesta mientras se leen, sin armar la exportación en memoria
+        // Si la descarga se corta se retoma con afterId igual al id de la ultima fila completa
+        @GetMapping("/api/admin/export")
+        public void exportUrls(
+                        @RequestHeader(name = "X-Admin-Token", required = false) String token,
+                        @RequestParam(name = "format", defaultValue = "NDJSON") ExportFormat format,
+                        @RequestParam(name = "afterId", defaultValue = "0") Long afterId,
+                        HttpServletResponse response) throws IOException {
+
+                verifyAdminToken(token);
+
+                String fileName = "urls-" + LocalDate.now() + "-after-" + afterId + "."
+                                + format.name().toLowerCase(Locale.ROOT) + ".gz";
+
+                response.setContentType("application/gzip");
+                response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                                ContentDisposition.attachment().filename(fileName).build().toString());
+
+                try (GZIPOutputStream gzip = new GZIPOutputStream(response.getOutputStream(), 64 * 1024)) {
+                        urlExportService.exportUrls(format, afterId, gzip);
+                }
+        }
+
+        // Sin un token configurado los endpoints administrativos quedan deshabilitados
+        private void verifyAdminToken(String token) {
+                if (adminToken == null || adminToken.isBlank() || token == null
+                                || !MessageDigest.isEqual(adminToken.getBytes(StandardCharsets.UTF_8),
+                                                token.getBytes(StandardCharsets.UTF_8))) {
+                        log.warn("Rejected admin request");
+                        throw new AdminAccessDeniedException("Admin access denied");
+                }
+        }
+}
@@ -4,45 +4,62 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+//Sondas para el balanceador en el puerto de la aplicación, con los mismos grupos que /actuator/health
+//Responden 503 cuando el estado no es UP para que el balanceador deje de enviar trafico
 @Slf4j
 @RestController
+@RequiredArgsConstructor
 @RequestMapping("/health")
 public class HealthController {
 
-    // Endpoint para monitorear y verificar que el servidor esta activo
+    private final HealthEndpoint healthEndpoint;
+
+    // Endpoint para monitorear y verificar que el servidor esta activo, sonda de liveness
+    @GetMapping
     public ResponseEntity<Map<String, Object>> health() {
 
         log.debug("Health check requested");
 
+        Status status = healthEndpoint.healthForPath("liveness").getStatus();
+
         Map<String, Object> response = new HashMap<>();
-        response.put("status", "UP");
+        response.put("status", status.getCode());
         response.put("timestamp", LocalDateTime.now());
         response.put("service", "URL Shortener");
         response.put("version", "1.0.0");
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.status(httpStatus(status)).body(response);
     }
 
-    // Endpoint para verificar conexión con la BD
-    public ResponseEntity<Map<String, Object>> healthDatabase() {
+    // Endpoint para verificar si la instancia puede recibir trafico: cache caliente, pool libre y base rápida
+    @GetMapping("/readiness")
+    public ResponseEntity<HealthComponent> healthReadiness() {
+        return healthResponse(healthEndpoint.healthForPath("readiness"));
+    }
 
-        Map<String, Object> response = new HashMap<>();
+    // Endpoint para verificar conexión con la BD, latencia de la ultima consulta y estado de los pools
+    @GetMapping("/database")
+    public ResponseEntity<HealthComponent> healthDatabase() {
+        return healthResponse(healthEndpoint.healthForPath("database"));
+    }
+
+    private ResponseEntity<HealthComponent> healthResponse(HealthComponent health) {
+        return ResponseEntity.status(httpStatus(health.getStatus())).body(health);
+    }
 
-        try {
-            response.put("database", "up");
-            response.put("status", "Connected");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Database health check error", e);
-            response.put("database", "DOWN");
-            response.put("error", e.getMessage());
-            return ResponseEntity.ok(response);
-        }
+    private HttpStatus httpStatus(Status status) {
+        return Status.UP.equals(status) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
     }
 }
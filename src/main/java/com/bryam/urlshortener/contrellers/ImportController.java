@@ -0,0 +1,76 @@
+package com.bryam.urlshortener.contrellers;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.bryam.urlshortener.dto.response.ImportJobResponseDTO;
+import com.bryam.urlshortener.service.ImportJobService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class ImportController {
+
+        private final ImportJobService importJobService;
+
+        // Subir un archivo de urls para importarlas en segundo plano
+        // Cada linea es slug,url_original o solo url_original, responde con el trabajo para consultar el progreso
+        @PostMapping(path = "/api/imports", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+        public ResponseEntity<ImportJobResponseDTO> submitImport(@RequestParam("file") MultipartFile file,
+                        @RequestHeader("X-User-Id") Long userId) {
+
+                log.info("Import request from user: {} - File: {}", userId, file.getOriginalFilename());
+
+                ImportJobResponseDTO job = importJobService.submit(file, userId);
+
+                return ResponseEntity.accepted()
+                                .location(URI.create("/api/imports/" + job.getJobIdResponse()))
+                                .body(job);
+        }
+
+        // Progreso de un trabajo de importación
+        @GetMapping("/api/imports/{jobId}")
+        public ResponseEntity<ImportJobResponseDTO> getImport(@PathVariable Long jobId,
+                        @RequestHeader("X-User-Id") Long userId) {
+
+                log.debug("Obtaining import job: {} per user: {}", jobId, userId);
+
+                return ResponseEntity.ok()
+                                .cacheControl(CacheControl.noStore())
+                                .body(importJobService.getJob(jobId, userId));
+        }
+
+        // Descargar el reporte de filas rechazadas de un trabajo, en CSV
+        @GetMapping("/api/imports/{jobId}/failures")
+        public ResponseEntity<Resource> getImportFailures(@PathVariable Long jobId,
+                        @RequestHeader("X-User-Id") Long userId) {
+
+                Path report = importJobService.getFailureReport(jobId, userId);
+
+                return ResponseEntity.ok()
+                                .contentType(new MediaType("text", "csv"))
+                                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                                .filename("import-" + jobId + "-failures.csv")
+                                                .build()
+                                                .toString())
+                                .body(new FileSystemResource(report));
+        }
+}
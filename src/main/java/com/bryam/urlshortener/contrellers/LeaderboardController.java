@@ -0,0 +1,44 @@
+package com.bryam.urlshortener.contrellers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bryam.urlshortener.dto.response.LeaderboardResponseDTO;
+import com.bryam.urlshortener.model.enums.LeaderboardType;
+import com.bryam.urlshortener.service.LeaderboardService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class LeaderboardController {
+
+        private final LeaderboardService leaderboardService;
+
+        @Value("${app.leaderboards.snapshot-ms}")
+        private long snapshotMillis;
+
+        // Tabla de posiciones publica, paginada y servida desde memoria
+        // Se puede guardar en caches compartidos durante el tiempo en que la tabla ordenada se reutiliza
+        @GetMapping("/api/leaderboards/{board}")
+        public ResponseEntity<LeaderboardResponseDTO> getLeaderboard(@PathVariable LeaderboardType board,
+                        @RequestParam(name = "page", required = false) Integer page,
+                        @RequestParam(name = "size", required = false) Integer size) {
+
+                log.debug("Obtaining leaderboard: {} (page: {}, size: {})", board, page, size);
+
+                return ResponseEntity.ok()
+                                .cacheControl(CacheControl.maxAge(snapshotMillis, TimeUnit.MILLISECONDS)
+                                                .cachePublic())
+                                .body(leaderboardService.getLeaderboard(board, page, size));
+        }
+}
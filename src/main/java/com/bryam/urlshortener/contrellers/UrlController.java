@@ -1,9 +1,14 @@
 package com.bryam.urlshortener.contrellers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,13 +17,24 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.bryam.urlshortener.dto.request.ShortenUrlRequestDTO;
+import com.bryam.urlshortener.dto.request.UrlCursorDTO;
+import com.bryam.urlshortener.dto.response.ClickTimeseriesResponseDTO;
 import com.bryam.urlshortener.dto.response.ShortenUrlResponseDTO;
+import com.bryam.urlshortener.dto.response.UrlStatsResponseDTO;
 import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.RollupGranularity;
+import com.bryam.urlshortener.service.ClickRollupService;
 import com.bryam.urlshortener.service.UrlService;
+import com.bryam.urlshortener.util.HashUtil;
 import com.bryam.urlshortener.util.IpUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -31,19 +47,27 @@ import lombok.extern.slf4j.Slf4j;
 public class UrlController {
 
         private final UrlService urlService;
+        private final ClickRollupService clickRollupService;
+        private final ObjectMapper objectMapper;
+
+        @Value("${app.stats.max-age-seconds}")
+        private long statsMaxAgeSeconds;
 
         // Acortar la url para un usuario anónimo
         @PostMapping("/api/shorten")
         public ResponseEntity<ShortenUrlResponseDTO> shortenUrlAnonymous(
                         @Valid @RequestBody ShortenUrlRequestDTO request, HttpServletRequest httpRequest) {
 
-                String ip = IpUtil.getClientIpAdress(httpRequest);
-                log.info("URL shortening request from IP: {} - URL: {}", IpUtil.obfuscateIP(ip),
-                                request.getOriginalUrlRequest());
+                // Los flujos calientes escriben en DEBUG, en INFO queda la linea por muestreo de cada petición
+                if (log.isDebugEnabled()) {
+                        log.debug("URL shortening request from IP: {} - URL: {}",
+                                        IpUtil.obfuscateIP(IpUtil.getClientIpAdress(httpRequest)),
+                                        request.getOriginalUrlRequest());
+                }
 
                 ShortenUrlResponseDTO responseDTO = urlService.shortenAnonymousUrl(request, httpRequest);
 
-                log.info("URL successfully shortened: {} → {}", responseDTO.getUrlOriginalResponse(),
+                log.debug("URL successfully shortened: {} → {}", responseDTO.getUrlOriginalResponse(),
                                 responseDTO.getShortUrlResponse());
 
                 return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
@@ -52,13 +76,13 @@ public class UrlController {
         // Redirigir a la URL original a partir del código corto(shortCode)
         @GetMapping("{code}")
         @SuppressWarnings("null")
-        public ResponseEntity<ShortenUrlResponseDTO> redirect(@PathVariable String code) {
+        public ResponseEntity<ShortenUrlResponseDTO> redirect(@PathVariable String code, HttpServletRequest httpRequest) {
 
-                log.info("Redirection request for code: {}", code);
+                log.debug("Redirection request for code: {}", code);
 
-                Url url = urlService.getUrlForRedirection(code);
+                Url url = urlService.getUrlForRedirection(code, httpRequest);
 
-                log.info("Redirecting {} → {} (clicks: {})", url.getShortCode(), url.getOriginalUrl(),
+                log.debug("Redirecting {} → {} (clicks: {})", url.getShortCode(), url.getOriginalUrl(),
                                 url.getCounterClicksTotal());
 
                 // Ocurre la magia de redirigir de una url acortada
@@ -70,27 +94,52 @@ public class UrlController {
         public ResponseEntity<ShortenUrlResponseDTO> shortenAuthenticatedUrl(
                         @Valid @RequestBody ShortenUrlRequestDTO requestDTO, @RequestHeader("X-User-Id") Long userId) {
 
-                log.info("Authenticated URL shortening request - User: {} - URL: {}", userId,
+                log.debug("Authenticated URL shortening request - User: {} - URL: {}", userId,
                                 requestDTO.getOriginalUrlRequest());
 
                 ShortenUrlResponseDTO responseDTO = urlService.shortenRegisteredUrl(requestDTO, userId);
 
-                log.info("URL registrada acortada: {} → {}", requestDTO.getOriginalUrlRequest(),
+                log.debug("URL registrada acortada: {} → {}", requestDTO.getOriginalUrlRequest(),
                                 responseDTO.getUrlCodeResponse());
 
                 return ResponseEntity.status(HttpStatus.CREATED).body(responseDTO);
         }
 
-        // Obtener todas las urls de un usuario registrado
+        // Obtener las urls de un usuario registrado, por paginas con cursor
+        // La respuesta se escribe a medida que se leen las urls, sin armar la lista completa en memoria
         @GetMapping("/api/my-links")
-        public ResponseEntity<List<ShortenUrlResponseDTO>> getUrlRegisteredUser(
-                        @RequestHeader("X-User-Id") Long userId) {
+        public ResponseEntity<StreamingResponseBody> getUrlRegisteredUser(
+                        @RequestHeader("X-User-Id") Long userId,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(required = false) Integer size) {
 
                 log.info("Obtaining URLs from the user: {}", userId);
 
-                List<ShortenUrlResponseDTO> urls = urlService.getUserUrls(userId);
-
-                return ResponseEntity.ok(urls);
+                // Se valida el cursor antes de empezar a escribir la respuesta
+                UrlCursorDTO after = UrlCursorDTO.decode(cursor);
+
+                StreamingResponseBody body = outputStream -> {
+                        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                                generator.writeStartObject();
+                                generator.writeArrayFieldStart("linksResponse");
+
+                                UrlCursorDTO next = urlService.streamUserUrls(userId, after, size, link -> {
+                                        try {
+                                                objectMapper.writeValue(generator, link);
+                                        } catch (IOException e) {
+                                                throw new UncheckedIOException(e);
+                                        }
+                                });
+
+                                generator.writeEndArray();
+                                if (next != null) {
+                                        generator.writeStringField("nextCursorResponse", next.encode());
+                                }
+                                generator.writeEndObject();
+                        }
+                };
+
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
         }
 
         // Eliminar una url de un usuario registrado
@@ -121,21 +170,55 @@ public class UrlController {
                 return ResponseEntity.noContent().build();
         }
 
-        // Estadísticas básicas para una Url
+        // Estadísticas de una Url, con una sola consulta por el código corto
+        // Responde con ETag para que los paneles que consultan seguido reciban 304 sin cuerpo
         @GetMapping("/api/links/{code}/stats")
-        public ResponseEntity<ShortenUrlResponseDTO> getStatistics(@PathVariable String code,
-                        @RequestHeader("X-User-Id") Long userId) {
+        public ResponseEntity<UrlStatsResponseDTO> getStatistics(@PathVariable String code,
+                        @RequestHeader("X-User-Id") Long userId, WebRequest webRequest) {
+
+                log.debug("Obtaining URL statistics: {} per user: {}", code, userId);
+
+                UrlStatsResponseDTO stats = urlService.getUrlStatistics(code, userId);
+
+                // Si los contadores no cambiaron desde la ultima consulta se responde 304
+                String etag = buildStatsEtag(stats);
+                if (webRequest.checkNotModified(etag)) {
+                        return null;
+                }
+
+                return ResponseEntity.ok()
+                                .eTag(etag)
+                                .cacheControl(CacheControl.maxAge(statsMaxAgeSeconds, TimeUnit.SECONDS)
+                                                .cachePrivate()
+                                                .mustRevalidate())
+                                .varyBy("X-User-Id")
+                                .body(stats);
+        }
 
-                log.info("Obtaining URL statistics: {} per user: {}", code, userId);
+        // Serie de clicks de una Url por minuto, hora o dia, desde los acumulados ya calculados
+        @GetMapping("/api/links/{code}/timeseries")
+        public ResponseEntity<ClickTimeseriesResponseDTO> getTimeseries(@PathVariable String code,
+                        @RequestHeader("X-User-Id") Long userId,
+                        @RequestParam(name = "granularity", defaultValue = "HOUR") RollupGranularity granularity,
+                        @RequestParam(name = "points", required = false) Integer points) {
 
-                // En el momento solo se obtendrá información básica
-                List<ShortenUrlResponseDTO> urls = urlService.getUserUrls(userId);
+                log.debug("Obtaining URL click timeseries: {} per user: {} ({})", code, userId, granularity);
 
-                ShortenUrlResponseDTO url = urls.stream()
-                                .filter(u -> u.getShortUrlResponse().equals(code))
-                                .findFirst()
-                                .orElseThrow(() -> new RuntimeException("URL not found"));
+                return ResponseEntity.ok(clickRollupService.getTimeseries(code, userId, granularity, points));
+        }
 
-                return ResponseEntity.ok(url);
+        // Etiqueta de versión de las estadísticas, cambia cuando cambia algún contador o el estado
+        private String buildStatsEtag(UrlStatsResponseDTO stats) {
+                String version = stats.getUrlCodeResponse()
+                                + ":" + stats.getStateResponse()
+                                + ":" + stats.getCounterClicksTotalResponse()
+                                + ":" + stats.getCounterClicksSessionResponse()
+                                + ":" + stats.getCounterClicksSuspiciousResponse()
+                                + ":" + stats.getTimesReactivatedResponse()
+                                + ":" + stats.getUniqueVisitorsResponse()
+                                + ":" + stats.getUniqueVisitorsTodayResponse()
+                                + ":" + stats.getExpirationDateTimeResponse()
+                                + ":" + stats.getLastActivationDateTimeResponse();
+                return "\"" + HashUtil.extractCode(HashUtil.generateHash(version), 16) + "\"";
         }
 }
@@ -0,0 +1,61 @@
+package com.bryam.urlshortener.datasource;
+
+import java.util.function.Supplier;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+//Marca del hilo actual para forzar las lecturas a la base de datos principal
+//Se usa cuando el usuario acaba de escribir y la réplica todavía puede no tener sus cambios
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class DataSourceRoute {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    // Ejecutar una acción leyendo siempre de la principal, restaura la marca anterior al terminar
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(PRIMARY_FORCED.get());
+    }
+
+    public static void forcePrimary() {
+        PRIMARY_FORCED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PRIMARY_FORCED.remove();
+    }
+
+    // Envolver una tarea para que herede la marca del hilo que la crea, para las respuestas asíncronas
+    public static Runnable propagate(Runnable task) {
+        boolean forced = isPrimaryForced();
+        return () -> {
+            Boolean previous = PRIMARY_FORCED.get();
+            if (forced) {
+                PRIMARY_FORCED.set(Boolean.TRUE);
+            }
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(Boolean previous) {
+        if (previous == null) {
+            PRIMARY_FORCED.remove();
+        } else {
+            PRIMARY_FORCED.set(previous);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bryam.urlshortener.datasource;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+//Lee tus escrituras: si el usuario escribió hace poco, sus lecturas se fuerzan a la principal
+//Las peticiones que modifican datos (POST, PUT, DELETE) con éxito registran la escritura del usuario
+@RequiredArgsConstructor
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String USER_HEADER = "X-User-Id";
+
+    private final RecentWriteTracker recentWriteTracker;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Long userId = userId(request);
+        if (userId != null && recentWriteTracker.wroteRecently(userId)) {
+            DataSourceRoute.forcePrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        DataSourceRoute.clear();
+
+        Long userId = userId(request);
+        if (userId != null && ex == null && response.getStatus() < 400 && isWrite(request.getMethod())) {
+            recentWriteTracker.recordWrite(userId);
+        }
+    }
+
+    // Las respuestas asíncronas liberan el hilo antes de terminar, la marca viaja con la tarea
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        DataSourceRoute.clear();
+    }
+
+    private static boolean isWrite(String method) {
+        return "POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method) || "DELETE".equals(method);
+    }
+
+    private static Long userId(HttpServletRequest request) {
+        String header = request.getHeader(USER_HEADER);
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
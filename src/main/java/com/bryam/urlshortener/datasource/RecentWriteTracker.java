@@ -0,0 +1,38 @@
+package com.bryam.urlshortener.datasource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Usuarios que escribieron hace poco, sus lecturas van a la principal hasta que las réplicas los alcancen
+//La memoria se acota con un máximo de usuarios, al superarlo se quitan los vencidos
+public class RecentWriteTracker {
+
+    private final long windowMillis;
+    private final int maxUsers;
+    private final Map<Long, Long> writeExpirations = new ConcurrentHashMap<>();
+
+    public RecentWriteTracker(long windowMillis, int maxUsers) {
+        this.windowMillis = windowMillis;
+        this.maxUsers = maxUsers;
+    }
+
+    public void recordWrite(Long userId) {
+        long now = System.currentTimeMillis();
+        if (writeExpirations.size() >= maxUsers) {
+            writeExpirations.values().removeIf(expiration -> expiration <= now);
+        }
+        writeExpirations.put(userId, now + windowMillis);
+    }
+
+    public boolean wroteRecently(Long userId) {
+        Long expiration = writeExpirations.get(userId);
+        if (expiration == null) {
+            return false;
+        }
+        if (expiration <= System.currentTimeMillis()) {
+            writeExpirations.remove(userId, expiration);
+            return false;
+        }
+        return true;
+    }
+}
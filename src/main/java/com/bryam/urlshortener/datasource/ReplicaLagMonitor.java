@@ -0,0 +1,73 @@
+package com.bryam.urlshortener.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+//Mide el retraso de replicación con un latido: la principal escribe la hora en replication_heartbeat
+//y cada réplica se lee, la diferencia con la hora actual es el retraso. Las réplicas atrasadas
+//o que fallan dejan de recibir lecturas hasta que se ponen al día
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final int HEARTBEAT_ID = 1;
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final JdbcTemplate primary;
+    private final long maxLagMs;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, long maxLagMs) {
+        this.routingDataSource = routingDataSource;
+        this.primary = new JdbcTemplate(routingDataSource.getPrimary());
+        this.maxLagMs = maxLagMs;
+    }
+
+    // Tarea programada, cada instancia escribe el latido y revisa sus réplicas
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.heartbeat-interval-ms}")
+    public void scheduledCheck() {
+        try {
+            beat();
+        } catch (DataAccessException e) {
+            log.warn("Could not write the replication heartbeat: {}", e.getMessage());
+        }
+        check();
+    }
+
+    // Escribir la hora actual en la principal
+    public void beat() {
+        long now = System.currentTimeMillis();
+        if (primary.update("UPDATE replication_heartbeat SET beat_millis = ? WHERE id = ?", now, HEARTBEAT_ID) == 0) {
+            primary.update("INSERT INTO replication_heartbeat (id, beat_millis) VALUES (?, ?)", HEARTBEAT_ID, now);
+        }
+    }
+
+    // Leer el latido de cada réplica y actualizar las que pueden recibir lecturas
+    public void check() {
+        List<String> healthy = new ArrayList<>();
+
+        for (Map.Entry<String, HikariDataSource> replica : routingDataSource.getReplicas().entrySet()) {
+            try {
+                Long beat = new JdbcTemplate(replica.getValue()).queryForObject(
+                        "SELECT beat_millis FROM replication_heartbeat WHERE id = ?", Long.class, HEARTBEAT_ID);
+                long lagMs = beat == null ? Long.MAX_VALUE : System.currentTimeMillis() - beat;
+                if (lagMs <= maxLagMs) {
+                    healthy.add(replica.getKey());
+                } else {
+                    log.debug("Replica {} is lagging {} ms behind", replica.getKey(), lagMs);
+                }
+            } catch (DataAccessException e) {
+                log.debug("Replica {} heartbeat check failed: {}", replica.getKey(), e.getMessage());
+            }
+        }
+
+        routingDataSource.setHealthyReplicas(healthy);
+    }
+}
@@ -0,0 +1,34 @@
+package com.bryam.urlshortener.datasource;
+
+import java.util.function.Supplier;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+//Marca del hilo actual con la partición de urls a la que van las sentencias
+//Sin marca las sentencias van a la base de datos principal, donde están el resto de las tablas
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ShardRoute {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    // Ejecutar una acción en una partición, restaura la marca anterior al terminar
+    public static <T> T on(int shard, Supplier<T> action) {
+        Integer previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        }
+    }
+
+    // Partición del hilo actual, null si las sentencias van a la principal
+    public static Integer current() {
+        return SHARD.get();
+    }
+}
@@ -0,0 +1,55 @@
+package com.bryam.urlshortener.datasource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+//DataSource que envía las sentencias a la partición de urls marcada en el hilo con ShardRoute
+//Sin marca usa la base de datos principal
+//Debe envolverse en un LazyConnectionDataSourceProxy, así la conexión se pide cuando la transacción
+//ya corre dentro de ShardRoute.on
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String MAIN = "main";
+
+    private final HikariDataSource main;
+    private final List<HikariDataSource> shards;
+
+    public ShardRoutingDataSource(HikariDataSource main, List<HikariDataSource> shards) {
+        this.main = main;
+        this.shards = List.copyOf(shards);
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        targets.put(MAIN, main);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(main);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardRoute.current();
+        return shard != null ? shard : MAIN;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public List<HikariDataSource> getShards() {
+        return shards;
+    }
+
+    // Se cierra con el contexto de Spring
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+        main.close();
+    }
+}
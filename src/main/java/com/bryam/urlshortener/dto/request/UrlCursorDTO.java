@@ -0,0 +1,41 @@
+package com.bryam.urlshortener.dto.request;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.bryam.urlshortener.exception.InvalidCursorException;
+
+//Cursor para paginar por llave (keyset) sobre la fecha de creación y el id
+//Se envía al cliente como texto opaco en base64 para que lo devuelva en la siguiente petición
+public record UrlCursorDTO(LocalDateTime creationDateTime, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    // Convertir el cursor a texto opaco
+    public String encode() {
+        String raw = creationDateTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Reconstruir el cursor desde el texto enviado por el cliente, null si no se envió
+    public static UrlCursorDTO decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("The pagination cursor is invalid");
+            }
+            return new UrlCursorDTO(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("The pagination cursor is invalid", e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.bryam.urlshortener.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CacheRegionStatsResponseDTO {
+
+    private String regionResponse; // Nombre de la región de la cache de segundo nivel
+    private Long hitsResponse; // Lecturas resueltas desde la cache
+    private Long missesResponse; // Lecturas que tuvieron que ir a la base de datos
+    private Long putsResponse; // Entradas guardadas en la cache
+    private Double hitRatioResponse; // Aciertos sobre el total de lecturas, entre 0 y 1
+}
@@ -0,0 +1,18 @@
+package com.bryam.urlshortener.dto.response;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ClickBucketResponseDTO {
+
+    private LocalDateTime bucketStartResponse; // Inicio del intervalo en UTC
+    private Long clicksResponse; // Clicks del intervalo
+}
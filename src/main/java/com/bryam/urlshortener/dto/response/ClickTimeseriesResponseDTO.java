@@ -0,0 +1,21 @@
+package com.bryam.urlshortener.dto.response;
+
+import java.util.List;
+
+import com.bryam.urlshortener.model.enums.RollupGranularity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ClickTimeseriesResponseDTO {
+
+    private String urlCodeResponse; // Código corto de la url
+    private RollupGranularity granularityResponse; // Tamaño de cada intervalo
+    private List<ClickBucketResponseDTO> bucketsResponse; // Intervalos del mas antiguo al actual, incluye los vacíos
+}
@@ -0,0 +1,33 @@
+package com.bryam.urlshortener.dto.response;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class GlobalStatsResponseDTO {
+
+    private Long urlsTotalResponse; // Urls guardadas, activas, expiradas y eliminadas
+    private Map<StateUrl, Long> urlsByStateResponse; // Urls por estado
+    private Map<TypeUrl, Long> urlsByTypeResponse; // Urls por tipo
+    private Map<String, Long> urlsByStateAndTypeResponse; // Urls por estado y tipo, por ejemplo ACTIVE.ANONYMOUS
+    private Long clicksTotalResponse; // Clicks contados de todas las urls
+    private Long clicksSuspiciousResponse; // Clicks de bots, precargas y ráfagas
+    private Long clicksTodayResponse; // Clicks contados del dia actual (UTC)
+    private Long urlsCreatedTodayResponse; // Urls creadas en el dia actual (UTC)
+    private Map<LocalDate, Long> urlsCreatedByDayResponse; // Urls creadas por dia, ritmo de creación
+    private Map<LocalDate, Long> clicksByDayResponse; // Clicks contados por dia
+    private LocalDateTime checkpointedAtResponse; // Ultima vez que alguna instancia guardó sus incrementos
+    private LocalDateTime rebuiltAtResponse; // Ultima vez que se recalcularon los totales desde las tablas
+}
@@ -0,0 +1,30 @@
+package com.bryam.urlshortener.dto.response;
+
+import java.time.LocalDateTime;
+
+import com.bryam.urlshortener.model.enums.ImportJobState;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportJobResponseDTO {
+
+    private Long jobIdResponse; // Id del trabajo, para consultar el progreso
+    private ImportJobState stateResponse; // Estado del trabajo
+    private String fileNameResponse; // Nombre del archivo subido
+    private Long rowsReadResponse; // Lineas del archivo ya procesadas
+    private Long rowsImportedResponse; // Urls creadas
+    private Long rowsFailedResponse; // Filas rechazadas, el detalle esta en el reporte de errores
+    private Long rowsPerSecondResponse; // Ritmo de la ejecución actual
+    private String failureReportResponse; // Dirección del reporte de errores
+    private String errorResponse; // Motivo si el trabajo falló
+    private LocalDateTime createdAtResponse; // Fecha en que se subió el archivo
+    private LocalDateTime startedAtResponse; // Fecha en que empezó a procesarse
+    private LocalDateTime finishedAtResponse; // Fecha en que terminó
+}
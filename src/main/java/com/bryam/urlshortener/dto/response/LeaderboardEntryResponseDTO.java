@@ -0,0 +1,18 @@
+package com.bryam.urlshortener.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LeaderboardEntryResponseDTO {
+
+    private Integer rankResponse; // Posición, empieza en 1
+    private String urlCodeResponse; // Código corto de la url
+    private String shortUrlResponse; // Url corta completa
+    private Long scoreResponse; // Clicks o reactivaciones según la tabla
+}
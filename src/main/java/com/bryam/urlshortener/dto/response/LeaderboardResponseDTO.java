@@ -0,0 +1,25 @@
+package com.bryam.urlshortener.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.bryam.urlshortener.model.enums.LeaderboardType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LeaderboardResponseDTO {
+
+    private LeaderboardType boardResponse; // Tabla de posiciones consultada
+    private Integer pageResponse; // Pagina actual, empieza en 0
+    private Integer sizeResponse; // Tamaño de la pagina
+    private Integer totalEntriesResponse; // Posiciones disponibles en la tabla
+    private List<LeaderboardEntryResponseDTO> entriesResponse; // Posiciones de la pagina
+    private LocalDateTime generatedAtResponse; // Momento en que se ordenó la tabla
+}
@@ -0,0 +1,29 @@
+package com.bryam.urlshortener.dto.response;
+
+import java.time.LocalDateTime;
+
+import com.bryam.urlshortener.model.enums.StateUrl;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UrlStatsResponseDTO {
+
+    private String urlCodeResponse; // Código corto de la url
+    private StateUrl stateResponse; // Estado actual de la url
+    private LocalDateTime createDateTimeResponse; // Fecha y hora de creación
+    private LocalDateTime expirationDateTimeResponse; // null para usuarios registrados
+    private LocalDateTime lastActivationDateTimeResponse; // Ultima activación
+    private Integer counterClicksTotalResponse; // Clicks totales
+    private Integer counterClicksSessionResponse; // Clicks desde la ultima activación, aproximado
+    private Integer counterClicksSuspiciousResponse; // Clicks de bots, excluidos de los contadores
+    private Integer timesReactivatedResponse; // Veces reactivada
+    private Long uniqueVisitorsResponse; // Visitantes únicos estimados de toda la vida
+    private Long uniqueVisitorsTodayResponse; // Visitantes únicos estimados del dia actual (UTC)
+}
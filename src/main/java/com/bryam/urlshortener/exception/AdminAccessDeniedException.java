@@ -0,0 +1,10 @@
+package com.bryam.urlshortener.exception;
+
+//Clase de excepcion personalizada para cuando una petición administrativa no trae un token valido
+public class AdminAccessDeniedException extends RuntimeException {
+
+    //Constructor que recibe un mensaje de error
+    public AdminAccessDeniedException(String message) {
+        super(message);
+    }
+}
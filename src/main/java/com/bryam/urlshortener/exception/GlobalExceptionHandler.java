@@ -8,8 +8,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.HandlerMapping;
 
 import com.bryam.urlshortener.dto.response.ErrorResponseDTO;
+import com.bryam.urlshortener.metrics.UrlPipelineMetrics;
 
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -19,6 +22,12 @@ import jakarta.servlet.http.HttpServletRequest;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final UrlPipelineMetrics pipelineMetrics;
+
+    public GlobalExceptionHandler(UrlPipelineMetrics pipelineMetrics) {
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
         //Excepciones personalizadas
     
     @ExceptionHandler(UrlNotFoundException.class)
@@ -34,7 +43,7 @@ public class GlobalExceptionHandler {
                 .path(request.getRequestURI())
                 .build();
 
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            return reject(HttpStatus.NOT_FOUND, ex, request, errorResponse);
             }
 
     @ExceptionHandler(UrlExpiredException.class)
@@ -56,7 +65,7 @@ public class GlobalExceptionHandler {
                 .path(request.getRequestURI())
                 .build();
 
-            return ResponseEntity.status(HttpStatus.GONE).body(errorResponse);
+            return reject(HttpStatus.GONE, ex, request, errorResponse);
             }
 
     @ExceptionHandler(InvalidUrlException.class)
@@ -72,7 +81,7 @@ public class GlobalExceptionHandler {
                 .path(request.getRequestURI())
                 .build();
 
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(errorResponse);
+            return reject(HttpStatus.TOO_MANY_REQUESTS, ex, request, errorResponse);
             }
 
     @ExceptionHandler(CodeExistsException.class)
@@ -92,7 +101,7 @@ public class GlobalExceptionHandler {
                 .path(request.getRequestURI())
                 .build();
 
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+            return reject(HttpStatus.CONFLICT, ex, request, errorResponse);
             }
 
     @ExceptionHandler(RateLimitExceededException.class)
@@ -117,7 +126,87 @@ public class GlobalExceptionHandler {
                 .path(request.getRequestURI())
                 .build();
             
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(erroeResponse);
+            return reject(HttpStatus.TOO_MANY_REQUESTS, ex, request, erroeResponse);
+        }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidCursorException(
+        InvalidCursorException ex,
+        HttpServletRequest request) {
+
+            ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error("Bad Request")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+            return reject(HttpStatus.BAD_REQUEST, ex, request, errorResponse);
+        }
+
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidImportFileException(
+        InvalidImportFileException ex,
+        HttpServletRequest request) {
+
+            ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error("Bad Request")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+            return reject(HttpStatus.BAD_REQUEST, ex, request, errorResponse);
+        }
+
+    @ExceptionHandler(ImportJobNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleImportJobNotFoundException(
+        ImportJobNotFoundException ex,
+        HttpServletRequest request) {
+
+            ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.NOT_FOUND.value())
+                .error("Not Found")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+            return reject(HttpStatus.NOT_FOUND, ex, request, errorResponse);
+        }
+
+    @ExceptionHandler(AdminAccessDeniedException.class)
+    public ResponseEntity<ErrorResponseDTO> handleAdminAccessDeniedException(
+        AdminAccessDeniedException ex,
+        HttpServletRequest request) {
+
+            ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.FORBIDDEN.value())
+                .error("Forbidden")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+            return reject(HttpStatus.FORBIDDEN, ex, request, errorResponse);
+        }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponseDTO> handleTypeMismatchException(
+        MethodArgumentTypeMismatchException ex,
+        HttpServletRequest request) {
+
+            ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error("Bad Request")
+                .message("Invalid value for parameter '" + ex.getName() + "': " + ex.getValue())
+                .path(request.getRequestURI())
+                .build();
+
+            return reject(HttpStatus.BAD_REQUEST, ex, request, errorResponse);
         }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -139,7 +228,7 @@ public class GlobalExceptionHandler {
                 .path(request.getRequestURI())
                 .build();
 
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            return reject(HttpStatus.BAD_REQUEST, ex, request, errorResponse);
         }
 
     @ExceptionHandler(Exception.class)
@@ -157,7 +246,22 @@ public class GlobalExceptionHandler {
                 .path(request.getRequestURI())
                 .build();
 
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            return reject(HttpStatus.INTERNAL_SERVER_ERROR, ex, request, errorResponse);
+        }
+
+
+    // Contar el rechazo por motivo, estado y endpoint antes de armar la respuesta
+    // Se usa el patrón del endpoint y no la ruta, para no crear una serie por cada código corto
+    private ResponseEntity<ErrorResponseDTO> reject(
+        HttpStatus status,
+        Exception ex,
+        HttpServletRequest request,
+        ErrorResponseDTO errorResponse) {
+
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            pipelineMetrics.rejection(ex.getClass().getSimpleName(), status.value(),
+                pattern != null ? pattern.toString() : "unknown");
+            return ResponseEntity.status(status).body(errorResponse);
         }
 
         // Futuramente para Url eliminadas
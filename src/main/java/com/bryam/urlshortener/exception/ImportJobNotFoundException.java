@@ -0,0 +1,10 @@
+package com.bryam.urlshortener.exception;
+
+//Clase de excepcion personalizada para cuando un trabajo de importación no existe o es de otro usuario
+public class ImportJobNotFoundException extends RuntimeException {
+
+    //Constructor que recibe un mensaje de error
+    public ImportJobNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.bryam.urlshortener.exception;
+
+//Clase de excepcion personalizada para cuando el cursor de paginación no es valido
+public class InvalidCursorException extends RuntimeException {
+
+    //Constructor que recibe un mensaje de error
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    //Constructor que recibe un mensaje de error y una causa
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.bryam.urlshortener.exception;
+
+//Clase de excepcion personalizada para cuando el archivo de una importación no se puede aceptar
+public class InvalidImportFileException extends RuntimeException {
+
+    //Constructor que recibe un mensaje de error
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+
+    //Constructor que recibe un mensaje de error y una causa
+    public InvalidImportFileException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
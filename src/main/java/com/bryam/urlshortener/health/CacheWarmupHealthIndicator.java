@@ -0,0 +1,76 @@
+package com.bryam.urlshortener.health;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.bryam.urlshortener.model.enums.LeaderboardType;
+import com.bryam.urlshortener.service.LeaderboardService;
+import com.bryam.urlshortener.store.UrlStore;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+//Carga las urls con mas clicks en la cache de segundo nivel antes de recibir trafico
+//La instancia no esta lista hasta terminar, las primeras redirecciones no van todas a la base de datos
+//Los índices del almacenamiento embebido se construyen antes de este evento, la tabla de posiciones por clicks
+//se reconstruye en el mismo evento con mayor prioridad y sus códigos son los que se cargan, sin otra consulta
+@Slf4j
+@Component("cacheWarmup")
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final UrlStore urlStore;
+    private final LeaderboardService leaderboardService;
+
+    @Value("${app.health.warmup.urls}")
+    private int warmupUrls;
+
+    private volatile boolean warm;
+    private volatile int warmedUrls;
+    private volatile long warmupMs;
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        int loaded = 0;
+        try {
+            if (warmupUrls > 0) {
+                // Solo urls activas, cargar cada una por su código llena la cache por id y por código
+                List<String> hottest = leaderboardService.topShortCodes(LeaderboardType.CLICKS, warmupUrls);
+                for (String shortCode : hottest) {
+                    if (urlStore.findByShortCode(shortCode).isPresent()) {
+                        loaded++;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Sin la cache caliente la instancia funciona igual, no se deja fuera de servicio para siempre
+            log.error("Cache warm-up failed after {} URLs", loaded, e);
+        }
+
+        warmedUrls = loaded;
+        warmupMs = System.currentTimeMillis() - start;
+        warm = true;
+        log.info("Cache warmed up with {} URLs in {} ms", warmedUrls, warmupMs);
+    }
+
+    @Override
+    public Health health() {
+        if (!warm) {
+            return Health.outOfService().withDetail("warming", true).build();
+        }
+        return Health.up()
+                .withDetail("urls", warmedUrls)
+                .withDetail("durationMs", warmupMs)
+                .build();
+    }
+}
@@ -0,0 +1,136 @@
+package com.bryam.urlshortener.health;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bryam.urlshortener.datasource.ReplicaRoutingDataSource;
+import com.bryam.urlshortener.datasource.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+//Disponibilidad de la base de datos para el grupo de readiness
+//Fuera de servicio si algún pool de conexiones esta saturado o si la ultima consulta de prueba fue lenta,
+//así el balanceador deja de enviar peticiones antes de que se acumulen esperando una conexión
+//La consulta de prueba la ejecuta una tarea programada, la sonda solo lee el ultimo resultado
+@Slf4j
+@Component("database")
+public class DatabaseHealthIndicator implements HealthIndicator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final int maxPendingConnections;
+    private final long maxLatencyMs;
+
+    // Resultado de la ultima consulta de prueba, -1 mientras no haya ninguna
+    private volatile long latencyMs = -1;
+    private volatile String error;
+
+    public DatabaseHealthIndicator(DataSource dataSource, MeterRegistry meterRegistry,
+            ObjectProvider<HikariDataSource> hikariDataSources,
+            ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+            ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+            @Value("${app.health.readiness.max-pending-connections}") int maxPendingConnections,
+            @Value("${app.health.readiness.max-db-latency-ms}") long maxLatencyMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxPendingConnections = maxPendingConnections;
+        this.maxLatencyMs = maxLatencyMs;
+
+        // Una base que no responde no debe retener la tarea mucho mas que el limite de latencia
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxLatencyMs * 4)));
+
+        // Los pools de la principal son beans, los de las réplicas y particiones los crean sus DataSource
+        hikariDataSources.orderedStream().forEach(pools::add);
+        replicaRoutingDataSource.ifAvailable(routing -> pools.addAll(routing.getReplicas().values()));
+        shardRoutingDataSource.ifAvailable(routing -> pools.addAll(routing.getShards()));
+    }
+
+    // Tarea programada, mide una consulta mínima a la base de datos principal
+    // Con el pool saturado no se mide, pedir una conexión bloquearía las demás tareas programadas
+    @Scheduled(fixedDelayString = "${app.health.readiness.check-interval-ms}")
+    public void check() {
+        if (pools.stream().anyMatch(this::saturated)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            error = null;
+        } catch (DataAccessException e) {
+            log.warn("Database readiness check failed: {}", e.getMessage());
+            latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            error = e.getMessage();
+        }
+    }
+
+    @Override
+    public Health health() {
+        Map<String, Object> poolDetails = new LinkedHashMap<>();
+        boolean saturated = false;
+        for (HikariDataSource pool : pools) {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            if (mxBean != null) {
+                poolDetails.put(pool.getPoolName(), poolDetails(pool, mxBean));
+                saturated |= saturated(pool);
+            }
+        }
+
+        Health.Builder health;
+        if (error != null) {
+            health = Health.down().withDetail("error", error);
+        } else if (saturated || latencyMs > maxLatencyMs) {
+            health = Health.outOfService();
+        } else {
+            health = Health.up();
+        }
+        return health
+                .withDetail("latencyMs", latencyMs)
+                .withDetail("maxLatencyMs", maxLatencyMs)
+                .withDetail("pools", poolDetails)
+                .build();
+    }
+
+    // Todas las conexiones en uso y al menos max-pending-connections hilos esperando una
+    private boolean saturated(HikariDataSource pool) {
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        return mxBean != null
+                && mxBean.getIdleConnections() == 0
+                && mxBean.getThreadsAwaitingConnection() >= maxPendingConnections;
+    }
+
+    // Estado actual del pool, el tiempo de espera sale del timer hikaricp.connections.acquire
+    private Map<String, Object> poolDetails(HikariDataSource pool, HikariPoolMXBean mxBean) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("active", mxBean.getActiveConnections());
+        details.put("idle", mxBean.getIdleConnections());
+        details.put("pending", mxBean.getThreadsAwaitingConnection());
+        details.put("max", pool.getMaximumPoolSize());
+
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool.getPoolName()).timer();
+        if (acquire != null) {
+            details.put("acquireMeanMs", acquire.mean(TimeUnit.MILLISECONDS));
+            details.put("acquireMaxMs", acquire.max(TimeUnit.MILLISECONDS));
+        }
+        return details;
+    }
+}
@@ -0,0 +1,110 @@
+package com.bryam.urlshortener.journal;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import lombok.extern.slf4j.Slf4j;
+
+//Lector del diario de clicks para reproducir los registros desde una posición
+//Cada segmento se lee hasta el primer registro vacío o dañado, lo que queda después de una
+//caída a mitad de escritura se descarta y se continua con el siguiente segmento
+@Slf4j
+public class ClickJournalReader {
+
+    private final Path directory;
+
+    public ClickJournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    // Reproducir los registros posteriores a la posición indicada
+    // El consumidor recibe cada registro y la posición después de el, para guardarla como avance
+    // Retorna la posición final de la lectura
+    public JournalPosition replay(JournalPosition from, BiConsumer<ClickRecord, JournalPosition> consumer)
+            throws IOException {
+
+        JournalPosition last = from;
+
+        for (Path segment : listSegments()) {
+            long sequence = JournalSegment.parseSequence(segment);
+            if (sequence < from.segment()) {
+                continue;
+            }
+
+            int startOffset = sequence == from.segment()
+                    ? Math.max(from.offset(), JournalSegment.HEADER_SIZE)
+                    : JournalSegment.HEADER_SIZE;
+            last = replaySegment(segment, sequence, startOffset, consumer, last);
+        }
+
+        return last;
+    }
+
+    // Segmentos del directorio ordenados por numero de secuencia
+    public List<Path> listSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> JournalSegment.parseSequence(path) >= 0)
+                    .sorted((a, b) -> Long.compare(JournalSegment.parseSequence(a), JournalSegment.parseSequence(b)))
+                    .toList();
+        }
+    }
+
+    private JournalPosition replaySegment(Path segment, long sequence, int offset,
+            BiConsumer<ClickRecord, JournalPosition> consumer, JournalPosition last) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+
+            if (buffer.capacity() < JournalSegment.HEADER_SIZE || buffer.getInt(0) != JournalSegment.MAGIC) {
+                log.warn("Skipping click journal file with invalid header: {}", segment);
+                return last;
+            }
+
+            CRC32C crc = new CRC32C();
+            int position = offset;
+
+            while (position + JournalSegment.RECORD_HEADER_SIZE <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                int payloadStart = position + JournalSegment.RECORD_HEADER_SIZE;
+
+                // Largo en cero es el final de los datos del segmento
+                if (length <= 0 || payloadStart + length > buffer.capacity()) {
+                    break;
+                }
+
+                crc.reset();
+                crc.update(buffer.slice(payloadStart, length));
+                if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                    log.warn("Torn or corrupt record in {} at offset {}, skipping rest of segment", segment, position);
+                    break;
+                }
+
+                long timestamp = buffer.getLong(payloadStart);
+                long ipHash = buffer.getLong(payloadStart + Long.BYTES);
+                int codeLength = buffer.getShort(payloadStart + 2 * Long.BYTES);
+                byte[] code = new byte[codeLength];
+                buffer.get(payloadStart + 2 * Long.BYTES + Short.BYTES, code);
+
+                position = payloadStart + length;
+                last = new JournalPosition(sequence, position);
+                consumer.accept(new ClickRecord(new String(code, StandardCharsets.US_ASCII), timestamp, ipHash), last);
+            }
+        }
+
+        return last;
+    }
+}
@@ -0,0 +1,6 @@
+package com.bryam.urlshortener.journal;
+
+//Registro compacto de un click para el diario de clicks
+//La ip nunca se guarda, solo su hash
+public record ClickRecord(String shortCode, long timestampMillis, long ipHash) {
+}
@@ -0,0 +1,72 @@
+package com.bryam.urlshortener.journal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Cola circular acotada sin bloqueos, varios productores y un solo consumidor
+//Los hilos de las peticiones publican los clicks y un único hilo escritor los vacía al diario
+//Cada casilla tiene su propio numero de secuencia, así los productores no usan locks
+public class ClickRingBuffer {
+
+    private final ClickRecord[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+
+    // Solo lo modifica el hilo consumidor
+    private long head;
+
+    public ClickRingBuffer(int capacity) {
+        // La capacidad se redondea a potencia de dos para calcular la casilla con una mascara
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.buffer = new ClickRecord[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // Publicar un registro, retorna false si la cola esta llena, nunca bloquea al productor
+    public boolean offer(ClickRecord clickRecord) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index] = clickRecord;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    // Sacar el siguiente registro, retorna null si la cola esta vacía
+    // Solo debe llamarlo el hilo consumidor
+    public ClickRecord poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+
+        ClickRecord clickRecord = buffer[index];
+        buffer[index] = null;
+        sequences.lazySet(index, head + buffer.length);
+        head++;
+        return clickRecord;
+    }
+
+    // Cantidad aproximada de registros pendientes
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+}
@@ -0,0 +1,15 @@
+package com.bryam.urlshortener.journal;
+
+//Posición dentro del diario, numero de segmento y desplazamiento dentro del segmento
+//Los consumidores la guardan para retomar la lectura donde quedaron
+public record JournalPosition(long segment, int offset) implements Comparable<JournalPosition> {
+
+    // Posición inicial, antes del primer registro del primer segmento
+    public static final JournalPosition START = new JournalPosition(0L, 0);
+
+    @Override
+    public int compareTo(JournalPosition other) {
+        int bySegment = Long.compare(segment, other.segment);
+        return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+    }
+}
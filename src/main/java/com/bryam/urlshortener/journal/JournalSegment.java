@@ -0,0 +1,127 @@
+package com.bryam.urlshortener.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+//Segmento del diario de clicks, un archivo de tamaño fijo mapeado en memoria
+//Formato de cada registro: [largo:int][crc:int][fecha:long][hash ip:long][largo código:short][código]
+//El largo se escribe al final, así un lector nunca ve un registro a medio escribir
+//Si el proceso se cae, los registros escritos quedan en el cache de paginas del sistema operativo
+public class JournalSegment implements AutoCloseable {
+
+    // Encabezado del archivo, numero mágico y version del formato
+    public static final int MAGIC = 0x434c4b31; // "CLK1"
+    public static final int HEADER_SIZE = 8;
+    public static final int RECORD_HEADER_SIZE = 8;
+    public static final int MAX_CODE_LENGTH = 255;
+
+    private static final String PREFIX = "clicks-";
+    private static final String SUFFIX = ".seg";
+
+    private final long sequence;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long createdAtMillis;
+    private final CRC32C crc = new CRC32C();
+
+    private JournalSegment(long sequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.createdAtMillis = System.currentTimeMillis();
+    }
+
+    // Crear un segmento nuevo del tamaño indicado, el archivo se llena de ceros al mapearlo
+    public static JournalSegment create(Path directory, long sequence, int size) throws IOException {
+        Path path = directory.resolve(fileName(sequence));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, 1);
+        buffer.position(HEADER_SIZE);
+        return new JournalSegment(sequence, path, channel, buffer);
+    }
+
+    // Escribir un registro, retorna false si no cabe y hay que pasar al siguiente segmento
+    public boolean append(ClickRecord clickRecord) {
+        byte[] code = clickRecord.shortCode().getBytes(StandardCharsets.US_ASCII);
+        int codeLength = Math.min(code.length, MAX_CODE_LENGTH);
+        int payloadLength = Long.BYTES + Long.BYTES + Short.BYTES + codeLength;
+        int start = buffer.position();
+
+        // Se deja espacio para el largo del siguiente registro en cero, que marca el final
+        if (start + RECORD_HEADER_SIZE + payloadLength + Integer.BYTES > buffer.capacity()) {
+            return false;
+        }
+
+        int payloadStart = start + RECORD_HEADER_SIZE;
+        buffer.position(payloadStart);
+        buffer.putLong(clickRecord.timestampMillis());
+        buffer.putLong(clickRecord.ipHash());
+        buffer.putShort((short) codeLength);
+        buffer.put(code, 0, codeLength);
+        int end = buffer.position();
+
+        crc.reset();
+        crc.update(buffer.slice(payloadStart, payloadLength));
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+        // El largo va de ultimo, es lo que hace visible el registro
+        buffer.putInt(start, payloadLength);
+
+        buffer.position(end);
+        return true;
+    }
+
+    // Forzar que las paginas modificadas se escriban a disco
+    public void force() {
+        buffer.force();
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public int position() {
+        return buffer.position();
+    }
+
+    public long createdAtMillis() {
+        return createdAtMillis;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    // Nombre del archivo de un segmento, con ceros a la izquierda para que se ordenen por nombre
+    public static String fileName(long sequence) {
+        return String.format("%s%020d%s", PREFIX, sequence, SUFFIX);
+    }
+
+    // Obtener el numero de segmento desde el nombre del archivo, -1 si no es un segmento
+    public static long parseSequence(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.bryam.urlshortener.leaderboard;
+
+//Posición de una url en una tabla de posiciones
+public record LeaderboardEntry(Long urlId, String shortCode, long score) {
+}
@@ -0,0 +1,169 @@
+package com.bryam.urlshortener.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Tabla de posiciones acotada con los K ids de mayor puntaje
+//Los miembros suman puntos sin bloqueo, solo la entrada y la salida de miembros toman el bloqueo,
+//y un puntaje que no supera el mínimo de una tabla llena se descarta sin bloquear
+//El orden se calcula al leer y la misma copia ordenada se comparte entre lecturas por un tiempo corto
+public class TopKBoard {
+
+    private static final Comparator<LeaderboardEntry> BY_SCORE = Comparator
+            .comparingLong(LeaderboardEntry::score).reversed()
+            .thenComparing(LeaderboardEntry::urlId);
+
+    private final int capacity;
+    private final long snapshotMillis;
+    private final Map<Long, Member> members = new ConcurrentHashMap<>();
+
+    // Puntaje mínimo para entrar cuando la tabla esta llena
+    private volatile long threshold = Long.MIN_VALUE;
+    // Ultima copia ordenada, null cuando se debe volver a calcular
+    private volatile Snapshot snapshot;
+
+    public TopKBoard(int capacity, long snapshotMillis) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.snapshotMillis = snapshotMillis;
+    }
+
+    // Sumar un punto a un miembro, si no es miembro se propone con el puntaje indicado
+    public void increment(Long id, String shortCode, long scoreIfAbsent) {
+        Member member = members.get(id);
+        if (member != null) {
+            member.score.incrementAndGet();
+            return;
+        }
+        offer(id, shortCode, scoreIfAbsent);
+    }
+
+    // Proponer un puntaje, un miembro se queda con el mayor entre el actual y el propuesto
+    public void offer(Long id, String shortCode, long score) {
+        Member member = members.get(id);
+        if (member != null) {
+            member.score.accumulateAndGet(score, Math::max);
+            return;
+        }
+
+        if (score <= threshold) {
+            return;
+        }
+
+        synchronized (this) {
+            member = members.get(id);
+            if (member != null) {
+                member.score.accumulateAndGet(score, Math::max);
+                return;
+            }
+
+            if (members.size() >= capacity) {
+                Member min = findMin();
+                if (score <= min.score.get()) {
+                    threshold = min.score.get();
+                    return;
+                }
+                members.remove(min.id, min);
+            }
+
+            members.put(id, new Member(id, shortCode, score));
+            updateThreshold();
+        }
+    }
+
+    // Fijar el puntaje exacto de un miembro, si ya no pertenece a la tabla se ignora
+    // Después de fijar varios puntajes se debe llamar a updateThreshold
+    public void set(Long id, long score) {
+        Member member = members.get(id);
+        if (member != null) {
+            member.score.set(score);
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        if (members.remove(id) != null) {
+            updateThreshold();
+        }
+    }
+
+    // Reemplazar todos los miembros, se conservan los K de mayor puntaje
+    public synchronized void replaceAll(List<LeaderboardEntry> entries) {
+        members.clear();
+        entries.stream()
+                .sorted(BY_SCORE)
+                .limit(capacity)
+                .forEach(entry -> members.put(entry.urlId(),
+                        new Member(entry.urlId(), entry.shortCode(), entry.score())));
+        updateThreshold();
+        snapshot = null;
+    }
+
+    // Recalcular el puntaje mínimo, solo restringe la entrada cuando la tabla esta llena
+    public synchronized void updateThreshold() {
+        threshold = members.size() >= capacity ? findMin().score.get() : Long.MIN_VALUE;
+    }
+
+    // Miembros ordenados por puntaje, la copia se reutiliza mientras no sea mas vieja que snapshotMillis
+    public List<LeaderboardEntry> snapshot(long nowMillis) {
+        Snapshot current = snapshot;
+        if (current != null && nowMillis - current.takenAtMillis < snapshotMillis) {
+            return current.entries;
+        }
+
+        List<LeaderboardEntry> entries = new ArrayList<>(members.size());
+        for (Member member : members.values()) {
+            entries.add(new LeaderboardEntry(member.id, member.shortCode, member.score.get()));
+        }
+        entries.sort(BY_SCORE);
+
+        List<LeaderboardEntry> sorted = List.copyOf(entries);
+        snapshot = new Snapshot(sorted, nowMillis);
+        return sorted;
+    }
+
+    public Set<Long> memberIds() {
+        return Set.copyOf(members.keySet());
+    }
+
+    public int size() {
+        return members.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Recorre los miembros, solo se usa al expulsar, K es pequeño
+    private Member findMin() {
+        Member min = null;
+        for (Member member : members.values()) {
+            if (min == null || member.score.get() < min.score.get()) {
+                min = member;
+            }
+        }
+        return min;
+    }
+
+    private static final class Member {
+
+        private final Long id;
+        private final String shortCode;
+        private final AtomicLong score;
+
+        private Member(Long id, String shortCode, long score) {
+            this.id = id;
+            this.shortCode = shortCode;
+            this.score = new AtomicLong(score);
+        }
+    }
+
+    private record Snapshot(List<LeaderboardEntry> entries, long takenAtMillis) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.bryam.urlshortener.logging;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+//Una linea de log por petición, solo para una muestra de las peticiones de cada endpoint
+//Los flujos de redirigir y acortar ya no escriben en INFO, esta linea los reemplaza
+//Las respuestas con error del servidor y las peticiones lentas se escriben siempre
+@Slf4j
+public class SampledRequestLogInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = SampledRequestLogInterceptor.class.getName() + ".start";
+
+    // Proporción por patrón del endpoint, los que no aparecen usan la proporción por defecto
+    private final Map<String, Double> sampleRates;
+    private final double defaultSampleRate;
+    private final long slowThresholdNanos;
+
+    public SampledRequestLogInterceptor(Map<String, Double> sampleRates, double defaultSampleRate,
+            long slowThresholdMillis) {
+        this.sampleRates = Map.copyOf(sampleRates);
+        this.defaultSampleRate = defaultSampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // En el despacho que termina una respuesta asíncrona se conserva el inicio de la petición original
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        if (!log.isInfoEnabled() || !(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        int status = response.getStatus();
+        String endpoint = endpoint(request);
+        double sampleRate = sampleRates.getOrDefault(endpoint, defaultSampleRate);
+
+        // Primero los casos que se escriben siempre, para no sortear cuando no hace falta
+        boolean always = status >= 500 || ex != null || elapsed >= slowThresholdNanos;
+        if (!always && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+
+        log.atInfo()
+                .setMessage("request")
+                .addKeyValue("method", request.getMethod())
+                .addKeyValue("endpoint", endpoint)
+                .addKeyValue("status", status)
+                .addKeyValue("ms", TimeUnit.NANOSECONDS.toMillis(elapsed))
+                .addKeyValue("sample", always ? 1.0 : sampleRate)
+                .log();
+    }
+
+    // Se usa el patrón y no la ruta, así la linea no lleva el código corto ni ids
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "unknown";
+    }
+}
@@ -0,0 +1,99 @@
+package com.bryam.urlshortener.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+//Métricas por etapa de los flujos de acortar y redirigir
+//Cuando sube el p99 se ve que etapa lo explica: validación, hash, colisiones, limite de uso, INSERT o búsqueda
+//Todas las etapas van en el timer urls.pipeline.stage con las etiquetas pipeline y stage, el histograma
+//para calcular percentiles se activa en application.properties
+@Component
+public class UrlPipelineMetrics {
+
+    public static final String SHORTEN_ANONYMOUS = "shorten_anonymous";
+    public static final String SHORTEN_REGISTERED = "shorten_registered";
+    public static final String REDIRECT = "redirect";
+
+    private final MeterRegistry meterRegistry;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    // Un timer por flujo y etapa, y un contador por largo y resultado, se crean al primer uso
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> codeAttempts = new ConcurrentHashMap<>();
+
+    public UrlPipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.cacheHits = lookupCounter("hit");
+        this.cacheMisses = lookupCounter("miss");
+    }
+
+    // Medir una etapa, el tiempo se registra también si la etapa termina con una excepción
+    public <T> T time(String pipeline, String stage, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            stageTimer(pipeline, stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void time(String pipeline, String stage, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            stageTimer(pipeline, stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Cada intento de código hash por largo, si el código ya estaba en uso es una colisión
+    public void codeAttempt(int length, boolean collision) {
+        String result = collision ? "collision" : "free";
+        codeAttempts.computeIfAbsent(length + result, key -> Counter.builder("urls.shorten.code.attempts")
+                .description("Hash code candidates checked per length when shortening anonymous URLs")
+                .tag("length", String.valueOf(length))
+                .tag("result", result)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    // Búsqueda por código corto resuelta con la cache de segundo nivel, o con al menos una consulta
+    public void cacheLookup(boolean hit) {
+        (hit ? cacheHits : cacheMisses).increment();
+    }
+
+    // Petición rechazada por GlobalExceptionHandler, por excepción, estado y patrón del endpoint
+    public void rejection(String reason, int status, String endpoint) {
+        Counter.builder("urls.rejections")
+                .description("Requests rejected by the exception handler")
+                .tag("reason", reason)
+                .tag("status", String.valueOf(status))
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer stageTimer(String pipeline, String stage) {
+        return stageTimers.computeIfAbsent(pipeline + "." + stage, key -> Timer.builder("urls.pipeline.stage")
+                .description("Time spent in each stage of the shorten and redirect pipelines")
+                .tag("pipeline", pipeline)
+                .tag("stage", stage)
+                .register(meterRegistry));
+    }
+
+    private Counter lookupCounter(String result) {
+        return Counter.builder("urls.lookup.cache")
+                .description("URL lookups by short code served by the second-level cache or the database")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,60 @@
+package com.bryam.urlshortener.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Estadística global del sistema, mantenida por incrementos y no por agregados sobre la tabla urls
+//Los totales se guardan con el dia LIFETIME_DAY, los valores diarios con su dia (UTC)
+//Cada instancia suma sus incrementos pendientes a la fila, sin pisar los de las demás
+@Entity
+@Table(name = "global_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_global_stats_key_day", columnNames = { "stat_key", "bucket_day" })
+}, indexes = {
+        // Índice para la limpieza de los valores diarios vencidos
+        @Index(name = "idx_global_stats_day", columnList = "bucket_day")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GlobalStat {
+
+    // Dia reservado para los totales
+    public static final LocalDate LIFETIME_DAY = LocalDate.EPOCH;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Nombre de la estadística, por ejemplo urls.ACTIVE.ANONYMOUS o clicks
+    @Column(name = "stat_key", nullable = false, length = 64)
+    private String statKey;
+
+    // Dia del valor, o LIFETIME_DAY
+    @Column(name = "bucket_day", nullable = false)
+    private LocalDate bucketDay;
+
+    @Column(name = "stat_value", nullable = false)
+    private Long statValue;
+
+    // Ultima vez que se sumaron incrementos
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Ultima vez que la reconstrucción fijó el valor desde las tablas, null si solo recibió incrementos
+    @Column(name = "rebuilt_at")
+    private LocalDateTime rebuiltAt;
+}
@@ -0,0 +1,36 @@
+package com.bryam.urlshortener.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Progreso guardado de las tareas por bloques
+//Permite retomar una tarea desde el ultimo id procesado si se detuvo a mitad de camino
+@Entity
+@Table(name = "job_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobCheckpoint {
+
+    // Nombre de la tarea
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    // Ultimo id procesado por la tarea
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    // Fecha de la ultima actualización del progreso
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
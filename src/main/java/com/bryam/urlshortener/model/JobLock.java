@@ -0,0 +1,40 @@
+package com.bryam.urlshortener.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Bloqueo compartido en base de datos para las tareas programadas
+//Evita que varias instancias de la aplicación ejecuten el mismo trabajo al mismo tiempo
+@Entity
+@Table(name = "job_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobLock {
+
+    // Nombre de la tarea que se bloquea
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    // Hasta cuando es valido el bloqueo, pasado este tiempo otra instancia lo puede tomar
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    // Momento en que se tomo el bloqueo
+    @Column(name = "locked_at", nullable = false)
+    private LocalDateTime lockedAt;
+
+    // Instancia que tiene el bloqueo
+    @Column(name = "locked_by", nullable = false, length = 128)
+    private String lockedBy;
+}
@@ -0,0 +1,26 @@
+package com.bryam.urlshortener.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Latido de replicación, la principal escribe la hora y las réplicas se leen para medir su retraso
+//Tiene una sola fila, se accede por JDBC desde el monitor de réplicas
+@Entity
+@Table(name = "replication_heartbeat")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicationHeartbeat {
+
+    @Id
+    private Integer id;
+
+    // Hora del ultimo latido en milisegundos desde epoch
+    @Column(name = "beat_millis", nullable = false)
+    private Long beatMillis;
+}
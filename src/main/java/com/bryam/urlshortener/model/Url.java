@@ -2,9 +2,16 @@ package com.bryam.urlshortener.model;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import com.bryam.urlshortener.model.enums.StateUrl;
 import com.bryam.urlshortener.model.enums.TypeUrl;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -12,6 +19,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -19,18 +27,40 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+//Las urls se guardan en la cache de segundo nivel, por id y por código corto (natural id)
+//Las sentencias directas sobre la tabla urls deben sacar de la cache las filas que modifican
 @Entity
-@Table(name = "urls")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Url.CACHE_REGION)
+@NaturalIdCache(region = Url.NATURAL_ID_CACHE_REGION)
+@DynamicUpdate
+@Table(name = "urls", indexes = {
+        // Índice para el barrido de urls anónimas vencidas
+        @Index(name = "idx_urls_type_state_expiration", columnList = "type_url, state_url, expiration_date"),
+        // Índice para paginar las urls de un usuario por fecha de creación e id
+        @Index(name = "idx_urls_user_creation", columnList = "user_id, creation_date, id"),
+        // Índice para mover al archivo las urls eliminadas y las expiradas hace tiempo
+        @Index(name = "idx_urls_state_expiration", columnList = "state_url, expiration_date"),
+        // Índices para reconstruir las tablas de posiciones, el ORDER BY con LIMIT lee solo las primeras filas
+        @Index(name = "idx_urls_state_clicks", columnList = "state_url, counter_clicks_total"),
+        @Index(name = "idx_urls_state_reactivated", columnList = "state_url, times_reactivated")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder(toBuilder = true)
 public class Url {
 
+    // Regiones de la cache de segundo nivel, la entidad y la resolución del código corto al id
+    public static final String CACHE_REGION = "urls";
+    public static final String NATURAL_ID_CACHE_REGION = "urls-natural-id";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Mutable porque las urls con código base62 reciben su código después de obtener el id
+    @NaturalId(mutable = true)
     @Column(name = "short_code", nullable = false, unique = true, length = 10)
     private String shortCode;
 
@@ -60,12 +90,18 @@ public class Url {
     @Column(name = "full_hash", nullable = true, unique = true, length = 64)
     private String fullHash;
 
+    // Los contadores de una url leída de la cache pueden estar atrasados hasta app.cache.urls.ttl-seconds,
+    // la compactación de clicks no saca las urls de la cache
     @Column(name = "counter_clicks_total")
     private Integer counterClicksTotal;
 
     @Column(name = "counter_clicks_session")
     private Integer counterClicksSession;
 
+    // Clicks de bots, precargas y ráfagas, separados de los contadores que se cobran
+    @Column(name = "counter_clicks_suspicious")
+    private Integer counterClicksSuspicious;
+
     @Column(name = "times_reactivated")
     private Integer timesReactivated;
 
@@ -86,6 +122,9 @@ public class Url {
         if (counterClicksSession == null) {
             counterClicksSession = 0;
         }
+        if (counterClicksSuspicious == null) {
+            counterClicksSuspicious = 0;
+        }
         if (timesReactivated == null) {
             timesReactivated = 0;
         }
@@ -0,0 +1,84 @@
+package com.bryam.urlshortener.model;
+
+import java.time.LocalDateTime;
+
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Urls frías: eliminadas o expiradas hace tiempo, movidas fuera de la tabla urls
+//Conservan el id original, así sus contadores siguen asociados y se pueden restaurar
+//El código corto y el hash siguen siendo únicos para que nunca se reutilicen
+@Entity
+@Table(name = "urls_archive", indexes = {
+        // Índice para la purga de urls archivadas vencidas hace mucho tiempo
+        @Index(name = "idx_urls_archive_state_expiration", columnList = "state_url, expiration_date, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UrlArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "short_code", nullable = false, unique = true, length = 10)
+    private String shortCode;
+
+    @Column(name = "original_url", nullable = false, columnDefinition = "TEXT")
+    private String originalUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type_url", nullable = false, length = 10)
+    private TypeUrl typeUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state_url", nullable = false, length = 10)
+    private StateUrl stateUrl;
+
+    @Column(name = "creation_date", nullable = false)
+    private LocalDateTime creationDateTime;
+
+    @Column(name = "expiration_date")
+    private LocalDateTime expirationDateTime;
+
+    @Column(name = "last_activation_date")
+    private LocalDateTime lastActivationDateTime;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "full_hash", nullable = true, unique = true, length = 64)
+    private String fullHash;
+
+    @Column(name = "counter_clicks_total")
+    private Integer counterClicksTotal;
+
+    @Column(name = "counter_clicks_session")
+    private Integer counterClicksSession;
+
+    @Column(name = "counter_clicks_suspicious")
+    private Integer counterClicksSuspicious;
+
+    @Column(name = "times_reactivated")
+    private Integer timesReactivated;
+
+    @Column(name = "is_perzonalized", nullable = false)
+    private Boolean isPerzonalized;
+
+    // Fecha en que se movió al archivo
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
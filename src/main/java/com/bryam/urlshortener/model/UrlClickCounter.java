@@ -0,0 +1,47 @@
+package com.bryam.urlshortener.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Contador de clicks repartido en varias filas (shards) por url
+//Cada click suma en una fila elegida al azar, así los clicks de una url popular no compiten
+//por la misma fila de la tabla urls. Los clicks pendientes se pasan a la url periódicamente
+@Entity
+@Table(name = "url_click_counters", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_click_counters_url_shard", columnNames = { "url_id", "shard" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UrlClickCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Url a la que pertenece el contador
+    @Column(name = "url_id", nullable = false)
+    private Long urlId;
+
+    // Numero de la fila del contador para la url
+    @Column(name = "shard", nullable = false)
+    private Integer shard;
+
+    // Clicks pendientes de pasar a la url
+    @Column(name = "clicks", nullable = false)
+    private Integer clicks;
+
+    // Clicks sospechosos (bots, precargas, ráfagas) pendientes, no cuentan para los contadores de la url
+    @Column(name = "suspicious_clicks", nullable = false)
+    private Integer suspiciousClicks;
+}
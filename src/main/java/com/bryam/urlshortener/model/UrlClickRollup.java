@@ -0,0 +1,58 @@
+package com.bryam.urlshortener.model;
+
+import java.time.LocalDateTime;
+
+import com.bryam.urlshortener.model.enums.RollupGranularity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Clicks acumulados de una url en un intervalo de tiempo (minuto, hora o dia)
+//Solo se guardan los intervalos con clicks, las consultas nunca recorren clicks individuales
+@Entity
+@Table(name = "url_click_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_click_rollups_url_granularity_bucket",
+                columnNames = { "url_id", "granularity", "bucket_start" })
+}, indexes = {
+        // Índice para la limpieza de intervalos vencidos por granularidad
+        @Index(name = "idx_click_rollups_granularity_bucket", columnList = "granularity, bucket_start")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UrlClickRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Url a la que pertenece el acumulado
+    @Column(name = "url_id", nullable = false)
+    private Long urlId;
+
+    // Tamaño del intervalo
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private RollupGranularity granularity;
+
+    // Inicio del intervalo en UTC
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    // Clicks del intervalo
+    @Column(name = "clicks", nullable = false)
+    private Long clicks;
+}
@@ -0,0 +1,57 @@
+package com.bryam.urlshortener.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Sketch HyperLogLog de los visitantes únicos de una url en un dia (UTC)
+//El sketch de toda la vida de la url se guarda con el dia LIFETIME_DAY
+//Cada instancia une sus visitantes a la fila tomando el máximo de cada registro
+@Entity
+@Table(name = "url_visitor_sketches", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_visitor_sketches_url_day", columnNames = { "url_id", "bucket_day" })
+}, indexes = {
+        // Índice para la limpieza de los sketches diarios vencidos
+        @Index(name = "idx_visitor_sketches_day", columnList = "bucket_day")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UrlVisitorSketch {
+
+    // Dia reservado para el sketch de toda la vida de la url
+    public static final LocalDate LIFETIME_DAY = LocalDate.EPOCH;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Url a la que pertenece el sketch
+    @Column(name = "url_id", nullable = false)
+    private Long urlId;
+
+    // Dia del sketch, o LIFETIME_DAY
+    @Column(name = "bucket_day", nullable = false)
+    private LocalDate bucketDay;
+
+    // Registros del HyperLogLog
+    @Column(name = "registers", nullable = false, length = 4096)
+    private byte[] registers;
+
+    // Ultima vez que se unieron visitantes
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,11 @@
+package com.bryam.urlshortener.model.enums;
+
+//Formatos de la exportación masiva de urls
+public enum ExportFormat {
+
+    // Un objeto JSON por linea
+    NDJSON,
+
+    // Valores separados por coma con una fila de encabezado
+    CSV
+}
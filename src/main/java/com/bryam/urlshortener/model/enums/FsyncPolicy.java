@@ -0,0 +1,14 @@
+package com.bryam.urlshortener.model.enums;
+
+//Cuando se sincroniza con el disco el registro del almacenamiento embebido
+public enum FsyncPolicy {
+
+    // Después de cada escritura, no se pierde ninguna escritura confirmada
+    ALWAYS,
+
+    // Cada cierto intervalo, se pueden perder las escrituras del ultimo intervalo
+    INTERVAL,
+
+    // Lo decide el sistema operativo
+    NEVER
+}
@@ -0,0 +1,17 @@
+package com.bryam.urlshortener.model.enums;
+
+//Estados de un trabajo de importación masiva
+public enum ImportJobState {
+
+    // Archivo recibido, esperando un hilo libre
+    QUEUED,
+
+    // Leyendo el archivo y guardando las urls por bloques
+    RUNNING,
+
+    // Archivo leído completo, las filas con errores están en el reporte
+    COMPLETED,
+
+    // Se detuvo por un error que no es de una fila, por ejemplo de lectura del archivo
+    FAILED
+}
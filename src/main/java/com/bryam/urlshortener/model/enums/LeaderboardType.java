@@ -0,0 +1,11 @@
+package com.bryam.urlshortener.model.enums;
+
+//Tablas de posiciones publicas
+public enum LeaderboardType {
+
+    // Urls con mas clicks contados
+    CLICKS,
+
+    // Urls anónimas reactivadas mas veces
+    REUSED
+}
@@ -0,0 +1,28 @@
+package com.bryam.urlshortener.model.enums;
+
+import java.time.Duration;
+
+//Granularidad de los acumulados de clicks por tiempo
+//Cada una define el tamaño del intervalo y cuantos intervalos se guardan en memoria por url
+public enum RollupGranularity {
+
+    MINUTE(Duration.ofMinutes(1), 120),
+    HOUR(Duration.ofHours(1), 48),
+    DAY(Duration.ofDays(1), 60);
+
+    private final long bucketMillis;
+    private final int ringSize;
+
+    RollupGranularity(Duration bucket, int ringSize) {
+        this.bucketMillis = bucket.toMillis();
+        this.ringSize = ringSize;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    public int getRingSize() {
+        return ringSize;
+    }
+}
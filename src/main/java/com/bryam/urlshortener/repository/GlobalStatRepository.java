@@ -0,0 +1,68 @@
+package com.bryam.urlshortener.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bryam.urlshortener.model.GlobalStat;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface GlobalStatRepository extends JpaRepository<GlobalStat, Long> {
+
+        // Sumar un incremento a una estadística, la crea si todavía no existe
+        // Es aditivo, así varias instancias pueden guardar sus incrementos sin pisarse
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "global_stats"))
+        @Query(value = "INSERT INTO global_stats (stat_key, bucket_day, stat_value, updated_at) "
+                        + "VALUES (:statKey, :bucketDay, :delta, :updatedAt) "
+                        + "ON DUPLICATE KEY UPDATE stat_value = stat_value + :delta, updated_at = :updatedAt",
+                        nativeQuery = true)
+        int addValue(
+                        @Param("statKey") String statKey,
+                        @Param("bucketDay") LocalDate bucketDay,
+                        @Param("delta") Long delta,
+                        @Param("updatedAt") LocalDateTime updatedAt);
+
+        // Reemplazar el valor de una estadística, usado al reconstruir los totales
+        // Marca la fila como reconstruida con la misma fecha
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "global_stats"))
+        @Query(value = "INSERT INTO global_stats (stat_key, bucket_day, stat_value, updated_at, rebuilt_at) "
+                        + "VALUES (:statKey, :bucketDay, :value, :updatedAt, :updatedAt) "
+                        + "ON DUPLICATE KEY UPDATE stat_value = :value, updated_at = :updatedAt, "
+                        + "rebuilt_at = :updatedAt",
+                        nativeQuery = true)
+        int setValue(
+                        @Param("statKey") String statKey,
+                        @Param("bucketDay") LocalDate bucketDay,
+                        @Param("value") Long value,
+                        @Param("updatedAt") LocalDateTime updatedAt);
+
+        // Totales y valores diarios desde una fecha, la tabla tiene pocas filas
+        @Query("SELECT s FROM GlobalStat s WHERE s.bucketDay = :lifetimeDay OR s.bucketDay >= :from")
+        List<GlobalStat> findLifetimeAndSince(
+                        @Param("lifetimeDay") LocalDate lifetimeDay,
+                        @Param("from") LocalDate from);
+
+        // Verificar si los totales ya se inicializaron, alguna reconstrucción fijó sus valores
+        boolean existsByBucketDayAndRebuiltAtIsNotNull(LocalDate bucketDay);
+
+        // Eliminar los valores diarios anteriores a una fecha, los totales se conservan
+        @Modifying
+        @Transactional
+        @Query("DELETE FROM GlobalStat s WHERE s.bucketDay < :before AND s.bucketDay > :lifetimeDay")
+        int deleteDailyOlderThan(
+                        @Param("before") LocalDate before,
+                        @Param("lifetimeDay") LocalDate lifetimeDay);
+}
@@ -0,0 +1,21 @@
+package com.bryam.urlshortener.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.bryam.urlshortener.model.ImportJob;
+import com.bryam.urlshortener.model.enums.ImportJobState;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+
+        // Buscar un trabajo por id y dueño
+        Optional<ImportJob> findByIdAndUserId(Long id, Long userId);
+
+        // Trabajos sin terminar, para retomarlos al iniciar la aplicación
+        List<ImportJob> findByStateInOrderById(Collection<ImportJobState> states);
+}
@@ -0,0 +1,53 @@
+package com.bryam.urlshortener.repository;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bryam.urlshortener.model.JobLock;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+        // Tomar el bloqueo solo si esta libre o ya venció, retorna las filas afectadas
+        @Modifying
+        @Transactional
+        @Query("UPDATE JobLock j SET j.lockedUntil = :lockedUntil, j.lockedAt = :now, j.lockedBy = :lockedBy "
+                        + "WHERE j.name = :name AND j.lockedUntil <= :now")
+        int acquire(
+                        @Param("name") String name,
+                        @Param("lockedBy") String lockedBy,
+                        @Param("now") LocalDateTime now,
+                        @Param("lockedUntil") LocalDateTime lockedUntil);
+
+        // Crear el registro del bloqueo la primera vez que se ejecuta la tarea
+        // Si otra instancia lo crea al mismo tiempo falla por la llave primaria
+        @Modifying
+        @Transactional
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_locks"))
+        @Query(value = "INSERT INTO job_locks (name, locked_until, locked_at, locked_by) "
+                        + "VALUES (:name, :lockedUntil, :now, :lockedBy)", nativeQuery = true)
+        int insert(
+                        @Param("name") String name,
+                        @Param("lockedBy") String lockedBy,
+                        @Param("now") LocalDateTime now,
+                        @Param("lockedUntil") LocalDateTime lockedUntil);
+
+        // Liberar el bloqueo solo si lo tiene la misma instancia
+        @Modifying
+        @Transactional
+        @Query("UPDATE JobLock j SET j.lockedUntil = :now WHERE j.name = :name AND j.lockedBy = :lockedBy")
+        int release(
+                        @Param("name") String name,
+                        @Param("lockedBy") String lockedBy,
+                        @Param("now") LocalDateTime now);
+}
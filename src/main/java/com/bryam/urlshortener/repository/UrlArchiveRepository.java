@@ -0,0 +1,102 @@
+package com.bryam.urlshortener.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bryam.urlshortener.model.UrlArchive;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.repository.projection.StateTypeCountProjection;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface UrlArchiveRepository extends JpaRepository<UrlArchive, Long> {
+
+        // Buscar una url archivada por su código corto
+        Optional<UrlArchive> findByShortCode(String shortCode);
+
+        // Buscar una url archivada por su hash completo
+        Optional<UrlArchive> findByFullHash(String fullHash);
+
+        // Verificar si un código corto ya fue usado por una url archivada
+        boolean existsByShortCode(String shortCode);
+
+        // Códigos cortos de un bloque usados por urls archivadas, no se reutilizan
+        @Query("SELECT a.shortCode FROM UrlArchive a WHERE a.shortCode IN :shortCodes")
+        List<String> findExistingShortCodes(@Param("shortCodes") Collection<String> shortCodes);
+
+        // Copiar al archivo un bloque de urls frías, validando el estado de nuevo en la misma sentencia
+        // Eliminadas, o expiradas antes de la fecha indicada
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "urls_archive"))
+        @Query(value = "INSERT INTO urls_archive (id, short_code, original_url, type_url, state_url, creation_date, "
+                        + "expiration_date, last_activation_date, user_id, full_hash, counter_clicks_total, "
+                        + "counter_clicks_session, counter_clicks_suspicious, times_reactivated, is_perzonalized, "
+                        + "archived_at) "
+                        + "SELECT id, short_code, original_url, type_url, state_url, creation_date, "
+                        + "expiration_date, last_activation_date, user_id, full_hash, counter_clicks_total, "
+                        + "counter_clicks_session, counter_clicks_suspicious, times_reactivated, is_perzonalized, "
+                        + ":archivedAt FROM urls WHERE id IN :ids "
+                        + "AND (state_url = 'DELETED' OR (state_url = 'EXPIRED' AND expiration_date < :expiredBefore))",
+                        nativeQuery = true)
+        int copyFromUrls(
+                        @Param("ids") List<Long> ids,
+                        @Param("expiredBefore") LocalDateTime expiredBefore,
+                        @Param("archivedAt") LocalDateTime archivedAt);
+
+        // Devolver una url archivada a la tabla urls, con su id y sus contadores
+        // Quien la llama saca el id de la cache de segundo nivel antes de volver a leer la url
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = UrlRepository.URL_ROWS_SPACE))
+        @Query(value = "INSERT INTO urls (id, short_code, original_url, type_url, state_url, creation_date, "
+                        + "expiration_date, last_activation_date, user_id, full_hash, counter_clicks_total, "
+                        + "counter_clicks_session, counter_clicks_suspicious, times_reactivated, is_perzonalized) "
+                        + "SELECT id, short_code, original_url, type_url, state_url, creation_date, "
+                        + "expiration_date, last_activation_date, user_id, full_hash, counter_clicks_total, "
+                        + "counter_clicks_session, counter_clicks_suspicious, times_reactivated, is_perzonalized "
+                        + "FROM urls_archive WHERE id = :id AND state_url = :stateUrl", nativeQuery = true)
+        int copyToUrls(
+                        @Param("id") Long id,
+                        @Param("stateUrl") String stateUrl);
+
+        // Para limpieza física selectiva, buscar por bloques los ids de Urls archivadas muertas
+        // Vencidas hace mucho tiempo, o vencidas hace menos tiempo pero con pocos clicks
+        @Query("SELECT a.id FROM UrlArchive a WHERE a.stateUrl = :stateUrl AND a.id > :lastId "
+                        + "AND (a.expirationDateTime < :deadBefore "
+                        + "OR (a.expirationDateTime < :lowValueBefore AND a.counterClicksTotal < :minClicks)) "
+                        + "ORDER BY a.id")
+        List<Long> findIdsToPurge(
+                        @Param("stateUrl") StateUrl stateUrl,
+                        @Param("deadBefore") LocalDateTime deadBefore,
+                        @Param("lowValueBefore") LocalDateTime lowValueBefore,
+                        @Param("minClicks") Integer minClicks,
+                        @Param("lastId") Long lastId,
+                        Limit limit);
+
+        // Cantidad de urls y clicks agrupados por estado y tipo, solo para reconstruir las estadísticas globales
+        @Query("SELECT new com.bryam.urlshortener.repository.projection.StateTypeCountProjection("
+                        + "a.stateUrl, a.typeUrl, COUNT(a), COALESCE(SUM(a.counterClicksTotal), 0), "
+                        + "COALESCE(SUM(a.counterClicksSuspicious), 0)) "
+                        + "FROM UrlArchive a GROUP BY a.stateUrl, a.typeUrl")
+        List<StateTypeCountProjection> countByStateAndType();
+
+        // Eliminar un bloque acotado de urls archivadas, validando de nuevo el estado
+        @Modifying
+        @Transactional
+        @Query("DELETE FROM UrlArchive a WHERE a.id IN :ids AND a.stateUrl = :stateUrl")
+        int deleteByIdsAndStateUrl(
+                        @Param("ids") List<Long> ids,
+                        @Param("stateUrl") StateUrl stateUrl);
+}
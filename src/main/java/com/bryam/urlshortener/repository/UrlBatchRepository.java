@@ -0,0 +1,17 @@
+package com.bryam.urlshortener.repository;
+
+import java.util.List;
+
+import com.bryam.urlshortener.model.Url;
+
+//Escrituras por lotes de JDBC sobre la tabla urls, para las importaciones masivas
+//Hibernate no agrupa los INSERT de entidades con id IDENTITY, aquí se envía un solo lote por bloque
+public interface UrlBatchRepository {
+
+        // Insertar un bloque de urls nuevas en un solo lote y asignarles el id generado
+        // En MySQL rewriteBatchedStatements=true en la URL de conexión lo convierte en INSERT de varias filas
+        void insertBatch(List<Url> urls);
+
+        // Cambiar el código corto de urls ya insertadas, en un solo lote
+        void updateShortCodes(List<Url> urls);
+}
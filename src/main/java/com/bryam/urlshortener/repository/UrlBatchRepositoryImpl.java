@@ -0,0 +1,107 @@
+package com.bryam.urlshortener.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.Session;
+
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.StateUrl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+//Implementación del fragmento de UrlRepository con lotes de JDBC sobre la conexión de la transacción actual
+//Las filas nuevas no están en la cache de segundo nivel, no hace falta sacar nada de ella
+public class UrlBatchRepositoryImpl implements UrlBatchRepository {
+
+        private static final String INSERT_URL = "INSERT INTO urls (short_code, original_url, type_url, state_url, "
+                        + "creation_date, expiration_date, last_activation_date, user_id, full_hash, "
+                        + "counter_clicks_total, counter_clicks_session, counter_clicks_suspicious, "
+                        + "times_reactivated, is_perzonalized) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0, ?)";
+
+        private static final String UPDATE_SHORT_CODE = "UPDATE urls SET short_code = ? WHERE id = ?";
+
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        @Override
+        public void insertBatch(List<Url> urls) {
+                if (urls.isEmpty()) {
+                        return;
+                }
+
+                // Mismos valores iniciales que asigna la entidad al persistirse
+                LocalDateTime now = LocalDateTime.now();
+                urls.forEach(url -> {
+                        url.setCreationDateTime(now);
+                        url.setLastActivationDateTime(now);
+                        url.setStateUrl(url.getStateUrl() != null ? url.getStateUrl() : StateUrl.ACTIVE);
+                        url.setCounterClicksTotal(0);
+                        url.setCounterClicksSession(0);
+                        url.setCounterClicksSuspicious(0);
+                        url.setTimesReactivated(0);
+                        url.setIsPerzonalized(Boolean.TRUE.equals(url.getIsPerzonalized()));
+                });
+
+                entityManager.unwrap(Session.class).doWork(connection -> {
+                        try (PreparedStatement statement = connection.prepareStatement(INSERT_URL,
+                                        Statement.RETURN_GENERATED_KEYS)) {
+                                for (Url url : urls) {
+                                        statement.setString(1, url.getShortCode());
+                                        statement.setString(2, url.getOriginalUrl());
+                                        statement.setString(3, url.getTypeUrl().name());
+                                        statement.setString(4, url.getStateUrl().name());
+                                        statement.setTimestamp(5, Timestamp.valueOf(now));
+                                        statement.setTimestamp(6, url.getExpirationDateTime() != null
+                                                        ? Timestamp.valueOf(url.getExpirationDateTime())
+                                                        : null);
+                                        statement.setTimestamp(7, Timestamp.valueOf(now));
+                                        if (url.getUserId() != null) {
+                                                statement.setLong(8, url.getUserId());
+                                        } else {
+                                                statement.setNull(8, Types.BIGINT);
+                                        }
+                                        statement.setString(9, url.getFullHash());
+                                        statement.setBoolean(10, url.getIsPerzonalized());
+                                        statement.addBatch();
+                                }
+                                statement.executeBatch();
+
+                                // Los ids generados llegan en el mismo orden de las filas del lote
+                                try (ResultSet keys = statement.getGeneratedKeys()) {
+                                        for (Url url : urls) {
+                                                if (!keys.next()) {
+                                                        throw new IllegalStateException(
+                                                                        "Missing generated id for " + url.getShortCode());
+                                                }
+                                                url.setId(keys.getLong(1));
+                                        }
+                                }
+                        }
+                });
+        }
+
+        @Override
+        public void updateShortCodes(List<Url> urls) {
+                if (urls.isEmpty()) {
+                        return;
+                }
+
+                entityManager.unwrap(Session.class).doWork(connection -> {
+                        try (PreparedStatement statement = connection.prepareStatement(UPDATE_SHORT_CODE)) {
+                                for (Url url : urls) {
+                                        statement.setString(1, url.getShortCode());
+                                        statement.setLong(2, url.getId());
+                                        statement.addBatch();
+                                }
+                                statement.executeBatch();
+                        }
+                });
+        }
+}
@@ -0,0 +1,91 @@
+package com.bryam.urlshortener.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bryam.urlshortener.model.UrlClickCounter;
+import com.bryam.urlshortener.repository.projection.PendingClicksProjection;
+import com.bryam.urlshortener.repository.projection.UrlClicksProjection;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface UrlClickCounterRepository extends JpaRepository<UrlClickCounter, Long> {
+
+        // Sumar un click en una fila del contador, la crea si todavía no existe
+        // Se hace en una sola sentencia para no leer la fila antes de escribirla
+        @Modifying
+        @Transactional
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "url_click_counters"))
+        @Query(value = "INSERT INTO url_click_counters (url_id, shard, clicks, suspicious_clicks) "
+                        + "VALUES (:urlId, :shard, 1, 0) "
+                        + "ON DUPLICATE KEY UPDATE clicks = clicks + 1", nativeQuery = true)
+        int increment(
+                        @Param("urlId") Long urlId,
+                        @Param("shard") Integer shard);
+
+        // Sumar un click sospechoso en una fila del contador, la crea si todavía no existe
+        @Modifying
+        @Transactional
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "url_click_counters"))
+        @Query(value = "INSERT INTO url_click_counters (url_id, shard, clicks, suspicious_clicks) "
+                        + "VALUES (:urlId, :shard, 0, 1) "
+                        + "ON DUPLICATE KEY UPDATE suspicious_clicks = suspicious_clicks + 1", nativeQuery = true)
+        int incrementSuspicious(
+                        @Param("urlId") Long urlId,
+                        @Param("shard") Integer shard);
+
+        // Clicks pendientes de una url, suma de todas sus filas
+        @Query("SELECT new com.bryam.urlshortener.repository.projection.PendingClicksProjection("
+                        + "COALESCE(SUM(c.clicks), 0), COALESCE(SUM(c.suspiciousClicks), 0)) "
+                        + "FROM UrlClickCounter c WHERE c.urlId = :urlId")
+        PendingClicksProjection sumClicksByUrlId(@Param("urlId") Long urlId);
+
+        // Clicks pendientes de varias urls, una fila por url con contadores
+        @Query("SELECT new com.bryam.urlshortener.repository.projection.UrlClicksProjection("
+                        + "c.urlId, COALESCE(SUM(c.clicks), 0)) FROM UrlClickCounter c "
+                        + "WHERE c.urlId IN :urlIds GROUP BY c.urlId")
+        List<UrlClicksProjection> sumClicksByUrlIds(@Param("urlIds") Collection<Long> urlIds);
+
+        // Clicks pendientes de todas las urls, solo para reconstruir las estadísticas globales
+        @Query("SELECT new com.bryam.urlshortener.repository.projection.PendingClicksProjection("
+                        + "COALESCE(SUM(c.clicks), 0), COALESCE(SUM(c.suspiciousClicks), 0)) FROM UrlClickCounter c")
+        PendingClicksProjection sumAllClicks();
+
+        // Buscar por bloques las filas con clicks pendientes de compactar
+        @Query("SELECT c FROM UrlClickCounter c WHERE (c.clicks > 0 OR c.suspiciousClicks > 0) "
+                        + "AND c.id > :lastId ORDER BY c.id")
+        List<UrlClickCounter> findPending(
+                        @Param("lastId") Long lastId,
+                        Limit limit);
+
+        // Restar los clicks ya pasados a la url, los clicks que llegaron mientras tanto se conservan
+        @Modifying
+        @Query("UPDATE UrlClickCounter c SET c.clicks = c.clicks - :clicks, "
+                        + "c.suspiciousClicks = c.suspiciousClicks - :suspiciousClicks WHERE c.id = :id")
+        int subtractClicks(
+                        @Param("id") Long id,
+                        @Param("clicks") Integer clicks,
+                        @Param("suspiciousClicks") Integer suspiciousClicks);
+
+        // Eliminar las filas que quedaron en cero, un click nuevo vuelve a crear la fila
+        @Modifying
+        @Query("DELETE FROM UrlClickCounter c WHERE c.id IN :ids AND c.clicks = 0 AND c.suspiciousClicks = 0")
+        int deleteEmpty(@Param("ids") List<Long> ids);
+
+        // Eliminar los contadores de urls que se eliminan físicamente
+        @Modifying
+        @Transactional
+        @Query("DELETE FROM UrlClickCounter c WHERE c.urlId IN :urlIds")
+        int deleteByUrlIds(@Param("urlIds") List<Long> urlIds);
+}
@@ -0,0 +1,57 @@
+package com.bryam.urlshortener.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bryam.urlshortener.model.UrlClickRollup;
+import com.bryam.urlshortener.model.enums.RollupGranularity;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface UrlClickRollupRepository extends JpaRepository<UrlClickRollup, Long> {
+
+        // Sumar clicks a un intervalo, lo crea si todavía no existe
+        // Es aditivo, así varias instancias pueden guardar sus acumulados sin pisarse
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "url_click_rollups"))
+        @Query(value = "INSERT INTO url_click_rollups (url_id, granularity, bucket_start, clicks) "
+                        + "VALUES (:urlId, :granularity, :bucketStart, :clicks) "
+                        + "ON DUPLICATE KEY UPDATE clicks = clicks + :clicks", nativeQuery = true)
+        int addClicks(
+                        @Param("urlId") Long urlId,
+                        @Param("granularity") String granularity,
+                        @Param("bucketStart") LocalDateTime bucketStart,
+                        @Param("clicks") Long clicks);
+
+        // Intervalos guardados de una url desde una fecha, usa el índice único
+        @Query("SELECT r FROM UrlClickRollup r WHERE r.urlId = :urlId AND r.granularity = :granularity "
+                        + "AND r.bucketStart >= :from ORDER BY r.bucketStart")
+        List<UrlClickRollup> findBuckets(
+                        @Param("urlId") Long urlId,
+                        @Param("granularity") RollupGranularity granularity,
+                        @Param("from") LocalDateTime from);
+
+        // Eliminar los intervalos mas viejos que la retención de su granularidad
+        @Modifying
+        @Transactional
+        @Query("DELETE FROM UrlClickRollup r WHERE r.granularity = :granularity AND r.bucketStart < :before")
+        int deleteOlderThan(
+                        @Param("granularity") RollupGranularity granularity,
+                        @Param("before") LocalDateTime before);
+
+        // Eliminar los acumulados de urls que se eliminan físicamente
+        @Modifying
+        @Transactional
+        @Query("DELETE FROM UrlClickRollup r WHERE r.urlId IN :urlIds")
+        int deleteByUrlIds(@Param("urlIds") List<Long> urlIds);
+}
@@ -0,0 +1,17 @@
+package com.bryam.urlshortener.repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import com.bryam.urlshortener.model.Url;
+
+//Acceso a las urls por su natural id, pasando por la cache de segundo nivel
+public interface UrlNaturalIdRepository {
+
+        // Buscar una url por su código corto, si esta en la cache no se consulta la base de datos
+        Optional<Url> findByNaturalId(String shortCode);
+
+        // Sacar de la cache las urls modificadas con sentencias directas
+        // Si hay una transacción activa se sacan de nuevo al confirmar, por si otra lectura las volvió a guardar
+        void evictFromCache(Collection<Long> ids);
+}
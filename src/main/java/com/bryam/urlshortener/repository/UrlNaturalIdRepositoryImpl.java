@@ -0,0 +1,111 @@
+package com.bryam.urlshortener.repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+import org.hibernate.Session;
+import org.hibernate.SessionEventListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bryam.urlshortener.metrics.UrlPipelineMetrics;
+import com.bryam.urlshortener.model.Url;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+//Implementación del fragmento de UrlRepository que usa la API de natural id de Hibernate
+public class UrlNaturalIdRepositoryImpl implements UrlNaturalIdRepository {
+
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        private final UrlPipelineMetrics pipelineMetrics;
+
+        // Un probe por sesión, se registra en la primera búsqueda y se reinicia en las siguientes
+        // Las claves son débiles, la entrada desaparece cuando la sesión cerrada ya no se usa
+        private final Map<Session, StatementProbe> probes = Collections.synchronizedMap(new WeakHashMap<>());
+
+        public UrlNaturalIdRepositoryImpl(UrlPipelineMetrics pipelineMetrics) {
+                this.pipelineMetrics = pipelineMetrics;
+        }
+
+        @Override
+        @Transactional(readOnly = true)
+        public Optional<Url> findByNaturalId(String shortCode) {
+                // El EntityManager inyectado es un proxy compartido, getSession entrega la sesión de esta transacción
+                Session session = entityManager.unwrap(SessionImplementor.class).getSession();
+
+                // Si la búsqueda no ejecuta ninguna consulta se resolvió con la cache, cuenta como acierto
+                StatementProbe probe = probes.computeIfAbsent(session, key -> {
+                        StatementProbe created = new StatementProbe();
+                        key.addEventListeners(created);
+                        return created;
+                });
+                probe.start();
+                try {
+                        return session.bySimpleNaturalId(Url.class).loadOptional(shortCode);
+                } finally {
+                        pipelineMetrics.cacheLookup(probe.stop() == 0);
+                }
+        }
+
+        @Override
+        public void evictFromCache(Collection<Long> ids) {
+                if (ids.isEmpty()) {
+                        return;
+                }
+
+                List<Long> evicted = List.copyOf(ids);
+                evict(evicted);
+
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                                @Override
+                                public void afterCommit() {
+                                        evict(evicted);
+                                }
+                        });
+                }
+        }
+
+        private void evict(List<Long> ids) {
+                org.hibernate.Cache cache = entityManager.getEntityManagerFactory()
+                                .unwrap(SessionFactory.class)
+                                .getCache();
+                ids.forEach(id -> cache.evictEntityData(Url.class, id));
+        }
+
+        // La sesión no permite quitar listeners, entre búsquedas el probe queda inactivo
+        // Una sesión la usa un solo hilo a la vez, los campos no necesitan sincronización
+        private static class StatementProbe implements SessionEventListener {
+
+                private boolean active;
+                private int statements;
+
+                private void start() {
+                        statements = 0;
+                        active = true;
+                }
+
+                // Consultas ejecutadas desde start
+                private int stop() {
+                        active = false;
+                        return statements;
+                }
+
+                @Override
+                public void jdbcExecuteStatementStart() {
+                        if (active) {
+                                statements++;
+                        }
+                }
+        }
+}
@@ -1,26 +1,41 @@
 package com.bryam.urlshortener.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.bryam.urlshortener.model.Url;
 import com.bryam.urlshortener.model.enums.StateUrl;
 import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.repository.projection.LeaderboardScoreProjection;
+import com.bryam.urlshortener.repository.projection.StateTypeCountProjection;
+import com.bryam.urlshortener.repository.projection.UrlExportProjection;
+import com.bryam.urlshortener.repository.projection.UrlStatsProjection;
+import com.bryam.urlshortener.repository.projection.UrlSummaryProjection;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
-public interface UrlRepository extends JpaRepository<Url, Long> {
+public interface UrlRepository extends JpaRepository<Url, Long>, UrlNaturalIdRepository, UrlBatchRepository {
+
+        // Espacio de las sentencias nativas que modifican filas de urls
+        // Sin espacio Hibernate vacía toda la cache de segundo nivel en cada sentencia,
+        // con este espacio no vacía ninguna región y quien las llama saca de la cache solo los ids modificados
+        String URL_ROWS_SPACE = "urls_rows";
 
-        // Buscar una Url por su código corto
-        Optional<Url> findByShortCode(String shortCode);
+        // Las búsquedas por código corto usan findByNaturalId, que pasa por la cache de segundo nivel
 
         // Buscar una Url por su código corto y estado
         Optional<Url> findByShortCodeAndStateUrl(String shortCode, StateUrl stateUrl);
@@ -28,36 +43,166 @@ public interface UrlRepository extends JpaRepository<Url, Long> {
         // Buscar hash competo
         Optional<Url> findByFullHash(String fullHash);
 
-        // Verificar si existe una Url por su código corto
-        boolean existsByShortCode(String shortCode);
+        // Códigos cortos de un bloque que ya están en uso, para validar una importación con una sola consulta
+        @Query("SELECT u.shortCode FROM Url u WHERE u.shortCode IN :shortCodes")
+        List<String> findExistingShortCodes(@Param("shortCodes") Collection<String> shortCodes);
 
         // Verificar si existe una url por su hash completo
         boolean existsByFullHash(String fullHash);
 
-        // Buscar Urls expiradas para marcarlas
-        List<Url> findByTypeUrlAndStateUrlAndExpirationDateTimeBefore(TypeUrl typeUrl, StateUrl stateUrl,
-                        LocalDateTime dateTime);
+        // Buscar por bloques los ids de Urls vencidas para marcarlas
+        // Se pagina por id (keyset) para no recorrer de nuevo las filas ya procesadas
+        @Query("SELECT u.id FROM Url u WHERE u.typeUrl = :typeUrl AND u.stateUrl = :stateUrl "
+                        + "AND u.expirationDateTime < :dateTime AND u.id > :lastId ORDER BY u.id")
+        List<Long> findIdsToExpire(
+                        @Param("typeUrl") TypeUrl typeUrl,
+                        @Param("stateUrl") StateUrl stateUrl,
+                        @Param("dateTime") LocalDateTime dateTime,
+                        @Param("lastId") Long lastId,
+                        Limit limit);
 
-        // Eliminar Urls expiradas
+        // Cambiar el estado de un bloque acotado de Urls vencidas en una sola sentencia
+        // Se vuelve a validar el estado y la fecha por si la url fue reactivada entre tanto
         @Modifying
-        @Query("DELETE FROM Url u WHERE u.stateUrl = :stateUrl AND u.expirationDateTime < :dateTime")
-        void deleteByStateUrlAndExpirationDateTimeBefore(
-                        @Param("stateUrl") StateUrl stateUrl,
+        @Transactional
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = URL_ROWS_SPACE))
+        @Query(value = "UPDATE urls SET state_url = :newState WHERE id IN :ids "
+                        + "AND state_url = :currentState AND expiration_date < :dateTime", nativeQuery = true)
+        int updateExpiredStateByIds(
+                        @Param("ids") List<Long> ids,
+                        @Param("currentState") String currentState,
+                        @Param("newState") String newState,
                         @Param("dateTime") LocalDateTime dateTime);
 
-        // Para limpieza física selectiva
-        List<Url> findByStateUrlAndExpirationDateTimeBeforeAndCounterClicksTotalLessThan(
-                        StateUrl stareUrlRepo,
-                        LocalDateTime dateTimeRepo,
-                        Integer counterClicksTotalRepo);
+        // Pasar a la url los clicks acumulados en los contadores repartidos
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = URL_ROWS_SPACE))
+        @Query(value = "UPDATE urls SET counter_clicks_total = counter_clicks_total + :clicks, "
+                        + "counter_clicks_session = counter_clicks_session + :clicks WHERE id = :id",
+                        nativeQuery = true)
+        int addClicks(
+                        @Param("id") Long id,
+                        @Param("clicks") Integer clicks);
+
+        // Pasar a la url los clicks sospechosos, no cuentan en el total ni en la sesión
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = URL_ROWS_SPACE))
+        @Query(value = "UPDATE urls SET counter_clicks_suspicious = COALESCE(counter_clicks_suspicious, 0) + :clicks "
+                        + "WHERE id = :id", nativeQuery = true)
+        int addSuspiciousClicks(
+                        @Param("id") Long id,
+                        @Param("clicks") Integer clicks);
+
+        // Marcar como eliminada una url del usuario en una sola sentencia, si ya estaba eliminada no cambia
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = URL_ROWS_SPACE))
+        @Query(value = "UPDATE urls SET state_url = :deletedState WHERE id = :id "
+                        + "AND user_id = :userId AND state_url <> :deletedState", nativeQuery = true)
+        int markDeleted(
+                        @Param("id") Long id,
+                        @Param("userId") Long userId,
+                        @Param("deletedState") String deletedState);
+
+        // Cambiar el destino de una url del usuario que no este eliminada, solo se escribe la columna del destino
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = URL_ROWS_SPACE))
+        @Query(value = "UPDATE urls SET original_url = :originalUrl WHERE id = :id "
+                        + "AND user_id = :userId AND state_url <> :deletedState", nativeQuery = true)
+        int updateOriginalUrl(
+                        @Param("id") Long id,
+                        @Param("userId") Long userId,
+                        @Param("originalUrl") String originalUrl,
+                        @Param("deletedState") String deletedState);
 
-        // Traer urls que han sido activadas, se utiliza Pageable, para que lo traiga
-        // por pagina
-        @Query("SELECT u FROM Url u WHERE u.timesReactivated > 0 ORDER BY u.timesReactivated DESC")
-        Page<Url> findUrlsMoreReused(Pageable pageable);
+        // Reactivar una url expirada, si otra petición ya la reactivó no se modifica
+        // Se limpia el contexto para que una lectura posterior vea la fila actualizada
+        @Modifying(clearAutomatically = true)
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = URL_ROWS_SPACE))
+        @Query(value = "UPDATE urls SET state_url = :activeState, last_activation_date = :now, "
+                        + "expiration_date = :expirationDateTime, counter_clicks_session = 0, "
+                        + "times_reactivated = times_reactivated + 1 "
+                        + "WHERE id = :id AND state_url = :expiredState", nativeQuery = true)
+        int reactivateExpired(
+                        @Param("id") Long id,
+                        @Param("now") LocalDateTime now,
+                        @Param("expirationDateTime") LocalDateTime expirationDateTime,
+                        @Param("expiredState") String expiredState,
+                        @Param("activeState") String activeState);
 
-        // Listar todas las URLs de un usuario (para dashboard)
-        List<Url> findByUserIdOrderByCreationDateTimeDesc(Long userId);
+        // Buscar un bloque de ids de Urls en un estado, para moverlas al archivo
+        // No se pagina: las filas archivadas salen de la tabla, el siguiente bloque empieza de nuevo
+        // Se omiten las urls con clicks sin compactar, se archivan cuando la compactación termine
+        @Query("SELECT u.id FROM Url u WHERE u.stateUrl = :stateUrl AND u.expirationDateTime < :before "
+                        + "AND NOT EXISTS (SELECT 1 FROM UrlClickCounter c WHERE c.urlId = u.id)")
+        List<Long> findIdsToArchive(
+                        @Param("stateUrl") StateUrl stateUrl,
+                        @Param("before") LocalDateTime before,
+                        Limit limit);
+
+        // Buscar un bloque de ids de Urls eliminadas sin clicks pendientes, sin importar su fecha
+        @Query("SELECT u.id FROM Url u WHERE u.stateUrl = :stateUrl "
+                        + "AND NOT EXISTS (SELECT 1 FROM UrlClickCounter c WHERE c.urlId = u.id)")
+        List<Long> findIdsByStateUrl(
+                        @Param("stateUrl") StateUrl stateUrl,
+                        Limit limit);
+
+        // Eliminar de la tabla urls un bloque ya copiado al archivo, con las mismas condiciones de la copia
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = URL_ROWS_SPACE))
+        @Query(value = "DELETE FROM urls WHERE id IN :ids AND (state_url = :deletedState "
+                        + "OR (state_url = :expiredState AND expiration_date < :expiredBefore))",
+                        nativeQuery = true)
+        int deleteArchivedByIds(
+                        @Param("ids") List<Long> ids,
+                        @Param("deletedState") String deletedState,
+                        @Param("expiredState") String expiredState,
+                        @Param("expiredBefore") LocalDateTime expiredBefore);
+
+        // Primera pagina de URLs de un usuario, como proyección y leída por partes con el cursor de JDBC
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+        @Query("SELECT new com.bryam.urlshortener.repository.projection.UrlSummaryProjection("
+                        + "u.id, u.shortCode, u.originalUrl, u.creationDateTime, u.expirationDateTime, "
+                        + "u.isPerzonalized, u.timesReactivated, u.counterClicksTotal) "
+                        + "FROM Url u WHERE u.userId = :userId "
+                        + "ORDER BY u.creationDateTime DESC, u.id DESC")
+        Stream<UrlSummaryProjection> streamUserUrls(
+                        @Param("userId") Long userId,
+                        Limit limit);
+
+        // Siguientes paginas de URLs de un usuario, continuando después del cursor (fecha de creación, id)
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+        @Query("SELECT new com.bryam.urlshortener.repository.projection.UrlSummaryProjection("
+                        + "u.id, u.shortCode, u.originalUrl, u.creationDateTime, u.expirationDateTime, "
+                        + "u.isPerzonalized, u.timesReactivated, u.counterClicksTotal) "
+                        + "FROM Url u WHERE u.userId = :userId "
+                        + "AND (u.creationDateTime < :creationDateTime "
+                        + "OR (u.creationDateTime = :creationDateTime AND u.id < :id)) "
+                        + "ORDER BY u.creationDateTime DESC, u.id DESC")
+        Stream<UrlSummaryProjection> streamUserUrlsAfter(
+                        @Param("userId") Long userId,
+                        @Param("creationDateTime") LocalDateTime creationDateTime,
+                        @Param("id") Long id,
+                        Limit limit);
+
+        // Todas las URLs en orden de id después de afterId, para la exportación masiva
+        // Se leen por partes con el cursor de JDBC, en MySQL requiere useCursorFetch=true en la URL de conexión
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+        @Query("SELECT new com.bryam.urlshortener.repository.projection.UrlExportProjection("
+                        + "u.id, u.shortCode, u.originalUrl, u.typeUrl, u.stateUrl, u.creationDateTime, "
+                        + "u.expirationDateTime, u.lastActivationDateTime, u.userId, u.counterClicksTotal, "
+                        + "COALESCE(u.counterClicksSuspicious, 0), u.timesReactivated, u.isPerzonalized) "
+                        + "FROM Url u WHERE u.id > :afterId ORDER BY u.id")
+        Stream<UrlExportProjection> streamAllAfter(@Param("afterId") Long afterId);
+
+        // Un bloque de URLs en orden de id después de afterId, para recorrer varias particiones a la vez
+        @Query("SELECT new com.bryam.urlshortener.repository.projection.UrlExportProjection("
+                        + "u.id, u.shortCode, u.originalUrl, u.typeUrl, u.stateUrl, u.creationDateTime, "
+                        + "u.expirationDateTime, u.lastActivationDateTime, u.userId, u.counterClicksTotal, "
+                        + "COALESCE(u.counterClicksSuspicious, 0), u.timesReactivated, u.isPerzonalized) "
+                        + "FROM Url u WHERE u.id > :afterId ORDER BY u.id")
+        List<UrlExportProjection> findAllAfter(
+                        @Param("afterId") Long afterId,
+                        Limit limit);
 
         // Contar URLs creadas por un usuario hoy
         long countByUserIdAndCreationDateTimeAfter(Long userId, LocalDateTime date);
@@ -68,22 +213,52 @@ public interface UrlRepository extends JpaRepository<Url, Long> {
         // Buscar URL por código Y usuario (para verificar propiedad)
         Optional<Url> findByShortCodeAndUserId(String shortCode, Long userId);
 
-        // Eliminar URL por código Y usuario (para que solo el dueño pueda eliminar)
-        @Modifying
-        @Query("DELETE FROM Url u WHERE u.shortCode = :shortCode AND u.userId = :userId")
-        void deleteByShortCodeAndUserId(
+        // Contadores de una URL por código Y usuario, busca por el índice único del código corto
+        @Query("SELECT new com.bryam.urlshortener.repository.projection.UrlStatsProjection("
+                        + "u.id, u.shortCode, u.stateUrl, u.creationDateTime, u.expirationDateTime, "
+                        + "u.lastActivationDateTime, u.counterClicksTotal, u.counterClicksSession, "
+                        + "COALESCE(u.counterClicksSuspicious, 0), u.timesReactivated) "
+                        + "FROM Url u WHERE u.shortCode = :shortCode AND u.userId = :userId")
+        Optional<UrlStatsProjection> findStatsByShortCodeAndUserId(
                         @Param("shortCode") String shortCode,
                         @Param("userId") Long userId);
 
-        // Total de URLs en el sistema
-        @Query("SELECT COUNT(u) FROM Url u WHERE u.stateUrl = :stateUrl")
-        long countByStateUrl(@Param("stateUrl") StateUrl stateUrl);
+        // Id de una URL por código Y usuario, para validar la propiedad sin cargar la entidad
+        @Query("SELECT u.id FROM Url u WHERE u.shortCode = :shortCode AND u.userId = :userId")
+        Optional<Long> findIdByShortCodeAndUserId(
+                        @Param("shortCode") String shortCode,
+                        @Param("userId") Long userId);
+
+        // Puntajes actuales de los miembros de una tabla de posiciones, por llave primaria
+        @Query("SELECT new com.bryam.urlshortener.repository.projection.LeaderboardScoreProjection("
+                        + "u.id, u.shortCode, u.stateUrl, u.counterClicksTotal, u.timesReactivated) "
+                        + "FROM Url u WHERE u.id IN :ids")
+        List<LeaderboardScoreProjection> findLeaderboardScores(@Param("ids") Collection<Long> ids);
 
-        // URLs más clickeadas o mas usadas top 10
-        List<Url> findTop10ByOrderByCounterClicksTotalDesc();
+        // Urls con mas clicks compactados, solo para reconstruir la tabla de posiciones
+        // Recorre idx_urls_state_clicks desde el final, lee tantas filas como el limite
+        @Query("SELECT new com.bryam.urlshortener.repository.projection.LeaderboardScoreProjection("
+                        + "u.id, u.shortCode, u.stateUrl, u.counterClicksTotal, u.timesReactivated) "
+                        + "FROM Url u WHERE u.stateUrl = :stateUrl ORDER BY u.counterClicksTotal DESC")
+        List<LeaderboardScoreProjection> findTopByClicks(
+                        @Param("stateUrl") StateUrl stateUrl,
+                        Limit limit);
+
+        // Urls reactivadas mas veces, solo para reconstruir la tabla de posiciones
+        // Recorre idx_urls_state_reactivated desde el final, lee tantas filas como el limite
+        @Query("SELECT new com.bryam.urlshortener.repository.projection.LeaderboardScoreProjection("
+                        + "u.id, u.shortCode, u.stateUrl, u.counterClicksTotal, u.timesReactivated) "
+                        + "FROM Url u WHERE u.stateUrl = :stateUrl AND u.timesReactivated > 0 "
+                        + "ORDER BY u.timesReactivated DESC")
+        List<LeaderboardScoreProjection> findTopByReactivations(
+                        @Param("stateUrl") StateUrl stateUrl,
+                        Limit limit);
 
-        // Total de clicks en todas las URLs
-        @Query("SELECT SUM(u.counterClicksTotal) FROM Url u")
-        Long sumAllCounterClicksTotal();
+        // Cantidad de urls y clicks agrupados por estado y tipo, solo para reconstruir las estadísticas globales
+        @Query("SELECT new com.bryam.urlshortener.repository.projection.StateTypeCountProjection("
+                        + "u.stateUrl, u.typeUrl, COUNT(u), COALESCE(SUM(u.counterClicksTotal), 0), "
+                        + "COALESCE(SUM(u.counterClicksSuspicious), 0)) "
+                        + "FROM Url u GROUP BY u.stateUrl, u.typeUrl")
+        List<StateTypeCountProjection> countByStateAndType();
 
 }
@@ -0,0 +1,46 @@
+package com.bryam.urlshortener.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bryam.urlshortener.model.UrlVisitorSketch;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface UrlVisitorSketchRepository extends JpaRepository<UrlVisitorSketch, Long> {
+
+        // Sketch de una url en un dia, bloqueado para unirle los visitantes de esta instancia
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT s FROM UrlVisitorSketch s WHERE s.urlId = :urlId AND s.bucketDay = :bucketDay")
+        Optional<UrlVisitorSketch> findForUpdate(
+                        @Param("urlId") Long urlId,
+                        @Param("bucketDay") LocalDate bucketDay);
+
+        // Sketches de una url en varios días, usa el índice único
+        List<UrlVisitorSketch> findByUrlIdAndBucketDayIn(Long urlId, Collection<LocalDate> bucketDays);
+
+        // Eliminar los sketches diarios anteriores a una fecha, el de toda la vida se conserva
+        @Modifying
+        @Transactional
+        @Query("DELETE FROM UrlVisitorSketch s WHERE s.bucketDay < :before AND s.bucketDay > :lifetimeDay")
+        int deleteDailyOlderThan(
+                        @Param("before") LocalDate before,
+                        @Param("lifetimeDay") LocalDate lifetimeDay);
+
+        // Eliminar los sketches de urls que se eliminan físicamente
+        @Modifying
+        @Transactional
+        @Query("DELETE FROM UrlVisitorSketch s WHERE s.urlId IN :urlIds")
+        int deleteByUrlIds(@Param("urlIds") List<Long> urlIds);
+}
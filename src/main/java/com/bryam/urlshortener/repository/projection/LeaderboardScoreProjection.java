@@ -0,0 +1,12 @@
+package com.bryam.urlshortener.repository.projection;
+
+import com.bryam.urlshortener.model.enums.StateUrl;
+
+//Puntajes de una url para las tablas de posiciones, sin cargar la entidad completa
+public record LeaderboardScoreProjection(
+        Long id,
+        String shortCode,
+        StateUrl stateUrl,
+        Integer counterClicksTotal,
+        Integer timesReactivated) {
+}
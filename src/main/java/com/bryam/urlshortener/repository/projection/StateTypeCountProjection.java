@@ -0,0 +1,13 @@
+package com.bryam.urlshortener.repository.projection;
+
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+
+//Cantidad de urls y clicks agrupados por estado y tipo, para reconstruir las estadísticas globales
+public record StateTypeCountProjection(
+        StateUrl stateUrl,
+        TypeUrl typeUrl,
+        Long urls,
+        Long clicks,
+        Long suspiciousClicks) {
+}
@@ -0,0 +1,7 @@
+package com.bryam.urlshortener.repository.projection;
+
+//Clicks pendientes de una url en los contadores repartidos
+public record UrlClicksProjection(
+        Long urlId,
+        Long clicks) {
+}
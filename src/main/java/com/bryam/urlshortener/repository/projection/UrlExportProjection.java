@@ -0,0 +1,23 @@
+package com.bryam.urlshortener.repository.projection;
+
+import java.time.LocalDateTime;
+
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+
+//Fila de la exportación masiva de urls, construida en la consulta para no llenar la sesión con entidades
+public record UrlExportProjection(
+        Long id,
+        String shortCode,
+        String originalUrl,
+        TypeUrl typeUrl,
+        StateUrl stateUrl,
+        LocalDateTime creationDateTime,
+        LocalDateTime expirationDateTime,
+        LocalDateTime lastActivationDateTime,
+        Long userId,
+        Integer counterClicksTotal,
+        Integer counterClicksSuspicious,
+        Integer timesReactivated,
+        Boolean isPerzonalized) {
+}
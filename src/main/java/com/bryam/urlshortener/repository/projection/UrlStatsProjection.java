@@ -0,0 +1,20 @@
+package com.bryam.urlshortener.repository.projection;
+
+import java.time.LocalDateTime;
+
+import com.bryam.urlshortener.model.enums.StateUrl;
+
+//Proyección con los contadores de una url para las estadísticas
+//Solo trae las columnas necesarias, sin la url original ni el hash
+public record UrlStatsProjection(
+        Long id,
+        String shortCode,
+        StateUrl stateUrl,
+        LocalDateTime creationDateTime,
+        LocalDateTime expirationDateTime,
+        LocalDateTime lastActivationDateTime,
+        Integer counterClicksTotal,
+        Integer counterClicksSession,
+        Integer counterClicksSuspicious,
+        Integer timesReactivated) {
+}
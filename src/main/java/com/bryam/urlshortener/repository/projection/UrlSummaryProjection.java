@@ -0,0 +1,16 @@
+package com.bryam.urlshortener.repository.projection;
+
+import java.time.LocalDateTime;
+
+//Proyección de solo lectura de una url para los listados
+//Se construye directamente en la consulta, así no se cargan entidades completas en memoria
+public record UrlSummaryProjection(
+        Long id,
+        String shortCode,
+        String originalUrl,
+        LocalDateTime creationDateTime,
+        LocalDateTime expirationDateTime,
+        Boolean isPerzonalized,
+        Integer timesReactivated,
+        Integer counterClicksTotal) {
+}
@@ -0,0 +1,25 @@
+package com.bryam.urlshortener.rollup;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.bryam.urlshortener.model.enums.RollupGranularity;
+
+//Clicks de un intervalo que todavía no se guardaron en la base de datos
+//El intervalo se identifica por su numero desde epoch (milisegundos / tamaño del intervalo)
+public record BucketDelta(RollupGranularity granularity, long bucket, long clicks) {
+
+    // Inicio del intervalo en UTC
+    public LocalDateTime bucketStart() {
+        return bucketStart(granularity, bucket);
+    }
+
+    public static LocalDateTime bucketStart(RollupGranularity granularity, long bucket) {
+        return LocalDateTime.ofEpochSecond(bucket * granularity.getBucketMillis() / 1000, 0, ZoneOffset.UTC);
+    }
+
+    // Numero del intervalo que contiene un instante
+    public static long bucketOf(RollupGranularity granularity, long timestampMillis) {
+        return Math.floorDiv(timestampMillis, granularity.getBucketMillis());
+    }
+}
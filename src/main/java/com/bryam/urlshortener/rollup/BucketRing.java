@@ -0,0 +1,161 @@
+package com.bryam.urlshortener.rollup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.bryam.urlshortener.model.enums.RollupGranularity;
+
+//Intervalos de una granularidad de una url en un arreglo circular de tamaño fijo
+//Los clicks se suman sin locks, solo la rotación de una casilla y el vaciado usan el monitor
+//Cada casilla recuerda cuanto ya se guardo, así el vaciado solo entrega la diferencia
+//El contador de cada casilla lleva en los bits altos la vuelta del arreglo a la que pertenece,
+//un click solo se suma con compareAndSet si la vuelta no cambio, así nunca cae en el intervalo
+//que reemplazo al suyo mientras se rotaba la casilla
+public class BucketRing {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int COUNT_BITS = 44;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long LAP_MASK = (1L << (Long.SIZE - COUNT_BITS)) - 1;
+
+    private final RollupGranularity granularity;
+    private final AtomicLongArray buckets;
+    // Vuelta del intervalo de la casilla en los bits altos y sus clicks en los bajos
+    private final AtomicLongArray cells;
+
+    // Protegidos por el monitor de la instancia
+    private final long[] flushed;
+    private final List<BucketDelta> rotated = new ArrayList<>();
+
+    public BucketRing(RollupGranularity granularity) {
+        this.granularity = granularity;
+        int size = granularity.getRingSize();
+        this.buckets = new AtomicLongArray(size);
+        this.cells = new AtomicLongArray(size);
+        this.flushed = new long[size];
+        for (int i = 0; i < size; i++) {
+            buckets.set(i, EMPTY);
+        }
+    }
+
+    public void record(long timestampMillis) {
+        long bucket = BucketDelta.bucketOf(granularity, timestampMillis);
+        int slot = slotOf(bucket);
+        long lap = lapOf(bucket);
+
+        while (true) {
+            long cell = cells.get(slot);
+            if (cell >>> COUNT_BITS == lap && buckets.get(slot) == bucket) {
+                // Falla si la casilla roto después de leerla, se vuelve a intentar con el valor nuevo
+                if (cells.compareAndSet(slot, cell, cell + 1)) {
+                    return;
+                }
+            } else if (!rotate(slot, bucket)) {
+                return;
+            }
+        }
+    }
+
+    // Reutilizar una casilla para un intervalo nuevo
+    // Si la casilla tenia clicks sin guardar se apartan para el siguiente vaciado
+    // Retorna false si el click ya quedo registrado y no se debe sumar a la casilla
+    private synchronized boolean rotate(int slot, long bucket) {
+        long current = buckets.get(slot);
+        if (current == bucket) {
+            return true;
+        }
+
+        // Un click atrasado de un intervalo que ya salió del arreglo se aparta directamente
+        if (current != EMPTY && current > bucket) {
+            rotated.add(new BucketDelta(granularity, bucket, 1));
+            return false;
+        }
+
+        // El cambio de vuelta es atómico, un click que leyó la casilla antes ya no puede sumarse en ella
+        long previous = cells.getAndSet(slot, lapOf(bucket) << COUNT_BITS);
+        long pending = (previous & COUNT_MASK) - flushed[slot];
+        if (current != EMPTY && pending > 0) {
+            rotated.add(new BucketDelta(granularity, current, pending));
+        }
+
+        flushed[slot] = 0;
+        buckets.set(slot, bucket);
+        return true;
+    }
+
+    // Entregar los clicks sin guardar y marcarlos como guardados
+    public synchronized void drain(List<BucketDelta> deltas) {
+        deltas.addAll(rotated);
+        rotated.clear();
+
+        for (int slot = 0; slot < flushed.length; slot++) {
+            long bucket = buckets.get(slot);
+            if (bucket == EMPTY) {
+                continue;
+            }
+            long count = count(slot);
+            long pending = count - flushed[slot];
+            if (pending > 0) {
+                deltas.add(new BucketDelta(granularity, bucket, pending));
+                flushed[slot] = count;
+            }
+        }
+    }
+
+    // Devolver clicks que no se pudieron guardar, para reintentarlos en el siguiente vaciado
+    public synchronized void restore(BucketDelta delta) {
+        int slot = slotOf(delta.bucket());
+        if (buckets.get(slot) == delta.bucket()) {
+            flushed[slot] -= delta.clicks();
+        } else {
+            rotated.add(delta);
+        }
+    }
+
+    // Sumar a un arreglo los clicks sin guardar de los intervalos [from, from + totals.length)
+    public synchronized void addPending(long from, long[] totals) {
+        for (BucketDelta delta : rotated) {
+            addIfInRange(delta.bucket(), delta.clicks(), from, totals);
+        }
+        for (int slot = 0; slot < flushed.length; slot++) {
+            long bucket = buckets.get(slot);
+            if (bucket != EMPTY) {
+                addIfInRange(bucket, count(slot) - flushed[slot], from, totals);
+            }
+        }
+    }
+
+    // Verdadero si no queda ningún click sin guardar
+    public synchronized boolean isFlushed() {
+        if (!rotated.isEmpty()) {
+            return false;
+        }
+        for (int slot = 0; slot < flushed.length; slot++) {
+            if (count(slot) != flushed[slot]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int slotOf(long bucket) {
+        return (int) Math.floorMod(bucket, (long) flushed.length);
+    }
+
+    // Vueltas completas del arreglo hasta el intervalo, distinta para cada intervalo que usa la misma casilla
+    private long lapOf(long bucket) {
+        return Math.floorDiv(bucket, (long) flushed.length) & LAP_MASK;
+    }
+
+    private long count(int slot) {
+        return cells.get(slot) & COUNT_MASK;
+    }
+
+    private static void addIfInRange(long bucket, long clicks, long from, long[] totals) {
+        long index = bucket - from;
+        if (clicks > 0 && index >= 0 && index < totals.length) {
+            totals[(int) index] += clicks;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.bryam.urlshortener.rollup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+//Sketch HyperLogLog para estimar visitantes únicos sin guardar cada visitante
+//Precisión 12: 4096 registros de un byte (4 KB), error estándar ~1.6%
+//Dos sketches se combinan tomando el máximo de cada registro, así se pueden unir
+//los de varias instancias o de varios días sin perder precisión
+public class HyperLogLog {
+
+    public static final int PRECISION = 12;
+    public static final int REGISTERS = 1 << PRECISION;
+
+    private static final VarHandle REGISTER = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    // Agregar un elemento por su hash de 64 bits
+    // Retorna true si el sketch cambio, varios hilos pueden agregar a la vez sin locks
+    public boolean offer(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Posición del primer bit en 1 de los bits restantes, acotada para que nunca sea todo ceros
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        return raise(index, rank);
+    }
+
+    // Unir otro sketch a este, el resultado estima la unión de ambos conjuntos
+    public HyperLogLog merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            raise(i, (byte) REGISTER.getVolatile(other.registers, i));
+        }
+        return this;
+    }
+
+    // Cantidad estimada de elementos distintos
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < REGISTERS; i++) {
+            byte value = (byte) REGISTER.getVolatile(registers, i);
+            sum += 1.0 / (1L << value);
+            if (value == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+
+        // En cardinalidades bajas el conteo lineal de registros vacíos es mas exacto
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    // Copia de los registros para guardar en la base de datos
+    public byte[] toBytes() {
+        byte[] copy = new byte[REGISTERS];
+        for (int i = 0; i < REGISTERS; i++) {
+            copy[i] = (byte) REGISTER.getVolatile(registers, i);
+        }
+        return copy;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != REGISTERS) {
+            throw new IllegalArgumentException("Invalid HyperLogLog registers");
+        }
+        return new HyperLogLog(Arrays.copyOf(bytes, REGISTERS));
+    }
+
+    private boolean raise(int index, byte rank) {
+        byte current = (byte) REGISTER.getVolatile(registers, index);
+        while (rank > current) {
+            if (REGISTER.compareAndSet(registers, index, current, rank)) {
+                return true;
+            }
+            current = (byte) REGISTER.getVolatile(registers, index);
+        }
+        return false;
+    }
+}
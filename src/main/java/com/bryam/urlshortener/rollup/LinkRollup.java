@@ -0,0 +1,59 @@
+package com.bryam.urlshortener.rollup;
+
+import java.util.List;
+
+import com.bryam.urlshortener.model.enums.RollupGranularity;
+
+//Acumulados en memoria de una url activa, un arreglo circular por cada granularidad
+public class LinkRollup {
+
+    private final BucketRing[] rings;
+    private volatile long lastClickMillis;
+
+    public LinkRollup() {
+        RollupGranularity[] granularities = RollupGranularity.values();
+        this.rings = new BucketRing[granularities.length];
+        for (RollupGranularity granularity : granularities) {
+            rings[granularity.ordinal()] = new BucketRing(granularity);
+        }
+        // Recién creada no esta inactiva, un vaciado antes del primer click no la quita de memoria
+        this.lastClickMillis = System.currentTimeMillis();
+    }
+
+    // La actividad se marca antes de sumar, un vaciado que ya ve el click no la toma por inactiva
+    public void record(long timestampMillis) {
+        if (timestampMillis > lastClickMillis) {
+            lastClickMillis = timestampMillis;
+        }
+        for (BucketRing ring : rings) {
+            ring.record(timestampMillis);
+        }
+    }
+
+    public void drain(List<BucketDelta> deltas) {
+        for (BucketRing ring : rings) {
+            ring.drain(deltas);
+        }
+    }
+
+    public void restore(BucketDelta delta) {
+        rings[delta.granularity().ordinal()].restore(delta);
+    }
+
+    public void addPending(RollupGranularity granularity, long from, long[] totals) {
+        rings[granularity.ordinal()].addPending(from, totals);
+    }
+
+    // Inactiva desde hace un tiempo y sin clicks pendientes, se puede quitar de memoria
+    public boolean isIdle(long nowMillis, long idleMillis) {
+        if (nowMillis - lastClickMillis < idleMillis) {
+            return false;
+        }
+        for (BucketRing ring : rings) {
+            if (!ring.isFlushed()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,5 @@
+package com.bryam.urlshortener.rollup;
+
+//Visitantes únicos estimados de una url, de toda su vida y del dia actual (UTC)
+public record UniqueVisitors(long lifetime, long today) {
+}
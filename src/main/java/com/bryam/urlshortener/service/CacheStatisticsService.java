@@ -0,0 +1,11 @@
+package com.bryam.urlshortener.service;
+
+import java.util.List;
+
+import com.bryam.urlshortener.dto.response.CacheRegionStatsResponseDTO;
+
+public interface CacheStatisticsService {
+
+    //Aciertos, fallos y escrituras de cada región de la cache de segundo nivel, desde el arranque de la instancia
+    List<CacheRegionStatsResponseDTO> getRegionStatistics();
+}
@@ -0,0 +1,12 @@
+package com.bryam.urlshortener.service;
+
+import com.bryam.urlshortener.bot.ClickVerdict;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+public interface ClickClassifierService {
+
+    //Clasificar un click de la redirección con señales baratas: User-Agent, precarga y ráfagas por ip
+    //Usa memoria fija, no guarda estado por cada ip
+    ClickVerdict classify(HttpServletRequest request, String clientIp);
+}
@@ -0,0 +1,17 @@
+package com.bryam.urlshortener.service;
+
+import com.bryam.urlshortener.repository.projection.PendingClicksProjection;
+
+public interface ClickCounterService {
+
+    //Registrar un click de una url en una de sus filas de contador
+    //Los sospechosos se cuentan aparte y no suman a los contadores de la url
+    void recordClick(Long urlId, boolean suspicious);
+
+    //Clicks de una url que todavía no se pasaron a la tabla urls
+    PendingClicksProjection pendingClicks(Long urlId);
+
+    //Pasar los clicks pendientes a los contadores de las urls
+    //Retorna la cantidad de clicks compactados
+    long compact();
+}
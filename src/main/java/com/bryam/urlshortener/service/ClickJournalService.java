@@ -0,0 +1,17 @@
+package com.bryam.urlshortener.service;
+
+import java.util.function.BiConsumer;
+
+import com.bryam.urlshortener.journal.ClickRecord;
+import com.bryam.urlshortener.journal.JournalPosition;
+
+public interface ClickJournalService {
+
+    //Registrar un click en el diario sin bloquear la petición
+    //Retorna false si el registro se descarto porque la cola estaba llena o el diario esta apagado
+    boolean append(String shortCode, String clientIp);
+
+    //Reproducir los clicks del diario desde una posición, para los agregadores
+    //Retorna la posición final, que el agregador guarda para continuar después
+    JournalPosition replay(JournalPosition from, BiConsumer<ClickRecord, JournalPosition> consumer);
+}
@@ -0,0 +1,19 @@
+package com.bryam.urlshortener.service;
+
+import com.bryam.urlshortener.dto.response.ClickTimeseriesResponseDTO;
+import com.bryam.urlshortener.model.enums.RollupGranularity;
+
+public interface ClickRollupService {
+
+    //Sumar un click a los intervalos en memoria (minuto, hora y dia) de una url
+    void recordClick(Long urlId, long timestampMillis);
+
+    //Serie de clicks de una url de un usuario registrado, de los acumulados guardados mas los pendientes en memoria
+    //Nunca recorre los clicks individuales
+    ClickTimeseriesResponseDTO getTimeseries(String shortCode, Long userId, RollupGranularity granularity,
+            Integer points);
+
+    //Guardar en la base de datos los clicks pendientes de los intervalos en memoria
+    //Retorna la cantidad de intervalos guardados
+    int flush();
+}
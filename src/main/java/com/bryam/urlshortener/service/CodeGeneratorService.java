@@ -3,8 +3,8 @@ package com.bryam.urlshortener.service;
 
 public interface CodeGeneratorService {
 
-    //Generar el código hash para una url para usuarios anónimos
-    String[] generateCodeHash(String originalUrl);
+    //Generar el código para una url de usuarios anónimos, el prefijo mas corto libre de su hash completo
+    String generateCodeHash(String fullHash);
 
     //Generar el código base62 para una url para usuarios
     String generateCodeBase62(Long id);
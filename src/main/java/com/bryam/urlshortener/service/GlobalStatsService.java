@@ -0,0 +1,34 @@
+package com.bryam.urlshortener.service;
+
+import com.bryam.urlshortener.dto.response.GlobalStatsResponseDTO;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+
+public interface GlobalStatsService {
+
+    //Registrar una url creada, se aplica cuando la transacción actual confirma
+    void urlCreated(TypeUrl typeUrl);
+
+    //Registrar un bloque de urls creadas, se aplica cuando la transacción actual confirma
+    void urlsCreated(TypeUrl typeUrl, long count);
+
+    //Registrar urls que pasaron de un estado a otro, se aplica cuando la transacción actual confirma
+    void urlStateChanged(TypeUrl typeUrl, StateUrl from, StateUrl to, long count);
+
+    //Registrar urls eliminadas físicamente por la purga
+    void urlsRemoved(TypeUrl typeUrl, StateUrl stateUrl, long count);
+
+    //Registrar un click, los sospechosos se cuentan aparte
+    void clickRecorded(boolean suspicious);
+
+    //Estadísticas globales desde la tabla de estadísticas mas los incrementos pendientes en memoria
+    //Nunca recorre la tabla urls
+    GlobalStatsResponseDTO getGlobalStats();
+
+    //Guardar en la base de datos los incrementos pendientes de esta instancia
+    //Retorna la cantidad de estadísticas actualizadas
+    int flush();
+
+    //Recalcular los totales por estado y tipo desde la tabla urls y el archivo, corrige cualquier desvío
+    void rebuild();
+}
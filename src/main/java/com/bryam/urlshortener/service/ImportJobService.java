@@ -0,0 +1,20 @@
+package com.bryam.urlshortener.service;
+
+import java.nio.file.Path;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import com.bryam.urlshortener.dto.response.ImportJobResponseDTO;
+
+public interface ImportJobService {
+
+    //Guardar el archivo subido y encolar su importación, retorna el trabajo sin esperar a que termine
+    //Cada linea es slug,url_original o solo url_original para generar el código en base62
+    ImportJobResponseDTO submit(MultipartFile file, Long userId);
+
+    //Progreso de un trabajo del usuario
+    ImportJobResponseDTO getJob(Long jobId, Long userId);
+
+    //Archivo CSV con las filas rechazadas de un trabajo del usuario y el motivo de cada una
+    Path getFailureReport(Long jobId, Long userId);
+}
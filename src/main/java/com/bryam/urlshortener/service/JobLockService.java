@@ -0,0 +1,13 @@
+package com.bryam.urlshortener.service;
+
+import java.time.Duration;
+
+public interface JobLockService {
+
+    //Intentar tomar el bloqueo de una tarea por un tiempo máximo
+    //Retorna false si otra instancia ya lo tiene
+    boolean tryAcquire(String jobName, Duration maxDuration);
+
+    //Liberar el bloqueo de una tarea tomado por esta instancia
+    void release(String jobName);
+}
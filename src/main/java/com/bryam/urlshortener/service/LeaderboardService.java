@@ -0,0 +1,28 @@
+package com.bryam.urlshortener.service;
+
+import java.util.List;
+
+import com.bryam.urlshortener.dto.response.LeaderboardResponseDTO;
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.LeaderboardType;
+
+public interface LeaderboardService {
+
+    //Sumar un click contado de una url a la tabla de clicks
+    void recordClick(Url url);
+
+    //Proponer una url recién reactivada a la tabla de reactivaciones
+    void recordReactivation(Url url);
+
+    //Pagina de una tabla de posiciones, se responde desde memoria sin consultar la tabla urls
+    LeaderboardResponseDTO getLeaderboard(LeaderboardType type, Integer page, Integer size);
+
+    //Códigos de las primeras posiciones de una tabla, desde memoria
+    List<String> topShortCodes(LeaderboardType type, int limit);
+
+    //Actualizar por llave primaria los puntajes de los miembros actuales, quita los que ya no están activos
+    void refresh();
+
+    //Reconstruir las tablas de posiciones desde la base de datos
+    void rebuild();
+}
@@ -0,0 +1,16 @@
+package com.bryam.urlshortener.service;
+
+import java.util.Optional;
+
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.UrlArchive;
+
+public interface UrlArchiveService {
+
+    //Mover a la tabla de archivo las urls eliminadas y las expiradas hace tiempo, por bloques acotados
+    //Retorna la cantidad de urls archivadas en la ejecución
+    int archiveColdUrls();
+
+    //Devolver una url expirada del archivo a la tabla urls, conservando su id y sus contadores
+    Optional<Url> restoreExpired(UrlArchive archived);
+}
@@ -0,0 +1,8 @@
+package com.bryam.urlshortener.service;
+
+public interface UrlExpirationService {
+
+    //Marcar como expiradas las urls anónimas vencidas, por bloques acotados
+    //Retorna la cantidad de urls que se marcaron en la ejecución
+    int expireAnonymousUrls();
+}
@@ -0,0 +1,15 @@
+package com.bryam.urlshortener.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.bryam.urlshortener.model.enums.ExportFormat;
+
+public interface UrlExportService {
+
+    //Escribir todas las urls con id mayor a afterId en el formato indicado, en orden de id
+    //Las filas se leen y se escriben de a una, la memoria no depende del tamaño de la tabla
+    //Para retomar una exportación cortada se pasa el id de la ultima fila completa recibida
+    //Retorna la cantidad de urls escritas
+    long exportUrls(ExportFormat format, Long afterId, OutputStream output) throws IOException;
+}
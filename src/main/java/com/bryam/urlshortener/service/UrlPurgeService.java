@@ -0,0 +1,9 @@
+package com.bryam.urlshortener.service;
+
+public interface UrlPurgeService {
+
+    //Eliminar físicamente las urls muertas del archivo por bloques pequeños y con pausas
+    //Las eliminadas se conservan archivadas para que su código y su hash no se reutilicen
+    //Retorna la cantidad de urls eliminadas, o las que se eliminarían en modo simulación
+    int purgeDeadUrls();
+}
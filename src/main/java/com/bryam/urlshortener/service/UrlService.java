@@ -1,9 +1,11 @@
 package com.bryam.urlshortener.service;
 
-import java.util.List;
+import java.util.function.Consumer;
 
 import com.bryam.urlshortener.dto.request.ShortenUrlRequestDTO;
+import com.bryam.urlshortener.dto.request.UrlCursorDTO;
 import com.bryam.urlshortener.dto.response.ShortenUrlResponseDTO;
+import com.bryam.urlshortener.dto.response.UrlStatsResponseDTO;
 import com.bryam.urlshortener.model.Url;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,11 +21,18 @@ public interface UrlService {
   ShortenUrlResponseDTO shortenRegisteredUrl(ShortenUrlRequestDTO requestDTO, Long userId);
 
   //Busca por el shortCode para preparar la redireccionamiento
-  //Valida el estado y actualiza el contador de los clicks
-  Url getUrlForRedirection(String shortCode);
-
-  //Obtiene todas las urls de un usuario registrado
-  List<ShortenUrlResponseDTO> getUserUrls(Long userId);
+  //Valida el estado, actualiza el contador de los clicks y registra el click en el diario
+  //La búsqueda puede leer de una réplica, si no encuentra el código lo busca en la principal
+  Url getUrlForRedirection(String shortCode, HttpServletRequest request);
+
+  //Obtiene una pagina de urls de un usuario registrado, paginando por cursor (fecha de creación, id)
+  //Cada url se entrega al consumidor a medida que se lee de la base de datos
+  //Retorna el cursor de la siguiente pagina, o null si ya no hay mas urls
+  UrlCursorDTO streamUserUrls(Long userId, UrlCursorDTO cursor, Integer pageSize,
+      Consumer<ShortenUrlResponseDTO> consumer);
+
+  //Obtiene los contadores de una url de un usuario registrado con una sola consulta
+  UrlStatsResponseDTO getUrlStatistics(String shortCode, Long userId);
 
   //Eliminar una Url de un usuario registrado
   void deleteUrl(String shortCode, Long userId);
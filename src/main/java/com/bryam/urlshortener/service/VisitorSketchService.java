@@ -0,0 +1,16 @@
+package com.bryam.urlshortener.service;
+
+import com.bryam.urlshortener.rollup.UniqueVisitors;
+
+public interface VisitorSketchService {
+
+    //Agregar un visitante al sketch en memoria del dia actual de una url, por el hash de su ip
+    void recordVisit(Long urlId, long visitorHash);
+
+    //Visitantes únicos estimados de una url, de los sketches guardados unidos a los pendientes en memoria
+    UniqueVisitors uniqueVisitors(Long urlId);
+
+    //Unir a la base de datos los sketches en memoria que cambiaron
+    //Retorna la cantidad de sketches guardados
+    int flush();
+}
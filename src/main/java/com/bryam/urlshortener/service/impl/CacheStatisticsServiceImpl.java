@@ -0,0 +1,53 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import com.bryam.urlshortener.dto.response.CacheRegionStatsResponseDTO;
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.service.CacheStatisticsService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@Service
+public class CacheStatisticsServiceImpl implements CacheStatisticsService {
+
+    private static final List<String> REGIONS = List.of(Url.CACHE_REGION, Url.NATURAL_ID_CACHE_REGION);
+
+    private final Statistics statistics;
+
+    public CacheStatisticsServiceImpl(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Sin las estadísticas de Hibernate habilitadas no hay datos por región
+    @Override
+    public List<CacheRegionStatsResponseDTO> getRegionStatistics() {
+        if (!statistics.isStatisticsEnabled()) {
+            return List.of();
+        }
+        return REGIONS.stream()
+                .map(region -> convertADTO(region, statistics.getCacheRegionStatistics(region)))
+                .toList();
+    }
+
+    // Una región sin uso todavía no tiene estadísticas
+    private CacheRegionStatsResponseDTO convertADTO(String region, CacheRegionStatistics regionStatistics) {
+
+        long hits = regionStatistics != null ? regionStatistics.getHitCount() : 0;
+        long misses = regionStatistics != null ? regionStatistics.getMissCount() : 0;
+        long puts = regionStatistics != null ? regionStatistics.getPutCount() : 0;
+
+        return CacheRegionStatsResponseDTO.builder()
+                .regionResponse(region)
+                .hitsResponse(hits)
+                .missesResponse(misses)
+                .putsResponse(puts)
+                .hitRatioResponse(hits + misses == 0 ? 0.0 : (double) hits / (hits + misses))
+                .build();
+    }
+}
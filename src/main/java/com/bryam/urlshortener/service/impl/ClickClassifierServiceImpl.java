@@ -0,0 +1,105 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.bryam.urlshortener.bot.BurstSketch;
+import com.bryam.urlshortener.bot.ClickVerdict;
+import com.bryam.urlshortener.bot.UserAgentMatcher;
+import com.bryam.urlshortener.service.ClickClassifierService;
+import com.bryam.urlshortener.util.HashUtil;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class ClickClassifierServiceImpl implements ClickClassifierService {
+
+    private final boolean enabled;
+    private final int burstMaxClicks;
+    private final String ipHashSalt;
+    private final UserAgentMatcher userAgentMatcher;
+    private final BurstSketch burstSketch;
+    private final Map<ClickVerdict, Counter> suspiciousClicks = new EnumMap<>(ClickVerdict.class);
+
+    public ClickClassifierServiceImpl(
+            @Value("${app.bots.enabled}") boolean enabled,
+            @Value("${app.bots.user-agent-tokens}") List<String> userAgentTokens,
+            @Value("${app.bots.burst.window-seconds}") long burstWindowSeconds,
+            @Value("${app.bots.burst.max-clicks}") int burstMaxClicks,
+            @Value("${app.bots.burst.sketch-depth}") int sketchDepth,
+            @Value("${app.bots.burst.sketch-width}") int sketchWidth,
+            @Value("${app.clicks.ip-hash-salt}") String ipHashSalt,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.burstMaxClicks = burstMaxClicks;
+        this.ipHashSalt = ipHashSalt;
+        this.userAgentMatcher = new UserAgentMatcher(userAgentTokens);
+        this.burstSketch = new BurstSketch(sketchDepth, sketchWidth, burstWindowSeconds * 1000);
+
+        for (ClickVerdict verdict : ClickVerdict.values()) {
+            if (verdict.isSuspicious()) {
+                suspiciousClicks.put(verdict, Counter.builder("clicks.suspicious")
+                        .description("Clicks excluded from the billing counters")
+                        .tag("reason", verdict.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry));
+            }
+        }
+
+        log.info("Click classifier {} with {} user-agent tokens", enabled ? "enabled" : "disabled",
+                userAgentTokens.size());
+    }
+
+    @Override
+    public ClickVerdict classify(HttpServletRequest request, String clientIp) {
+        if (!enabled || request == null) {
+            return ClickVerdict.HUMAN;
+        }
+
+        // La ráfaga se cuenta siempre, así una ip que ya se marco no se limpia al cambiar de User-Agent
+        int recentClicks = burstSketch.add(HashUtil.hash64(ipHashSalt + clientIp), System.currentTimeMillis());
+
+        ClickVerdict verdict = verdictOf(request, recentClicks);
+        if (verdict.isSuspicious()) {
+            suspiciousClicks.get(verdict).increment();
+        }
+        return verdict;
+    }
+
+    private ClickVerdict verdictOf(HttpServletRequest request, int recentClicks) {
+        String userAgent = request.getHeader("User-Agent");
+        if (userAgent == null || userAgent.isBlank()) {
+            return ClickVerdict.MISSING_USER_AGENT;
+        }
+
+        // Los navegadores avisan cuando precargan un enlace, esa petición no es una visita
+        if (isPrefetch(request.getHeader("Sec-Purpose"))
+                || isPrefetch(request.getHeader("Purpose"))
+                || isPrefetch(request.getHeader("X-Moz"))) {
+            return ClickVerdict.PREFETCH;
+        }
+
+        if (userAgentMatcher.matches(userAgent)) {
+            return ClickVerdict.BOT_USER_AGENT;
+        }
+
+        if (recentClicks > burstMaxClicks) {
+            return ClickVerdict.IP_BURST;
+        }
+
+        return ClickVerdict.HUMAN;
+    }
+
+    // Sec-Purpose puede traer varios valores, por ejemplo "prefetch;prerender"
+    private static boolean isPrefetch(String header) {
+        return header != null && header.regionMatches(true, 0, "prefetch", 0, "prefetch".length());
+    }
+}
@@ -0,0 +1,135 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bryam.urlshortener.model.UrlClickCounter;
+import com.bryam.urlshortener.repository.UrlClickCounterRepository;
+import com.bryam.urlshortener.repository.projection.PendingClicksProjection;
+import com.bryam.urlshortener.service.ClickCounterService;
+import com.bryam.urlshortener.service.JobLockService;
+import com.bryam.urlshortener.store.UrlStore;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClickCounterServiceImpl implements ClickCounterService {
+
+    private static final String JOB_NAME = "click-counter-compaction";
+
+    private final UrlClickCounterRepository clickCounterRepository;
+    private final UrlStore urlStore;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.clicks.shards}")
+    private int shards;
+
+    @Value("${app.clicks.compaction.batch-size}")
+    private int batchSize;
+
+    @Value("${app.clicks.compaction.lock-seconds}")
+    private long lockSeconds;
+
+    @Override
+    public void recordClick(Long urlId, boolean suspicious) {
+        // Cada escritor elige una fila al azar, así los clicks concurrentes no esperan por el mismo bloqueo
+        int shard = ThreadLocalRandom.current().nextInt(shards);
+        if (suspicious) {
+            clickCounterRepository.incrementSuspicious(urlId, shard);
+        } else {
+            clickCounterRepository.increment(urlId, shard);
+        }
+    }
+
+    @Override
+    public PendingClicksProjection pendingClicks(Long urlId) {
+        return clickCounterRepository.sumClicksByUrlId(urlId);
+    }
+
+    // Tarea programada, solo una instancia compacta los contadores a la vez
+    @Scheduled(fixedDelayString = "${app.clicks.compaction.interval-ms}",
+            initialDelayString = "${app.clicks.compaction.interval-ms}")
+    public void scheduledCompaction() {
+
+        if (!jobLockService.tryAcquire(JOB_NAME, Duration.ofSeconds(lockSeconds))) {
+            return;
+        }
+
+        try {
+            compact();
+        } catch (Exception e) {
+            log.error("Click counter compaction failed", e);
+        } finally {
+            jobLockService.release(JOB_NAME);
+        }
+    }
+
+    @Override
+    public long compact() {
+
+        long lastId = 0L;
+        long total = 0L;
+
+        while (true) {
+            List<UrlClickCounter> pending = clickCounterRepository.findPending(lastId, Limit.of(batchSize));
+
+            if (pending.isEmpty()) {
+                break;
+            }
+
+            Long compacted = transactionTemplate.execute(status -> compactBatch(pending));
+            total += compacted != null ? compacted : 0L;
+            lastId = pending.get(pending.size() - 1).getId();
+
+            if (pending.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.debug("Compacted {} pending clicks into url counters", total);
+        }
+
+        return total;
+    }
+
+    // Compactar un bloque de filas en una sola transacción
+    // Se resta de cada fila lo que se leyó, así no se pierden los clicks que llegan mientras tanto
+    private long compactBatch(List<UrlClickCounter> pending) {
+
+        Map<Long, Integer> clicksByUrl = new HashMap<>();
+        Map<Long, Integer> suspiciousByUrl = new HashMap<>();
+        List<Long> counterIds = new ArrayList<>(pending.size());
+
+        for (UrlClickCounter counter : pending) {
+            clickCounterRepository.subtractClicks(counter.getId(), counter.getClicks(), counter.getSuspiciousClicks());
+            if (counter.getClicks() > 0) {
+                clicksByUrl.merge(counter.getUrlId(), counter.getClicks(), Integer::sum);
+            }
+            if (counter.getSuspiciousClicks() > 0) {
+                suspiciousByUrl.merge(counter.getUrlId(), counter.getSuspiciousClicks(), Integer::sum);
+            }
+            counterIds.add(counter.getId());
+        }
+
+        urlStore.addClicks(clicksByUrl, suspiciousByUrl);
+        clickCounterRepository.deleteEmpty(counterIds);
+
+        return clicksByUrl.values().stream().mapToLong(Integer::longValue).sum()
+                + suspiciousByUrl.values().stream().mapToLong(Integer::longValue).sum();
+    }
+}
@@ -0,0 +1,219 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.bryam.urlshortener.journal.ClickJournalReader;
+import com.bryam.urlshortener.journal.ClickRecord;
+import com.bryam.urlshortener.journal.ClickRingBuffer;
+import com.bryam.urlshortener.journal.JournalPosition;
+import com.bryam.urlshortener.journal.JournalSegment;
+import com.bryam.urlshortener.service.ClickJournalService;
+import com.bryam.urlshortener.util.HashUtil;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class ClickJournalServiceImpl implements ClickJournalService {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter appendedClicks;
+    private final Counter droppedClicks;
+
+    @Value("${app.clicks.journal.enabled}")
+    private boolean enabled;
+
+    @Value("${app.clicks.journal.directory}")
+    private String directory;
+
+    @Value("${app.clicks.journal.segment-size-mb}")
+    private int segmentSizeMb;
+
+    @Value("${app.clicks.journal.segment-max-age-seconds}")
+    private long segmentMaxAgeSeconds;
+
+    @Value("${app.clicks.journal.retention-segments}")
+    private int retentionSegments;
+
+    @Value("${app.clicks.journal.ring-capacity}")
+    private int ringCapacity;
+
+    @Value("${app.clicks.journal.fsync-interval-ms}")
+    private long fsyncIntervalMs;
+
+    @Value("${app.clicks.ip-hash-salt}")
+    private String ipHashSalt;
+
+    private Path journalDirectory;
+    private ClickRingBuffer ringBuffer;
+    private JournalSegment currentSegment;
+    private Thread writerThread;
+    private volatile boolean running;
+    // Al agotar la espera del apagado el escritor deja de vaciar la cola y termina
+    private volatile boolean discardPending;
+
+    public ClickJournalServiceImpl(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.appendedClicks = Counter.builder("clicks.journal.appended")
+                .description("Click records written to the journal")
+                .register(meterRegistry);
+        this.droppedClicks = Counter.builder("clicks.journal.dropped")
+                .description("Click records dropped because the journal queue was full")
+                .register(meterRegistry);
+    }
+
+    // Al iniciar siempre se abre un segmento nuevo, los anteriores quedan intactos para la reproducción
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            log.info("Click journal disabled");
+            return;
+        }
+
+        journalDirectory = Path.of(directory);
+        Files.createDirectories(journalDirectory);
+        ringBuffer = new ClickRingBuffer(ringCapacity);
+        currentSegment = JournalSegment.create(journalDirectory, nextSequence(), segmentSizeMb * 1024 * 1024);
+
+        Gauge.builder("clicks.journal.queue.size", ringBuffer, ClickRingBuffer::size)
+                .description("Click records waiting to be written to the journal")
+                .register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::writeLoop, "click-journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        log.info("Click journal started in {} (segment {})", journalDirectory, currentSegment.sequence());
+    }
+
+    @Override
+    public boolean append(String shortCode, String clientIp) {
+        if (!running) {
+            return false;
+        }
+
+        ClickRecord clickRecord = new ClickRecord(shortCode, System.currentTimeMillis(),
+                HashUtil.hash64(ipHashSalt + clientIp));
+
+        // Si la cola esta llena se descarta el registro, la redirección nunca espera por el diario
+        if (!ringBuffer.offer(clickRecord)) {
+            droppedClicks.increment();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public JournalPosition replay(JournalPosition from, BiConsumer<ClickRecord, JournalPosition> consumer) {
+        try {
+            return new ClickJournalReader(Path.of(directory)).replay(from, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not replay the click journal", e);
+        }
+    }
+
+    // Ciclo del único hilo escritor, vacía la cola al segmento actual
+    // El segmento solo lo toca este hilo, también lo cierra al terminar
+    private void writeLoop() {
+        try {
+            drainLoop();
+        } finally {
+            try {
+                currentSegment.close();
+            } catch (IOException e) {
+                log.error("Could not close click journal segment {}", currentSegment.sequence(), e);
+            }
+        }
+    }
+
+    private void drainLoop() {
+        long lastForce = System.nanoTime();
+        long forceIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        long maxAgeMillis = TimeUnit.SECONDS.toMillis(segmentMaxAgeSeconds);
+
+        while (running || (!discardPending && ringBuffer.size() > 0)) {
+            try {
+                ClickRecord clickRecord = ringBuffer.poll();
+
+                if (clickRecord == null) {
+                    // Sin trabajo, se aprovecha para sincronizar y revisar la edad del segmento
+                    if (System.nanoTime() - lastForce >= forceIntervalNanos) {
+                        currentSegment.force();
+                        lastForce = System.nanoTime();
+                    }
+                    if (System.currentTimeMillis() - currentSegment.createdAtMillis() >= maxAgeMillis
+                            && currentSegment.position() > JournalSegment.HEADER_SIZE) {
+                        rollSegment();
+                    }
+                    LockSupport.parkNanos(100_000L);
+                    continue;
+                }
+
+                if (!currentSegment.append(clickRecord)) {
+                    rollSegment();
+                    currentSegment.append(clickRecord);
+                }
+                appendedClicks.increment();
+
+            } catch (IOException | RuntimeException e) {
+                log.error("Click journal writer error", e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+    }
+
+    // Cerrar el segmento actual, abrir el siguiente y borrar los que exceden la retención
+    private void rollSegment() throws IOException {
+        JournalSegment previous = currentSegment;
+        currentSegment = JournalSegment.create(journalDirectory, previous.sequence() + 1,
+                segmentSizeMb * 1024 * 1024);
+        previous.close();
+        log.debug("Click journal rolled to segment {}", currentSegment.sequence());
+
+        List<Path> segments = new ClickJournalReader(journalDirectory).listSegments();
+        for (int i = 0; i < segments.size() - retentionSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    // Siguiente numero de segmento según los archivos que ya existen
+    private long nextSequence() throws IOException {
+        List<Path> segments = new ClickJournalReader(journalDirectory).listSegments();
+        return segments.isEmpty() ? 0L : JournalSegment.parseSequence(segments.get(segments.size() - 1)) + 1;
+    }
+
+    // Al apagar se espera a que el escritor vacíe la cola, el mismo escritor sincroniza y cierra el segmento
+    // Si no termina a tiempo se descarta lo pendiente y se espera a que salga, nunca se cierra el segmento
+    // mientras el escritor puede estar escribiendo en el
+    // No se interrumpe el hilo, una interrupción durante una operación del canal lo cerraría a medias
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        if (writerThread.isAlive()) {
+            log.warn("Click journal writer did not drain in time, discarding {} pending records", ringBuffer.size());
+            discardPending = true;
+            writerThread.join();
+        }
+        log.info("Click journal stopped");
+    }
+}
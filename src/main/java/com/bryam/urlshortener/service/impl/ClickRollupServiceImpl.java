@@ -0,0 +1,248 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bryam.urlshortener.dto.response.ClickBucketResponseDTO;
+import com.bryam.urlshortener.dto.response.ClickTimeseriesResponseDTO;
+import com.bryam.urlshortener.exception.UrlNotFoundException;
+import com.bryam.urlshortener.model.UrlClickRollup;
+import com.bryam.urlshortener.model.enums.RollupGranularity;
+import com.bryam.urlshortener.repository.UrlClickRollupRepository;
+import com.bryam.urlshortener.rollup.BucketDelta;
+import com.bryam.urlshortener.rollup.LinkRollup;
+import com.bryam.urlshortener.service.ClickRollupService;
+import com.bryam.urlshortener.service.JobLockService;
+import com.bryam.urlshortener.store.UrlStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class ClickRollupServiceImpl implements ClickRollupService {
+
+    private static final String RETENTION_JOB_NAME = "click-rollup-retention";
+
+    private final UrlClickRollupRepository clickRollupRepository;
+    private final UrlStore urlStore;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter droppedClicks;
+
+    // Acumulados en memoria de las urls con clicks recientes
+    private final Map<Long, LinkRollup> links = new ConcurrentHashMap<>();
+
+    // Urls quitadas de memoria en el vaciado anterior, se vacían una vez mas por si llego un click tardío
+    private volatile Map<Long, LinkRollup> retiring = Map.of();
+
+    // Un vaciado pasa clicks de la memoria a la base, la serie se lee sin un vaciado a la mitad
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    @Value("${app.rollups.max-active-links}")
+    private int maxActiveLinks;
+
+    @Value("${app.rollups.idle-minutes}")
+    private long idleMinutes;
+
+    @Value("${app.rollups.max-points}")
+    private int maxPoints;
+
+    @Value("${app.rollups.minute-retention-hours}")
+    private long minuteRetentionHours;
+
+    @Value("${app.rollups.hour-retention-days}")
+    private long hourRetentionDays;
+
+    @Value("${app.rollups.day-retention-days}")
+    private long dayRetentionDays;
+
+    public ClickRollupServiceImpl(UrlClickRollupRepository clickRollupRepository, UrlStore urlStore,
+            JobLockService jobLockService, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.clickRollupRepository = clickRollupRepository;
+        this.urlStore = urlStore;
+        this.jobLockService = jobLockService;
+        this.transactionTemplate = transactionTemplate;
+        this.droppedClicks = Counter.builder("clicks.rollup.dropped")
+                .description("Clicks left out of the rollups because too many links were active")
+                .register(meterRegistry);
+        Gauge.builder("clicks.rollup.active.links", links, Map::size)
+                .description("Links with click buckets held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void recordClick(Long urlId, long timestampMillis) {
+        LinkRollup link = links.get(urlId);
+
+        if (link == null) {
+            // Se acota la memoria, si hay demasiadas urls activas el click no entra en la serie
+            if (links.size() >= maxActiveLinks) {
+                droppedClicks.increment();
+                return;
+            }
+            link = links.computeIfAbsent(urlId, id -> new LinkRollup());
+        }
+
+        link.record(timestampMillis);
+    }
+
+    // Sin transacción de lectura alrededor: con REPEATABLE READ la foto de la base podría ser anterior
+    // al ultimo vaciado y los clicks que ya salieron de la memoria no estarían en ninguna de las dos partes
+    @Override
+    public ClickTimeseriesResponseDTO getTimeseries(String shortCode, Long userId, RollupGranularity granularity,
+            Integer points) {
+
+        Long urlId = urlStore.findIdByShortCodeAndUserId(shortCode, userId)
+                .orElseThrow(() -> new UrlNotFoundException("URL not found: " + shortCode));
+
+        int size = points == null || points < 1 ? granularity.getRingSize() : Math.min(points, maxPoints);
+        long to = BucketDelta.bucketOf(granularity, System.currentTimeMillis());
+        long from = to - size + 1;
+
+        // Intervalos guardados mas los clicks que todavía están en memoria
+        long[] totals = new long[size];
+        flushLock.readLock().lock();
+        try {
+            for (UrlClickRollup row : clickRollupRepository.findBuckets(
+                    urlId, granularity, BucketDelta.bucketStart(granularity, from))) {
+                long bucket = BucketDelta.bucketOf(granularity,
+                        row.getBucketStart().toInstant(ZoneOffset.UTC).toEpochMilli());
+                if (bucket <= to) {
+                    totals[(int) (bucket - from)] += row.getClicks();
+                }
+            }
+
+            LinkRollup link = links.get(urlId);
+            if (link == null) {
+                link = retiring.get(urlId);
+            }
+            if (link != null) {
+                link.addPending(granularity, from, totals);
+            }
+        } finally {
+            flushLock.readLock().unlock();
+        }
+
+        List<ClickBucketResponseDTO> buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(ClickBucketResponseDTO.builder()
+                    .bucketStartResponse(BucketDelta.bucketStart(granularity, from + i))
+                    .clicksResponse(totals[i])
+                    .build());
+        }
+
+        return ClickTimeseriesResponseDTO.builder()
+                .urlCodeResponse(shortCode)
+                .granularityResponse(granularity)
+                .bucketsResponse(buckets)
+                .build();
+    }
+
+    // Tarea programada, cada instancia guarda sus propios acumulados, las sumas son aditivas
+    @Scheduled(fixedDelayString = "${app.rollups.flush-interval-ms}",
+            initialDelayString = "${app.rollups.flush-interval-ms}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @Override
+    public synchronized int flush() {
+        long now = System.currentTimeMillis();
+        long idleMillis = Duration.ofMinutes(idleMinutes).toMillis();
+        int saved = 0;
+
+        for (Map.Entry<Long, LinkRollup> entry : retiring.entrySet()) {
+            saved += flushLink(entry.getKey(), entry.getValue());
+        }
+
+        Map<Long, LinkRollup> nextRetiring = new HashMap<>();
+        for (Map.Entry<Long, LinkRollup> entry : links.entrySet()) {
+            LinkRollup link = entry.getValue();
+            saved += flushLink(entry.getKey(), link);
+
+            // Las urls sin clicks recientes y sin pendientes se quitan de memoria
+            if (link.isIdle(now, idleMillis) && links.remove(entry.getKey(), link)) {
+                nextRetiring.put(entry.getKey(), link);
+            }
+        }
+        retiring = nextRetiring;
+
+        if (saved > 0) {
+            log.debug("Flushed {} click rollup buckets", saved);
+        }
+        return saved;
+    }
+
+    // Al apagar se guardan los clicks pendientes
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    // Tarea programada, elimina los intervalos que superan la retención de su granularidad
+    @Scheduled(cron = "${app.rollups.retention-cron}")
+    public void scheduledRetention() {
+
+        if (!jobLockService.tryAcquire(RETENTION_JOB_NAME, Duration.ofMinutes(10))) {
+            return;
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+            int deleted = clickRollupRepository.deleteOlderThan(RollupGranularity.MINUTE,
+                    now.minusHours(minuteRetentionHours));
+            deleted += clickRollupRepository.deleteOlderThan(RollupGranularity.HOUR,
+                    now.minusDays(hourRetentionDays));
+            deleted += clickRollupRepository.deleteOlderThan(RollupGranularity.DAY,
+                    now.minusDays(dayRetentionDays));
+            log.info("Click rollup retention removed {} buckets", deleted);
+        } catch (Exception e) {
+            log.error("Click rollup retention failed", e);
+        } finally {
+            jobLockService.release(RETENTION_JOB_NAME);
+        }
+    }
+
+    // Los clicks salen de la memoria y quedan confirmados en la base sin que una lectura vea el intermedio
+    private int flushLink(Long urlId, LinkRollup link) {
+        List<BucketDelta> deltas = new ArrayList<>();
+        flushLock.writeLock().lock();
+        try {
+            link.drain(deltas);
+
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+
+            // Si no se pueden guardar, los clicks vuelven a la memoria para el siguiente vaciado
+            try {
+                transactionTemplate.executeWithoutResult(status -> deltas.forEach(delta -> clickRollupRepository
+                        .addClicks(urlId, delta.granularity().name(), delta.bucketStart(), delta.clicks())));
+                return deltas.size();
+            } catch (RuntimeException e) {
+                deltas.forEach(link::restore);
+                log.warn("Could not flush click rollups of URL {}, retrying on the next flush", urlId, e);
+                return 0;
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.bryam.urlshortener.service.impl;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.springframework.stereotype.Service;
 
-import com.bryam.urlshortener.repository.UrlRepository;
+import com.bryam.urlshortener.metrics.UrlPipelineMetrics;
+import com.bryam.urlshortener.repository.UrlArchiveRepository;
 import com.bryam.urlshortener.service.CodeGeneratorService;
+import com.bryam.urlshortener.store.UrlStore;
 import com.bryam.urlshortener.util.Base62Util;
 import com.bryam.urlshortener.util.HashUtil;
+import com.bryam.urlshortener.util.ShardKeyUtil;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,33 +23,40 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class CodeGeneratorServiceImpl implements CodeGeneratorService {
 
-    private final UrlRepository urlRepository;
-    
-    private static final int INITIAL_LENGTH = 7;
-    private static final int MAX_LENGTH = 12;
-    private static final int MAX_COLLISION_ATTEMPTS = 5;
+    private final UrlStore urlStore;
+    private final UrlArchiveRepository urlArchiveRepository;
+    private final UrlPipelineMetrics pipelineMetrics;
 
     @Override
-    public String[] generateCodeHash(String originalUrl) {
-        log.debug("Generating hash code for URL: {}", originalUrl);
-
-        //Generar el hash completo de 64 caracteres
-        String fullHash = HashUtil.generateHash(originalUrl);
+    public String generateCodeHash(String fullHash) {
+        //Los candidatos son los prefijos del hash de cada largo, se buscan todos juntos
+        List<String> candidates = new ArrayList<>();
+        for(int length = HashUtil.MIN_CODE_LENGTH; length <= HashUtil.MAX_CODE_LENGTH; length++) {
+            candidates.add(HashUtil.extractCode(fullHash, length));
+        }
 
-        //Recortar longitud de hash para encontrar un código único
-        for(int length = INITIAL_LENGTH; length <= MAX_LENGTH; length++) {
-            String shortCode = HashUtil.extractCode(fullHash, length);
+        //Verificar que códigos ya existen para que no haya colisiones, también entre los archivados
+        //Una consulta por tabla sin importar cuantos largos choquen
+        Set<String> taken = pipelineMetrics.time(UrlPipelineMetrics.SHORTEN_ANONYMOUS, "collision_check", () -> {
+            Set<String> codes = new HashSet<>(urlStore.findExistingShortCodes(candidates));
+            codes.addAll(urlArchiveRepository.findExistingShortCodes(candidates));
+            return codes;
+        });
 
-            //Verificar si el código ya existe para que no haya colisiones
-            if (!urlRepository.existsByShortCode(shortCode)) {
-                log.debug("Generated unique code: {} for URL: {}", shortCode, originalUrl);
-                return new String[] {shortCode, fullHash};
+        //Se usa el código mas corto libre, los mas cortos en uso cuentan como colisión
+        for(String shortCode : candidates) {
+            boolean collision = taken.contains(shortCode);
+            pipelineMetrics.codeAttempt(shortCode.length(), collision);
+            if (!collision) {
+                log.debug("Generated unique code: {} for hash: {}", shortCode, fullHash);
+                return shortCode;
             }
             //Si hay colisión, se intenta con un código mas largo y se registrar en un log
-            log.debug("Collision detected in length {} for code {}. Trying longer code.", length, shortCode);
+            log.debug("Collision detected in length {} for code {}. Trying longer code.",
+                    shortCode.length(), shortCode);
         }
         //Se captura el error con un log
-        log.error("A unique code could not be generated after {} attempts", MAX_COLLISION_ATTEMPTS);
+        log.error("A unique code could not be generated after {} attempts", candidates.size());
         //Se lanza una excepción para detener el hilo
         throw new IllegalStateException("Could not generate unique code after maximum attempts");
     }
@@ -55,6 +70,12 @@ public class CodeGeneratorServiceImpl implements CodeGeneratorService {
         }
         //Generación del código en base 62 usando la utilidad Base62Util
         String code = Base62Util.encode(id);
+
+        //Con varias particiones se agrega un carácter para que el código caiga en la partición que asignó el id
+        int shards = urlStore.shardCount();
+        if (shards > 1) {
+            code = ShardKeyUtil.appendShardDigit(code, ShardKeyUtil.shardOfId(id, shards), shards);
+        }
         log.debug("code Base62 generated: {} for ID: {}", code, id);
         return code;
     }
@@ -0,0 +1,342 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bryam.urlshortener.dto.response.GlobalStatsResponseDTO;
+import com.bryam.urlshortener.model.GlobalStat;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.repository.GlobalStatRepository;
+import com.bryam.urlshortener.repository.UrlArchiveRepository;
+import com.bryam.urlshortener.repository.UrlClickCounterRepository;
+import com.bryam.urlshortener.repository.projection.PendingClicksProjection;
+import com.bryam.urlshortener.repository.projection.StateTypeCountProjection;
+import com.bryam.urlshortener.service.GlobalStatsService;
+import com.bryam.urlshortener.service.JobLockService;
+import com.bryam.urlshortener.store.UrlStore;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class GlobalStatsServiceImpl implements GlobalStatsService {
+
+    private static final String REBUILD_JOB_NAME = "global-stats-rebuild";
+
+    // Nombres de las estadísticas guardadas
+    private static final String URLS_PREFIX = "urls.";
+    private static final String URLS_CREATED = "urls.created";
+    private static final String CLICKS = "clicks";
+    private static final String CLICKS_SUSPICIOUS = "clicks.suspicious";
+
+    private final GlobalStatRepository globalStatRepository;
+    private final UrlStore urlStore;
+    private final UrlArchiveRepository urlArchiveRepository;
+    private final UrlClickCounterRepository clickCounterRepository;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Incrementos de esta instancia que todavía no se guardaron, por estadística y dia
+    private final Map<StatKey, LongAdder> pending = new ConcurrentHashMap<>();
+
+    @Value("${app.global-stats.rate-days}")
+    private int rateDays;
+
+    @Value("${app.global-stats.day-retention-days}")
+    private long dayRetentionDays;
+
+    @Value("${app.global-stats.lock-seconds}")
+    private long lockSeconds;
+
+    public GlobalStatsServiceImpl(GlobalStatRepository globalStatRepository, UrlStore urlStore,
+            UrlArchiveRepository urlArchiveRepository, UrlClickCounterRepository clickCounterRepository,
+            JobLockService jobLockService, TransactionTemplate transactionTemplate) {
+        this.globalStatRepository = globalStatRepository;
+        this.urlStore = urlStore;
+        this.urlArchiveRepository = urlArchiveRepository;
+        this.clickCounterRepository = clickCounterRepository;
+        this.jobLockService = jobLockService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void urlCreated(TypeUrl typeUrl) {
+        urlsCreated(typeUrl, 1);
+    }
+
+    @Override
+    public void urlsCreated(TypeUrl typeUrl, long count) {
+        if (count == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            add(stateKey(StateUrl.ACTIVE, typeUrl), GlobalStat.LIFETIME_DAY, count);
+            add(URLS_CREATED, GlobalStat.LIFETIME_DAY, count);
+            add(URLS_CREATED, today(), count);
+        });
+    }
+
+    @Override
+    public void urlStateChanged(TypeUrl typeUrl, StateUrl from, StateUrl to, long count) {
+        if (count == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            add(stateKey(from, typeUrl), GlobalStat.LIFETIME_DAY, -count);
+            add(stateKey(to, typeUrl), GlobalStat.LIFETIME_DAY, count);
+        });
+    }
+
+    @Override
+    public void urlsRemoved(TypeUrl typeUrl, StateUrl stateUrl, long count) {
+        if (count == 0) {
+            return;
+        }
+        afterCommit(() -> add(stateKey(stateUrl, typeUrl), GlobalStat.LIFETIME_DAY, -count));
+    }
+
+    @Override
+    public void clickRecorded(boolean suspicious) {
+        String key = suspicious ? CLICKS_SUSPICIOUS : CLICKS;
+        add(key, GlobalStat.LIFETIME_DAY, 1);
+        add(key, today(), 1);
+    }
+
+    @Override
+    public GlobalStatsResponseDTO getGlobalStats() {
+        LocalDate today = today();
+        LocalDate from = today.minusDays(rateDays - 1L);
+
+        // Valores guardados mas los incrementos de esta instancia que todavía no se guardaron
+        Map<StatKey, Long> values = new HashMap<>();
+        LocalDateTime checkpointedAt = null;
+        LocalDateTime rebuiltAt = null;
+
+        for (GlobalStat stat : globalStatRepository.findLifetimeAndSince(GlobalStat.LIFETIME_DAY, from)) {
+            values.merge(new StatKey(stat.getStatKey(), stat.getBucketDay()), stat.getStatValue(), Long::sum);
+            if (checkpointedAt == null || stat.getUpdatedAt().isAfter(checkpointedAt)) {
+                checkpointedAt = stat.getUpdatedAt();
+            }
+            if (stat.getRebuiltAt() != null && (rebuiltAt == null || stat.getRebuiltAt().isAfter(rebuiltAt))) {
+                rebuiltAt = stat.getRebuiltAt();
+            }
+        }
+        pending.forEach((key, adder) -> values.merge(key, adder.sum(), Long::sum));
+
+        Map<StateUrl, Long> byState = new EnumMap<>(StateUrl.class);
+        Map<TypeUrl, Long> byType = new EnumMap<>(TypeUrl.class);
+        Map<String, Long> byStateAndType = new LinkedHashMap<>();
+        long total = 0;
+
+        for (StateUrl state : StateUrl.values()) {
+            for (TypeUrl type : TypeUrl.values()) {
+                long count = lifetime(values, stateKey(state, type));
+                byState.merge(state, count, Long::sum);
+                byType.merge(type, count, Long::sum);
+                byStateAndType.put(state + "." + type, count);
+                total += count;
+            }
+        }
+
+        Map<LocalDate, Long> createdByDay = new TreeMap<>();
+        Map<LocalDate, Long> clicksByDay = new TreeMap<>();
+        for (LocalDate day = from; !day.isAfter(today); day = day.plusDays(1)) {
+            createdByDay.put(day, values.getOrDefault(new StatKey(URLS_CREATED, day), 0L));
+            clicksByDay.put(day, values.getOrDefault(new StatKey(CLICKS, day), 0L));
+        }
+
+        return GlobalStatsResponseDTO.builder()
+                .urlsTotalResponse(total)
+                .urlsByStateResponse(byState)
+                .urlsByTypeResponse(byType)
+                .urlsByStateAndTypeResponse(byStateAndType)
+                .clicksTotalResponse(lifetime(values, CLICKS))
+                .clicksSuspiciousResponse(lifetime(values, CLICKS_SUSPICIOUS))
+                .clicksTodayResponse(clicksByDay.get(today))
+                .urlsCreatedTodayResponse(createdByDay.get(today))
+                .urlsCreatedByDayResponse(createdByDay)
+                .clicksByDayResponse(clicksByDay)
+                .checkpointedAtResponse(checkpointedAt)
+                .rebuiltAtResponse(rebuiltAt)
+                .build();
+    }
+
+    // Tarea programada, cada instancia suma sus propios incrementos
+    @Scheduled(fixedDelayString = "${app.global-stats.flush-interval-ms}",
+            initialDelayString = "${app.global-stats.flush-interval-ms}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @Override
+    public synchronized int flush() {
+        LocalDate today = today();
+        List<Map.Entry<StatKey, Long>> deltas = new ArrayList<>();
+
+        for (Map.Entry<StatKey, LongAdder> entry : pending.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                deltas.add(Map.entry(entry.getKey(), delta));
+            } else if (entry.getKey().day().isAfter(GlobalStat.LIFETIME_DAY)
+                    && entry.getKey().day().isBefore(today)) {
+                // Los días anteriores ya no reciben incrementos, se quitan de memoria
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> deltas.forEach(delta -> globalStatRepository
+                    .addValue(delta.getKey().key(), delta.getKey().day(), delta.getValue(), now)));
+        } catch (Exception e) {
+            // Se devuelven los incrementos para el siguiente intento
+            deltas.forEach(delta -> add(delta.getKey().key(), delta.getKey().day(), delta.getValue()));
+            log.error("Could not flush {} global stats", deltas.size(), e);
+            return 0;
+        }
+
+        return deltas.size();
+    }
+
+    // Al iniciar, si nunca se calcularon los totales se construyen desde las tablas una sola vez
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!globalStatRepository.existsByBucketDayAndRebuiltAtIsNotNull(GlobalStat.LIFETIME_DAY)) {
+            scheduledRebuild();
+        }
+    }
+
+    // Tarea programada, corrige el desvío de los totales y limpia los valores diarios vencidos
+    // Es la única consulta que recorre la tabla urls, y se ejecuta en una sola instancia
+    @Scheduled(cron = "${app.global-stats.rebuild-cron}")
+    public void scheduledRebuild() {
+
+        if (!jobLockService.tryAcquire(REBUILD_JOB_NAME, Duration.ofSeconds(lockSeconds))) {
+            return;
+        }
+
+        try {
+            rebuild();
+            globalStatRepository.deleteDailyOlderThan(today().minusDays(dayRetentionDays), GlobalStat.LIFETIME_DAY);
+        } catch (Exception e) {
+            log.error("Global stats rebuild failed", e);
+        } finally {
+            jobLockService.release(REBUILD_JOB_NAME);
+        }
+    }
+
+    @Override
+    public void rebuild() {
+
+        // Primero se guardan los incrementos propios, así no se suman dos veces sobre el recalculo
+        // Los incrementos pendientes de otras instancias pueden contarse de nuevo, el desvío es
+        // como máximo lo que una instancia acumula entre dos guardados y se corrige en el siguiente recalculo
+        flush();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            boolean initialized = globalStatRepository.existsByBucketDayAndRebuiltAtIsNotNull(GlobalStat.LIFETIME_DAY);
+            Map<String, Long> counts = new HashMap<>();
+            long clicks = 0;
+            long suspiciousClicks = 0;
+
+            List<StateTypeCountProjection> rows = new ArrayList<>(urlStore.countByStateAndType());
+            rows.addAll(urlArchiveRepository.countByStateAndType());
+
+            for (StateTypeCountProjection row : rows) {
+                counts.merge(stateKey(row.stateUrl(), row.typeUrl()), row.urls(), Long::sum);
+                clicks += row.clicks();
+                suspiciousClicks += row.suspiciousClicks();
+            }
+
+            for (StateUrl state : StateUrl.values()) {
+                for (TypeUrl type : TypeUrl.values()) {
+                    String key = stateKey(state, type);
+                    globalStatRepository.setValue(key, GlobalStat.LIFETIME_DAY, counts.getOrDefault(key, 0L), now);
+                }
+            }
+
+            // Los clicks y las creaciones no se pueden recalcular después de una purga,
+            // solo se inicializan la primera vez desde lo que hay guardado
+            if (!initialized) {
+                PendingClicksProjection pendingClicks = clickCounterRepository.sumAllClicks();
+                long urls = counts.values().stream().mapToLong(Long::longValue).sum();
+
+                globalStatRepository.setValue(CLICKS, GlobalStat.LIFETIME_DAY, clicks + pendingClicks.clicks(), now);
+                globalStatRepository.setValue(CLICKS_SUSPICIOUS, GlobalStat.LIFETIME_DAY,
+                        suspiciousClicks + pendingClicks.suspiciousClicks(), now);
+                globalStatRepository.setValue(URLS_CREATED, GlobalStat.LIFETIME_DAY, urls, now);
+            }
+        });
+
+        log.info("Global stats rebuilt from the urls and archive tables");
+    }
+
+    // Guardar los incrementos pendientes al apagar la instancia
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // Sumar un incremento en memoria, sin bloquear a otros hilos
+    private void add(String key, LocalDate day, long delta) {
+        pending.computeIfAbsent(new StatKey(key, day), k -> new LongAdder()).add(delta);
+    }
+
+    // Aplicar un incremento cuando la transacción confirma, si la transacción se revierte no se cuenta
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long lifetime(Map<StatKey, Long> values, String key) {
+        return values.getOrDefault(new StatKey(key, GlobalStat.LIFETIME_DAY), 0L);
+    }
+
+    private static String stateKey(StateUrl stateUrl, TypeUrl typeUrl) {
+        return URLS_PREFIX + stateUrl + "." + typeUrl;
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    // Clave de una estadística en un dia
+    private record StatKey(String key, LocalDate day) {
+    }
+}
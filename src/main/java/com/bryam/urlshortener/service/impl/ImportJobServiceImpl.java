@@ -0,0 +1,564 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.bryam.urlshortener.dto.response.ImportJobResponseDTO;
+import com.bryam.urlshortener.exception.ImportJobNotFoundException;
+import com.bryam.urlshortener.exception.InvalidImportFileException;
+import com.bryam.urlshortener.exception.InvalidUrlException;
+import com.bryam.urlshortener.model.ImportJob;
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.ImportJobState;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.repository.ImportJobRepository;
+import com.bryam.urlshortener.repository.UrlArchiveRepository;
+import com.bryam.urlshortener.service.CodeGeneratorService;
+import com.bryam.urlshortener.service.GlobalStatsService;
+import com.bryam.urlshortener.service.ImportJobService;
+import com.bryam.urlshortener.service.ValidatorUrlService;
+import com.bryam.urlshortener.store.UrlStore;
+import com.bryam.urlshortener.util.CsvUtil;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+//Importación masiva de urls de un usuario registrado, en segundo plano
+//El archivo se lee linea por linea, cada bloque se valida en paralelo, los slugs se verifican con una consulta
+//por bloque y las urls se guardan con un solo lote de INSERT junto con el progreso del trabajo
+//No pasa por el limite diario de los usuarios, el ritmo lo acota app.imports.target-rows-per-second
+@Slf4j
+@Service
+public class ImportJobServiceImpl implements ImportJobService {
+
+    private static final String DATA_SUFFIX = ".csv";
+    private static final String FAILURES_SUFFIX = ".failures.csv";
+    private static final String FAILURES_HEADER = "line,slug,original_url,reason";
+
+    // Largo de la columna short_code
+    private static final int MAX_SLUG_LENGTH = 10;
+
+    private final ImportJobRepository importJobRepository;
+    private final UrlStore urlStore;
+    private final UrlArchiveRepository urlArchiveRepository;
+    private final ValidatorUrlService validatorUrlService;
+    private final CodeGeneratorService codeGeneratorService;
+    private final GlobalStatsService globalStatsService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Métricas de las importaciones, filas por resultado y duración de cada bloque
+    private final Counter importedRows;
+    private final Counter failedRows;
+    private final Timer batchDuration;
+
+    @Value("${app.imports.directory}")
+    private String directory;
+
+    @Value("${app.imports.concurrent-jobs}")
+    private int concurrentJobs;
+
+    @Value("${app.imports.validation-threads}")
+    private int validationThreads;
+
+    @Value("${app.imports.batch-size}")
+    private int batchSize;
+
+    @Value("${app.imports.target-rows-per-second}")
+    private long targetRowsPerSecond;
+
+    private ExecutorService jobExecutor;
+    private ForkJoinPool validationPool;
+
+    public ImportJobServiceImpl(ImportJobRepository importJobRepository, UrlStore urlStore,
+            UrlArchiveRepository urlArchiveRepository, ValidatorUrlService validatorUrlService,
+            CodeGeneratorService codeGeneratorService, GlobalStatsService globalStatsService,
+            TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.importJobRepository = importJobRepository;
+        this.urlStore = urlStore;
+        this.urlArchiveRepository = urlArchiveRepository;
+        this.validatorUrlService = validatorUrlService;
+        this.codeGeneratorService = codeGeneratorService;
+        this.globalStatsService = globalStatsService;
+        this.transactionTemplate = transactionTemplate;
+        this.importedRows = Counter.builder("urls.imports.rows")
+                .description("Rows processed by bulk imports")
+                .tag("outcome", "imported")
+                .register(meterRegistry);
+        this.failedRows = Counter.builder("urls.imports.rows")
+                .description("Rows processed by bulk imports")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.batchDuration = Timer.builder("urls.imports.batch.duration")
+                .description("Time to validate and store one block of an import")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(Path.of(directory));
+        jobExecutor = Executors.newFixedThreadPool(concurrentJobs,
+                Thread.ofPlatform().name("url-import-", 0).daemon(true).factory());
+        validationPool = new ForkJoinPool(validationThreads);
+    }
+
+    // Al detenerse los trabajos quedan en RUNNING y se retoman desde la ultima linea confirmada
+    @PreDestroy
+    public void stop() {
+        jobExecutor.shutdownNow();
+        validationPool.shutdownNow();
+    }
+
+    // Retomar los trabajos sin terminar cuyo archivo esta en esta instancia
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingJobs() {
+        for (ImportJob job : importJobRepository
+                .findByStateInOrderById(List.of(ImportJobState.QUEUED, ImportJobState.RUNNING))) {
+            if (Files.exists(dataFile(job.getId()))) {
+                log.info("Resuming import job {} after line {}", job.getId(), job.getRowsRead());
+                jobExecutor.execute(() -> run(job.getId()));
+            }
+        }
+    }
+
+    @Override
+    public ImportJobResponseDTO submit(MultipartFile file, Long userId) {
+
+        if (file == null || file.isEmpty()) {
+            throw new InvalidImportFileException("The import file is empty");
+        }
+
+        ImportJob job = importJobRepository.save(ImportJob.builder()
+                .userId(userId)
+                .fileName(file.getOriginalFilename())
+                .state(ImportJobState.QUEUED)
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        // El archivo se copia a la carpeta de importaciones, la petición no espera a que se procese
+        try {
+            file.transferTo(dataFile(job.getId()));
+        } catch (IOException e) {
+            finish(job, ImportJobState.FAILED, "The import file could not be stored");
+            throw new InvalidImportFileException("The import file could not be stored", e);
+        }
+
+        log.info("Import job {} queued for user {} ({} bytes)", job.getId(), userId, file.getSize());
+        jobExecutor.execute(() -> run(job.getId()));
+        return convertADTO(job);
+    }
+
+    @Override
+    public ImportJobResponseDTO getJob(Long jobId, Long userId) {
+        return convertADTO(findOwnedJob(jobId, userId));
+    }
+
+    @Override
+    public Path getFailureReport(Long jobId, Long userId) {
+        findOwnedJob(jobId, userId);
+
+        Path report = failureFile(jobId);
+        if (!Files.exists(report)) {
+            throw new ImportJobNotFoundException("The failure report of this import is not available");
+        }
+        return report;
+    }
+
+    // Procesar el archivo de un trabajo desde la primera linea sin confirmar
+    private void run(Long jobId) {
+
+        ImportJob job = importJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getState() == ImportJobState.COMPLETED || job.getState() == ImportJobState.FAILED) {
+            return;
+        }
+
+        job = importJobRepository.save(job.toBuilder()
+                .state(ImportJobState.RUNNING)
+                .startedAt(job.getStartedAt() != null ? job.getStartedAt() : LocalDateTime.now())
+                .build());
+
+        long resumeAfter = job.getRowsRead();
+        long start = System.nanoTime();
+
+        // Un trabajo que empieza desde la primera linea reemplaza cualquier reporte anterior con el mismo id
+        StandardOpenOption mode = resumeAfter == 0 ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND;
+
+        try {
+            if (resumeAfter > 0) {
+                trimFailureReport(jobId, resumeAfter);
+            }
+        } catch (IOException e) {
+            log.error("Import job {} failed after line {}", jobId, resumeAfter, e);
+            finish(job, ImportJobState.FAILED, e.getMessage());
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(dataFile(jobId), StandardCharsets.UTF_8);
+                BufferedWriter failures = Files.newBufferedWriter(failureFile(jobId), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+
+            if (resumeAfter == 0) {
+                failures.write(FAILURES_HEADER);
+                failures.newLine();
+            }
+
+            List<ImportLine> block = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String text;
+
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= resumeAfter || text.isBlank() || (lineNumber == 1 && isHeader(text))) {
+                    continue;
+                }
+
+                block.add(new ImportLine(lineNumber, text));
+                if (block.size() >= batchSize) {
+                    job = importBlock(job, block, lineNumber, failures);
+                    block.clear();
+                    pace(lineNumber - resumeAfter, start);
+                }
+            }
+
+            // El ultimo bloque también guarda la ultima linea leída aunque no tenga filas
+            job = importBlock(job, block, lineNumber, failures);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Import job {} stopped after line {}, it resumes on the next start", jobId, job.getRowsRead());
+            return;
+        } catch (IOException | RuntimeException e) {
+            // Al detener la aplicación la lectura del archivo se corta, el trabajo se retoma después
+            if (jobExecutor.isShutdown()) {
+                log.info("Import job {} stopped after line {}, it resumes on the next start", jobId,
+                        job.getRowsRead());
+                return;
+            }
+            log.error("Import job {} failed after line {}", jobId, job.getRowsRead(), e);
+            finish(job, ImportJobState.FAILED, e.getMessage());
+            return;
+        }
+
+        finish(job, ImportJobState.COMPLETED, null);
+        deleteQuietly(dataFile(jobId));
+
+        long seconds = Math.max(1, Duration.ofNanos(System.nanoTime() - start).toSeconds());
+        log.info("Import job {} completed: {} imported, {} failed, {} rows/s (target {})", jobId,
+                job.getRowsImported(), job.getRowsFailed(), (job.getRowsRead() - resumeAfter) / seconds,
+                targetRowsPerSecond);
+    }
+
+    // Validar un bloque en paralelo, descartar los slugs usados y guardar el resto en una transacción
+    private ImportJob importBlock(ImportJob job, List<ImportLine> block, long lastLine, BufferedWriter failures)
+            throws IOException {
+
+        long start = System.nanoTime();
+
+        List<ImportRow> checked = validationPool.submit(() -> block.parallelStream()
+                .map(this::parse)
+                .toList())
+                .join();
+
+        // Slugs usados por urls, por urls archivadas o repetidos dentro del bloque
+        Set<String> slugs = checked.stream()
+                .filter(row -> row.error() == null && row.slug() != null)
+                .map(ImportRow::slug)
+                .collect(Collectors.toSet());
+        Set<String> taken = new HashSet<>(urlStore.findExistingShortCodes(slugs));
+        if (!slugs.isEmpty()) {
+            taken.addAll(urlArchiveRepository.findExistingShortCodes(slugs));
+        }
+
+        Set<String> seen = new HashSet<>();
+        List<ImportRow> accepted = new ArrayList<>();
+        List<ImportRow> rejected = new ArrayList<>();
+        for (ImportRow row : checked) {
+            if (row.error() != null) {
+                rejected.add(row);
+            } else if (row.slug() != null && (taken.contains(row.slug()) || !seen.add(row.slug()))) {
+                rejected.add(row.reject("The slug '" + row.slug() + "' is already in use"));
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        // Las filas rechazadas quedan en el reporte antes de confirmar el progreso, si el proceso se detiene entre
+        // las dos cosas el bloque se repite al retomar y trimFailureReport quita las lineas escritas de mas
+        writeFailures(failures, rejected);
+
+        ImportJob updated;
+        try {
+            updated = transactionTemplate.execute(status -> saveBlock(job, accepted, rejected.size(), lastLine));
+        } catch (DataIntegrityViolationException e) {
+            // Otra petición tomó un slug del bloque después de la verificación, se guarda fila por fila
+            log.warn("Import job {} block ending at line {} hit a unique constraint, retrying row by row",
+                    job.getId(), lastLine);
+            updated = saveRowByRow(job, accepted, rejected.size(), lastLine, failures);
+        }
+
+        importedRows.increment(updated.getRowsImported() - job.getRowsImported());
+        failedRows.increment(updated.getRowsFailed() - job.getRowsFailed());
+        batchDuration.record(Duration.ofNanos(System.nanoTime() - start));
+        return updated;
+    }
+
+    // Un solo lote de INSERT y el progreso del trabajo en la misma transacción
+    private ImportJob saveBlock(ImportJob job, List<ImportRow> accepted, int rejected, long lastLine) {
+        if (!accepted.isEmpty()) {
+            urlStore.createAll(accepted.stream().map(row -> toUrl(row, job.getUserId())).toList(),
+                    codeGeneratorService::generateCodeBase62);
+            globalStatsService.urlsCreated(TypeUrl.REGISTERED, accepted.size());
+        }
+        return importJobRepository.save(job.toBuilder()
+                .rowsRead(lastLine)
+                .rowsImported(job.getRowsImported() + accepted.size())
+                .rowsFailed(job.getRowsFailed() + rejected)
+                .build());
+    }
+
+    // Camino lento para un bloque con un slug tomado entre la verificación y el INSERT
+    private ImportJob saveRowByRow(ImportJob job, List<ImportRow> accepted, int rejected, long lastLine,
+            BufferedWriter failures) throws IOException {
+        long imported = 0;
+        List<ImportRow> conflicts = new ArrayList<>();
+        for (ImportRow row : accepted) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    urlStore.create(toUrl(row, job.getUserId()), codeGeneratorService::generateCodeBase62);
+                    globalStatsService.urlCreated(TypeUrl.REGISTERED);
+                });
+                imported++;
+            } catch (DataIntegrityViolationException e) {
+                conflicts.add(row.reject("The slug '" + row.slug() + "' is already in use"));
+            }
+        }
+        writeFailures(failures, conflicts);
+        return importJobRepository.save(job.toBuilder()
+                .rowsRead(lastLine)
+                .rowsImported(job.getRowsImported() + imported)
+                .rowsFailed(job.getRowsFailed() + rejected + conflicts.size())
+                .build());
+    }
+
+    private static void writeFailures(BufferedWriter failures, List<ImportRow> rows) throws IOException {
+        for (ImportRow row : rows) {
+            failures.write(Long.toString(row.line()));
+            failures.write(',');
+            failures.write(CsvUtil.value(row.slug()));
+            failures.write(',');
+            failures.write(CsvUtil.value(row.originalUrl()));
+            failures.write(',');
+            failures.write(CsvUtil.value(row.error()));
+            failures.newLine();
+        }
+        failures.flush();
+    }
+
+    // Al retomar se quitan del reporte las filas posteriores a la ultima linea confirmada
+    // Son de un bloque que no alcanzo a confirmarse, se vuelven a procesar y a reportar
+    private void trimFailureReport(Long jobId, long lastLine) throws IOException {
+        Path report = failureFile(jobId);
+        if (!Files.exists(report)) {
+            return;
+        }
+
+        Path trimmed = Path.of(directory, jobId + FAILURES_SUFFIX + ".tmp");
+        try (BufferedReader reader = Files.newBufferedReader(report, StandardCharsets.UTF_8);
+                BufferedWriter writer = Files.newBufferedWriter(trimmed, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line != null) {
+                // Encabezado
+                writer.write(line);
+                writer.newLine();
+            }
+            while ((line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma > 0 && Long.parseLong(line.substring(0, comma)) <= lastLine) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(trimmed, report, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Leer una linea slug,url o solo url y validarla con las mismas reglas de la creación individual
+    private ImportRow parse(ImportLine line) {
+        String text = line.text().strip();
+        int comma = text.indexOf(',');
+
+        // Si la primera columna ya es una url, la linea no tiene slug y la url puede tener comas
+        // Se decide por el formato completo, un slug como httpdocs también empieza con http
+        String first = comma < 0 ? text : text.substring(0, comma).strip();
+        boolean withSlug = comma >= 0 && !isAbsoluteUrl(CsvUtil.unquote(first));
+
+        String slug = withSlug ? CsvUtil.unquote(first) : null;
+        String originalUrl = CsvUtil.unquote(withSlug ? text.substring(comma + 1).strip() : text);
+        if (slug != null && slug.isEmpty()) {
+            slug = null;
+        }
+
+        try {
+            validatorUrlService.validateUrlFormat(originalUrl);
+            String normalizedUrl = validatorUrlService.normalizeUrl(originalUrl);
+
+            if (slug != null) {
+                validatorUrlService.validateSlug(slug);
+                if (slug.length() > MAX_SLUG_LENGTH) {
+                    throw new InvalidUrlException(
+                            "The slug must be at most " + MAX_SLUG_LENGTH + " characters long");
+                }
+                slug = slug.toLowerCase(Locale.ROOT);
+            }
+            return new ImportRow(line.number(), slug, normalizedUrl, null);
+
+        } catch (InvalidUrlException e) {
+            return new ImportRow(line.number(), slug, originalUrl, e.getMessage());
+        }
+    }
+
+    // Si el trabajo va por delante del ritmo objetivo espera, así no le quita la base de datos al resto del tráfico
+    private void pace(long rows, long startNanos) throws InterruptedException {
+        if (targetRowsPerSecond <= 0) {
+            return;
+        }
+        long aheadMs = rows * 1000 / targetRowsPerSecond - (System.nanoTime() - startNanos) / 1_000_000;
+        if (aheadMs > 0) {
+            Thread.sleep(aheadMs);
+        }
+    }
+
+    private void finish(ImportJob job, ImportJobState state, String errorMessage) {
+        importJobRepository.save(job.toBuilder()
+                .state(state)
+                .errorMessage(errorMessage != null && errorMessage.length() > 500
+                        ? errorMessage.substring(0, 500)
+                        : errorMessage)
+                .finishedAt(LocalDateTime.now())
+                .build());
+    }
+
+    private ImportJob findOwnedJob(Long jobId, Long userId) {
+        return importJobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new ImportJobNotFoundException("Import job not found: " + jobId));
+    }
+
+    // Url http o https con host, lo mínimo para distinguirla de un slug
+    private static boolean isAbsoluteUrl(String value) {
+        try {
+            URI uri = new URI(value);
+            return uri.getHost() != null
+                    && ("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()));
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    // Encabezado slug,original_url: la primera columna se llama slug y la segunda no es una url
+    // Una primera linea slug,https://... es una url con el slug "slug", y slugger,https://... también se importa
+    private static boolean isHeader(String text) {
+        String line = text.strip();
+        int comma = line.indexOf(',');
+        return comma >= 0
+                && "slug".equalsIgnoreCase(CsvUtil.unquote(line.substring(0, comma).strip()))
+                && !isAbsoluteUrl(CsvUtil.unquote(line.substring(comma + 1).strip()));
+    }
+
+    private static Url toUrl(ImportRow row, Long userId) {
+        return Url.builder()
+                .shortCode(row.slug())
+                .originalUrl(row.originalUrl())
+                .typeUrl(TypeUrl.REGISTERED)
+                .stateUrl(StateUrl.ACTIVE)
+                .userId(userId)
+                .isPerzonalized(row.slug() != null)
+                .build();
+    }
+
+    private Path dataFile(Long jobId) {
+        return Path.of(directory, jobId + DATA_SUFFIX);
+    }
+
+    private Path failureFile(Long jobId) {
+        return Path.of(directory, jobId + FAILURES_SUFFIX);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete the import file {}", file, e);
+        }
+    }
+
+    private ImportJobResponseDTO convertADTO(ImportJob job) {
+
+        // Ritmo desde que empezó el trabajo, hasta que termino o hasta ahora
+        Long rowsPerSecond = null;
+        if (job.getStartedAt() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            long seconds = Math.max(1, Duration.between(job.getStartedAt(), end).toSeconds());
+            rowsPerSecond = job.getRowsRead() / seconds;
+        }
+
+        return ImportJobResponseDTO.builder()
+                .jobIdResponse(job.getId())
+                .stateResponse(job.getState())
+                .fileNameResponse(job.getFileName())
+                .rowsReadResponse(job.getRowsRead())
+                .rowsImportedResponse(job.getRowsImported())
+                .rowsFailedResponse(job.getRowsFailed())
+                .rowsPerSecondResponse(rowsPerSecond)
+                .failureReportResponse(job.getRowsFailed() == 0
+                        ? null
+                        : "/api/imports/" + job.getId() + "/failures")
+                .errorResponse(job.getErrorMessage())
+                .createdAtResponse(job.getCreatedAt())
+                .startedAtResponse(job.getStartedAt())
+                .finishedAtResponse(job.getFinishedAt())
+                .build();
+    }
+
+    // Linea del archivo sin procesar
+    private record ImportLine(long number, String text) {
+    }
+
+    // Fila leída y validada, con el motivo si se rechaza
+    private record ImportRow(long line, String slug, String originalUrl, String error) {
+
+        ImportRow reject(String reason) {
+            return new ImportRow(line, slug, originalUrl, reason);
+        }
+    }
+}
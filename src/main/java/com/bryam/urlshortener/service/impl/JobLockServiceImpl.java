@@ -0,0 +1,63 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.bryam.urlshortener.repository.JobLockRepository;
+import com.bryam.urlshortener.service.JobLockService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JobLockServiceImpl implements JobLockService {
+
+    private final JobLockRepository jobLockRepository;
+
+    // Identificador de esta instancia, nombre del proceso mas un sufijo aleatorio
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName()
+            + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    @Override
+    public boolean tryAcquire(String jobName, Duration maxDuration) {
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lockedUntil = now.plus(maxDuration);
+
+        // Intentar tomar un bloqueo existente que este libre o vencido
+        if (jobLockRepository.acquire(jobName, instanceId, now, lockedUntil) > 0) {
+            log.debug("Lock acquired for job: {} by {}", jobName, instanceId);
+            return true;
+        }
+
+        // Si el bloqueo ya existe lo tiene otra instancia
+        if (jobLockRepository.existsById(jobName)) {
+            log.debug("Lock for job {} is held by another instance", jobName);
+            return false;
+        }
+
+        // Primera ejecución de la tarea, se crea el registro del bloqueo
+        try {
+            jobLockRepository.insert(jobName, instanceId, now, lockedUntil);
+            log.debug("Lock created for job: {} by {}", jobName, instanceId);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia creo el bloqueo al mismo tiempo
+            log.debug("Lock for job {} was created concurrently by another instance", jobName);
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String jobName) {
+        jobLockRepository.release(jobName, instanceId, LocalDateTime.now());
+        log.debug("Lock released for job: {}", jobName);
+    }
+}
@@ -0,0 +1,219 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.bryam.urlshortener.dto.response.LeaderboardEntryResponseDTO;
+import com.bryam.urlshortener.dto.response.LeaderboardResponseDTO;
+import com.bryam.urlshortener.leaderboard.LeaderboardEntry;
+import com.bryam.urlshortener.leaderboard.TopKBoard;
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.LeaderboardType;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.repository.UrlClickCounterRepository;
+import com.bryam.urlshortener.repository.projection.LeaderboardScoreProjection;
+import com.bryam.urlshortener.repository.projection.UrlClicksProjection;
+import com.bryam.urlshortener.service.LeaderboardService;
+import com.bryam.urlshortener.store.UrlStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class LeaderboardServiceImpl implements LeaderboardService {
+
+    private final UrlStore urlStore;
+    private final UrlClickCounterRepository clickCounterRepository;
+    private final Map<LeaderboardType, TopKBoard> boards = new EnumMap<>(LeaderboardType.class);
+
+    @Value("${app.base-url}")
+    private String baseUrl;
+
+    @Value("${app.leaderboards.default-page-size}")
+    private int defaultPageSize;
+
+    @Value("${app.leaderboards.max-page-size}")
+    private int maxPageSize;
+
+    public LeaderboardServiceImpl(UrlStore urlStore, UrlClickCounterRepository clickCounterRepository,
+            @Value("${app.leaderboards.capacity}") int capacity,
+            @Value("${app.leaderboards.snapshot-ms}") long snapshotMillis) {
+        this.urlStore = urlStore;
+        this.clickCounterRepository = clickCounterRepository;
+        for (LeaderboardType type : LeaderboardType.values()) {
+            boards.put(type, new TopKBoard(capacity, snapshotMillis));
+        }
+    }
+
+    @Override
+    public void recordClick(Url url) {
+        // Si no es miembro entra con los clicks ya compactados, el refresco corrige el puntaje
+        boards.get(LeaderboardType.CLICKS).increment(url.getId(), url.getShortCode(),
+                url.getCounterClicksTotal() + 1L);
+    }
+
+    @Override
+    public void recordReactivation(Url url) {
+        boards.get(LeaderboardType.REUSED).offer(url.getId(), url.getShortCode(), url.getTimesReactivated());
+    }
+
+    @Override
+    public LeaderboardResponseDTO getLeaderboard(LeaderboardType type, Integer page, Integer size) {
+
+        int pageSize = size == null || size < 1 ? defaultPageSize : Math.min(size, maxPageSize);
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        long now = System.currentTimeMillis();
+
+        List<LeaderboardEntry> entries = boards.get(type).snapshot(now);
+
+        // La pagina se recorta de la copia ordenada, nunca se ordena la tabla urls
+        int from = (int) Math.min((long) pageNumber * pageSize, entries.size());
+        int to = Math.min(from + pageSize, entries.size());
+
+        List<LeaderboardEntryResponseDTO> pageEntries = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            LeaderboardEntry entry = entries.get(i);
+            pageEntries.add(LeaderboardEntryResponseDTO.builder()
+                    .rankResponse(i + 1)
+                    .urlCodeResponse(entry.shortCode())
+                    .shortUrlResponse(baseUrl + "/" + entry.shortCode())
+                    .scoreResponse(entry.score())
+                    .build());
+        }
+
+        return LeaderboardResponseDTO.builder()
+                .boardResponse(type)
+                .pageResponse(pageNumber)
+                .sizeResponse(pageSize)
+                .totalEntriesResponse(entries.size())
+                .entriesResponse(pageEntries)
+                .generatedAtResponse(LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneOffset.UTC))
+                .build();
+    }
+
+    @Override
+    public List<String> topShortCodes(LeaderboardType type, int limit) {
+        return boards.get(type).snapshot(System.currentTimeMillis()).stream()
+                .limit(limit)
+                .map(LeaderboardEntry::shortCode)
+                .toList();
+    }
+
+    // Tarea programada, cada instancia corrige los puntajes de sus propios miembros
+    // Así entran los clicks recibidos por otras instancias y salen las urls eliminadas o expiradas
+    @Scheduled(fixedDelayString = "${app.leaderboards.refresh-interval-ms}",
+            initialDelayString = "${app.leaderboards.refresh-interval-ms}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Leaderboard refresh failed", e);
+        }
+    }
+
+    @Override
+    public void refresh() {
+        refreshBoard(LeaderboardType.CLICKS, this::clickScores);
+        refreshBoard(LeaderboardType.REUSED, ids -> scoresOf(urlStore.findLeaderboardScores(ids),
+                projection -> projection.timesReactivated().longValue()));
+    }
+
+    // Al iniciar cada instancia construye sus tablas, también periódicamente por si alguna url no entró
+    // Las tablas viven en la memoria de cada instancia, por eso no se toma un bloqueo de tarea
+    // Las dos consultas leen solo la capacidad de la tabla gracias a los índices por estado y puntaje
+    // Al iniciar corre antes que el calentamiento de la cache, que usa la tabla de clicks ya construida
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.leaderboards.rebuild-cron}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Leaderboard rebuild failed", e);
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        TopKBoard clicksBoard = boards.get(LeaderboardType.CLICKS);
+        TopKBoard reusedBoard = boards.get(LeaderboardType.REUSED);
+
+        // Los clicks pendientes de compactar se suman a los de las urls candidatas
+        List<LeaderboardScoreProjection> topClicks = urlStore.findTopByClicks(clicksBoard.getCapacity());
+        Map<Long, Long> pending = pendingClicks(topClicks.stream().map(LeaderboardScoreProjection::id)
+                .collect(Collectors.toSet()));
+        clicksBoard.replaceAll(topClicks.stream()
+                .map(row -> new LeaderboardEntry(row.id(), row.shortCode(),
+                        row.counterClicksTotal() + pending.getOrDefault(row.id(), 0L)))
+                .filter(entry -> entry.score() > 0)
+                .toList());
+
+        reusedBoard.replaceAll(urlStore.findTopByReactivations(reusedBoard.getCapacity()).stream()
+                .map(row -> new LeaderboardEntry(row.id(), row.shortCode(), row.timesReactivated()))
+                .toList());
+
+        log.info("Leaderboards rebuilt ({} by clicks, {} by reactivations)", clicksBoard.size(), reusedBoard.size());
+    }
+
+    // Fijar los puntajes exactos de los miembros, los que ya no están activos salen de la tabla
+    private void refreshBoard(LeaderboardType type, Function<Set<Long>, Map<Long, Long>> scores) {
+        TopKBoard board = boards.get(type);
+        Set<Long> ids = board.memberIds();
+
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> current = scores.apply(ids);
+        for (Long id : ids) {
+            Long score = current.get(id);
+            if (score == null) {
+                board.remove(id);
+            } else {
+                board.set(id, score);
+            }
+        }
+        board.updateThreshold();
+    }
+
+    // Clicks compactados mas los pendientes de las urls activas
+    private Map<Long, Long> clickScores(Set<Long> ids) {
+        Map<Long, Long> pending = pendingClicks(ids);
+        Map<Long, Long> scores = scoresOf(urlStore.findLeaderboardScores(ids),
+                projection -> projection.counterClicksTotal().longValue());
+        scores.replaceAll((id, clicks) -> clicks + pending.getOrDefault(id, 0L));
+        return scores;
+    }
+
+    // Puntajes de las urls que siguen activas
+    private static Map<Long, Long> scoresOf(List<LeaderboardScoreProjection> rows,
+            Function<LeaderboardScoreProjection, Long> score) {
+        return rows.stream()
+                .filter(row -> row.stateUrl() == StateUrl.ACTIVE)
+                .collect(Collectors.toMap(LeaderboardScoreProjection::id, score));
+    }
+
+    private Map<Long, Long> pendingClicks(Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return clickCounterRepository.sumClicksByUrlIds(ids).stream()
+                .collect(Collectors.toMap(UrlClicksProjection::urlId, UrlClicksProjection::clicks));
+    }
+}
@@ -8,8 +8,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.stereotype.Service;
 
 import com.bryam.urlshortener.exception.RateLimitExceededException;
-import com.bryam.urlshortener.repository.UrlRepository;
 import com.bryam.urlshortener.service.RateLimitService;
+import com.bryam.urlshortener.store.UrlStore;
 import com.bryam.urlshortener.util.IpUtil;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,7 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class RateLimitServiceImpl implements RateLimitService {
 
-    private final UrlRepository urlRepository;
+    private final UrlStore urlStore;
     // Se utiliza un ConcurrentHashMap para que no haya sobre escritura por
     // multiples hilos
     private final Map<String, RateLimitInfo> cacheAnonymous = new ConcurrentHashMap<>();
@@ -81,7 +81,7 @@ public class RateLimitServiceImpl implements RateLimitService {
         LocalDateTime homeToday = LocalDateTime.now().toLocalDate().atStartOfDay();
 
         //
-        long urlsToday = urlRepository.countByUserIdAndCreationDateTimeAfter(id, homeToday);
+        long urlsToday = urlStore.countByUserIdCreatedAfter(id, homeToday);
 
         if (urlsToday >= LIMIT_USERS_DAY) {
             long secondsUntilMidnight = calculateSecondsUntilMidnight();
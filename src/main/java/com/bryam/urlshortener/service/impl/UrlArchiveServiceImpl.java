@@ -0,0 +1,187 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.UrlArchive;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.repository.UrlArchiveRepository;
+import com.bryam.urlshortener.repository.UrlRepository;
+import com.bryam.urlshortener.service.JobLockService;
+import com.bryam.urlshortener.service.UrlArchiveService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class UrlArchiveServiceImpl implements UrlArchiveService {
+
+    private static final String JOB_NAME = "url-archive";
+
+    private final UrlRepository urlRepository;
+    private final UrlArchiveRepository urlArchiveRepository;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Métricas del archivado, filas movidas y duración de la ejecución
+    private final Counter archivedRows;
+    private final Timer runDuration;
+
+    @Value("${app.archive.enabled}")
+    private boolean enabled;
+
+    @Value("${app.archive.batch-size}")
+    private int batchSize;
+
+    @Value("${app.archive.max-batches}")
+    private int maxBatches;
+
+    @Value("${app.archive.expired-after-days}")
+    private int expiredAfterDays;
+
+    @Value("${app.archive.pause-ms}")
+    private long pauseMs;
+
+    @Value("${app.archive.lock-seconds}")
+    private long lockSeconds;
+
+    public UrlArchiveServiceImpl(UrlRepository urlRepository, UrlArchiveRepository urlArchiveRepository,
+            JobLockService jobLockService, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.urlRepository = urlRepository;
+        this.urlArchiveRepository = urlArchiveRepository;
+        this.jobLockService = jobLockService;
+        this.transactionTemplate = transactionTemplate;
+        this.archivedRows = Counter.builder("urls.archive.rows")
+                .description("URLs moved from the hot table to the archive")
+                .register(meterRegistry);
+        this.runDuration = Timer.builder("urls.archive.duration")
+                .description("Duration of each archive run")
+                .register(meterRegistry);
+    }
+
+    // Tarea programada, solo una instancia mueve urls al archivo a la vez
+    @Scheduled(fixedDelayString = "${app.archive.interval-ms}",
+            initialDelayString = "${app.archive.interval-ms}")
+    public void scheduledArchive() {
+
+        if (!enabled || !jobLockService.tryAcquire(JOB_NAME, Duration.ofSeconds(lockSeconds))) {
+            return;
+        }
+
+        try {
+            archiveColdUrls();
+        } catch (Exception e) {
+            log.error("Archive job failed", e);
+        } finally {
+            jobLockService.release(JOB_NAME);
+        }
+    }
+
+    @Override
+    public int archiveColdUrls() {
+
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiredBefore = now.minusDays(expiredAfterDays);
+
+        // Primero las eliminadas, sin importar la fecha, luego las expiradas hace tiempo
+        int total = archiveInBatches(now, expiredBefore,
+                limit -> urlRepository.findIdsByStateUrl(StateUrl.DELETED, limit));
+        total += archiveInBatches(now, expiredBefore,
+                limit -> urlRepository.findIdsToArchive(StateUrl.EXPIRED, expiredBefore, limit));
+
+        runDuration.record(Duration.ofNanos(System.nanoTime() - start));
+
+        if (total > 0) {
+            log.info("Archive job moved {} URLs to the archive table", total);
+        }
+
+        return total;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Url> restoreExpired(UrlArchive archived) {
+
+        // Se copia la fila con su id original, así los contadores y las series siguen asociados
+        if (urlArchiveRepository.copyToUrls(archived.getId(), StateUrl.EXPIRED.name()) == 0) {
+            return Optional.empty();
+        }
+
+        // Sentencia inmediata, un deleteById quedaría pendiente hasta el flush y la reactivación
+        // limpia el contexto de persistencia antes de que llegue
+        urlArchiveRepository.deleteByIdsAndStateUrl(List.of(archived.getId()), StateUrl.EXPIRED);
+        urlRepository.evictFromCache(List.of(archived.getId()));
+        log.info("Restored archived URL: {}", archived.getShortCode());
+
+        return urlRepository.findById(archived.getId());
+    }
+
+    // Mover bloques de ids hasta vaciar la consulta o llegar al máximo de bloques
+    private int archiveInBatches(LocalDateTime now, LocalDateTime expiredBefore,
+            Function<Limit, List<Long>> nextIds) {
+
+        int total = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+
+            List<Long> ids = nextIds.apply(Limit.of(batchSize));
+
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            // Cada bloque es una transacción: la copia y el DELETE validan el mismo estado,
+            // si una url se reactivó entre la consulta y la copia no se mueve
+            Integer moved = transactionTemplate.execute(status -> {
+                int copied = urlArchiveRepository.copyFromUrls(ids, expiredBefore, now);
+                int deleted = urlRepository.deleteArchivedByIds(ids, StateUrl.DELETED.name(),
+                        StateUrl.EXPIRED.name(), expiredBefore);
+                urlRepository.evictFromCache(ids);
+
+                if (copied != deleted) {
+                    throw new IllegalStateException(
+                            "Archive batch mismatch: copied " + copied + ", deleted " + deleted);
+                }
+                return deleted;
+            });
+
+            int count = moved != null ? moved : 0;
+            archivedRows.increment(count);
+            total += count;
+
+            // Si el bloque vino incompleto ya no quedan mas urls por mover
+            if (ids.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        return total;
+    }
+
+    // Pausa entre bloques para no competir con el trafico de redirección
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Archive job interrupted");
+            return false;
+        }
+    }
+}
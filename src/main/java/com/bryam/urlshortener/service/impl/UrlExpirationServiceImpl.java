@@ -0,0 +1,114 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.service.GlobalStatsService;
+import com.bryam.urlshortener.service.JobLockService;
+import com.bryam.urlshortener.service.UrlExpirationService;
+import com.bryam.urlshortener.store.UrlStore;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class UrlExpirationServiceImpl implements UrlExpirationService {
+
+    private static final String JOB_NAME = "url-expiration-sweep";
+
+    private final UrlStore urlStore;
+    private final JobLockService jobLockService;
+    private final GlobalStatsService globalStatsService;
+
+    // Métricas del barrido, filas por ejecución y duración de la ejecución
+    private final DistributionSummary rowsPerRun;
+    private final Timer runDuration;
+
+    @Value("${app.expiration.sweep.batch-size}")
+    private int batchSize;
+
+    @Value("${app.expiration.sweep.max-batches}")
+    private int maxBatches;
+
+    @Value("${app.expiration.sweep.lock-seconds}")
+    private long lockSeconds;
+
+    public UrlExpirationServiceImpl(UrlStore urlStore, JobLockService jobLockService,
+            GlobalStatsService globalStatsService, MeterRegistry meterRegistry) {
+        this.urlStore = urlStore;
+        this.jobLockService = jobLockService;
+        this.globalStatsService = globalStatsService;
+        this.rowsPerRun = DistributionSummary.builder("urls.expiration.sweep.rows")
+                .description("Anonymous URLs marked as expired per sweep run")
+                .register(meterRegistry);
+        this.runDuration = Timer.builder("urls.expiration.sweep.duration")
+                .description("Duration of each expiration sweep run")
+                .register(meterRegistry);
+    }
+
+    // Tarea programada, solo una instancia la ejecuta gracias al bloqueo compartido
+    @Scheduled(fixedDelayString = "${app.expiration.sweep.interval-ms}",
+            initialDelayString = "${app.expiration.sweep.interval-ms}")
+    public void sweepExpiredUrls() {
+
+        if (!jobLockService.tryAcquire(JOB_NAME, Duration.ofSeconds(lockSeconds))) {
+            return;
+        }
+
+        try {
+            expireAnonymousUrls();
+        } catch (Exception e) {
+            log.error("Expiration sweep failed", e);
+        } finally {
+            jobLockService.release(JOB_NAME);
+        }
+    }
+
+    @Override
+    public int expireAnonymousUrls() {
+
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        long lastId = 0L;
+        int totalExpired = 0;
+
+        // Recorrer las urls vencidas por bloques, cada bloque es un UPDATE acotado
+        for (int batch = 0; batch < maxBatches; batch++) {
+
+            List<Long> ids = urlStore.findIdsToExpire(now, lastId, batchSize);
+
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            int expired = urlStore.expireByIds(ids, now);
+            globalStatsService.urlStateChanged(TypeUrl.ANONYMOUS, StateUrl.ACTIVE, StateUrl.EXPIRED, expired);
+            totalExpired += expired;
+            lastId = ids.get(ids.size() - 1);
+
+            // Si el bloque vino incompleto ya no quedan mas urls por marcar
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+
+        rowsPerRun.record(totalExpired);
+        runDuration.record(Duration.ofNanos(System.nanoTime() - start));
+
+        if (totalExpired > 0) {
+            log.info("Expiration sweep marked {} anonymous URLs as expired", totalExpired);
+        }
+
+        return totalExpired;
+    }
+}
@@ -0,0 +1,106 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bryam.urlshortener.model.enums.ExportFormat;
+import com.bryam.urlshortener.repository.projection.UrlExportProjection;
+import com.bryam.urlshortener.service.UrlExportService;
+import com.bryam.urlshortener.store.UrlStore;
+import com.bryam.urlshortener.util.CsvUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class UrlExportServiceImpl implements UrlExportService {
+
+    private static final String CSV_HEADER = "id,short_code,original_url,type_url,state_url,creation_date,"
+            + "expiration_date,last_activation_date,user_id,counter_clicks_total,counter_clicks_suspicious,"
+            + "times_reactivated,is_perzonalized";
+
+    private final UrlStore urlStore;
+    private final ObjectWriter jsonWriter;
+    private final Counter exportedRows;
+
+    public UrlExportServiceImpl(UrlStore urlStore, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.urlStore = urlStore;
+        this.jsonWriter = objectMapper.writerFor(UrlExportProjection.class);
+        this.exportedRows = Counter.builder("urls.export.rows")
+                .description("URLs written by bulk exports")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUrls(ExportFormat format, Long afterId, OutputStream output) throws IOException {
+
+        long start = System.currentTimeMillis();
+        long from = afterId != null ? afterId : 0L;
+        log.info("Exporting URLs as {} after id: {}", format, from);
+
+        // El writer no se cierra, la salida es de quien llama (la respuesta o el archivo)
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        long count = 0;
+
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        // El stream mantiene abierto el cursor de JDBC, cada fila se escribe y se descarta
+        try (Stream<UrlExportProjection> urls = urlStore.streamAll(from)) {
+            Iterator<UrlExportProjection> iterator = urls.iterator();
+            while (iterator.hasNext()) {
+                UrlExportProjection url = iterator.next();
+                writer.write(format == ExportFormat.CSV ? toCsv(url) : toJson(url));
+                writer.write('\n');
+                count++;
+            }
+        } finally {
+            exportedRows.increment(count);
+        }
+
+        writer.flush();
+        log.info("Exported {} URLs as {} in {} ms", count, format, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    private String toJson(UrlExportProjection url) throws JsonProcessingException {
+        return jsonWriter.writeValueAsString(url);
+    }
+
+    private static String toCsv(UrlExportProjection url) {
+        StringJoiner row = new StringJoiner(",");
+        row.add(Objects.toString(url.id()))
+                .add(CsvUtil.value(url.shortCode()))
+                .add(CsvUtil.value(url.originalUrl()))
+                .add(CsvUtil.value(url.typeUrl()))
+                .add(CsvUtil.value(url.stateUrl()))
+                .add(CsvUtil.value(url.creationDateTime()))
+                .add(CsvUtil.value(url.expirationDateTime()))
+                .add(CsvUtil.value(url.lastActivationDateTime()))
+                .add(CsvUtil.value(url.userId()))
+                .add(CsvUtil.value(url.counterClicksTotal()))
+                .add(CsvUtil.value(url.counterClicksSuspicious()))
+                .add(CsvUtil.value(url.timesReactivated()))
+                .add(CsvUtil.value(url.isPerzonalized()));
+        return row.toString();
+    }
+}
@@ -0,0 +1,216 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.bryam.urlshortener.model.JobCheckpoint;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.repository.JobCheckpointRepository;
+import com.bryam.urlshortener.repository.UrlClickCounterRepository;
+import com.bryam.urlshortener.repository.UrlClickRollupRepository;
+import com.bryam.urlshortener.repository.UrlArchiveRepository;
+import com.bryam.urlshortener.repository.UrlVisitorSketchRepository;
+import com.bryam.urlshortener.service.GlobalStatsService;
+import com.bryam.urlshortener.service.JobLockService;
+import com.bryam.urlshortener.service.UrlPurgeService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class UrlPurgeServiceImpl implements UrlPurgeService {
+
+    private static final String JOB_NAME = "url-purge";
+
+    private final UrlArchiveRepository urlArchiveRepository;
+    private final UrlClickCounterRepository clickCounterRepository;
+    private final UrlClickRollupRepository clickRollupRepository;
+    private final UrlVisitorSketchRepository visitorSketchRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final JobLockService jobLockService;
+    private final GlobalStatsService globalStatsService;
+
+    // Métricas de la purga, filas eliminadas y latencia de cada DELETE
+    private final Counter purgedRows;
+    private final Timer statementLatency;
+
+    @Value("${app.purge.dry-run}")
+    private boolean dryRun;
+
+    @Value("${app.purge.retention-days}")
+    private int retentionDays;
+
+    @Value("${app.purge.low-value-days}")
+    private int lowValueDays;
+
+    @Value("${app.purge.low-value-min-clicks}")
+    private int lowValueMinClicks;
+
+    @Value("${app.purge.min-batch-size}")
+    private int minBatchSize;
+
+    @Value("${app.purge.max-batch-size}")
+    private int maxBatchSize;
+
+    @Value("${app.purge.target-latency-ms}")
+    private long targetLatencyMs;
+
+    @Value("${app.purge.min-pause-ms}")
+    private long minPauseMs;
+
+    @Value("${app.purge.max-pause-ms}")
+    private long maxPauseMs;
+
+    @Value("${app.purge.max-run-seconds}")
+    private long maxRunSeconds;
+
+    public UrlPurgeServiceImpl(UrlArchiveRepository urlArchiveRepository, UrlClickCounterRepository clickCounterRepository,
+            UrlClickRollupRepository clickRollupRepository, UrlVisitorSketchRepository visitorSketchRepository,
+            JobCheckpointRepository jobCheckpointRepository, JobLockService jobLockService,
+            GlobalStatsService globalStatsService, MeterRegistry meterRegistry) {
+        this.urlArchiveRepository = urlArchiveRepository;
+        this.clickCounterRepository = clickCounterRepository;
+        this.clickRollupRepository = clickRollupRepository;
+        this.visitorSketchRepository = visitorSketchRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.jobLockService = jobLockService;
+        this.globalStatsService = globalStatsService;
+        this.purgedRows = Counter.builder("urls.purge.rows")
+                .description("URLs physically removed by the purge job")
+                .register(meterRegistry);
+        this.statementLatency = Timer.builder("urls.purge.statement.duration")
+                .description("Latency of each bounded purge DELETE")
+                .register(meterRegistry);
+    }
+
+    // Tarea programada, se toma el bloqueo por el tiempo máximo de ejecución mas un margen
+    @Scheduled(cron = "${app.purge.cron}")
+    public void scheduledPurge() {
+
+        if (!jobLockService.tryAcquire(JOB_NAME, Duration.ofSeconds(maxRunSeconds * 2))) {
+            return;
+        }
+
+        try {
+            purgeDeadUrls();
+        } catch (Exception e) {
+            log.error("Purge job failed", e);
+        } finally {
+            jobLockService.release(JOB_NAME);
+        }
+    }
+
+    @Override
+    public int purgeDeadUrls() {
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime deadBefore = now.minusDays(retentionDays);
+        LocalDateTime lowValueBefore = now.minusDays(lowValueDays);
+        long deadline = System.nanoTime() + Duration.ofSeconds(maxRunSeconds).toNanos();
+
+        // Retomar desde el ultimo id procesado, en simulación no se guarda el progreso
+        long lastId = dryRun ? 0L : loadCheckpoint();
+        int batchSize = minBatchSize;
+        long pauseMs = minPauseMs;
+        int total = 0;
+        boolean finished = false;
+
+        log.info("Starting purge from id {} (dry-run: {})", lastId, dryRun);
+
+        while (System.nanoTime() < deadline) {
+
+            List<Long> ids = urlArchiveRepository.findIdsToPurge(
+                    StateUrl.EXPIRED, deadBefore, lowValueBefore, lowValueMinClicks, lastId, Limit.of(batchSize));
+
+            if (ids.isEmpty()) {
+                finished = true;
+                break;
+            }
+
+            if (dryRun) {
+                total += ids.size();
+            } else {
+                long start = System.nanoTime();
+                clickCounterRepository.deleteByUrlIds(ids);
+                clickRollupRepository.deleteByUrlIds(ids);
+                visitorSketchRepository.deleteByUrlIds(ids);
+                int deleted = urlArchiveRepository.deleteByIdsAndStateUrl(ids, StateUrl.EXPIRED);
+                long latencyMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+                statementLatency.record(Duration.ofMillis(latencyMs));
+                purgedRows.increment(deleted);
+                // Solo las urls anónimas expiran
+                globalStatsService.urlsRemoved(TypeUrl.ANONYMOUS, StateUrl.EXPIRED, deleted);
+                total += deleted;
+
+                // Regulador adaptativo, si el DELETE tarda mas de lo esperado se reduce el bloque
+                // y se alarga la pausa, si va rápido se agranda el bloque poco a poco
+                if (latencyMs > targetLatencyMs) {
+                    batchSize = Math.max(minBatchSize, batchSize / 2);
+                    pauseMs = Math.min(maxPauseMs, pauseMs * 2);
+                } else if (latencyMs < targetLatencyMs / 2) {
+                    batchSize = Math.min(maxBatchSize, batchSize + Math.max(1, batchSize / 4));
+                    pauseMs = Math.max(minPauseMs, pauseMs / 2);
+                }
+            }
+
+            lastId = ids.get(ids.size() - 1);
+
+            if (!dryRun) {
+                saveCheckpoint(lastId);
+            }
+
+            if (!pause(pauseMs)) {
+                break;
+            }
+        }
+
+        // Si se recorrió toda la tabla la próxima ejecución inicia desde el principio
+        if (finished && !dryRun) {
+            saveCheckpoint(0L);
+        }
+
+        log.info("Purge {} {} URLs (finished: {}, last id: {})",
+                dryRun ? "would remove" : "removed", total, finished, lastId);
+
+        return total;
+    }
+
+    // Obtener el ultimo id procesado por la purga
+    private long loadCheckpoint() {
+        return jobCheckpointRepository.findById(JOB_NAME)
+                .map(JobCheckpoint::getLastId)
+                .orElse(0L);
+    }
+
+    // Guardar el progreso de la purga para poder retomarla
+    private void saveCheckpoint(long lastId) {
+        jobCheckpointRepository.save(JobCheckpoint.builder()
+                .name(JOB_NAME)
+                .lastId(lastId)
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    // Pausa entre bloques para no competir con el trafico de redirección
+    private boolean pause(long pauseMs) {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Purge interrupted");
+            return false;
+        }
+    }
+}
@@ -1,27 +1,50 @@
 package com.bryam.urlshortener.service.impl;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Iterator;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.bryam.urlshortener.bot.ClickVerdict;
+import com.bryam.urlshortener.datasource.DataSourceRoute;
 import com.bryam.urlshortener.dto.request.ShortenUrlRequestDTO;
+import com.bryam.urlshortener.dto.request.UrlCursorDTO;
 import com.bryam.urlshortener.dto.response.ShortenUrlResponseDTO;
+import com.bryam.urlshortener.dto.response.UrlStatsResponseDTO;
 import com.bryam.urlshortener.exception.CodeExistsException;
 import com.bryam.urlshortener.exception.UrlExpiredException;
 import com.bryam.urlshortener.exception.UrlNotFoundException;
+import com.bryam.urlshortener.metrics.UrlPipelineMetrics;
 import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.UrlArchive;
 import com.bryam.urlshortener.model.enums.StateUrl;
 import com.bryam.urlshortener.model.enums.TypeUrl;
-import com.bryam.urlshortener.repository.UrlRepository;
+import com.bryam.urlshortener.repository.UrlArchiveRepository;
+import com.bryam.urlshortener.repository.projection.PendingClicksProjection;
+import com.bryam.urlshortener.repository.projection.UrlStatsProjection;
+import com.bryam.urlshortener.repository.projection.UrlSummaryProjection;
+import com.bryam.urlshortener.rollup.UniqueVisitors;
+import com.bryam.urlshortener.service.ClickClassifierService;
+import com.bryam.urlshortener.service.ClickCounterService;
+import com.bryam.urlshortener.service.ClickJournalService;
+import com.bryam.urlshortener.service.ClickRollupService;
 import com.bryam.urlshortener.service.CodeGeneratorService;
+import com.bryam.urlshortener.service.GlobalStatsService;
+import com.bryam.urlshortener.service.LeaderboardService;
 import com.bryam.urlshortener.service.RateLimitService;
+import com.bryam.urlshortener.service.UrlArchiveService;
 import com.bryam.urlshortener.service.UrlService;
 import com.bryam.urlshortener.service.ValidatorUrlService;
+import com.bryam.urlshortener.service.VisitorSketchService;
+import com.bryam.urlshortener.store.UrlStore;
+import com.bryam.urlshortener.util.HashUtil;
+import com.bryam.urlshortener.util.IpUtil;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -32,10 +55,20 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class UrlServiceImpl implements UrlService {
 
-    private final UrlRepository urlRepository;
+    private final UrlStore urlStore;
+    private final UrlArchiveRepository urlArchiveRepository;
+    private final UrlArchiveService urlArchiveService;
     private final CodeGeneratorService codeGeneratorService;
     private final ValidatorUrlService validatorUrlService;
     private final RateLimitService rateLimitService;
+    private final ClickCounterService clickCounterService;
+    private final ClickClassifierService clickClassifierService;
+    private final ClickJournalService clickJournalService;
+    private final ClickRollupService clickRollupService;
+    private final VisitorSketchService visitorSketchService;
+    private final GlobalStatsService globalStatsService;
+    private final LeaderboardService leaderboardService;
+    private final UrlPipelineMetrics pipelineMetrics;
 
     @Value("${app.url.days-expiration}")
     private int daysExpiration;
@@ -43,47 +76,61 @@ public class UrlServiceImpl implements UrlService {
     @Value("${app.base-url}")
     private String baseUrl;
 
+    @Value("${app.clicks.ip-hash-salt}")
+    private String ipHashSalt;
+
+    @Value("${app.my-links.default-page-size}")
+    private int defaultPageSize;
+
+    @Value("${app.my-links.max-page-size}")
+    private int maxPageSize;
+
     @Override
     @Transactional
     public ShortenUrlResponseDTO shortenAnonymousUrl(
             ShortenUrlRequestDTO requestDTO,
             HttpServletRequest httpServletResponse) {
 
-        log.info("Initiating anonymous URL shortening: {}", requestDTO.getOriginalUrlRequest());
+        log.debug("Initiating anonymous URL shortening: {}", requestDTO.getOriginalUrlRequest());
 
         // Verificar el limite del usuario anónimo
-        rateLimitService.verifyAnonymousLimit(httpServletResponse);
+        pipelineMetrics.time(UrlPipelineMetrics.SHORTEN_ANONYMOUS, "rate_limit",
+                () -> rateLimitService.verifyAnonymousLimit(httpServletResponse));
 
         // Validar y normalizar Url
-        validatorUrlService.validateUrlFormat(requestDTO.getOriginalUrlRequest());
-        String normalizedUrl = validatorUrlService.normalizeUrl(requestDTO.getOriginalUrlRequest());
+        String normalizedUrl = pipelineMetrics.time(UrlPipelineMetrics.SHORTEN_ANONYMOUS, "validation", () -> {
+            validatorUrlService.validateUrlFormat(requestDTO.getOriginalUrlRequest());
+            return validatorUrlService.normalizeUrl(requestDTO.getOriginalUrlRequest());
+        });
 
-        // Generar el código Hash
-        String[] hashData = codeGeneratorService.generateCodeHash(normalizedUrl);
-        String hashComplete = hashData[0];
-        String shortCode = hashData[1];
+        // Generar el hash completo de 64 caracteres
+        String hashComplete = pipelineMetrics.time(UrlPipelineMetrics.SHORTEN_ANONYMOUS, "hashing",
+                () -> HashUtil.generateHash(normalizedUrl));
 
-        log.debug("Generated Hash - Full: {}, Short: {}", hashComplete, shortCode);
+        log.debug("Generated Hash - Full: {}", hashComplete);
 
-        // Se verifica que el hash completo ya exista
-        Optional<Url> existingURLByHash = urlRepository.findByFullHash(hashComplete);
+        // Se verifica que el hash completo ya exista, en la tabla urls o en el archivo
+        // Antes de buscar un código libre, una url repetida no necesita las consultas de colisión
+        Optional<Url> existingURLByHash = pipelineMetrics.time(UrlPipelineMetrics.SHORTEN_ANONYMOUS, "dedup_lookup",
+                () -> urlStore.findByFullHash(hashComplete).or(() -> restoreFromArchive(hashComplete)));
 
         // Validar que la url este presente
         if (existingURLByHash.isPresent()) {
             Url urlExisting = existingURLByHash.get();
+            String shortCode = urlExisting.getShortCode();
             log.debug("URL with same hash found - Status: {}", urlExisting.getStateUrl());
 
             // Verificar estado, si se encuentra activa retornarla
             if (urlExisting.getStateUrl() == StateUrl.ACTIVE) {
-                log.info("The URL already exists and is active, reusing: {}", shortCode);
+                log.debug("The URL already exists and is active, reusing: {}", shortCode);
                 return convertADTO(urlExisting);
             }
 
             // Si la url de usuarios anónimos se encuentra desactivada, reactivarla
             if (urlExisting.getStateUrl() == StateUrl.EXPIRED) {
                 log.info("Found expired URL, reactivating: {}", shortCode);
-                reactivateUrl(urlExisting);
-                return convertADTO(urlExisting);
+                return convertADTO(pipelineMetrics.time(UrlPipelineMetrics.SHORTEN_ANONYMOUS, "reactivation",
+                        () -> reactivateUrl(urlExisting)));
             }
 
             // Ver si la url esta eliminada, no se puede reutilizar
@@ -93,9 +140,11 @@ public class UrlServiceImpl implements UrlService {
             }
         }
 
-        // No existe la url para usuarios anónimos crearla
-        Url newUrl = createNewAnonymousUrl(normalizedUrl, hashComplete, shortCode);
-        log.info("New anonymous URL created: {} → {}", shortCode, normalizedUrl);
+        // No existe la url para usuarios anónimos, generar el código y crearla
+        String shortCode = codeGeneratorService.generateCodeHash(hashComplete);
+        Url newUrl = pipelineMetrics.time(UrlPipelineMetrics.SHORTEN_ANONYMOUS, "insert",
+                () -> createNewAnonymousUrl(normalizedUrl, hashComplete, shortCode));
+        log.debug("New anonymous URL created: {} → {}", shortCode, normalizedUrl);
         return convertADTO(newUrl);
     }
 
@@ -104,14 +153,17 @@ public class UrlServiceImpl implements UrlService {
     @SuppressWarnings("null")
     public ShortenUrlResponseDTO shortenRegisteredUrl(ShortenUrlRequestDTO requestDTO, Long userId) {
 
-        log.info("Starting URL shortening for registered user: {}", userId);
+        log.debug("Starting URL shortening for registered user: {}", userId);
 
-        // Verificar el Rate Limit de un usuario o su limite
-        rateLimitService.verifyUserLimit(userId);
+        // Verificar el Rate Limit de un usuario o su limite, incluye el conteo de urls creadas hoy
+        pipelineMetrics.time(UrlPipelineMetrics.SHORTEN_REGISTERED, "rate_limit",
+                () -> rateLimitService.verifyUserLimit(userId));
 
         // Validar url y normalizar
-        validatorUrlService.validateUrlFormat(requestDTO.getOriginalUrlRequest());
-        String normalizedUrl = validatorUrlService.normalizeUrl(requestDTO.getOriginalUrlRequest());
+        String normalizedUrl = pipelineMetrics.time(UrlPipelineMetrics.SHORTEN_REGISTERED, "validation", () -> {
+            validatorUrlService.validateUrlFormat(requestDTO.getOriginalUrlRequest());
+            return validatorUrlService.normalizeUrl(requestDTO.getOriginalUrlRequest());
+        });
 
         // Determinar el slug o dominio personalizado
         String customSlug = requestDTO.getCustomSlugRequest();
@@ -125,8 +177,11 @@ public class UrlServiceImpl implements UrlService {
 
             shortCode = customSlug.toLowerCase();
 
-            // Verificar que no exista
-            if (urlRepository.existsByShortCode(shortCode)) {
+            // Verificar que no exista, tampoco en el archivo para no reutilizar códigos retirados
+            String slug = shortCode;
+            boolean taken = pipelineMetrics.time(UrlPipelineMetrics.SHORTEN_REGISTERED, "slug_check",
+                    () -> urlStore.findByShortCode(slug).isPresent() || urlArchiveRepository.existsByShortCode(slug));
+            if (taken) {
                 log.warn("Custom slug already exists: {}", shortCode);
                 throw new CodeExistsException(
                         "The slug '" + shortCode + "' is already in use",
@@ -137,9 +192,8 @@ public class UrlServiceImpl implements UrlService {
             log.debug("Using custom slug: {}", shortCode);
 
         } else {
-            // Generar código corto desde la base62
-            // Primero se debe guarda para obtener el id
-            Url temporaryUrl = Url.builder()
+            // Generar código corto desde la base62, el almacenamiento lo calcula con el id que asigna
+            Url pending = Url.builder()
                     .originalUrl(normalizedUrl)
                     .typeUrl(TypeUrl.REGISTERED)
                     .stateUrl(StateUrl.ACTIVE)
@@ -147,38 +201,35 @@ public class UrlServiceImpl implements UrlService {
                     .isPerzonalized(false)
                     .fullHash(null)
                     .build();
+            Url newUrl = pipelineMetrics.time(UrlPipelineMetrics.SHORTEN_REGISTERED, "insert",
+                    () -> urlStore.create(pending, codeGeneratorService::generateCodeBase62));
+            globalStatsService.urlCreated(TypeUrl.REGISTERED);
 
-            temporaryUrl = (Url) urlRepository.save(temporaryUrl);
-
-            // Generar el base62 a partir del id
-            shortCode = codeGeneratorService.generateCodeBase62(temporaryUrl.getId());
-            temporaryUrl.setShortCode(shortCode);
-            urlRepository.save(temporaryUrl);
+            log.debug("Generated Base62 code: {} (ID: {})", newUrl.getShortCode(), newUrl.getId());
 
-            log.debug("Generated Base62 code: {} (ID: {})", shortCode, temporaryUrl.getId());
-
-            return convertADTO(temporaryUrl);
+            return convertADTO(newUrl);
         }
 
         // Crear una url con slug o dominio personalizado
-        Url newUrl = createNewRegisteredUrl(normalizedUrl, shortCode, userId, isPerzonalized);
-        log.info("New registered URL created: {} → {}", shortCode, normalizedUrl);
+        Url newUrl = pipelineMetrics.time(UrlPipelineMetrics.SHORTEN_REGISTERED, "insert",
+                () -> createNewRegisteredUrl(normalizedUrl, shortCode, userId, isPerzonalized));
+        log.debug("New registered URL created: {} → {}", shortCode, normalizedUrl);
 
         return convertADTO(newUrl);
     }
 
     @Override
-    @Transactional
-    public Url getUrlForRedirection(String shortCode) {
+    public Url getUrlForRedirection(String shortCode, HttpServletRequest request) {
 
         log.debug("Looking for URL for redirection: {}", shortCode);
 
-        // Buscar por el código corto
-        Url url = urlRepository.findByShortCode(shortCode)
-                .orElseThrow(() -> {
-                    log.warn("URL not found by shortcode: {}", shortCode);
-                    return new UrlNotFoundException("URL not found: " + shortCode);
-                });
+        // Buscar por el código corto, primero en la cache de segundo nivel y luego en una réplica,
+        // si no la encuentra se busca en la principal por si la url se acaba de crear
+        Url url = pipelineMetrics.time(UrlPipelineMetrics.REDIRECT, "lookup",
+                () -> urlStore.findByShortCode(shortCode)
+                        .or(() -> DataSourceRoute.onPrimary(() -> urlStore.findByShortCode(shortCode))))
+                .orElseThrow(() -> pipelineMetrics.time(UrlPipelineMetrics.REDIRECT, "archive_lookup",
+                        () -> archivedUrlException(shortCode)));
 
         // Verificar el estado de la url
         if (url.getStateUrl() == StateUrl.DELETED) {
@@ -192,28 +243,42 @@ public class UrlServiceImpl implements UrlService {
                     (url.getExpirationDateTime() != null
                             && url.getExpirationDateTime().isBefore(LocalDateTime.now()))) {
 
-                // Marcar la url como expirada
-                if (url.getStateUrl() != StateUrl.EXPIRED) {
-                    url.setStateUrl(StateUrl.EXPIRED);
-                    urlRepository.save(url);
-                }
-
+                // No se escribe el estado aquí, el barrido programado marca las urls como expiradas
                 log.info("Accessed expired URL: {} ", shortCode);
-                throw new UrlExpiredException("This link expired on" + url.getExpirationDateTime().toLocalDate(),
+                throw new UrlExpiredException("This link expired on " + url.getExpirationDateTime().toLocalDate(),
                         url.getExpirationDateTime(), true);
             }
         }
 
-        // Incrementar los contadores de los clicks
-        url.setCounterClicksTotal(url.getCounterClicksTotal() + 1);
+        // Clasificar el click, los de bots, precargas y ráfagas no cuentan para los contadores
+        String clientIp = IpUtil.getClientIpAdress(request);
+        ClickVerdict verdict = pipelineMetrics.time(UrlPipelineMetrics.REDIRECT, "classification",
+                () -> clickClassifierService.classify(request, clientIp));
+
+        // Registrar el click en los contadores repartidos, la fila de la url no se escribe
+        pipelineMetrics.time(UrlPipelineMetrics.REDIRECT, "click_counters", () -> {
+            clickCounterService.recordClick(url.getId(), verdict.isSuspicious());
+            globalStatsService.clickRecorded(verdict.isSuspicious());
+        });
 
-        if (url.getCounterClicksSession() != null) {
-            url.setCounterClicksSession(url.getCounterClicksSession() + 1);
+        if (verdict.isSuspicious()) {
+            log.debug("Suspicious click on {} ({})", shortCode, verdict);
+            return url;
         }
 
-        urlRepository.save(url);
+        pipelineMetrics.time(UrlPipelineMetrics.REDIRECT, "click_analytics", () -> {
+            // Sumar el click a los intervalos en memoria de la serie de tiempo y a la tabla de posiciones
+            clickRollupService.recordClick(url.getId(), System.currentTimeMillis());
+            leaderboardService.recordClick(url);
 
-        log.info("Successful redirection: {} → {} (total clicks: {})",
+            // Registrar el click en el diario local, sin esperar a que se escriba en disco
+            clickJournalService.append(shortCode, clientIp);
+
+            // Agregar el visitante al sketch de visitantes únicos, solo se usa el hash de la ip
+            visitorSketchService.recordVisit(url.getId(), HashUtil.hash64(ipHashSalt + clientIp));
+        });
+
+        log.debug("Successful redirection: {} → {} (compacted clicks: {})",
                 shortCode,
                 url.getOriginalUrl(),
                 url.getCounterClicksTotal());
@@ -222,48 +287,89 @@ public class UrlServiceImpl implements UrlService {
     }
 
     @Override
-    @Transactional
-    public List<ShortenUrlResponseDTO> getUserUrls(Long userId) {
-
-        log.debug("Obtaining URLs from the user: {}", userId);
+    @Transactional(readOnly = true)
+    public UrlStatsResponseDTO getUrlStatistics(String shortCode, Long userId) {
+
+        log.debug("Obtaining statistics of URL: {} by user: {}", shortCode, userId);
+
+        UrlStatsProjection stats = urlStore.findStatsByShortCodeAndUserId(shortCode, userId)
+                .orElseThrow(() -> new UrlNotFoundException("URL not found: " + shortCode));
+
+        // Los clicks que todavía están en los contadores repartidos se suman a los compactados
+        // Los de la sesión son aproximados: un click pendiente de antes de una reactivación no se puede
+        // distinguir de uno nuevo, y la compactación también lo suma a la sesión que empezó después
+        PendingClicksProjection pendingClicks = clickCounterService.pendingClicks(stats.id());
+        UniqueVisitors uniqueVisitors = visitorSketchService.uniqueVisitors(stats.id());
+
+        return UrlStatsResponseDTO.builder()
+                .urlCodeResponse(stats.shortCode())
+                .stateResponse(stats.stateUrl())
+                .createDateTimeResponse(stats.creationDateTime())
+                .expirationDateTimeResponse(stats.expirationDateTime())
+                .lastActivationDateTimeResponse(stats.lastActivationDateTime())
+                .counterClicksTotalResponse(Math.toIntExact(stats.counterClicksTotal() + pendingClicks.clicks()))
+                .counterClicksSessionResponse(Math.toIntExact(stats.counterClicksSession() + pendingClicks.clicks()))
+                .counterClicksSuspiciousResponse(
+                        Math.toIntExact(stats.counterClicksSuspicious() + pendingClicks.suspiciousClicks()))
+                .timesReactivatedResponse(stats.timesReactivated())
+                .uniqueVisitorsResponse(uniqueVisitors.lifetime())
+                .uniqueVisitorsTodayResponse(uniqueVisitors.today())
+                .build();
+    }
 
-        List<Url> urls = urlRepository.findByUserIdOrderByCreationDateTimeDesc(userId);
+    @Override
+    @Transactional(readOnly = true)
+    public UrlCursorDTO streamUserUrls(Long userId, UrlCursorDTO cursor, Integer pageSize,
+            Consumer<ShortenUrlResponseDTO> consumer) {
+
+        int size = resolvePageSize(pageSize);
+        log.debug("Streaming URLs from the user: {} (page size: {})", userId, size);
+
+        // Se pide una fila de mas para saber si existe una siguiente pagina
+        try (Stream<UrlSummaryProjection> urls = cursor == null
+                ? urlStore.streamUserUrls(userId, null, null, size + 1)
+                : urlStore.streamUserUrls(userId, cursor.creationDateTime(), cursor.id(), size + 1)) {
+
+            Iterator<UrlSummaryProjection> iterator = urls.iterator();
+            UrlSummaryProjection last = null;
+            int count = 0;
+
+            while (iterator.hasNext() && count < size) {
+                last = iterator.next();
+                consumer.accept(convertADTO(last));
+                count++;
+            }
 
-        return urls.stream()
-                .map(this::convertADTO)
-                .collect(Collectors.toList());
+            // Si quedo una fila adicional, el cursor apunta a la ultima url entregada
+            return iterator.hasNext() && last != null
+                    ? new UrlCursorDTO(last.creationDateTime(), last.id())
+                    : null;
+        }
     }
 
     @Override
     @Transactional
-    @SuppressWarnings("null")
     public void deleteUrl(String shortCode, Long userId) {
 
         log.info("Removing URLs: {} by user: {}", shortCode, userId);
 
-        // Buscar url
-        Url url = urlRepository.findByShortCode(shortCode)
-                .orElseThrow(() -> new UrlNotFoundException("URL not found:" + shortCode));
-
-        // Validar que sea del usuario la url
-        if (!url.getUserId().equals(userId)) {
-            log.warn("User {} attempted to delete URL that does not belong to them: {}", userId, shortCode);
-            throw new IllegalArgumentException("You do not have permission to delete this URL");
-        }
+        // El id y el dueño salen de la cache, el estado se valida en la misma sentencia
+        Url url = findOwnedUrl(shortCode, userId, "delete");
 
         // Marcar la url como eliminada técnica soft delete
-        Url deleteUrl = url.toBuilder()
-                .stateUrl(StateUrl.DELETED)
-                .build();
+        if (!urlStore.markDeleted(url.getId(), userId)) {
+            log.debug("URL was already deleted: {}", shortCode);
+            return;
+        }
 
-        urlRepository.save(deleteUrl);
+        // Solo las urls registradas tienen dueño, y nunca expiran
+        globalStatsService.urlStateChanged(TypeUrl.REGISTERED, StateUrl.ACTIVE, StateUrl.DELETED, 1);
 
         log.info("URL marked as deleted: {}", shortCode);
     }
 
     @Override
     @Transactional
-    @SuppressWarnings("null")
     public void updateDestinationUrl(String shortCode, String newUrl, Long userId) {
 
         log.info("Updating URL destination: {} by user: {}", shortCode, userId);
@@ -272,21 +378,15 @@ public class UrlServiceImpl implements UrlService {
         validatorUrlService.validateUrlFormat(newUrl);
         String normalizedUrl = validatorUrlService.normalizeUrl(newUrl);
 
-        // Buscar la url existente
-        Url url = urlRepository.findByShortCode(shortCode)
-                .orElseThrow(() -> new UrlNotFoundException("URL not found:" + shortCode));
+        // El id y el dueño salen de la cache, el estado se valida en la misma sentencia
+        Url url = findOwnedUrl(shortCode, userId, "update");
 
-        if (!url.getUserId().equals(userId)) {
-            log.warn("User {} attempted to update a URL that does not belong to them: {}", userId, shortCode);
-            throw new IllegalArgumentException("You do not have permission to update this URL");
+        // Actualizar solo el destino, si no se modificó ninguna fila la url esta eliminada
+        if (!urlStore.updateOriginalUrl(url.getId(), userId, normalizedUrl)) {
+            log.warn("Attempt to update deleted URL {}", shortCode);
+            throw new UrlNotFoundException("This URL has been removed");
         }
 
-        // Actualizar la url
-        Url updateUrl = url.toBuilder()
-                .originalUrl(normalizedUrl)
-                .build();
-        urlRepository.save(updateUrl);
-
         log.info("Updated URL: {} → {}", shortCode, normalizedUrl);
     }
 
@@ -307,20 +407,112 @@ public class UrlServiceImpl implements UrlService {
                 .build();
     }
 
-    // Reactivar una url expirada para usuarios anónimos
+    // Convertir una proyección de listado a DTO
+    private ShortenUrlResponseDTO convertADTO(UrlSummaryProjection url) {
+        return ShortenUrlResponseDTO.builder()
+                .shortUrlResponse(baseUrl + "/" + url.shortCode())
+                .urlCodeResponse(url.shortCode())
+                .urlOriginalResponse(url.originalUrl())
+                .createDateTimeResponse(url.creationDateTime())
+                .expirationDateTimeResponse(url.expirationDateTime())
+                .isPersonalizedResponse(url.isPerzonalized())
+                .reusedResponse(url.timesReactivated() > 0)
+                .timesReactivatedResponse(url.timesReactivated())
+                .counterClicksTotalResponse(url.counterClicksTotal())
+                .build();
+    }
+
+    // Tamaño de pagina solicitado, acotado al máximo permitido
+    private int resolvePageSize(Integer pageSize) {
+        if (pageSize == null || pageSize < 1) {
+            return defaultPageSize;
+        }
+        return Math.min(pageSize, maxPageSize);
+    }
+
+    // Buscar en el archivo una url anónima por su hash, si esta expirada se devuelve a la tabla urls
+    // Una url eliminada sigue sin poder reutilizarse aunque ya no este en la tabla urls
+    private Optional<Url> restoreFromArchive(String hashComplete) {
+
+        Optional<UrlArchive> archived = urlArchiveRepository.findByFullHash(hashComplete);
+
+        if (archived.isEmpty()) {
+            return Optional.empty();
+        }
+
+        UrlArchive url = archived.get();
+
+        if (url.getStateUrl() == StateUrl.DELETED) {
+            log.warn("Attempt to reuse archived deleted URL: {}", url.getShortCode());
+            throw new CodeExistsException("This URL has been permanently removed", url.getShortCode(), false);
+        }
+
+        return urlArchiveService.restoreExpired(url);
+    }
+
+    // Excepción para un código que no esta en la tabla urls, el archivo indica si existió
+    private RuntimeException archivedUrlException(String shortCode) {
+
+        Optional<UrlArchive> archived = urlArchiveRepository.findByShortCode(shortCode);
+
+        if (archived.isEmpty()) {
+            log.warn("URL not found by shortcode: {}", shortCode);
+            return new UrlNotFoundException("URL not found: " + shortCode);
+        }
+
+        UrlArchive url = archived.get();
+
+        if (url.getStateUrl() == StateUrl.DELETED) {
+            log.warn("Attempt to access deleted URL {}", shortCode);
+            return new UrlNotFoundException("This URL has been removed");
+        }
+
+        log.info("Accessed archived expired URL: {} ", shortCode);
+        return new UrlExpiredException("This link expired on " + url.getExpirationDateTime().toLocalDate(),
+                url.getExpirationDateTime(), true);
+    }
+
+    // Buscar una url del usuario por su código corto, distinguiendo si no existe o es de otro usuario
+    private Url findOwnedUrl(String shortCode, Long userId, String action) {
+
+        Url url = urlStore.findByShortCode(shortCode)
+                .orElseThrow(() -> new UrlNotFoundException("URL not found:" + shortCode));
+
+        // Las urls anónimas no tienen dueño, nunca coinciden con un usuario
+        if (!Objects.equals(url.getUserId(), userId)) {
+            log.warn("User {} attempted to {} a URL that does not belong to them: {}", userId, action, shortCode);
+            throw new IllegalArgumentException("You do not have permission to " + action + " this URL");
+        }
+        return url;
+    }
+
+    // Reactivar una url expirada para usuarios anónimos, solo se escriben las columnas de la reactivación
     @SuppressWarnings("null")
-    private void reactivateUrl(Url url) {
-        Url reactivated = url.toBuilder()
+    private Url reactivateUrl(Url url) {
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expirationDateTime = now.plusDays(daysExpiration);
+
+        if (!urlStore.reactivateExpired(url.getId(), now, expirationDateTime)) {
+            // Otra petición la reactivó al mismo tiempo, se retorna la fila actual
+            log.debug("URL was reactivated concurrently: {}", url.getShortCode());
+            return urlStore.findById(url.getId()).orElse(url);
+        }
+
+        globalStatsService.urlStateChanged(url.getTypeUrl(), StateUrl.EXPIRED, StateUrl.ACTIVE, 1);
+        log.info("Reactivated URL: {} (reactivation's: {})", url.getShortCode(), url.getTimesReactivated() + 1);
+
+        // Reflejar en memoria los valores escritos, sin volver a leer la fila
+        Url reactivatedUrl = url.toBuilder()
                 .stateUrl(StateUrl.ACTIVE)
-                .lastActivationDateTime(LocalDateTime.now())
-                .expirationDateTime(LocalDateTime.now().plusDays(daysExpiration))
+                .lastActivationDateTime(now)
+                .expirationDateTime(expirationDateTime)
                 .counterClicksSession(0)
                 .timesReactivated(url.getTimesReactivated() + 1)
                 .build();
 
-        urlRepository.save(reactivated);
-
-        log.info("Reactivated URL: {} (reactivation's: {})", url.getShortCode(), url.getTimesReactivated());
+        leaderboardService.recordReactivation(reactivatedUrl);
+        return reactivatedUrl;
     }
 
     @SuppressWarnings("null")
@@ -340,7 +532,9 @@ public class UrlServiceImpl implements UrlService {
                 .isPerzonalized(false)
                 .build();
 
-        return (Url) urlRepository.save(url);
+        Url saved = urlStore.create(url);
+        globalStatsService.urlCreated(TypeUrl.ANONYMOUS);
+        return saved;
     }
 
     @SuppressWarnings("null")
@@ -360,7 +554,9 @@ public class UrlServiceImpl implements UrlService {
                 .isPerzonalized(isPerzonalized)
                 .build();
 
-        return (Url) urlRepository.save(url);
+        Url saved = urlStore.create(url);
+        globalStatsService.urlCreated(TypeUrl.REGISTERED);
+        return saved;
     }
 
 }
@@ -0,0 +1,246 @@
+package com.bryam.urlshortener.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bryam.urlshortener.model.UrlVisitorSketch;
+import com.bryam.urlshortener.repository.UrlVisitorSketchRepository;
+import com.bryam.urlshortener.rollup.HyperLogLog;
+import com.bryam.urlshortener.rollup.UniqueVisitors;
+import com.bryam.urlshortener.service.JobLockService;
+import com.bryam.urlshortener.service.VisitorSketchService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class VisitorSketchServiceImpl implements VisitorSketchService {
+
+    private static final String RETENTION_JOB_NAME = "visitor-sketch-retention";
+
+    private final UrlVisitorSketchRepository visitorSketchRepository;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter droppedVisits;
+
+    // Sketches en memoria por url y dia, se conservan mientras la url tenga visitas recientes
+    private final Map<SketchKey, DaySketch> sketches = new ConcurrentHashMap<>();
+
+    // Sketches quitados de memoria en el vaciado anterior, se unen una vez mas por si llego una visita tardía
+    private Map<SketchKey, DaySketch> retiring = Map.of();
+
+    @Value("${app.visitors.max-active-links}")
+    private int maxActiveLinks;
+
+    @Value("${app.visitors.idle-minutes}")
+    private long idleMinutes;
+
+    @Value("${app.visitors.day-retention-days}")
+    private long dayRetentionDays;
+
+    public VisitorSketchServiceImpl(UrlVisitorSketchRepository visitorSketchRepository,
+            JobLockService jobLockService, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.visitorSketchRepository = visitorSketchRepository;
+        this.jobLockService = jobLockService;
+        this.transactionTemplate = transactionTemplate;
+        this.droppedVisits = Counter.builder("visitors.sketch.dropped")
+                .description("Visits left out of the unique visitor sketches because too many links were active")
+                .register(meterRegistry);
+        Gauge.builder("visitors.sketch.active", sketches, Map::size)
+                .description("Unique visitor sketches held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void recordVisit(Long urlId, long visitorHash) {
+        SketchKey key = new SketchKey(urlId, today());
+        DaySketch sketch = sketches.get(key);
+
+        if (sketch == null) {
+            // Se acota la memoria, cada sketch ocupa 4 KB
+            if (sketches.size() >= maxActiveLinks) {
+                droppedVisits.increment();
+                return;
+            }
+            sketch = sketches.computeIfAbsent(key, k -> new DaySketch());
+        }
+
+        sketch.offer(visitorHash);
+    }
+
+    @Override
+    public UniqueVisitors uniqueVisitors(Long urlId) {
+        LocalDate today = today();
+
+        HyperLogLog lifetime = new HyperLogLog();
+        HyperLogLog daily = new HyperLogLog();
+
+        for (UrlVisitorSketch row : visitorSketchRepository.findByUrlIdAndBucketDayIn(
+                urlId, List.of(UrlVisitorSketch.LIFETIME_DAY, today))) {
+            HyperLogLog stored = HyperLogLog.fromBytes(row.getRegisters());
+            (row.getBucketDay().equals(today) ? daily : lifetime).merge(stored);
+        }
+
+        // Los visitantes que todavía no se guardaron, el de ayer puede seguir pendiente cerca de medianoche
+        DaySketch pendingToday = sketches.get(new SketchKey(urlId, today));
+        if (pendingToday != null) {
+            daily.merge(pendingToday.sketch);
+        }
+        DaySketch pendingYesterday = sketches.get(new SketchKey(urlId, today.minusDays(1)));
+        if (pendingYesterday != null) {
+            lifetime.merge(pendingYesterday.sketch);
+        }
+        lifetime.merge(daily);
+
+        return new UniqueVisitors(lifetime.estimate(), daily.estimate());
+    }
+
+    // Tarea programada, cada instancia une sus propios sketches, la unión es idempotente
+    @Scheduled(fixedDelayString = "${app.visitors.flush-interval-ms}",
+            initialDelayString = "${app.visitors.flush-interval-ms}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @Override
+    public synchronized int flush() {
+        long now = System.currentTimeMillis();
+        long idleMillis = Duration.ofMinutes(idleMinutes).toMillis();
+        int saved = 0;
+
+        for (Map.Entry<SketchKey, DaySketch> entry : retiring.entrySet()) {
+            saved += flushSketch(entry.getKey(), entry.getValue());
+        }
+
+        Map<SketchKey, DaySketch> nextRetiring = new HashMap<>();
+        for (Map.Entry<SketchKey, DaySketch> entry : sketches.entrySet()) {
+            DaySketch sketch = entry.getValue();
+            saved += flushSketch(entry.getKey(), sketch);
+
+            // Los sketches sin visitas recientes y ya guardados se quitan de memoria
+            if (sketch.isIdle(now, idleMillis) && sketches.remove(entry.getKey(), sketch)) {
+                nextRetiring.put(entry.getKey(), sketch);
+            }
+        }
+        retiring = nextRetiring;
+
+        if (saved > 0) {
+            log.debug("Flushed {} unique visitor sketches", saved);
+        }
+        return saved;
+    }
+
+    // Al apagar se guardan los sketches pendientes
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    // Tarea programada, elimina los sketches diarios que superan la retención
+    @Scheduled(cron = "${app.visitors.retention-cron}")
+    public void scheduledRetention() {
+
+        if (!jobLockService.tryAcquire(RETENTION_JOB_NAME, Duration.ofMinutes(10))) {
+            return;
+        }
+
+        try {
+            int deleted = visitorSketchRepository.deleteDailyOlderThan(
+                    today().minusDays(dayRetentionDays), UrlVisitorSketch.LIFETIME_DAY);
+            log.info("Unique visitor sketch retention removed {} sketches", deleted);
+        } catch (Exception e) {
+            log.error("Unique visitor sketch retention failed", e);
+        } finally {
+            jobLockService.release(RETENTION_JOB_NAME);
+        }
+    }
+
+    // Unir el sketch del dia a la fila del dia y a la de toda la vida en una transacción
+    // Si falla, el sketch queda marcado como cambiado y se reintenta en el siguiente vaciado
+    private int flushSketch(SketchKey key, DaySketch sketch) {
+        if (!sketch.takeDirty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Siempre se bloquea primero la fila de toda la vida para no cruzar bloqueos entre instancias
+                mergeInto(key.urlId(), UrlVisitorSketch.LIFETIME_DAY, sketch.sketch);
+                mergeInto(key.urlId(), key.day(), sketch.sketch);
+            });
+            return 1;
+        } catch (RuntimeException e) {
+            sketch.markDirty();
+            log.warn("Could not flush unique visitor sketch of URL {}, retrying on the next flush", key.urlId(), e);
+            return 0;
+        }
+    }
+
+    private void mergeInto(Long urlId, LocalDate day, HyperLogLog sketch) {
+        LocalDateTime now = LocalDateTime.now();
+        UrlVisitorSketch row = visitorSketchRepository.findForUpdate(urlId, day)
+                .orElseGet(() -> UrlVisitorSketch.builder()
+                        .urlId(urlId)
+                        .bucketDay(day)
+                        .registers(new byte[HyperLogLog.REGISTERS])
+                        .build());
+
+        row.setRegisters(HyperLogLog.fromBytes(row.getRegisters()).merge(sketch).toBytes());
+        row.setUpdatedAt(now);
+        visitorSketchRepository.save(row);
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private record SketchKey(Long urlId, LocalDate day) {
+    }
+
+    // Sketch en memoria con la marca de cambios pendientes
+    private static final class DaySketch {
+
+        private final HyperLogLog sketch = new HyperLogLog();
+        private volatile boolean dirty;
+        private volatile long lastChangeMillis;
+
+        void offer(long visitorHash) {
+            // Solo se marca cuando cambia algún registro, los visitantes repetidos no generan escrituras
+            if (sketch.offer(visitorHash)) {
+                lastChangeMillis = System.currentTimeMillis();
+                dirty = true;
+            }
+        }
+
+        boolean takeDirty() {
+            if (!dirty) {
+                return false;
+            }
+            dirty = false;
+            return true;
+        }
+
+        void markDirty() {
+            dirty = true;
+        }
+
+        boolean isIdle(long nowMillis, long idleMillis) {
+            return !dirty && nowMillis - lastChangeMillis >= idleMillis;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.bryam.urlshortener.store;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.repository.UrlRepository;
+import com.bryam.urlshortener.repository.projection.LeaderboardScoreProjection;
+import com.bryam.urlshortener.repository.projection.StateTypeCountProjection;
+import com.bryam.urlshortener.repository.projection.UrlExportProjection;
+import com.bryam.urlshortener.repository.projection.UrlStatsProjection;
+import com.bryam.urlshortener.repository.projection.UrlSummaryProjection;
+import com.bryam.urlshortener.util.Base62Util;
+
+import lombok.RequiredArgsConstructor;
+
+//Almacenamiento de las urls en la tabla urls con JPA
+//Las escrituras son sentencias directas, después de cada una se sacan de la cache de segundo nivel los ids modificados
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.store.type", havingValue = "jpa", matchIfMissing = true)
+public class JpaUrlStore implements UrlStore {
+
+    //Los códigos provisionales empiezan con un carácter que no usan los slugs ni la base62
+    private static final String PLACEHOLDER_PREFIX = "_";
+    private static final long PLACEHOLDER_RANGE = 13_537_086_546_263_552L; // 62^9
+
+    private final UrlRepository urlRepository;
+
+    @Override
+    public Optional<Url> findByShortCode(String shortCode) {
+        return urlRepository.findByNaturalId(shortCode);
+    }
+
+    @Override
+    public Optional<Url> findById(Long id) {
+        return urlRepository.findById(id);
+    }
+
+    @Override
+    public Optional<Url> findByFullHash(String fullHash) {
+        return urlRepository.findByFullHash(fullHash);
+    }
+
+    @Override
+    public Optional<Long> findIdByShortCodeAndUserId(String shortCode, Long userId) {
+        return urlRepository.findIdByShortCodeAndUserId(shortCode, userId);
+    }
+
+    @Override
+    public Optional<UrlStatsProjection> findStatsByShortCodeAndUserId(String shortCode, Long userId) {
+        return urlRepository.findStatsByShortCodeAndUserId(shortCode, userId);
+    }
+
+    @Override
+    @Transactional
+    public Url create(Url url, LongFunction<String> shortCodeForId) {
+        if (url.getShortCode() != null) {
+            return urlRepository.save(url);
+        }
+
+        // Se guarda con un código provisional único porque la columna es obligatoria y el id sale del INSERT
+        // La entidad queda administrada, el código definitivo se escribe al confirmar la transacción
+        url.setShortCode(placeholderCode());
+        Url saved = urlRepository.save(url);
+        saved.setShortCode(shortCodeForId.apply(saved.getId()));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<Url> createAll(List<Url> urls, LongFunction<String> shortCodeForId) {
+
+        // Un solo lote de INSERT, las urls sin código se insertan con uno provisional y se corrigen en otro lote
+        List<Url> generated = urls.stream()
+                .filter(url -> url.getShortCode() == null)
+                .toList();
+        generated.forEach(url -> url.setShortCode(placeholderCode()));
+
+        urlRepository.insertBatch(urls);
+
+        generated.forEach(url -> url.setShortCode(shortCodeForId.apply(url.getId())));
+        urlRepository.updateShortCodes(generated);
+        return urls;
+    }
+
+    @Override
+    public Set<String> findExistingShortCodes(Collection<String> shortCodes) {
+        return shortCodes.isEmpty() ? Set.of() : new HashSet<>(urlRepository.findExistingShortCodes(shortCodes));
+    }
+
+    @Override
+    public boolean markDeleted(Long id, Long userId) {
+        return evictIfChanged(id, urlRepository.markDeleted(id, userId, StateUrl.DELETED.name()));
+    }
+
+    @Override
+    public boolean updateOriginalUrl(Long id, Long userId, String originalUrl) {
+        return evictIfChanged(id,
+                urlRepository.updateOriginalUrl(id, userId, originalUrl, StateUrl.DELETED.name()));
+    }
+
+    @Override
+    public boolean reactivateExpired(Long id, LocalDateTime now, LocalDateTime expirationDateTime) {
+        int updated = urlRepository.reactivateExpired(id, now, expirationDateTime,
+                StateUrl.EXPIRED.name(), StateUrl.ACTIVE.name());
+
+        // Si otra petición la reactivó la entrada en cache también puede estar vieja
+        urlRepository.evictFromCache(List.of(id));
+        return updated > 0;
+    }
+
+    @Override
+    public List<Long> findIdsToExpire(LocalDateTime now, Long lastId, int limit) {
+        return urlRepository.findIdsToExpire(TypeUrl.ANONYMOUS, StateUrl.ACTIVE, now, lastId, Limit.of(limit));
+    }
+
+    @Override
+    public int expireByIds(List<Long> ids, LocalDateTime now) {
+        int expired = urlRepository.updateExpiredStateByIds(ids, StateUrl.ACTIVE.name(),
+                StateUrl.EXPIRED.name(), now);
+        urlRepository.evictFromCache(ids);
+        return expired;
+    }
+
+    // Las urls no se sacan de la cache, las mas visitadas se compactan en cada ciclo y la redirección
+    // no usa los contadores, las estadísticas y las tablas de posiciones los leen con proyecciones
+    @Override
+    public void addClicks(Map<Long, Integer> clicksByUrl, Map<Long, Integer> suspiciousByUrl) {
+        clicksByUrl.forEach(urlRepository::addClicks);
+        suspiciousByUrl.forEach(urlRepository::addSuspiciousClicks);
+    }
+
+    @Override
+    public Stream<UrlSummaryProjection> streamUserUrls(Long userId, LocalDateTime creationDateTime, Long id,
+            int limit) {
+        return creationDateTime == null
+                ? urlRepository.streamUserUrls(userId, Limit.of(limit))
+                : urlRepository.streamUserUrlsAfter(userId, creationDateTime, id, Limit.of(limit));
+    }
+
+    @Override
+    public Stream<UrlExportProjection> streamAll(Long afterId) {
+        return urlRepository.streamAllAfter(afterId);
+    }
+
+    // Un bloque de la exportación, para las particiones que se recorren a la vez
+    public List<UrlExportProjection> findAllAfter(Long afterId, int limit) {
+        return urlRepository.findAllAfter(afterId, Limit.of(limit));
+    }
+
+    @Override
+    public long countByUserIdCreatedAfter(Long userId, LocalDateTime dateTime) {
+        return urlRepository.countByUserIdAndCreationDateTimeAfter(userId, dateTime);
+    }
+
+    @Override
+    public List<LeaderboardScoreProjection> findLeaderboardScores(Collection<Long> ids) {
+        return urlRepository.findLeaderboardScores(ids);
+    }
+
+    @Override
+    public List<LeaderboardScoreProjection> findTopByClicks(int limit) {
+        return urlRepository.findTopByClicks(StateUrl.ACTIVE, Limit.of(limit));
+    }
+
+    @Override
+    public List<LeaderboardScoreProjection> findTopByReactivations(int limit) {
+        return urlRepository.findTopByReactivations(StateUrl.ACTIVE, Limit.of(limit));
+    }
+
+    @Override
+    public List<StateTypeCountProjection> countByStateAndType() {
+        return urlRepository.countByStateAndType();
+    }
+
+    private static String placeholderCode() {
+        return PLACEHOLDER_PREFIX + Base62Util.encode(ThreadLocalRandom.current().nextLong(1, PLACEHOLDER_RANGE));
+    }
+
+    // Sacar de la cache la url solo si la sentencia la modificó
+    private boolean evictIfChanged(Long id, int updated) {
+        if (updated == 0) {
+            return false;
+        }
+        urlRepository.evictFromCache(List.of(id));
+        return true;
+    }
+}
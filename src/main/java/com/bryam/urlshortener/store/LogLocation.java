@@ -0,0 +1,5 @@
+package com.bryam.urlshortener.store;
+
+//Posición de un registro dentro del archivo, el tamaño incluye el encabezado del registro
+public record LogLocation(long offset, int size) {
+}
@@ -0,0 +1,625 @@
+package com.bryam.urlshortener.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.FsyncPolicy;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.repository.projection.LeaderboardScoreProjection;
+import com.bryam.urlshortener.repository.projection.StateTypeCountProjection;
+import com.bryam.urlshortener.repository.projection.UrlExportProjection;
+import com.bryam.urlshortener.repository.projection.UrlStatsProjection;
+import com.bryam.urlshortener.repository.projection.UrlSummaryProjection;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+//Almacenamiento embebido de las urls para instalaciones pequeñas sin MySQL
+//Las urls se guardan en un archivo de solo escritura al final (UrlLog), en memoria solo queda el índice
+//del código a la posición del registro, mas índices del id, del hash completo y de las urls de cada usuario
+//Las lecturas puntuales leen un registro del archivo, las consultas de mantenimiento recorren todas las urls
+//La compactación reescribe solo la ultima version de cada url cuando los registros viejos ocupan demasiado
+//Las escrituras se aplican al momento y no participan de la transacción que llama, un rollback no las deshace
+//Solo los clicks esperan a que la transacción confirme. El archivo de urls frías trabaja sobre la tabla urls,
+//por eso este almacenamiento no arranca con el archivado activo
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.store.type", havingValue = "embedded")
+public class LogStructuredUrlStore implements UrlStore {
+
+    public static final String FILE_NAME = "urls.log";
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    // Urls de un usuario de la mas nueva a la mas vieja, el mismo orden del listado
+    private static final Comparator<UserUrlKey> NEWEST_FIRST = Comparator
+            .comparing(UserUrlKey::creationDateTime)
+            .thenComparingLong(UserUrlKey::id)
+            .reversed();
+
+    private final MeterRegistry meterRegistry;
+    private final Timer compactionDuration;
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final double compactionMinDeadRatio;
+    private final long compactionMinBytes;
+
+    // Las lecturas comparten el bloqueo, las escrituras y la compactación lo toman en exclusiva
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, LogLocation> locationByCode = new ConcurrentHashMap<>();
+    // Ordenado por id para recorrer las urls por bloques sin ordenar todo el índice
+    private final NavigableMap<Long, String> codeById = new ConcurrentSkipListMap<>();
+    private final Map<String, String> codeByFullHash = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableSet<UserUrlKey>> urlsByUser = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong liveBytes = new AtomicLong();
+
+    private volatile UrlLog urlLog;
+    private volatile boolean dirty;
+
+    public LogStructuredUrlStore(MeterRegistry meterRegistry,
+            @Value("${app.store.embedded.directory}") String directory,
+            @Value("${app.store.embedded.fsync}") FsyncPolicy fsyncPolicy,
+            @Value("${app.store.embedded.compaction-min-dead-ratio}") double compactionMinDeadRatio,
+            @Value("${app.store.embedded.compaction-min-size-mb}") long compactionMinSizeMb,
+            @Value("${app.archive.enabled}") boolean archiveEnabled) {
+        if (archiveEnabled) {
+            throw new IllegalStateException(
+                    "The embedded URL store does not support archiving, set app.archive.enabled=false");
+        }
+        this.meterRegistry = meterRegistry;
+        this.directory = Path.of(directory);
+        this.fsyncPolicy = fsyncPolicy;
+        this.compactionMinDeadRatio = compactionMinDeadRatio;
+        this.compactionMinBytes = compactionMinSizeMb * 1024 * 1024;
+        this.compactionDuration = Timer.builder("urls.store.compaction.duration")
+                .description("Time spent rewriting the embedded URL store file")
+                .register(meterRegistry);
+    }
+
+    // Al iniciar se lee el archivo completo para reconstruir los índices en memoria
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(FILE_NAME);
+
+        // Una compactación que no terminó deja un archivo a medias, el original sigue completo
+        Files.deleteIfExists(directory.resolve(FILE_NAME + COMPACT_SUFFIX));
+
+        urlLog = UrlLog.open(file);
+        urlLog.recover((payload, location) -> index(UrlRecordCodec.decode(payload), location));
+
+        Gauge.builder("urls.store.entries", locationByCode, Map::size)
+                .description("URLs in the embedded store")
+                .register(meterRegistry);
+        Gauge.builder("urls.store.log.bytes", this, store -> store.urlLog.size())
+                .description("Size of the embedded URL store file")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("urls.store.log.dead.ratio", this, LogStructuredUrlStore::deadRatio)
+                .description("Share of the embedded URL store file taken by old record versions")
+                .register(meterRegistry);
+
+        log.info("Embedded URL store opened in {} ({} URLs, {} bytes, fsync {})",
+                directory, locationByCode.size(), urlLog.size(), fsyncPolicy);
+    }
+
+    @Override
+    public Optional<Url> findByShortCode(String shortCode) {
+        return read(() -> Optional.ofNullable(locationByCode.get(shortCode)).map(this::load));
+    }
+
+    @Override
+    public Optional<Url> findById(Long id) {
+        return read(() -> Optional.ofNullable(codeById.get(id)).map(this::loadByCode));
+    }
+
+    @Override
+    public Optional<Url> findByFullHash(String fullHash) {
+        return read(() -> Optional.ofNullable(codeByFullHash.get(fullHash)).map(this::loadByCode));
+    }
+
+    @Override
+    public Optional<Long> findIdByShortCodeAndUserId(String shortCode, Long userId) {
+        return findByShortCode(shortCode)
+                .filter(url -> ownedBy(url, userId))
+                .map(Url::getId);
+    }
+
+    @Override
+    public Optional<UrlStatsProjection> findStatsByShortCodeAndUserId(String shortCode, Long userId) {
+        return findByShortCode(shortCode)
+                .filter(url -> ownedBy(url, userId))
+                .map(url -> new UrlStatsProjection(url.getId(), url.getShortCode(), url.getStateUrl(),
+                        url.getCreationDateTime(), url.getExpirationDateTime(), url.getLastActivationDateTime(),
+                        url.getCounterClicksTotal(), url.getCounterClicksSession(),
+                        url.getCounterClicksSuspicious(), url.getTimesReactivated()));
+    }
+
+    @Override
+    public Url create(Url url, LongFunction<String> shortCodeForId) {
+        lock.writeLock().lock();
+        try {
+            long id = nextId.get();
+            String shortCode = url.getShortCode() != null ? url.getShortCode() : shortCodeForId.apply(id);
+
+            // Mismas restricciones únicas que la tabla urls
+            if (locationByCode.containsKey(shortCode)) {
+                throw new DataIntegrityViolationException("Duplicate short code: " + shortCode);
+            }
+            if (url.getFullHash() != null && codeByFullHash.containsKey(url.getFullHash())) {
+                throw new DataIntegrityViolationException("Duplicate full hash: " + url.getFullHash());
+            }
+
+            // Mismos valores iniciales que asigna la entidad al persistirse
+            LocalDateTime now = LocalDateTime.now();
+            Url created = url.toBuilder()
+                    .id(id)
+                    .shortCode(shortCode)
+                    .creationDateTime(now)
+                    .lastActivationDateTime(now)
+                    .stateUrl(url.getStateUrl() != null ? url.getStateUrl() : StateUrl.ACTIVE)
+                    .counterClicksTotal(valueOrZero(url.getCounterClicksTotal()))
+                    .counterClicksSession(valueOrZero(url.getCounterClicksSession()))
+                    .counterClicksSuspicious(valueOrZero(url.getCounterClicksSuspicious()))
+                    .timesReactivated(valueOrZero(url.getTimesReactivated()))
+                    .isPerzonalized(Boolean.TRUE.equals(url.getIsPerzonalized()))
+                    .build();
+
+            write(created);
+            return created.toBuilder().build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Url> createAll(List<Url> urls, LongFunction<String> shortCodeForId) {
+        lock.writeLock().lock();
+        try {
+            // Se validan todas antes de escribir la primera, igual que un lote que falla completo
+            Set<String> codes = new HashSet<>();
+            Set<String> hashes = new HashSet<>();
+            for (Url url : urls) {
+                if (url.getShortCode() != null
+                        && (locationByCode.containsKey(url.getShortCode()) || !codes.add(url.getShortCode()))) {
+                    throw new DataIntegrityViolationException("Duplicate short code: " + url.getShortCode());
+                }
+                if (url.getFullHash() != null
+                        && (codeByFullHash.containsKey(url.getFullHash()) || !hashes.add(url.getFullHash()))) {
+                    throw new DataIntegrityViolationException("Duplicate full hash: " + url.getFullHash());
+                }
+            }
+            return urls.stream()
+                    .map(url -> create(url, shortCodeForId))
+                    .toList();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> findExistingShortCodes(Collection<String> shortCodes) {
+        Set<String> existing = new HashSet<>();
+        for (String shortCode : shortCodes) {
+            if (locationByCode.containsKey(shortCode)) {
+                existing.add(shortCode);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public boolean markDeleted(Long id, Long userId) {
+        return update(id,
+                url -> ownedBy(url, userId) && url.getStateUrl() != StateUrl.DELETED,
+                url -> url.toBuilder().stateUrl(StateUrl.DELETED).build());
+    }
+
+    @Override
+    public boolean updateOriginalUrl(Long id, Long userId, String originalUrl) {
+        return update(id,
+                url -> ownedBy(url, userId) && url.getStateUrl() != StateUrl.DELETED,
+                url -> url.toBuilder().originalUrl(originalUrl).build());
+    }
+
+    @Override
+    public boolean reactivateExpired(Long id, LocalDateTime now, LocalDateTime expirationDateTime) {
+        return update(id,
+                url -> url.getStateUrl() == StateUrl.EXPIRED,
+                url -> url.toBuilder()
+                        .stateUrl(StateUrl.ACTIVE)
+                        .lastActivationDateTime(now)
+                        .expirationDateTime(expirationDateTime)
+                        .counterClicksSession(0)
+                        .timesReactivated(url.getTimesReactivated() + 1)
+                        .build());
+    }
+
+    @Override
+    public List<Long> findIdsToExpire(LocalDateTime now, Long lastId, int limit) {
+        return read(() -> codeById.tailMap(lastId, false).keySet().stream()
+                .map(this::loadById)
+                .filter(url -> url != null && isExpirable(url, now))
+                .limit(limit)
+                .map(Url::getId)
+                .toList());
+    }
+
+    @Override
+    public int expireByIds(List<Long> ids, LocalDateTime now) {
+        int expired = 0;
+        for (Long id : ids) {
+            if (update(id, url -> isExpirable(url, now),
+                    url -> url.toBuilder().stateUrl(StateUrl.EXPIRED).build())) {
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    @Override
+    public void addClicks(Map<Long, Integer> clicksByUrl, Map<Long, Integer> suspiciousByUrl) {
+
+        // Los contadores repartidos se restan en la transacción que llama, los clicks se suman
+        // solo si esa transacción confirma para no contarlos dos veces si se repite el bloque
+        Map<Long, Integer> clicks = Map.copyOf(clicksByUrl);
+        Map<Long, Integer> suspicious = Map.copyOf(suspiciousByUrl);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyClicks(clicks, suspicious);
+                }
+            });
+        } else {
+            applyClicks(clicks, suspicious);
+        }
+    }
+
+    @Override
+    public Stream<UrlSummaryProjection> streamUserUrls(Long userId, LocalDateTime creationDateTime, Long id,
+            int limit) {
+        return read(() -> {
+            NavigableSet<UserUrlKey> urls = urlsByUser.get(userId);
+            if (urls == null) {
+                return Stream.<UrlSummaryProjection>empty();
+            }
+
+            NavigableSet<UserUrlKey> page = creationDateTime == null
+                    ? urls
+                    : urls.tailSet(new UserUrlKey(creationDateTime, id), false);
+
+            // Se leen las filas de la pagina antes de soltar el bloqueo
+            return page.stream()
+                    .limit(limit)
+                    .map(key -> loadById(key.id()))
+                    .filter(Objects::nonNull)
+                    .map(url -> new UrlSummaryProjection(url.getId(), url.getShortCode(), url.getOriginalUrl(),
+                            url.getCreationDateTime(), url.getExpirationDateTime(), url.getIsPerzonalized(),
+                            url.getTimesReactivated(), url.getCounterClicksTotal()))
+                    .toList()
+                    .stream();
+        });
+    }
+
+    @Override
+    public Stream<UrlExportProjection> streamAll(Long afterId) {
+
+        // Cada url se lee con el bloqueo compartido al consumirla, una compactación puede ocurrir entre dos filas
+        return codeById.tailMap(afterId, false).keySet().stream()
+                .map(id -> read(() -> loadById(id)))
+                .filter(Objects::nonNull)
+                .map(url -> new UrlExportProjection(url.getId(), url.getShortCode(), url.getOriginalUrl(),
+                        url.getTypeUrl(), url.getStateUrl(), url.getCreationDateTime(),
+                        url.getExpirationDateTime(), url.getLastActivationDateTime(), url.getUserId(),
+                        url.getCounterClicksTotal(), url.getCounterClicksSuspicious(),
+                        url.getTimesReactivated(), url.getIsPerzonalized()));
+    }
+
+    @Override
+    public long countByUserIdCreatedAfter(Long userId, LocalDateTime dateTime) {
+        NavigableSet<UserUrlKey> urls = urlsByUser.get(userId);
+        if (urls == null) {
+            return 0;
+        }
+        return urls.stream()
+                .takeWhile(key -> key.creationDateTime().isAfter(dateTime))
+                .count();
+    }
+
+    @Override
+    public List<LeaderboardScoreProjection> findLeaderboardScores(Collection<Long> ids) {
+        return read(() -> ids.stream()
+                .map(this::loadById)
+                .filter(Objects::nonNull)
+                .map(LogStructuredUrlStore::toScore)
+                .toList());
+    }
+
+    @Override
+    public List<LeaderboardScoreProjection> findTopByClicks(int limit) {
+        return scan(url -> url.getStateUrl() == StateUrl.ACTIVE,
+                Comparator.comparing(Url::getCounterClicksTotal).reversed(), limit);
+    }
+
+    @Override
+    public List<LeaderboardScoreProjection> findTopByReactivations(int limit) {
+        return scan(url -> url.getStateUrl() == StateUrl.ACTIVE && url.getTimesReactivated() > 0,
+                Comparator.comparing(Url::getTimesReactivated).reversed(), limit);
+    }
+
+    @Override
+    public List<StateTypeCountProjection> countByStateAndType() {
+        Map<StateUrl, Map<TypeUrl, long[]>> counts = new EnumMap<>(StateUrl.class);
+
+        forEachUrl(url -> {
+            long[] row = counts.computeIfAbsent(url.getStateUrl(), state -> new EnumMap<>(TypeUrl.class))
+                    .computeIfAbsent(url.getTypeUrl(), type -> new long[3]);
+            row[0]++;
+            row[1] += url.getCounterClicksTotal();
+            row[2] += url.getCounterClicksSuspicious();
+        });
+
+        List<StateTypeCountProjection> rows = new ArrayList<>();
+        counts.forEach((state, byType) -> byType.forEach((type, row) ->
+                rows.add(new StateTypeCountProjection(state, type, row[0], row[1], row[2]))));
+        return rows;
+    }
+
+    // Con la política INTERVAL se sincroniza el archivo si hubo escrituras desde la ultima vez
+    @Scheduled(fixedDelayString = "${app.store.embedded.fsync-interval-ms}")
+    public void scheduledForce() {
+        if (fsyncPolicy != FsyncPolicy.INTERVAL || !dirty) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            dirty = false;
+            urlLog.force();
+        } catch (IOException e) {
+            log.error("Could not sync the embedded URL store", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Compactar cuando el archivo supera el tamaño mínimo y los registros viejos pasan la proporción indicada
+    @Scheduled(fixedDelayString = "${app.store.embedded.compaction-interval-ms}")
+    public void scheduledCompaction() {
+        if (urlLog.size() < compactionMinBytes || deadRatio() < compactionMinDeadRatio) {
+            return;
+        }
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            log.error("Embedded URL store compaction failed", e);
+        }
+    }
+
+    // Reescribir el archivo solo con la ultima version de cada url y reemplazarlo de forma atómica
+    // Las lecturas y escrituras esperan mientras tanto, el archivo de una instalación pequeña es chico
+    public void compact() throws IOException {
+        long start = System.nanoTime();
+
+        lock.writeLock().lock();
+        try {
+            long before = urlLog.size();
+            Path file = urlLog.path();
+            Path compacted = directory.resolve(FILE_NAME + COMPACT_SUFFIX);
+            Map<String, LogLocation> moved = new HashMap<>(locationByCode.size());
+
+            try (UrlLog target = UrlLog.open(compacted)) {
+                for (Map.Entry<String, LogLocation> entry : locationByCode.entrySet()) {
+                    moved.put(entry.getKey(), target.append(urlLog.read(entry.getValue())));
+                }
+                target.force();
+            }
+
+            urlLog.close();
+            Files.move(compacted, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            urlLog = UrlLog.open(file);
+            locationByCode.putAll(moved);
+            liveBytes.set(urlLog.size() - UrlLog.HEADER_SIZE);
+            dirty = false;
+
+            log.info("Embedded URL store compacted from {} to {} bytes", before, urlLog.size());
+        } finally {
+            lock.writeLock().unlock();
+            compactionDuration.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    // Proporción del archivo ocupada por versiones reemplazadas
+    public double deadRatio() {
+        long total = urlLog.size() - UrlLog.HEADER_SIZE;
+        return total <= 0 ? 0.0 : 1.0 - (double) liveBytes.get() / total;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            urlLog.close();
+            log.info("Embedded URL store closed");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Escribir una nueva version de una url si la actual cumple la condición, en la misma sección exclusiva
+    private boolean update(Long id, Predicate<Url> condition, UnaryOperator<Url> change) {
+        lock.writeLock().lock();
+        try {
+            Url current = loadById(id);
+            if (current == null || !condition.test(current)) {
+                return false;
+            }
+            write(change.apply(current));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyClicks(Map<Long, Integer> clicks, Map<Long, Integer> suspicious) {
+        clicks.forEach((id, count) -> update(id, url -> true, url -> url.toBuilder()
+                .counterClicksTotal(url.getCounterClicksTotal() + count)
+                .counterClicksSession(url.getCounterClicksSession() + count)
+                .build()));
+        suspicious.forEach((id, count) -> update(id, url -> true, url -> url.toBuilder()
+                .counterClicksSuspicious(url.getCounterClicksSuspicious() + count)
+                .build()));
+    }
+
+    // Agregar la version al archivo y apuntar el índice a ella, se llama con el bloqueo exclusivo
+    private void write(Url url) {
+        try {
+            LogLocation location = urlLog.append(UrlRecordCodec.encode(url));
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                urlLog.force();
+            } else {
+                dirty = true;
+            }
+            index(url, location);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the embedded URL store", e);
+        }
+    }
+
+    // Apuntar los índices a la ultima version de una url, la version anterior pasa a ser espacio muerto
+    private void index(Url url, LogLocation location) {
+        LogLocation previous = locationByCode.put(url.getShortCode(), location);
+        liveBytes.addAndGet(location.size() - (previous != null ? previous.size() : 0));
+
+        if (previous == null) {
+            codeById.put(url.getId(), url.getShortCode());
+            if (url.getFullHash() != null) {
+                codeByFullHash.put(url.getFullHash(), url.getShortCode());
+            }
+            if (url.getUserId() != null) {
+                urlsByUser.computeIfAbsent(url.getUserId(), user -> new ConcurrentSkipListSet<>(NEWEST_FIRST))
+                        .add(new UserUrlKey(url.getCreationDateTime(), url.getId()));
+            }
+            nextId.accumulateAndGet(url.getId() + 1, Math::max);
+        }
+    }
+
+    // Recorrer todas las urls y quedarse con las primeras según un orden
+    private List<LeaderboardScoreProjection> scan(Predicate<Url> filter, Comparator<Url> order, int limit) {
+        List<Url> urls = new ArrayList<>();
+        forEachUrl(url -> {
+            if (filter.test(url)) {
+                urls.add(url);
+            }
+        });
+        return urls.stream()
+                .sorted(order)
+                .limit(limit)
+                .map(LogStructuredUrlStore::toScore)
+                .toList();
+    }
+
+    private void forEachUrl(Consumer<Url> consumer) {
+        read(() -> {
+            locationByCode.values().forEach(location -> consumer.accept(load(location)));
+            return null;
+        });
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Url loadById(Long id) {
+        String shortCode = codeById.get(id);
+        return shortCode != null ? loadByCode(shortCode) : null;
+    }
+
+    private Url loadByCode(String shortCode) {
+        LogLocation location = locationByCode.get(shortCode);
+        return location != null ? load(location) : null;
+    }
+
+    private Url load(LogLocation location) {
+        try {
+            return UrlRecordCodec.decode(urlLog.read(location));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read from the embedded URL store", e);
+        }
+    }
+
+    private static boolean isExpirable(Url url, LocalDateTime now) {
+        return url.getTypeUrl() == TypeUrl.ANONYMOUS
+                && url.getStateUrl() == StateUrl.ACTIVE
+                && url.getExpirationDateTime() != null
+                && url.getExpirationDateTime().isBefore(now);
+    }
+
+    // Las urls anónimas no tienen dueño, nunca coinciden con un usuario
+    private static boolean ownedBy(Url url, Long userId) {
+        return url.getUserId() != null && url.getUserId().equals(userId);
+    }
+
+    private static int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static LeaderboardScoreProjection toScore(Url url) {
+        return new LeaderboardScoreProjection(url.getId(), url.getShortCode(), url.getStateUrl(),
+                url.getCounterClicksTotal(), url.getTimesReactivated());
+    }
+
+    // Llave del índice de urls de un usuario, en el orden del listado
+    private record UserUrlKey(LocalDateTime creationDateTime, long id) {
+    }
+}
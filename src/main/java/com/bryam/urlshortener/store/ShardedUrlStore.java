@@ -0,0 +1,685 @@
+package com.bryam.urlshortener.store;
+
+import java.sql.DatabaseMetaData;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bryam.urlshortener.datasource.ShardRoute;
+import com.bryam.urlshortener.datasource.ShardRoutingDataSource;
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.repository.UrlRepository;
+import com.bryam.urlshortener.repository.projection.LeaderboardScoreProjection;
+import com.bryam.urlshortener.repository.projection.StateTypeCountProjection;
+import com.bryam.urlshortener.repository.projection.UrlExportProjection;
+import com.bryam.urlshortener.repository.projection.UrlStatsProjection;
+import com.bryam.urlshortener.repository.projection.UrlSummaryProjection;
+import com.bryam.urlshortener.util.HashUtil;
+import com.bryam.urlshortener.util.ShardKeyUtil;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+//Almacenamiento de las urls repartido en varias bases de datos (particiones) según el código corto
+//Cada operación corre sobre JpaUrlStore dentro de ShardRoute.on con su partición
+//Las escrituras se unen a la transacción de quien llama: cada partición usa su propia sesión, que confirma
+//después de la transacción principal y se deshace si la principal se deshace. Sin transacción abierta se abre
+//una en la principal, que no pide conexión si no ejecuta sentencias
+//Las lecturas usan la sesión de la partición si la transacción ya escribió en ella, si no una transacción propia
+//Las operaciones de una url calculan la partición con el código o con el id (ShardKeyUtil), sin consultar nada
+//Los listados de un usuario, el barrido de vencidas, la exportación y los agregados consultan todas las
+//particiones en paralelo y juntan los resultados
+//Los ids no se repiten entre particiones, así los contadores, las series y las tablas de posiciones de la base
+//principal siguen usando el id de la url
+//El archivo de urls frías lee y borra la tabla urls de la base principal, que aquí esta vacía, por eso no arranca
+//con app.archive.enabled=true
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.store.type", havingValue = "sharded")
+public class ShardedUrlStore implements UrlStore {
+
+    // Filas que se leen de cada partición por bloque en la exportación
+    private static final int EXPORT_PAGE_SIZE = 1000;
+
+    // Urls de un usuario de la mas nueva a la mas vieja, el mismo orden del listado
+    private static final Comparator<UrlSummaryProjection> NEWEST_FIRST = Comparator
+            .comparing(UrlSummaryProjection::creationDateTime)
+            .thenComparingLong(UrlSummaryProjection::id)
+            .reversed();
+
+    private final JpaUrlStore delegate;
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readTransaction;
+    private final Timer scatterDuration;
+    private final int shards;
+    private final int scatterThreads;
+    private final boolean initializeSchema;
+
+    // Las urls sin código se reparten en orden entre las particiones
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    private ExecutorService scatterExecutor;
+
+    public ShardedUrlStore(UrlRepository urlRepository, ShardRoutingDataSource shardRoutingDataSource,
+            PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+            MeterRegistry meterRegistry,
+            @Value("${app.store.sharded.scatter-threads}") int scatterThreads,
+            @Value("${app.store.sharded.initialize-schema}") boolean initializeSchema,
+            @Value("${app.archive.enabled}") boolean archiveEnabled) {
+        if (archiveEnabled) {
+            throw new IllegalStateException(
+                    "The sharded URL store does not support archiving, set app.archive.enabled=false");
+        }
+        this.delegate = new JpaUrlStore(urlRepository);
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        this.shards = shardRoutingDataSource.getShardCount();
+        this.scatterThreads = scatterThreads;
+        this.initializeSchema = initializeSchema;
+
+        // Las lecturas sin escrituras previas en la partición piden su conexión dentro de ShardRoute.on,
+        // aunque quien llama ya tenga una transacción abierta en la base principal
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+
+        this.scatterDuration = Timer.builder("urls.store.shards.scatter.duration")
+                .description("Time to query every URL shard and merge the results")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() {
+        scatterExecutor = Executors.newFixedThreadPool(scatterThreads,
+                Thread.ofPlatform().name("url-shard-", 0).daemon(true).factory());
+
+        if (initializeSchema) {
+            initializeSchema();
+        }
+        log.info("URL store sharded across {} databases", shards);
+    }
+
+    @PreDestroy
+    public void close() {
+        scatterExecutor.shutdownNow();
+    }
+
+    @Override
+    public Optional<Url> findByShortCode(String shortCode) {
+        return onShard(shardOf(shortCode), true, () -> delegate.findByShortCode(shortCode));
+    }
+
+    @Override
+    public Optional<Url> findById(Long id) {
+        return onShard(shardOfId(id), true, () -> delegate.findById(id));
+    }
+
+    // El código de una url anónima es un prefijo del hash completo, solo se consultan las particiones de esos
+    // prefijos. Primero la del código mas corto, donde queda casi toda url, el resto solo si ahí no esta
+    @Override
+    public Optional<Url> findByFullHash(String fullHash) {
+        Set<Integer> candidates = new LinkedHashSet<>();
+        for (int length = HashUtil.MIN_CODE_LENGTH; length <= HashUtil.MAX_CODE_LENGTH; length++) {
+            candidates.add(shardOf(HashUtil.extractCode(fullHash, length)));
+        }
+
+        int first = candidates.iterator().next();
+        Optional<Url> found = onShard(first, true, () -> delegate.findByFullHash(fullHash));
+        if (found.isPresent()) {
+            return found;
+        }
+        candidates.remove(first);
+        return scatter(candidates, shard -> delegate.findByFullHash(fullHash)).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    @Override
+    public Optional<Long> findIdByShortCodeAndUserId(String shortCode, Long userId) {
+        return onShard(shardOf(shortCode), true, () -> delegate.findIdByShortCodeAndUserId(shortCode, userId));
+    }
+
+    @Override
+    public Optional<UrlStatsProjection> findStatsByShortCodeAndUserId(String shortCode, Long userId) {
+        return onShard(shardOf(shortCode), true,
+                () -> delegate.findStatsByShortCodeAndUserId(shortCode, userId));
+    }
+
+    @Override
+    public Url create(Url url, LongFunction<String> shortCodeForId) {
+        if (url.getShortCode() != null) {
+            int shard = shardOf(url.getShortCode());
+            return onShard(shard, false, () -> {
+                Url saved = delegate.create(url, shortCodeForId);
+                checkShardOfId(shard, saved.getId());
+                return saved;
+            });
+        }
+
+        // Sin código se elige la partición primero, el código generado con el id debe volver a ella
+        int shard = nextShard();
+        return onShard(shard, false, () -> delegate.create(url, id -> generatedCode(shard, id, shortCodeForId)));
+    }
+
+    @Override
+    public List<Url> createAll(List<Url> urls, LongFunction<String> shortCodeForId) {
+        Map<Integer, List<Url>> byShard = new TreeMap<>();
+        for (Url url : urls) {
+            int shard = url.getShortCode() != null ? shardOf(url.getShortCode()) : nextShard();
+            byShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(url);
+        }
+
+        // Todas las particiones en la misma transacción, si una falla no se guarda ninguna
+        return inTransaction(() -> {
+            byShard.forEach((shard, group) -> onShard(shard, false, () -> {
+                delegate.createAll(group, id -> generatedCode(shard, id, shortCodeForId));
+                group.forEach(url -> checkShardOfId(shard, url.getId()));
+                return null;
+            }));
+            return urls;
+        });
+    }
+
+    @Override
+    public Set<String> findExistingShortCodes(Collection<String> shortCodes) {
+        Map<Integer, List<String>> byShard = groupBy(shortCodes, this::shardOf);
+
+        Set<String> existing = new HashSet<>();
+        scatter(byShard.keySet(), shard -> delegate.findExistingShortCodes(byShard.get(shard)))
+                .forEach(existing::addAll);
+        return existing;
+    }
+
+    @Override
+    public boolean markDeleted(Long id, Long userId) {
+        return onShard(shardOfId(id), false, () -> delegate.markDeleted(id, userId));
+    }
+
+    @Override
+    public boolean updateOriginalUrl(Long id, Long userId, String originalUrl) {
+        return onShard(shardOfId(id), false, () -> delegate.updateOriginalUrl(id, userId, originalUrl));
+    }
+
+    @Override
+    public boolean reactivateExpired(Long id, LocalDateTime now, LocalDateTime expirationDateTime) {
+        return onShard(shardOfId(id), false, () -> delegate.reactivateExpired(id, now, expirationDateTime));
+    }
+
+    // Cada partición devuelve sus primeros ids después de lastId, el bloque son los menores de todas
+    @Override
+    public List<Long> findIdsToExpire(LocalDateTime now, Long lastId, int limit) {
+        return scatter(allShards(), shard -> delegate.findIdsToExpire(now, lastId, limit)).stream()
+                .flatMap(List::stream)
+                .sorted()
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public int expireByIds(List<Long> ids, LocalDateTime now) {
+        return inTransaction(() -> {
+            int expired = 0;
+            for (Map.Entry<Integer, List<Long>> group : groupBy(ids, this::shardOfId).entrySet()) {
+                expired += onShard(group.getKey(), false, () -> delegate.expireByIds(group.getValue(), now));
+            }
+            return expired;
+        });
+    }
+
+    @Override
+    public void addClicks(Map<Long, Integer> clicksByUrl, Map<Long, Integer> suspiciousByUrl) {
+        Map<Integer, Map<Long, Integer>> clicksByShard = groupByShardOfId(clicksByUrl);
+        Map<Integer, Map<Long, Integer>> suspiciousByShard = groupByShardOfId(suspiciousByUrl);
+
+        Set<Integer> touched = new HashSet<>(clicksByShard.keySet());
+        touched.addAll(suspiciousByShard.keySet());
+        inTransaction(() -> {
+            for (int shard : touched) {
+                onShard(shard, false, () -> {
+                    delegate.addClicks(clicksByShard.getOrDefault(shard, Map.of()),
+                            suspiciousByShard.getOrDefault(shard, Map.of()));
+                    return null;
+                });
+            }
+            return null;
+        });
+    }
+
+    // Cada partición devuelve su primera pagina después del cursor, la pagina son las mas nuevas de todas
+    @Override
+    public Stream<UrlSummaryProjection> streamUserUrls(Long userId, LocalDateTime creationDateTime, Long id,
+            int limit) {
+        return scatter(allShards(), shard -> delegate.streamUserUrls(userId, creationDateTime, id, limit).toList())
+                .stream()
+                .flatMap(List::stream)
+                .sorted(NEWEST_FIRST)
+                .limit(limit);
+    }
+
+    @Override
+    public Stream<UrlExportProjection> streamAll(Long afterId) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new ExportCursor(afterId),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public long countByUserIdCreatedAfter(Long userId, LocalDateTime dateTime) {
+        return scatter(allShards(), shard -> delegate.countByUserIdCreatedAfter(userId, dateTime)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    @Override
+    public List<LeaderboardScoreProjection> findLeaderboardScores(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = groupBy(ids, this::shardOfId);
+        return scatter(byShard.keySet(), shard -> delegate.findLeaderboardScores(byShard.get(shard))).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    @Override
+    public List<LeaderboardScoreProjection> findTopByClicks(int limit) {
+        return scatter(allShards(), shard -> delegate.findTopByClicks(limit)).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(LeaderboardScoreProjection::counterClicksTotal).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<LeaderboardScoreProjection> findTopByReactivations(int limit) {
+        return scatter(allShards(), shard -> delegate.findTopByReactivations(limit)).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(LeaderboardScoreProjection::timesReactivated).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<StateTypeCountProjection> countByStateAndType() {
+        Map<StateUrl, Map<TypeUrl, long[]>> totals = new EnumMap<>(StateUrl.class);
+        for (List<StateTypeCountProjection> rows : scatter(allShards(), shard -> delegate.countByStateAndType())) {
+            for (StateTypeCountProjection row : rows) {
+                long[] sums = totals.computeIfAbsent(row.stateUrl(), state -> new EnumMap<>(TypeUrl.class))
+                        .computeIfAbsent(row.typeUrl(), type -> new long[3]);
+                sums[0] += row.urls();
+                sums[1] += row.clicks();
+                sums[2] += row.suspiciousClicks();
+            }
+        }
+
+        List<StateTypeCountProjection> merged = new ArrayList<>();
+        totals.forEach((state, byType) -> byType.forEach((type, sums) ->
+                merged.add(new StateTypeCountProjection(state, type, sums[0], sums[1], sums[2]))));
+        return merged;
+    }
+
+    @Override
+    public int shardCount() {
+        return shards;
+    }
+
+    // Crear las tablas en cada partición, solo para bases embebidas (H2) en desarrollo y pruebas
+    // Cada partición recibe todas las tablas mapeadas aunque solo use urls
+    // La identidad de urls empieza en partición + 1 y avanza de a N, en MySQL se configura cada servidor
+    // con auto_increment_offset = partición + 1 y auto_increment_increment = N
+    private void initializeSchema() {
+        for (int shard = 0; shard < shards; shard++) {
+            // La secuencia se reinicia con una sentencia propia de H2, otra base debe prepararse a mano
+            String product = databaseProduct(shard);
+            if (!"H2".equals(product)) {
+                throw new IllegalStateException("app.store.sharded.initialize-schema only supports H2 databases, "
+                        + "URL shard " + shard + " is " + product);
+            }
+
+            ShardRoute.on(shard, () -> {
+                entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager().exportMappedObjects(false);
+                return null;
+            });
+
+            // Si la partición ya tiene urls la secuencia sigue después del mayor id
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(shardRoutingDataSource.getShards().get(shard));
+            long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM urls", Long.class);
+            long nextId = maxId + 1 + Math.floorMod(shard - maxId, shards);
+            jdbcTemplate.execute("ALTER TABLE urls ALTER COLUMN id RESTART WITH " + nextId
+                    + " SET INCREMENT BY " + shards);
+        }
+    }
+
+    private String databaseProduct(int shard) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(shardRoutingDataSource.getShards().get(shard),
+                    DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Could not read the database of URL shard " + shard, e);
+        }
+    }
+
+    // Ejecutar una operación en una partición
+    // Las escrituras, y las lecturas de una partición donde ya se escribió, van en la transacción de quien llama
+    // Las demás lecturas usan una transacción propia sobre la conexión de esa partición
+    private <T> T onShard(int shard, boolean readOnly, Supplier<T> action) {
+        ShardTransactions joined = joinedTransactions();
+        if (joined != null && joined.isOpen(shard)) {
+            return joined.run(shard, action);
+        }
+        if (readOnly) {
+            return ShardRoute.on(shard, () -> readTransaction.execute(status -> action.get()));
+        }
+        return inTransaction(() -> {
+            ShardTransactions transactions = joinedTransactions();
+            if (transactions == null) {
+                transactions = new ShardTransactions();
+                TransactionSynchronizationManager.registerSynchronization(transactions);
+            }
+            return transactions.run(shard, action);
+        });
+    }
+
+    // Ejecutar en la transacción de quien llama o, si no hay una, en una nueva de la base principal
+    private <T> T inTransaction(Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        return writeTransaction.execute(status -> action.get());
+    }
+
+    // Sesiones de las particiones unidas a la transacción actual, null si todavía no escribió en ninguna
+    private ShardTransactions joinedTransactions() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof ShardTransactions transactions) {
+                return transactions;
+            }
+        }
+        return null;
+    }
+
+    // Consultar varias particiones en paralelo, los resultados quedan en el orden de las particiones
+    private <T> List<T> scatter(Collection<Integer> targetShards, IntFunction<T> query) {
+        if (targetShards.isEmpty()) {
+            return List.of();
+        }
+        if (targetShards.size() == 1) {
+            int shard = targetShards.iterator().next();
+            return List.of(onShard(shard, true, () -> query.apply(shard)));
+        }
+
+        long start = System.nanoTime();
+        List<CompletableFuture<T>> futures = targetShards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> onShard(shard, true, () -> query.apply(shard)),
+                        scatterExecutor))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            scatterDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // El código generado para un id debe caer en la partición que asignó el id
+    private String generatedCode(int shard, long id, LongFunction<String> shortCodeForId) {
+        checkShardOfId(shard, id);
+        String shortCode = shortCodeForId.apply(id);
+        if (shardOf(shortCode) != shard) {
+            throw new IllegalStateException("Generated code " + shortCode + " for id " + id
+                    + " does not belong to URL shard " + shard);
+        }
+        return shortCode;
+    }
+
+    // Si la identidad de una partición no sigue su secuencia dos particiones podrían repetir un id
+    private void checkShardOfId(int shard, long id) {
+        if (shardOfId(id) != shard) {
+            throw new IllegalStateException("URL shard " + shard + " generated id " + id
+                    + ", its identity must start at " + (shard + 1) + " and increase by " + shards);
+        }
+    }
+
+    private int shardOf(String shortCode) {
+        return ShardKeyUtil.shardOfCode(shortCode, shards);
+    }
+
+    private int shardOfId(long id) {
+        return ShardKeyUtil.shardOfId(id, shards);
+    }
+
+    private int nextShard() {
+        return Math.floorMod(nextShard.getAndIncrement(), shards);
+    }
+
+    private List<Integer> allShards() {
+        return IntStream.range(0, shards).boxed().toList();
+    }
+
+    private static <T> Map<Integer, List<T>> groupBy(Collection<T> values, ToIntFunction<T> shardOf) {
+        Map<Integer, List<T>> byShard = new TreeMap<>();
+        for (T value : values) {
+            byShard.computeIfAbsent(shardOf.applyAsInt(value), key -> new ArrayList<>()).add(value);
+        }
+        return byShard;
+    }
+
+    private Map<Integer, Map<Long, Integer>> groupByShardOfId(Map<Long, Integer> valuesById) {
+        Map<Integer, Map<Long, Integer>> byShard = new HashMap<>();
+        valuesById.forEach((id, value) -> byShard.computeIfAbsent(shardOfId(id), key -> new HashMap<>())
+                .put(id, value));
+        return byShard;
+    }
+
+    // Una sesión por partición con su transacción abierta, unidas a la transacción de quien llama
+    // Antes de confirmar la principal se envían las sentencias pendientes, así un error de una partición
+    // deshace todo. Las particiones confirman después de la principal, un fallo en ese momento se registra y se
+    // lanza a quien llama. Si la principal se deshace también se deshacen todas
+    private final class ShardTransactions implements TransactionSynchronization {
+
+        private final Map<Integer, EntityManager> entityManagers = new TreeMap<>();
+
+        private boolean isOpen(int shard) {
+            return entityManagers.containsKey(shard);
+        }
+
+        // Los repositorios usan la sesión de la partición mientras corre la acción, después vuelve la principal
+        private <T> T run(int shard, Supplier<T> action) {
+            return ShardRoute.on(shard, () -> {
+                EntityManager entityManager = entityManagers.computeIfAbsent(shard, key -> begin());
+                Object main = TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+                TransactionSynchronizationManager.bindResource(entityManagerFactory,
+                        new ShardEntityManagerHolder(entityManager));
+                try {
+                    return action.get();
+                } finally {
+                    TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+                    if (main != null) {
+                        TransactionSynchronizationManager.bindResource(entityManagerFactory, main);
+                    }
+                }
+            });
+        }
+
+        private EntityManager begin() {
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+            entityManager.getTransaction().begin();
+            return entityManager;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            entityManagers.forEach((shard, entityManager) -> ShardRoute.on(shard, () -> {
+                if (entityManager.getTransaction().getRollbackOnly()) {
+                    throw new UnexpectedRollbackException(
+                            "URL shard " + shard + " transaction was marked as rollback-only");
+                }
+                try {
+                    entityManager.flush();
+                } catch (RuntimeException e) {
+                    throw translate(e);
+                }
+                return null;
+            }));
+        }
+
+        @Override
+        public void afterCommit() {
+            entityManagers.forEach((shard, entityManager) -> ShardRoute.on(shard, () -> {
+                try {
+                    entityManager.getTransaction().commit();
+                } catch (RuntimeException e) {
+                    log.error("URL shard {} failed to commit after the main transaction committed", shard, e);
+                    throw translate(e);
+                }
+                return null;
+            }));
+        }
+
+        // Las particiones que no confirmaron se deshacen, las sesiones se cierran siempre
+        @Override
+        public void afterCompletion(int status) {
+            entityManagers.forEach((shard, entityManager) -> ShardRoute.on(shard, () -> {
+                try {
+                    if (entityManager.getTransaction().isActive()) {
+                        entityManager.getTransaction().rollback();
+                    }
+                } catch (RuntimeException e) {
+                    log.error("URL shard {} failed to roll back", shard, e);
+                } finally {
+                    entityManager.close();
+                }
+                return null;
+            }));
+            entityManagers.clear();
+        }
+
+        private RuntimeException translate(RuntimeException e) {
+            DataAccessException translated = EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(e);
+            return translated != null ? translated : e;
+        }
+    }
+
+    // Sesión de una partición marcada como transacción activa, los repositorios se unen a ella sin abrir otra
+    private static final class ShardEntityManagerHolder extends EntityManagerHolder {
+
+        private ShardEntityManagerHolder(EntityManager entityManager) {
+            super(entityManager);
+            setSynchronizedWithTransaction(true);
+            setTransactionActive(true);
+        }
+    }
+
+    // Recorre las particiones por bloques en orden de id y entrega siempre el menor id pendiente
+    // Cada bloque es una consulta corta, no queda ningún cursor abierto entre bloques
+    private final class ExportCursor implements Iterator<UrlExportProjection> {
+
+        private final List<Deque<UrlExportProjection>> pages = new ArrayList<>();
+        private final long[] lastIds = new long[shards];
+        private final boolean[] exhausted = new boolean[shards];
+
+        private ExportCursor(Long afterId) {
+            for (int shard = 0; shard < shards; shard++) {
+                pages.add(new ArrayDeque<>());
+                lastIds[shard] = afterId;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextShard() >= 0;
+        }
+
+        @Override
+        public UrlExportProjection next() {
+            int shard = nextShard();
+            if (shard < 0) {
+                throw new NoSuchElementException();
+            }
+            return pages.get(shard).poll();
+        }
+
+        private int nextShard() {
+            int next = -1;
+            for (int shard = 0; shard < shards; shard++) {
+                Deque<UrlExportProjection> page = pages.get(shard);
+                if (page.isEmpty() && !exhausted[shard]) {
+                    fill(shard);
+                }
+                if (!page.isEmpty() && (next < 0 || page.peek().id() < pages.get(next).peek().id())) {
+                    next = shard;
+                }
+            }
+            return next;
+        }
+
+        private void fill(int shard) {
+            List<UrlExportProjection> page = onShard(shard, true,
+                    () -> delegate.findAllAfter(lastIds[shard], EXPORT_PAGE_SIZE));
+            exhausted[shard] = page.size() < EXPORT_PAGE_SIZE;
+            if (!page.isEmpty()) {
+                lastIds[shard] = page.get(page.size() - 1).id();
+                pages.get(shard).addAll(page);
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.bryam.urlshortener.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+import lombok.extern.slf4j.Slf4j;
+
+//Archivo de datos del almacenamiento embebido, solo se escribe al final
+//Formato de cada registro: [largo:int][crc:int][url codificada]
+//Cada cambio de una url agrega una version completa, la ultima de cada código es la vigente
+//Al abrirlo se descarta lo que quedó después del ultimo registro completo, por ejemplo tras una caída
+@Slf4j
+public class UrlLog implements AutoCloseable {
+
+    // Encabezado del archivo, numero mágico y version del formato
+    public static final int MAGIC = 0x55524c31; // "URL1"
+    public static final int HEADER_SIZE = 8;
+    public static final int RECORD_HEADER_SIZE = 8;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final CRC32C crc = new CRC32C();
+    private long position;
+
+    private UrlLog(Path path, FileChannel channel, long position) {
+        this.path = path;
+        this.channel = channel;
+        this.position = position;
+    }
+
+    // Abrir el archivo, si no existe se crea con el encabezado
+    // La posición de escritura queda al final del archivo hasta que se llame a recover
+    public static UrlLog open(Path path) throws IOException {
+        boolean exists = Files.exists(path) && Files.size(path) >= HEADER_SIZE;
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (!exists) {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(1).flip();
+            writeFully(channel, header, 0);
+            return new UrlLog(path, channel, HEADER_SIZE);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header, 0);
+        if (header.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException("Not a URL store file: " + path);
+        }
+        return new UrlLog(path, channel, channel.size());
+    }
+
+    // Leer todos los registros completos en orden, el consumidor recibe la url codificada y su posición
+    // Lo que sigue al ultimo registro valido se corta, el archivo queda listo para seguir escribiendo
+    public void recover(BiConsumer<ByteBuffer, LogLocation> consumer) throws IOException {
+        long size = channel.size();
+        long offset = HEADER_SIZE;
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+
+        while (offset + RECORD_HEADER_SIZE <= size) {
+            recordHeader.clear();
+            readFully(channel, recordHeader, offset);
+            int length = recordHeader.getInt(0);
+            int checksum = recordHeader.getInt(Integer.BYTES);
+
+            if (length <= 0 || offset + RECORD_HEADER_SIZE + length > size) {
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(channel, payload, offset + RECORD_HEADER_SIZE);
+            payload.flip();
+
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            consumer.accept(payload, new LogLocation(offset, RECORD_HEADER_SIZE + length));
+            offset += RECORD_HEADER_SIZE + length;
+        }
+
+        if (offset < size) {
+            log.warn("Discarding {} bytes after the last complete record of {}", size - offset, path);
+            channel.truncate(offset);
+        }
+        position = offset;
+    }
+
+    // Agregar un registro al final y retornar su posición, no sincroniza con el disco
+    public LogLocation append(ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+
+        crc.reset();
+        crc.update(payload.duplicate());
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+        record.putInt(length);
+        record.putInt((int) crc.getValue());
+        record.put(payload);
+        record.flip();
+
+        LogLocation location = new LogLocation(position, record.remaining());
+        writeFully(channel, record, position);
+        position += location.size();
+        return location;
+    }
+
+    // Leer la url codificada de un registro, se puede llamar desde varios hilos
+    public ByteBuffer read(LogLocation location) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(location.size() - RECORD_HEADER_SIZE);
+        readFully(channel, payload, location.offset() + RECORD_HEADER_SIZE);
+        return payload.flip();
+    }
+
+    // Forzar que los registros escritos lleguen al disco
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    // Bytes escritos, incluye el encabezado del archivo
+    public long size() {
+        return position;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.force(true);
+        channel.close();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new IOException("Unexpected end of URL store file");
+            }
+            offset += read;
+        }
+    }
+}
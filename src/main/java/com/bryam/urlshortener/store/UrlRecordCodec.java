@@ -0,0 +1,159 @@
+package com.bryam.urlshortener.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+
+//Formato binario de una url dentro del registro del almacenamiento embebido
+//[version:byte][campos presentes:byte][id:long][usuario:long]?[tipo][estado][creación][expiración]?
+//[ultima activación]?[clicks total:int][clicks sesión:int][clicks sospechosos:int][reactivaciones:int]
+//[código][hash completo]?[url original]
+//Los enums se guardan por nombre, las fechas como segundos y nanos en UTC
+public final class UrlRecordCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int HAS_USER = 1;
+    private static final int HAS_FULL_HASH = 1 << 1;
+    private static final int HAS_EXPIRATION = 1 << 2;
+    private static final int HAS_LAST_ACTIVATION = 1 << 3;
+    private static final int IS_PERZONALIZED = 1 << 4;
+
+    private static final int DATE_TIME_BYTES = Long.BYTES + Integer.BYTES;
+
+    private UrlRecordCodec() {
+    }
+
+    // Convertir una url a bytes, el buffer queda listo para leerse
+    public static ByteBuffer encode(Url url) {
+        byte[] shortCode = bytes(url.getShortCode());
+        byte[] fullHash = bytes(url.getFullHash());
+        byte[] originalUrl = bytes(url.getOriginalUrl());
+        byte[] typeUrl = bytes(url.getTypeUrl().name());
+        byte[] stateUrl = bytes(url.getStateUrl().name());
+
+        int flags = (url.getUserId() != null ? HAS_USER : 0)
+                | (fullHash != null ? HAS_FULL_HASH : 0)
+                | (url.getExpirationDateTime() != null ? HAS_EXPIRATION : 0)
+                | (url.getLastActivationDateTime() != null ? HAS_LAST_ACTIVATION : 0)
+                | (Boolean.TRUE.equals(url.getIsPerzonalized()) ? IS_PERZONALIZED : 0);
+
+        int size = 2 + Long.BYTES
+                + ((flags & HAS_USER) != 0 ? Long.BYTES : 0)
+                + shortStringSize(typeUrl) + shortStringSize(stateUrl)
+                + DATE_TIME_BYTES
+                + ((flags & HAS_EXPIRATION) != 0 ? DATE_TIME_BYTES : 0)
+                + ((flags & HAS_LAST_ACTIVATION) != 0 ? DATE_TIME_BYTES : 0)
+                + 4 * Integer.BYTES
+                + shortStringSize(shortCode)
+                + (fullHash != null ? shortStringSize(fullHash) : 0)
+                + Integer.BYTES + originalUrl.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION);
+        buffer.put((byte) flags);
+        buffer.putLong(url.getId());
+        if (url.getUserId() != null) {
+            buffer.putLong(url.getUserId());
+        }
+        putShortString(buffer, typeUrl);
+        putShortString(buffer, stateUrl);
+        putDateTime(buffer, url.getCreationDateTime());
+        if (url.getExpirationDateTime() != null) {
+            putDateTime(buffer, url.getExpirationDateTime());
+        }
+        if (url.getLastActivationDateTime() != null) {
+            putDateTime(buffer, url.getLastActivationDateTime());
+        }
+        buffer.putInt(valueOf(url.getCounterClicksTotal()));
+        buffer.putInt(valueOf(url.getCounterClicksSession()));
+        buffer.putInt(valueOf(url.getCounterClicksSuspicious()));
+        buffer.putInt(valueOf(url.getTimesReactivated()));
+        putShortString(buffer, shortCode);
+        if (fullHash != null) {
+            putShortString(buffer, fullHash);
+        }
+        buffer.putInt(originalUrl.length);
+        buffer.put(originalUrl);
+
+        return buffer.flip();
+    }
+
+    // Leer una url desde bytes
+    public static Url decode(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported URL record version: " + version);
+        }
+
+        int flags = buffer.get();
+        Url.UrlBuilder url = Url.builder().id(buffer.getLong());
+
+        if ((flags & HAS_USER) != 0) {
+            url.userId(buffer.getLong());
+        }
+        url.typeUrl(TypeUrl.valueOf(getShortString(buffer)));
+        url.stateUrl(StateUrl.valueOf(getShortString(buffer)));
+        url.creationDateTime(getDateTime(buffer));
+        if ((flags & HAS_EXPIRATION) != 0) {
+            url.expirationDateTime(getDateTime(buffer));
+        }
+        if ((flags & HAS_LAST_ACTIVATION) != 0) {
+            url.lastActivationDateTime(getDateTime(buffer));
+        }
+        url.counterClicksTotal(buffer.getInt());
+        url.counterClicksSession(buffer.getInt());
+        url.counterClicksSuspicious(buffer.getInt());
+        url.timesReactivated(buffer.getInt());
+        url.shortCode(getShortString(buffer));
+        if ((flags & HAS_FULL_HASH) != 0) {
+            url.fullHash(getShortString(buffer));
+        }
+        byte[] originalUrl = new byte[buffer.getInt()];
+        buffer.get(originalUrl);
+
+        return url.originalUrl(new String(originalUrl, StandardCharsets.UTF_8))
+                .isPerzonalized((flags & IS_PERZONALIZED) != 0)
+                .build();
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static int shortStringSize(byte[] value) {
+        return Short.BYTES + value.length;
+    }
+
+    private static void putShortString(ByteBuffer buffer, byte[] value) {
+        if (value.length > 0xFFFF) {
+            throw new IllegalArgumentException("Value too long for a URL record: " + value.length + " bytes");
+        }
+        buffer.putShort((short) value.length);
+        buffer.put(value);
+    }
+
+    private static String getShortString(ByteBuffer buffer) {
+        byte[] value = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static void putDateTime(ByteBuffer buffer, LocalDateTime dateTime) {
+        buffer.putLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(dateTime.getNano());
+    }
+
+    private static LocalDateTime getDateTime(ByteBuffer buffer) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+    }
+}
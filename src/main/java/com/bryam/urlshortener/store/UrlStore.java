@@ -0,0 +1,100 @@
+package com.bryam.urlshortener.store;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.repository.projection.LeaderboardScoreProjection;
+import com.bryam.urlshortener.repository.projection.StateTypeCountProjection;
+import com.bryam.urlshortener.repository.projection.UrlExportProjection;
+import com.bryam.urlshortener.repository.projection.UrlStatsProjection;
+import com.bryam.urlshortener.repository.projection.UrlSummaryProjection;
+
+//Almacenamiento de las urls, los servicios no dependen de como se guardan las filas
+//Se elige con app.store.type: jpa (MySQL, por defecto), embedded (registro local de solo escritura al final)
+//o sharded (la tabla urls repartida en varias bases de datos según el código corto)
+//El archivo de urls frías solo existe con jpa, los demás almacenamientos conservan todas sus filas
+public interface UrlStore {
+
+    // Buscar una url por su código corto
+    Optional<Url> findByShortCode(String shortCode);
+
+    // Buscar una url por su id
+    Optional<Url> findById(Long id);
+
+    // Buscar una url anónima por su hash completo
+    Optional<Url> findByFullHash(String fullHash);
+
+    // Id de una url por código y usuario, para validar la propiedad sin cargar la url
+    Optional<Long> findIdByShortCodeAndUserId(String shortCode, Long userId);
+
+    // Contadores de una url por código y usuario
+    Optional<UrlStatsProjection> findStatsByShortCodeAndUserId(String shortCode, Long userId);
+
+    // Guardar una url nueva, si no tiene código se genera a partir del id asignado
+    Url create(Url url, LongFunction<String> shortCodeForId);
+
+    // Guardar una url nueva que ya tiene su código
+    default Url create(Url url) {
+        Objects.requireNonNull(url.getShortCode(), "shortCode");
+        return create(url, id -> url.getShortCode());
+    }
+
+    // Guardar un bloque de urls nuevas de una vez, si alguna viola una restricción única no se guarda ninguna
+    // Las urls sin código reciben el que se calcula con el id asignado
+    List<Url> createAll(List<Url> urls, LongFunction<String> shortCodeForId);
+
+    // Códigos de la lista que ya usa alguna url
+    Set<String> findExistingShortCodes(Collection<String> shortCodes);
+
+    // Marcar como eliminada una url del usuario, false si ya estaba eliminada
+    boolean markDeleted(Long id, Long userId);
+
+    // Cambiar el destino de una url del usuario, false si esta eliminada
+    boolean updateOriginalUrl(Long id, Long userId, String originalUrl);
+
+    // Reactivar una url expirada, false si otra petición ya la reactivó
+    boolean reactivateExpired(Long id, LocalDateTime now, LocalDateTime expirationDateTime);
+
+    // Ids de urls anónimas activas vencidas, en orden de id y posteriores a lastId
+    List<Long> findIdsToExpire(LocalDateTime now, Long lastId, int limit);
+
+    // Marcar como expiradas las urls del bloque que siguen activas y vencidas, retorna cuantas cambiaron
+    int expireByIds(List<Long> ids, LocalDateTime now);
+
+    // Sumar a las urls los clicks compactados de los contadores repartidos
+    void addClicks(Map<Long, Integer> clicksByUrl, Map<Long, Integer> suspiciousByUrl);
+
+    // Urls de un usuario de la mas nueva a la mas vieja, después del cursor (fecha de creación, id) si se indica
+    Stream<UrlSummaryProjection> streamUserUrls(Long userId, LocalDateTime creationDateTime, Long id, int limit);
+
+    // Todas las urls en orden de id después de afterId, leídas de a poco mientras se consume el stream
+    Stream<UrlExportProjection> streamAll(Long afterId);
+
+    // Urls creadas por un usuario después de una fecha
+    long countByUserIdCreatedAfter(Long userId, LocalDateTime dateTime);
+
+    // Puntajes actuales de los miembros de una tabla de posiciones
+    List<LeaderboardScoreProjection> findLeaderboardScores(Collection<Long> ids);
+
+    // Urls activas con mas clicks compactados
+    List<LeaderboardScoreProjection> findTopByClicks(int limit);
+
+    // Urls activas reactivadas mas veces
+    List<LeaderboardScoreProjection> findTopByReactivations(int limit);
+
+    // Cantidad de urls y clicks agrupados por estado y tipo
+    List<StateTypeCountProjection> countByStateAndType();
+
+    // Cantidad de particiones de las urls, los códigos generados deben caer en la partición que asignó el id
+    default int shardCount() {
+        return 1;
+    }
+}
@@ -48,6 +48,11 @@ public class Base62Util {
         return value;
     }
 
+    //Valor de un carácter de base 62, -1 si no pertenece al alfabeto
+    public static int digitOf(char character) {
+        return BASE62_CHARACTERS.indexOf(character);
+    }
+
     //Método para validar si una cadena es una cadena de base 62
     public static boolean isValidBase62(String encoded){
         //Verificaciones de que una cadena no sea nula o vacía
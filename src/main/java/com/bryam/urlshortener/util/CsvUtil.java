@@ -0,0 +1,25 @@
+package com.bryam.urlshortener.util;
+
+public class CsvUtil {
+
+    //Valor de una columna CSV, los nulos quedan vacíos
+    //Los valores con comas, comillas o saltos de linea van entre comillas, con las comillas duplicadas
+    public static String value(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    //Quitar las comillas de una columna CSV entre comillas, las comillas duplicadas vuelven a ser una
+    public static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1).replace("\"\"", "\"");
+        }
+        return value;
+    }
+}
@@ -10,6 +10,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class HashUtil {
 
+    //Largos de los códigos de las urls anónimas, prefijos del hash completo del mas corto al mas largo
+    public static final int MIN_CODE_LENGTH = 7;
+    public static final int MAX_CODE_LENGTH = 12;
+
     //Método para crear una instancia de MessageDigest para SHA-256
     private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() ->{
         //Manejar la excepción en caso de que el algoritmo no este disponible
@@ -41,6 +45,24 @@ public class HashUtil {
         return HexFormat.of().formatHex(hasBytes);
     }
 
+    //Método para generar un hash rápido de 64 bits, no criptográfico
+    //Se usa en las rutas calientes, como el registro de clicks y los contadores aproximados
+    public static long hash64(String value){
+        //FNV-1a sobre los caracteres de la cadena
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        //Mezcla final de MurmurHash3 para repartir bien los bits
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
     //Método para  extraer el código hash generado de una url
     //Recibe el hahs completo y la longitud del código a extraer
     public static String extractCode(String hashComplete, int codeLength){
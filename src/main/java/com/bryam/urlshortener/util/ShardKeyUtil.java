@@ -0,0 +1,48 @@
+package com.bryam.urlshortener.util;
+
+//Reparto de las urls entre particiones, la partición se calcula con el código corto o con el id sin consultar nada
+//Partición de un código: hash FNV-1a de todos los caracteres menos el ultimo, mas el valor del ultimo carácter
+//Así un código generado puede terminar con el carácter que lo lleva a la partición que se necesita
+//Partición de un id: cada partición genera los ids offset, offset + N, offset + 2N... con offset = partición + 1
+public class ShardKeyUtil {
+
+    //El carácter final elige la partición, una partición por cada valor de base 62
+    public static final int MAX_SHARDS = 62;
+
+    private static final int FNV_OFFSET_BASIS = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    //Partición en la que se guarda la url con este código
+    public static int shardOfCode(String code, int shards) {
+        if (shards == 1) {
+            return 0;
+        }
+        int last = code.length() - 1;
+        return (int) Math.floorMod((long) prefixHash(code, last) + valueOf(code.charAt(last)), shards);
+    }
+
+    //Partición que generó este id
+    public static int shardOfId(long id, int shards) {
+        return (int) Math.floorMod(id - 1, (long) shards);
+    }
+
+    //Agregar al código el carácter de base 62 que lo lleva a la partición indicada
+    public static String appendShardDigit(String code, int shard, int shards) {
+        int digit = (int) Math.floorMod((long) shard - prefixHash(code, code.length()), shards);
+        return code + Base62Util.encode(digit);
+    }
+
+    private static int prefixHash(String code, int end) {
+        int hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < end; i++) {
+            hash = (hash ^ code.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    //Los slugs pueden tener caracteres fuera de base 62, como el guion, se usa su código
+    private static int valueOf(char character) {
+        int digit = Base62Util.digitOf(character);
+        return digit >= 0 ? digit : character;
+    }
+}
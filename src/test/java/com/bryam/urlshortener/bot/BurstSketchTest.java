@@ -0,0 +1,71 @@
+package com.bryam.urlshortener.bot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class BurstSketchTest {
+
+    private static final long WINDOW = 10_000;
+
+    // Inicio de una ventana posterior a la actual, el sketch se crea con el reloj real
+    private static final long START = (System.currentTimeMillis() / WINDOW + 2) * WINDOW;
+
+    @Test
+    void countsEachKeyInTheCurrentWindow() {
+        BurstSketch sketch = new BurstSketch(4, 1024, WINDOW);
+
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i, sketch.add(1L, START + i));
+        }
+        assertEquals(1, sketch.add(2L, START + 10));
+        assertEquals(6, sketch.add(1L, START + WINDOW - 1));
+    }
+
+    @Test
+    void previousWindowWeighsWhatIsLeftOfIt() {
+        BurstSketch sketch = new BurstSketch(4, 1024, WINDOW);
+        for (int i = 0; i < 10; i++) {
+            sketch.add(1L, START + i);
+        }
+
+        // Un cuarto de la ventana nueva: 1 click nuevo mas 10 * 0.75 de la anterior
+        assertEquals(8, sketch.add(1L, START + WINDOW + WINDOW / 4));
+        // Al final de la ventana nueva la anterior casi no pesa
+        assertEquals(2, sketch.add(1L, START + 2 * WINDOW - 1));
+        // La ventana anterior de la siguiente es la que tiene 2 clicks
+        assertEquals(1 + 1, sketch.add(1L, START + 2 * WINDOW + WINDOW / 2));
+    }
+
+    @Test
+    void windowsThatAreNotContiguousAreForgotten() {
+        BurstSketch sketch = new BurstSketch(4, 1024, WINDOW);
+        for (int i = 0; i < 10; i++) {
+            sketch.add(1L, START + i);
+        }
+
+        // Pasaron dos ventanas sin clicks, la anterior se reemplaza por una vacía
+        assertEquals(1, sketch.add(1L, START + 3 * WINDOW));
+        assertEquals(2, sketch.add(1L, START + 3 * WINDOW + 1));
+    }
+
+    @Test
+    void neverCountsLessThanTheRealClicks() {
+        // Pocas casillas para forzar colisiones
+        BurstSketch sketch = new BurstSketch(3, 16, WINDOW);
+        SplittableRandom random = new SplittableRandom(7);
+        Map<Long, Integer> real = new HashMap<>();
+
+        for (int i = 0; i < 2_000; i++) {
+            long key = random.nextLong(200) * 0x9E3779B97F4A7C15L;
+            int count = real.merge(key, 1, Integer::sum);
+            int estimate = sketch.add(key, START + i);
+            assertTrue(estimate >= count, "Estimated " + estimate + " below the real " + count);
+        }
+    }
+}
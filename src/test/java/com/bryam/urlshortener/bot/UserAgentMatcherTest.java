@@ -0,0 +1,75 @@
+package com.bryam.urlshortener.bot;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class UserAgentMatcherTest {
+
+    @Test
+    void findsTokensAnywhereInTheText() {
+        UserAgentMatcher matcher = new UserAgentMatcher(List.of("bot", "curl", "python-requests"));
+
+        assertTrue(matcher.matches("Mozilla/5.0 (compatible; Googlebot/2.1)"));
+        assertTrue(matcher.matches("curl/8.4.0"));
+        assertTrue(matcher.matches("python-requests/2.31"));
+        assertFalse(matcher.matches("Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/120.0 Safari/537.36"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    void tokenStartedInsideAnotherIsFoundThroughTheFailureLink() {
+        // Después de "abc" no hay transición con d en abcx, el automata sigue desde "bc" y llega a "bcd"
+        UserAgentMatcher matcher = new UserAgentMatcher(List.of("abcx", "bcd"));
+
+        assertTrue(matcher.matches("abcd"));
+        assertTrue(matcher.matches("zzabcxzz"));
+        assertFalse(matcher.matches("abce"));
+        // Prefijo repetido: la segunda a empieza el token de nuevo
+        assertTrue(new UserAgentMatcher(List.of("aab")).matches("aaab"));
+    }
+
+    @Test
+    void tokenNestedInsideALongerOneMatchesBeforeTheLongerEnds() {
+        UserAgentMatcher matcher = new UserAgentMatcher(List.of("headlesschrome", "less"));
+
+        // El estado de "headless" acepta por su enlace de falla a "less"
+        assertTrue(matcher.matches("headless/1.0"));
+        assertTrue(matcher.matches("HeadlessChrome/120"));
+        assertFalse(matcher.matches("headles"));
+    }
+
+    @Test
+    void ignoresCaseOfTokensAndText() {
+        UserAgentMatcher matcher = new UserAgentMatcher(List.of(" Bot ", "Go-HTTP-Client"));
+
+        assertTrue(matcher.matches("BINGBOT/2.0"));
+        assertTrue(matcher.matches("go-http-client/1.1"));
+        assertTrue(matcher.matches("Go-Http-Client/2.0"));
+    }
+
+    @Test
+    void nonAsciiCharacterRestartsTheSearch() {
+        UserAgentMatcher matcher = new UserAgentMatcher(List.of("bot"));
+
+        // Un carácter fuera de ASCII corta el token que se estaba leyendo
+        assertFalse(matcher.matches("boét"));
+        assertFalse(matcher.matches("böt"));
+        // Y la búsqueda sigue después de él
+        assertTrue(matcher.matches("éébot"));
+        assertTrue(matcher.matches("boébot"));
+    }
+
+    @Test
+    void rejectsNonAsciiTokensAndSkipsBlankOnes() {
+        assertThrows(IllegalArgumentException.class, () -> new UserAgentMatcher(List.of("röbot")));
+
+        UserAgentMatcher matcher = new UserAgentMatcher(List.of("", "  ", "spider"));
+        assertFalse(matcher.matches("Mozilla/5.0"));
+        assertTrue(matcher.matches("Baiduspider"));
+    }
+}
@@ -0,0 +1,167 @@
+package com.bryam.urlshortener.contrellers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bryam.urlshortener.dto.request.ShortenUrlRequestDTO;
+import com.bryam.urlshortener.dto.response.ClickBucketResponseDTO;
+import com.bryam.urlshortener.dto.response.ClickTimeseriesResponseDTO;
+import com.bryam.urlshortener.model.enums.RollupGranularity;
+import com.bryam.urlshortener.rollup.BucketDelta;
+import com.bryam.urlshortener.service.ClickRollupService;
+import com.bryam.urlshortener.service.UrlService;
+import com.bryam.urlshortener.store.UrlStore;
+
+//Serie de clicks por hora, los intervalos se buscan por su inicio para no depender del cambio de hora
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ClickTimeseriesEndpointTest {
+
+    private static final RollupGranularity HOUR = RollupGranularity.HOUR;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UrlService urlService;
+
+    @Autowired
+    private UrlStore urlStore;
+
+    @Autowired
+    private ClickRollupService clickRollupService;
+
+    @Test
+    void combinesStoredAndPendingBucketsWithoutCountingThemTwice() {
+        String code = shortenRegistered(911L, "https://example.com/timeseries/combined");
+        Long urlId = urlStore.findIdByShortCodeAndUserId(code, 911L).orElseThrow();
+        long now = System.currentTimeMillis();
+        long previousHour = now - HOUR.getBucketMillis();
+        record(urlId, now, 3);
+        record(urlId, previousHour, 2);
+
+        ClickTimeseriesResponseDTO pending = timeseries(code, 911L);
+        assertEquals(3, pending.getBucketsResponse().size());
+        assertEquals(3, clicksAt(pending, now));
+        assertEquals(2, clicksAt(pending, previousHour));
+
+        // Guardados en la base de datos la serie no cambia, y un click nuevo se suma a lo guardado
+        clickRollupService.flush();
+        assertEquals(3, clicksAt(timeseries(code, 911L), now));
+        record(urlId, now, 1);
+        ClickTimeseriesResponseDTO combined = timeseries(code, 911L);
+        assertEquals(4, clicksAt(combined, now));
+        assertEquals(2, clicksAt(combined, previousHour));
+    }
+
+    @Test
+    void concurrentClicksWhileFlushingAreAllInTheSeries() throws Exception {
+        String code = shortenRegistered(912L, "https://example.com/timeseries/concurrent");
+        Long urlId = urlStore.findIdByShortCodeAndUserId(code, 912L).orElseThrow();
+        long now = System.currentTimeMillis();
+        int threads = 8;
+        int clicksPerThread = 250;
+        AtomicBoolean recording = new AtomicBoolean(true);
+        CountDownLatch ready = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    ready.await();
+                    record(urlId, now, clicksPerThread);
+                    return null;
+                }));
+            }
+            Future<?> flusher = executor.submit(() -> {
+                ready.await();
+                while (recording.get()) {
+                    clickRollupService.flush();
+                }
+                return null;
+            });
+
+            ready.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            recording.set(false);
+            flusher.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * clicksPerThread, clicksAt(timeseries(code, 912L), now));
+        clickRollupService.flush();
+        assertEquals(threads * clicksPerThread, clicksAt(timeseries(code, 912L), now));
+    }
+
+    @Test
+    void otherUsersCannotReadTheSeries() {
+        String code = shortenRegistered(913L, "https://example.com/timeseries/owner");
+
+        ResponseEntity<String> response = restTemplate.exchange(url(code), HttpMethod.GET,
+                new HttpEntity<>(userHeader(914L)), String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    private void record(Long urlId, long timestampMillis, int clicks) {
+        for (int i = 0; i < clicks; i++) {
+            clickRollupService.recordClick(urlId, timestampMillis);
+        }
+    }
+
+    private ClickTimeseriesResponseDTO timeseries(String code, Long userId) {
+        ResponseEntity<ClickTimeseriesResponseDTO> response = restTemplate.exchange(url(code), HttpMethod.GET,
+                new HttpEntity<>(userHeader(userId)), ClickTimeseriesResponseDTO.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+
+    private static long clicksAt(ClickTimeseriesResponseDTO timeseries, long timestampMillis) {
+        LocalDateTime start = BucketDelta.bucketStart(HOUR, BucketDelta.bucketOf(HOUR, timestampMillis));
+        return timeseries.getBucketsResponse().stream()
+                .filter(bucket -> bucket.getBucketStartResponse().equals(start))
+                .mapToLong(ClickBucketResponseDTO::getClicksResponse)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static String url(String code) {
+        return "/api/links/" + code + "/timeseries?granularity=HOUR&points=3";
+    }
+
+    private static HttpHeaders userHeader(Long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-User-Id", String.valueOf(userId));
+        return headers;
+    }
+
+    private String shortenRegistered(Long userId, String originalUrl) {
+        return urlService.shortenRegisteredUrl(ShortenUrlRequestDTO.builder()
+                .originalUrlRequest(originalUrl)
+                .build(), userId).getUrlCodeResponse();
+    }
+}
@@ -0,0 +1,143 @@
+package com.bryam.urlshortener.contrellers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bryam.urlshortener.dto.request.ShortenUrlRequestDTO;
+import com.bryam.urlshortener.service.UrlService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//Paginación por llave de /api/my-links: orden por fecha de creación e id, empates incluidos
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class MyLinksEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UrlService urlService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void walksEveryPageOnceWithTiesOnTheCreationDate() throws Exception {
+        List<String> codes = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            codes.add(shortenRegistered(921L, "https://example.com/my-links/" + i));
+        }
+        // Cuatro urls con la misma fecha, el id decide el orden entre ellas
+        LocalDateTime tied = LocalDateTime.of(2026, 3, 1, 12, 0);
+        jdbcTemplate.update("UPDATE urls SET creation_date = ? WHERE user_id = 921", tied);
+        jdbcTemplate.update("UPDATE urls SET creation_date = ? WHERE short_code = ?", tied.minusHours(1),
+                codes.get(4));
+        List<String> expected = List.of(codes.get(3), codes.get(2), codes.get(1), codes.get(0), codes.get(4));
+
+        List<String> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            JsonNode page = page(921L, cursor, 2);
+            page.get("linksResponse").forEach(link -> walked.add(link.get("urlCodeResponse").asText()));
+            cursor = page.has("nextCursorResponse") ? page.get("nextCursorResponse").asText() : null;
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertEquals(expected, walked);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void lastPageHasNoCursor() throws Exception {
+        shortenRegistered(922L, "https://example.com/my-links/last/1");
+        shortenRegistered(922L, "https://example.com/my-links/last/2");
+
+        // Una pagina justa no anuncia una siguiente pagina vacía
+        JsonNode page = page(922L, null, 2);
+        assertEquals(2, page.get("linksResponse").size());
+        assertFalse(page.has("nextCursorResponse"));
+
+        JsonNode first = page(922L, null, 1);
+        assertEquals(List.of("linksResponse", "nextCursorResponse"), fieldNames(first));
+        JsonNode last = page(922L, first.get("nextCursorResponse").asText(), 1);
+        assertEquals(List.of("linksResponse"), fieldNames(last));
+        assertEquals(1, last.get("linksResponse").size());
+
+        // Un usuario sin urls recibe una lista vacía
+        JsonNode empty = page(923L, null, null);
+        assertEquals(0, empty.get("linksResponse").size());
+        assertFalse(empty.has("nextCursorResponse"));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        String noSeparator = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2026-03-01T12:00".getBytes(StandardCharsets.UTF_8));
+        String badDate = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("yesterday|15".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("not base64!", noSeparator, badDate)) {
+            ResponseEntity<String> response = get(924L, cursor, null);
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode(), cursor);
+            assertTrue(response.getBody().contains("cursor"), response.getBody());
+        }
+    }
+
+    private JsonNode page(Long userId, String cursor, Integer size) throws Exception {
+        ResponseEntity<String> response = get(userId, cursor, size);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return objectMapper.readTree(response.getBody());
+    }
+
+    private ResponseEntity<String> get(Long userId, String cursor, Integer size) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-User-Id", String.valueOf(userId));
+        StringBuilder url = new StringBuilder("/api/my-links?");
+        if (cursor != null) {
+            url.append("cursor={cursor}&");
+        }
+        if (size != null) {
+            url.append("size=").append(size);
+        }
+        return cursor == null
+                ? restTemplate.exchange(url.toString(), HttpMethod.GET, new HttpEntity<>(headers), String.class)
+                : restTemplate.exchange(url.toString(), HttpMethod.GET, new HttpEntity<>(headers), String.class,
+                        cursor);
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private String shortenRegistered(Long userId, String originalUrl) {
+        return urlService.shortenRegisteredUrl(ShortenUrlRequestDTO.builder()
+                .originalUrlRequest(originalUrl)
+                .build(), userId).getUrlCodeResponse();
+    }
+}
@@ -0,0 +1,139 @@
+package com.bryam.urlshortener.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bryam.urlshortener.dto.request.ShortenUrlRequestDTO;
+import com.bryam.urlshortener.dto.response.ShortenUrlResponseDTO;
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.repository.UrlRepository;
+
+//Dos bases H2 en memoria: la principal del perfil test y una réplica
+//La replicación se simula copiando la principal a la réplica con SCRIPT / RUNSCRIPT
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.datasource.replicas.enabled=true",
+        "app.datasource.replicas.urls=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "app.datasource.replicas.heartbeat-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL =
+            "jdbc:h2:mem:db_url_shortener_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void replicate() {
+        if (!DataSourceRoute.onPrimary(() -> urlRepository.findIdByShortCodeAndUserId("rplc01", 500L).isPresent())) {
+            urlRepository.save(Url.builder()
+                    .shortCode("rplc01")
+                    .originalUrl("http://primary.example")
+                    .typeUrl(TypeUrl.REGISTERED)
+                    .userId(500L)
+                    .build());
+        }
+        replicaLagMonitor.beat();
+
+        jdbcTemplate.execute("SCRIPT TO 'target/replica-seed.sql'");
+        replica.execute("DROP ALL OBJECTS");
+        replica.execute("RUNSCRIPT FROM 'target/replica-seed.sql'");
+
+        // Un valor distinto en la réplica permite saber de donde se leyó
+        replica.update("UPDATE urls SET original_url = 'http://replica.example' WHERE short_code = 'rplc01'");
+        replicaLagMonitor.check();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertEquals(List.of("replica-1"), replicaRoutingDataSource.getHealthyReplicas());
+
+        assertEquals("http://replica.example", readOnly(() -> originalUrl("rplc01")));
+        assertEquals("http://primary.example", readWrite(() -> originalUrl("rplc01")));
+        assertEquals("http://primary.example",
+                DataSourceRoute.onPrimary(() -> readOnly(() -> originalUrl("rplc01"))));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        replica.update("UPDATE replication_heartbeat SET beat_millis = ?", System.currentTimeMillis() - 60_000);
+        replicaLagMonitor.check();
+
+        assertTrue(replicaRoutingDataSource.getHealthyReplicas().isEmpty());
+        assertEquals("http://primary.example", readOnly(() -> originalUrl("rplc01")));
+    }
+
+    @Test
+    void userReadsTheirOwnWritesFromThePrimary() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-User-Id", "501");
+        ShortenUrlRequestDTO request = ShortenUrlRequestDTO.builder()
+                .originalUrlRequest("https://example.com/read-your-writes")
+                .customSlugRequest("ryw501")
+                .build();
+
+        ResponseEntity<ShortenUrlResponseDTO> created = restTemplate.exchange("/api/shorten/authenticated",
+                HttpMethod.POST, new HttpEntity<>(request, headers), ShortenUrlResponseDTO.class);
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+
+        // La réplica no tiene la url nueva, la lectura del mismo usuario se envía a la principal
+        ResponseEntity<String> stats = restTemplate.exchange("/api/links/ryw501/stats",
+                HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.OK, stats.getStatusCode());
+
+        ResponseEntity<String> links = restTemplate.exchange("/api/my-links",
+                HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertTrue(links.getBody().contains("ryw501"));
+    }
+
+    private String originalUrl(String shortCode) {
+        return urlRepository.findByShortCodeAndUserId(shortCode, 500L).map(Url::getOriginalUrl).orElse(null);
+    }
+
+    private <T> T readOnly(Supplier<T> action) {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(true);
+        return template.execute(status -> action.get());
+    }
+
+    private <T> T readWrite(Supplier<T> action) {
+        return transactionTemplate.execute(status -> action.get());
+    }
+}
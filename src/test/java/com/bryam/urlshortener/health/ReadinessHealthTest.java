@@ -0,0 +1,141 @@
+package com.bryam.urlshortener.health;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.HealthContributorRegistry;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.LeaderboardType;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.service.LeaderboardService;
+import com.bryam.urlshortener.store.UrlStore;
+import com.zaxxer.hikari.HikariDataSource;
+
+//Pool de dos conexiones para poder saturarlo desde la prueba, un hilo esperando ya lo satura
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "app.health.readiness.max-pending-connections=1",
+        "app.health.readiness.check-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class ReadinessHealthTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @Autowired
+    private UrlStore urlStore;
+
+    @Autowired
+    private HealthContributorRegistry healthContributorRegistry;
+
+    @Autowired
+    private CacheWarmupHealthIndicator cacheWarmup;
+
+    @Test
+    void readyOnceTheCacheIsWarm() {
+        ResponseEntity<String> readiness = restTemplate.getForEntity("/health/readiness", String.class);
+
+        assertEquals(HttpStatus.OK, readiness.getStatusCode());
+        assertTrue(readiness.getBody().contains("\"cacheWarmup\":{\"status\":\"UP\""), readiness.getBody());
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity("/health", String.class).getStatusCode());
+    }
+
+    @Test
+    void outOfServiceUntilTheWarmUpFinishes() throws Exception {
+        String code = urlStore.create(Url.builder()
+                .shortCode("warmup961")
+                .originalUrl("https://example.com/warmup")
+                .typeUrl(TypeUrl.REGISTERED)
+                .userId(961L)
+                .build()).getShortCode();
+
+        // La tabla de posiciones responde cuando la prueba lo permite, el calentamiento queda a la mitad
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LeaderboardService leaderboardService = mock(LeaderboardService.class);
+        when(leaderboardService.topShortCodes(LeaderboardType.CLICKS, 5)).thenAnswer(invocation -> {
+            reading.countDown();
+            release.await();
+            return List.of(code);
+        });
+        CacheWarmupHealthIndicator starting = new CacheWarmupHealthIndicator(urlStore, leaderboardService);
+        ReflectionTestUtils.setField(starting, "warmupUrls", 5);
+
+        // Como una instancia recién arrancada, el indicador del contexto se cambia por uno que no termino
+        healthContributorRegistry.unregisterContributor("cacheWarmup");
+        healthContributorRegistry.registerContributor("cacheWarmup", starting);
+        try {
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+                    restTemplate.getForEntity("/health/readiness", String.class).getStatusCode());
+
+            CompletableFuture<Void> warming = CompletableFuture.runAsync(starting::warmUp);
+            reading.await();
+            ResponseEntity<String> readiness = restTemplate.getForEntity("/health/readiness", String.class);
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, readiness.getStatusCode());
+            assertTrue(readiness.getBody().contains("\"cacheWarmup\":{\"status\":\"OUT_OF_SERVICE\""),
+                    readiness.getBody());
+            assertEquals(true, starting.health().getDetails().get("warming"));
+            // El proceso sigue vivo mientras calienta la cache
+            assertEquals(HttpStatus.OK, restTemplate.getForEntity("/health", String.class).getStatusCode());
+
+            release.countDown();
+            warming.get();
+            assertEquals(Status.UP, starting.health().getStatus());
+            assertEquals(1, starting.health().getDetails().get("urls"));
+            assertEquals(HttpStatus.OK, restTemplate.getForEntity("/health/readiness", String.class).getStatusCode());
+        } finally {
+            release.countDown();
+            healthContributorRegistry.unregisterContributor("cacheWarmup");
+            healthContributorRegistry.registerContributor("cacheWarmup", cacheWarmup);
+        }
+    }
+
+    @Test
+    void saturatedPoolTakesTheInstanceOutOfService() throws Exception {
+        CompletableFuture<Void> waiting;
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            waiting = CompletableFuture.runAsync(() -> {
+                try (Connection third = dataSource.getConnection()) {
+                    // Recibe la conexión cuando la prueba libera las otras dos
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            while (dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection() == 0) {
+                Thread.sleep(10);
+            }
+
+            ResponseEntity<String> readiness = restTemplate.getForEntity("/health/readiness", String.class);
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, readiness.getStatusCode());
+            assertTrue(readiness.getBody().contains("\"database\":{\"status\":\"OUT_OF_SERVICE\""),
+                    readiness.getBody());
+            // El proceso sigue vivo, solo deja de recibir trafico
+            assertEquals(HttpStatus.OK, restTemplate.getForEntity("/health", String.class).getStatusCode());
+        }
+        waiting.get();
+
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity("/health/readiness", String.class).getStatusCode());
+    }
+}
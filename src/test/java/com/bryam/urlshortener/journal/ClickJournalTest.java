@@ -0,0 +1,171 @@
+package com.bryam.urlshortener.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bryam.urlshortener.service.impl.ClickJournalServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ClickJournalTest {
+
+    // Encabezado del segmento mas tres registros de código de 7 caracteres, el cuarto ya no cabe
+    private static final int THREE_RECORDS = 128;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysWhatWasWrittenWithResumablePositions() throws IOException {
+        List<JournalPosition> positions = new ArrayList<>();
+        try (JournalSegment segment = JournalSegment.create(directory, 0, 4096)) {
+            for (int i = 0; i < 5; i++) {
+                assertTrue(segment.append(record(i)));
+            }
+        }
+
+        List<ClickRecord> replayed = new ArrayList<>();
+        JournalPosition end = reader().replay(JournalPosition.START, (clickRecord, position) -> {
+            replayed.add(clickRecord);
+            positions.add(position);
+        });
+
+        assertEquals(List.of(record(0), record(1), record(2), record(3), record(4)), replayed);
+        assertEquals(positions.get(4), end);
+
+        // Continuar desde la posición guardada del segundo registro solo entrega los siguientes
+        assertEquals(List.of(record(2), record(3), record(4)), replayFrom(positions.get(1)));
+        assertEquals(List.of(), replayFrom(end));
+    }
+
+    @Test
+    void rollsOverToTheNextSegmentWhenFull() throws IOException {
+        try (JournalSegment first = JournalSegment.create(directory, 0, THREE_RECORDS)) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(first.append(record(i)));
+            }
+            assertFalse(first.append(record(3)));
+        }
+        try (JournalSegment second = JournalSegment.create(directory, 1, THREE_RECORDS)) {
+            assertTrue(second.append(record(3)));
+        }
+
+        JournalPosition end = reader().replay(JournalPosition.START, (clickRecord, position) -> { });
+
+        assertEquals(List.of(record(0), record(1), record(2), record(3)), replayFrom(JournalPosition.START));
+        assertEquals(1, end.segment());
+        assertEquals(2, reader().listSegments().size());
+    }
+
+    @Test
+    void truncatedTailStopsTheSegmentAndContinuesWithTheNext() throws IOException {
+        writeSegment(0, 3);
+        writeSegment(1, 1);
+        JournalPosition afterSecond = positionAfter(0, 2);
+
+        // Caída a mitad del tercer registro, el archivo termina dentro de sus datos
+        try (FileChannel channel = FileChannel.open(segmentPath(0), StandardOpenOption.WRITE)) {
+            channel.truncate(afterSecond.offset() + JournalSegment.RECORD_HEADER_SIZE + 4);
+        }
+
+        assertEquals(List.of(record(0), record(1), record(100)), replayFrom(JournalPosition.START));
+    }
+
+    @Test
+    void tornRecordStopsTheSegmentAndContinuesWithTheNext() throws IOException {
+        writeSegment(0, 3);
+        writeSegment(1, 1);
+        JournalPosition afterFirst = positionAfter(0, 1);
+
+        // El largo quedo escrito pero los datos no coinciden con el crc
+        try (FileChannel channel = FileChannel.open(segmentPath(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 0x7f }),
+                    afterFirst.offset() + JournalSegment.RECORD_HEADER_SIZE + 3);
+        }
+
+        assertEquals(List.of(record(0), record(100)), replayFrom(JournalPosition.START));
+    }
+
+    @Test
+    void stopDrainsTheQueueBeforeTheWriterClosesTheSegment() throws Exception {
+        ClickJournalServiceImpl journal = journalService();
+        journal.start();
+        for (int i = 0; i < 500; i++) {
+            assertTrue(journal.append("code" + i, "10.0.0." + (i % 200)));
+        }
+        journal.stop();
+
+        assertFalse(journal.append("late", "10.0.0.1"));
+        List<ClickRecord> replayed = replayFrom(JournalPosition.START);
+        assertEquals(500, replayed.size());
+        assertEquals("code0", replayed.get(0).shortCode());
+        assertEquals("code499", replayed.get(499).shortCode());
+
+        // Al reiniciar se abre un segmento nuevo y los registros anteriores siguen disponibles
+        ClickJournalServiceImpl restarted = journalService();
+        restarted.start();
+        assertTrue(restarted.append("again", "10.0.0.1"));
+        restarted.stop();
+
+        assertEquals(2, reader().listSegments().size());
+        assertEquals(501, replayFrom(JournalPosition.START).size());
+    }
+
+    private ClickJournalServiceImpl journalService() {
+        ClickJournalServiceImpl journal = new ClickJournalServiceImpl(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        ReflectionTestUtils.setField(journal, "segmentSizeMb", 1);
+        ReflectionTestUtils.setField(journal, "segmentMaxAgeSeconds", 3600L);
+        ReflectionTestUtils.setField(journal, "retentionSegments", 10);
+        ReflectionTestUtils.setField(journal, "ringCapacity", 1024);
+        ReflectionTestUtils.setField(journal, "fsyncIntervalMs", 1000L);
+        ReflectionTestUtils.setField(journal, "ipHashSalt", "salt");
+        return journal;
+    }
+
+    private void writeSegment(long sequence, int records) throws IOException {
+        try (JournalSegment segment = JournalSegment.create(directory, sequence, 4096)) {
+            for (int i = 0; i < records; i++) {
+                segment.append(record((int) sequence * 100 + i));
+            }
+        }
+    }
+
+    private JournalPosition positionAfter(long sequence, int records) throws IOException {
+        List<JournalPosition> positions = new ArrayList<>();
+        reader().replay(new JournalPosition(sequence, 0), (clickRecord, position) -> positions.add(position));
+        return positions.get(records - 1);
+    }
+
+    private List<ClickRecord> replayFrom(JournalPosition from) throws IOException {
+        List<ClickRecord> replayed = new ArrayList<>();
+        reader().replay(from, (clickRecord, position) -> replayed.add(clickRecord));
+        return replayed;
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(JournalSegment.fileName(sequence));
+    }
+
+    private ClickJournalReader reader() {
+        return new ClickJournalReader(directory);
+    }
+
+    private static ClickRecord record(int i) {
+        return new ClickRecord(String.format("abc%04d", i), 1_700_000_000_000L + i, i * 31L);
+    }
+}
@@ -0,0 +1,151 @@
+package com.bryam.urlshortener.leaderboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+class TopKBoardTest {
+
+    @Test
+    void keepsTheHighestScoresWhenFull() {
+        TopKBoard board = new TopKBoard(3, 0);
+
+        for (long id = 1; id <= 10; id++) {
+            board.offer(id, "c" + id, id * 10);
+        }
+
+        assertEquals(List.of(10L, 9L, 8L), ids(board.snapshot(0)));
+        assertEquals(3, board.size());
+    }
+
+    @Test
+    void incrementsMembersAndOffersNewcomers() {
+        TopKBoard board = new TopKBoard(2, 0);
+        board.offer(1L, "a", 5);
+        board.offer(2L, "b", 7);
+
+        // El miembro sube sin importar el puntaje propuesto, el recién llegado entra con el suyo
+        board.increment(1L, "a", 0);
+        board.increment(1L, "a", 0);
+        board.increment(1L, "a", 0);
+        board.increment(3L, "c", 9);
+
+        List<LeaderboardEntry> entries = board.snapshot(0);
+        assertEquals(List.of(3L, 1L), ids(entries));
+        assertEquals(8, entries.get(1).score());
+    }
+
+    @Test
+    void offerNeverLowersAMemberScore() {
+        TopKBoard board = new TopKBoard(2, 0);
+        board.offer(1L, "a", 50);
+        board.offer(1L, "a", 10);
+
+        assertEquals(50, board.snapshot(0).get(0).score());
+    }
+
+    @Test
+    void setAndRemoveReopenTheBoard() {
+        TopKBoard board = new TopKBoard(2, 0);
+        board.offer(1L, "a", 50);
+        board.offer(2L, "b", 40);
+
+        // Con la tabla llena un puntaje bajo no entra
+        board.offer(3L, "c", 10);
+        assertEquals(List.of(1L, 2L), ids(board.snapshot(0)));
+
+        // Al corregir un puntaje hacia abajo el mínimo también baja
+        board.set(2L, 5);
+        board.updateThreshold();
+        board.offer(3L, "c", 10);
+        assertEquals(List.of(1L, 3L), ids(board.snapshot(0)));
+
+        board.remove(1L);
+        board.offer(4L, "d", 1);
+        assertEquals(List.of(3L, 4L), ids(board.snapshot(0)));
+    }
+
+    @Test
+    void snapshotIsReusedUntilItExpires() {
+        TopKBoard board = new TopKBoard(5, 1_000);
+        board.offer(1L, "a", 1);
+
+        List<LeaderboardEntry> first = board.snapshot(10_000);
+        board.offer(2L, "b", 2);
+
+        assertSame(first, board.snapshot(10_999));
+        assertEquals(List.of(2L, 1L), ids(board.snapshot(11_000)));
+    }
+
+    @Test
+    void replaceAllKeepsTheTopEntries() {
+        TopKBoard board = new TopKBoard(2, 0);
+        board.offer(9L, "z", 1_000);
+
+        board.replaceAll(List.of(
+                new LeaderboardEntry(1L, "a", 1),
+                new LeaderboardEntry(2L, "b", 3),
+                new LeaderboardEntry(3L, "c", 2)));
+
+        assertEquals(List.of(2L, 3L), ids(board.snapshot(0)));
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws InterruptedException {
+        int threads = 8;
+        int clicksPerThread = 20_000;
+        TopKBoard board = new TopKBoard(50, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Las 20 urls calientes ya son miembros, cada hilo les da clicks y propone otras 200 que compiten
+        // por los lugares restantes
+        for (long hot = 0; hot < 20; hot++) {
+            board.offer(hot, "h" + hot, 100);
+        }
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < clicksPerThread; i++) {
+                    long hot = i % 20;
+                    board.increment(hot, "h" + hot, 1);
+                    long cold = 1_000 + (i * 7 + seed) % 200;
+                    board.offer(cold, "c" + cold, cold % 10);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        List<LeaderboardEntry> entries = board.snapshot(0);
+        assertEquals(50, entries.size());
+
+        // Las urls calientes siempre quedan arriba con todos sus clicks
+        long expected = 100 + (long) threads * clicksPerThread / 20;
+        assertEquals(LongStream.range(0, 20).boxed().toList(), ids(entries.subList(0, 20)).stream().sorted().toList());
+        entries.subList(0, 20).forEach(entry -> assertEquals(expected, entry.score()));
+    }
+
+    private static List<Long> ids(List<LeaderboardEntry> entries) {
+        List<Long> ids = new ArrayList<>();
+        entries.forEach(entry -> ids.add(entry.urlId()));
+        return ids;
+    }
+}
@@ -0,0 +1,134 @@
+package com.bryam.urlshortener.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bryam.urlshortener.dto.request.ShortenUrlRequestDTO;
+import com.bryam.urlshortener.exception.InvalidUrlException;
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.repository.UrlRepository;
+import com.bryam.urlshortener.service.UrlService;
+import com.bryam.urlshortener.store.UrlStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+//Timers por etapa de acortar y redirigir, y aciertos de la cache en las búsquedas por código corto
+//El registro es compartido por las pruebas del contexto, se comparan diferencias y no valores absolutos
+@SpringBootTest
+@ActiveProfiles("test")
+class UrlPipelineMetricsTest {
+
+    @Autowired
+    private UrlService urlService;
+
+    @Autowired
+    private UrlStore urlStore;
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void everyStageOfShortenAndRedirectIsTimed() {
+        Map<String, List<String>> stages = Map.of(
+                UrlPipelineMetrics.SHORTEN_ANONYMOUS,
+                List.of("rate_limit", "validation", "hashing", "dedup_lookup", "insert"),
+                UrlPipelineMetrics.REDIRECT,
+                List.of("lookup", "classification", "click_counters", "click_analytics"));
+        Map<String, Long> before = stageCounts(stages);
+
+        String code = urlService.shortenAnonymousUrl(ShortenUrlRequestDTO.builder()
+                .originalUrlRequest("https://example.com/metrics/stages")
+                .build(), browserRequest()).getUrlCodeResponse();
+        urlService.getUrlForRedirection(code, browserRequest());
+
+        Map<String, Long> after = stageCounts(stages);
+        before.forEach((stage, count) -> assertEquals(count + 1, after.get(stage), stage));
+    }
+
+    @Test
+    void stageIsTimedWhenItFails() {
+        long before = stageCount(UrlPipelineMetrics.SHORTEN_ANONYMOUS, "validation");
+        long hashingBefore = stageCount(UrlPipelineMetrics.SHORTEN_ANONYMOUS, "hashing");
+
+        assertThrows(InvalidUrlException.class, () -> urlService.shortenAnonymousUrl(ShortenUrlRequestDTO.builder()
+                .originalUrlRequest("not-a-url")
+                .build(), browserRequest()));
+
+        assertEquals(before + 1, stageCount(UrlPipelineMetrics.SHORTEN_ANONYMOUS, "validation"));
+        // Las etapas siguientes no llegaron a ejecutarse
+        assertEquals(hashingBefore, stageCount(UrlPipelineMetrics.SHORTEN_ANONYMOUS, "hashing"));
+    }
+
+    @Test
+    void lookupsCountCacheHitsAndMisses() {
+        Url url = urlStore.create(Url.builder()
+                .shortCode("metrics951")
+                .originalUrl("https://example.com/metrics/lookup")
+                .typeUrl(TypeUrl.REGISTERED)
+                .userId(951L)
+                .build());
+        urlRepository.evictFromCache(List.of(url.getId()));
+        double hits = lookups("hit");
+        double misses = lookups("miss");
+
+        // En la misma sesión la primera búsqueda consulta la base y la segunda ya la tiene en memoria
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(urlRepository.findByNaturalId("metrics951").isPresent());
+            assertTrue(urlRepository.findByNaturalId("metrics951").isPresent());
+        });
+        assertEquals(misses + 1, lookups("miss"));
+        assertEquals(hits + 1, lookups("hit"));
+
+        // Una sesión nueva la encuentra en la cache de segundo nivel
+        assertTrue(urlRepository.findByNaturalId("metrics951").isPresent());
+        assertEquals(hits + 2, lookups("hit"));
+
+        // Un código que no existe siempre consulta la base
+        assertTrue(urlRepository.findByNaturalId("missing951").isEmpty());
+        assertEquals(misses + 2, lookups("miss"));
+    }
+
+    private Map<String, Long> stageCounts(Map<String, List<String>> stages) {
+        Map<String, Long> counts = new HashMap<>();
+        stages.forEach((pipeline, names) -> names.forEach(
+                stage -> counts.put(pipeline + "." + stage, stageCount(pipeline, stage))));
+        return counts;
+    }
+
+    // El timer se crea en el primer uso de la etapa
+    private long stageCount(String pipeline, String stage) {
+        Timer timer = meterRegistry.find("urls.pipeline.stage").tag("pipeline", pipeline).tag("stage", stage).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("urls.lookup.cache").tag("result", result).counter().count();
+    }
+
+    private static MockHttpServletRequest browserRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("100.64.9.51");
+        request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/120.0 Safari/537.36");
+        return request;
+    }
+}
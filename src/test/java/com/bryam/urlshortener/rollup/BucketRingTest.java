@@ -0,0 +1,152 @@
+package com.bryam.urlshortener.rollup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.bryam.urlshortener.model.enums.RollupGranularity;
+
+class BucketRingTest {
+
+    private static final RollupGranularity MINUTE = RollupGranularity.MINUTE;
+    private static final long MINUTE_MILLIS = MINUTE.getBucketMillis();
+    private static final long START = 28_000_000L;
+
+    @Test
+    void drainsOnlyWhatWasNotFlushedYet() {
+        BucketRing ring = new BucketRing(MINUTE);
+        record(ring, START, 3);
+        record(ring, START + 1, 2);
+
+        assertEquals(Map.of(START, 3L, START + 1, 2L), drain(ring));
+        assertTrue(ring.isFlushed());
+
+        record(ring, START + 1, 4);
+        assertFalse(ring.isFlushed());
+        assertEquals(Map.of(START + 1, 4L), drain(ring));
+    }
+
+    @Test
+    void rotationKeepsThePendingClicksOfTheReplacedBucket() {
+        BucketRing ring = new BucketRing(MINUTE);
+        long sameSlot = START + MINUTE.getRingSize();
+        record(ring, START, 5);
+        drain(ring);
+        record(ring, START, 2);
+
+        // El intervalo nuevo ocupa la casilla, los dos clicks sin guardar del anterior se apartan
+        record(ring, sameSlot, 1);
+        // Un click atrasado del intervalo reemplazado no vuelve a ocupar la casilla
+        record(ring, START, 1);
+
+        long[] totals = new long[MINUTE.getRingSize() + 1];
+        ring.addPending(START, totals);
+        assertEquals(3, totals[0]);
+        assertEquals(1, totals[MINUTE.getRingSize()]);
+
+        assertEquals(Map.of(START, 3L, sameSlot, 1L), drain(ring));
+        assertTrue(ring.isFlushed());
+    }
+
+    @Test
+    void restoredDeltasAreDrainedAgain() {
+        BucketRing ring = new BucketRing(MINUTE);
+        record(ring, START, 4);
+        List<BucketDelta> deltas = new ArrayList<>();
+        ring.drain(deltas);
+
+        // Falló el guardado, el intervalo sigue en su casilla
+        deltas.forEach(ring::restore);
+        assertEquals(Map.of(START, 4L), drain(ring));
+
+        // Falló el guardado y la casilla ya roto a otro intervalo
+        record(ring, START + 1, 1);
+        deltas.clear();
+        ring.drain(deltas);
+        record(ring, START + 1 + MINUTE.getRingSize(), 1);
+        deltas.forEach(ring::restore);
+        assertEquals(Map.of(START + 1, 1L, START + 1 + MINUTE.getRingSize(), 1L), drain(ring));
+    }
+
+    @Test
+    void concurrentClicksAcrossRotationsAreNeverLostOrMisplaced() throws Exception {
+        int threads = 8;
+        int buckets = 3 * MINUTE.getRingSize();
+        int clicksPerBucket = 50;
+        BucketRing ring = new BucketRing(MINUTE);
+        Map<Long, Long> drained = new TreeMap<>();
+        AtomicBoolean recording = new AtomicBoolean(true);
+        CountDownLatch ready = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            // Cada hilo avanza en el tiempo por su cuenta, las casillas rotan mientras otros hilos siguen sumando
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    ready.await();
+                    for (long bucket = START; bucket < START + buckets; bucket++) {
+                        record(ring, bucket, clicksPerBucket);
+                    }
+                    return null;
+                }));
+            }
+            Future<?> drainer = executor.submit(() -> {
+                ready.await();
+                while (recording.get()) {
+                    merge(drained, drain(ring));
+                }
+                return null;
+            });
+
+            ready.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            recording.set(false);
+            drainer.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        merge(drained, drain(ring));
+
+        assertEquals(buckets, drained.size());
+        for (long bucket = START; bucket < START + buckets; bucket++) {
+            assertEquals((long) threads * clicksPerBucket, drained.get(bucket), "bucket " + bucket);
+        }
+        assertTrue(ring.isFlushed());
+    }
+
+    private static void record(BucketRing ring, long bucket, int clicks) {
+        for (int i = 0; i < clicks; i++) {
+            ring.record(bucket * MINUTE_MILLIS + i % MINUTE_MILLIS);
+        }
+    }
+
+    private static Map<Long, Long> drain(BucketRing ring) {
+        List<BucketDelta> deltas = new ArrayList<>();
+        ring.drain(deltas);
+        Map<Long, Long> clicks = new TreeMap<>();
+        for (BucketDelta delta : deltas) {
+            clicks.merge(delta.bucket(), delta.clicks(), Long::sum);
+        }
+        return clicks;
+    }
+
+    private static void merge(Map<Long, Long> into, Map<Long, Long> clicks) {
+        clicks.forEach((bucket, count) -> into.merge(bucket, count, Long::sum));
+    }
+}
@@ -0,0 +1,96 @@
+package com.bryam.urlshortener.rollup;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bryam.urlshortener.util.HashUtil;
+
+class HyperLogLogTest {
+
+    // Tres errores estándar de la precisión 12 (1.04 / sqrt(4096))
+    private static final double TOLERANCE = 3 * 1.04 / Math.sqrt(HyperLogLog.REGISTERS);
+
+    @ParameterizedTest
+    @ValueSource(ints = { 10, 100, 1_000, 5_000, 10_000, 50_000, 200_000, 1_000_000 })
+    void estimateIsCloseToExactCount(int distinct) {
+        HyperLogLog sketch = new HyperLogLog();
+
+        // Cada visitante aparece tres veces, los repetidos no deben contar
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (int i = 0; i < distinct; i++) {
+                sketch.offer(visitor(i));
+            }
+        }
+
+        assertWithinTolerance(distinct, sketch.estimate());
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog nodeA = new HyperLogLog();
+        HyperLogLog nodeB = new HyperLogLog();
+
+        // Conjuntos superpuestos: [0, 60000) y [40000, 100000), la unión tiene 100000 elementos
+        for (int i = 0; i < 60_000; i++) {
+            nodeA.offer(visitor(i));
+        }
+        for (int i = 40_000; i < 100_000; i++) {
+            nodeB.offer(visitor(i));
+        }
+
+        assertWithinTolerance(100_000, nodeA.merge(nodeB).estimate());
+    }
+
+    @Test
+    void mergeIsIdempotent() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            sketch.offer(visitor(i));
+        }
+        long before = sketch.estimate();
+
+        sketch.merge(HyperLogLog.fromBytes(sketch.toBytes()));
+
+        assertEquals(before, sketch.estimate());
+    }
+
+    @Test
+    void offerReportsOnlyChanges() {
+        HyperLogLog sketch = new HyperLogLog();
+
+        assertTrue(sketch.offer(visitor(1)));
+        assertFalse(sketch.offer(visitor(1)));
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 5_000; i++) {
+            sketch.offer(visitor(i));
+        }
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertArrayEquals(sketch.toBytes(), restored.toBytes());
+        assertEquals(sketch.estimate(), restored.estimate());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[10]));
+    }
+
+    private static long visitor(int i) {
+        return HashUtil.hash64("url-shortener" + "10." + (i >>> 16) + "." + ((i >>> 8) & 0xff) + "." + (i & 0xff));
+    }
+
+    private static void assertWithinTolerance(long exact, long estimate) {
+        double error = Math.abs(estimate - exact) / (double) exact;
+        assertTrue(error <= TOLERANCE,
+                "Estimate " + estimate + " for " + exact + " distinct values has error " + error);
+    }
+}
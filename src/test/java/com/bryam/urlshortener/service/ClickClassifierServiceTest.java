@@ -0,0 +1,99 @@
+package com.bryam.urlshortener.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.bryam.urlshortener.bot.ClickVerdict;
+import com.bryam.urlshortener.service.impl.ClickClassifierServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+//Cada veredicto de la clasificación de clicks, con una ventana de ráfagas de una hora para que no rote a la mitad
+class ClickClassifierServiceTest {
+
+    private static final String BROWSER = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/120.0 Safari/537.36";
+    private static final int BURST_MAX_CLICKS = 3;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ClickClassifierService classifier = classifier(true);
+
+    @Test
+    void browserClickIsHuman() {
+        assertEquals(ClickVerdict.HUMAN, classifier.classify(request(BROWSER), "100.64.1.1"));
+    }
+
+    @Test
+    void missingOrBlankUserAgent() {
+        assertEquals(ClickVerdict.MISSING_USER_AGENT, classifier.classify(request(null), "100.64.1.2"));
+        assertEquals(ClickVerdict.MISSING_USER_AGENT, classifier.classify(request("  "), "100.64.1.2"));
+        assertEquals(2, suspicious("missing_user_agent"));
+    }
+
+    @Test
+    void prefetchHeaders() {
+        MockHttpServletRequest chrome = request(BROWSER);
+        chrome.addHeader("Sec-Purpose", "prefetch;prerender");
+        MockHttpServletRequest safari = request(BROWSER);
+        safari.addHeader("Purpose", "Prefetch");
+        MockHttpServletRequest firefox = request(BROWSER);
+        firefox.addHeader("X-Moz", "prefetch");
+        MockHttpServletRequest other = request(BROWSER);
+        other.addHeader("Sec-Purpose", "prerender");
+
+        assertEquals(ClickVerdict.PREFETCH, classifier.classify(chrome, "100.64.1.3"));
+        assertEquals(ClickVerdict.PREFETCH, classifier.classify(safari, "100.64.1.4"));
+        assertEquals(ClickVerdict.PREFETCH, classifier.classify(firefox, "100.64.1.5"));
+        assertEquals(ClickVerdict.HUMAN, classifier.classify(other, "100.64.1.6"));
+        assertEquals(3, suspicious("prefetch"));
+    }
+
+    @Test
+    void botUserAgent() {
+        assertEquals(ClickVerdict.BOT_USER_AGENT,
+                classifier.classify(request("Mozilla/5.0 (compatible; Googlebot/2.1)"), "100.64.1.7"));
+        assertEquals(ClickVerdict.BOT_USER_AGENT, classifier.classify(request("curl/8.4.0"), "100.64.1.8"));
+        assertEquals(2, suspicious("bot_user_agent"));
+    }
+
+    @Test
+    void ipBurstAfterTheLimit() {
+        for (int i = 0; i < BURST_MAX_CLICKS; i++) {
+            assertEquals(ClickVerdict.HUMAN, classifier.classify(request(BROWSER), "100.64.1.9"));
+        }
+        assertEquals(ClickVerdict.IP_BURST, classifier.classify(request(BROWSER), "100.64.1.9"));
+        // Otra ip no se ve afectada
+        assertEquals(ClickVerdict.HUMAN, classifier.classify(request(BROWSER), "100.64.1.10"));
+        // Cambiar de User-Agent no limpia la ráfaga, y un bot conocido se reporta como bot
+        assertEquals(ClickVerdict.IP_BURST, classifier.classify(request("Mozilla/5.0 Firefox/121.0"), "100.64.1.9"));
+        assertEquals(ClickVerdict.BOT_USER_AGENT, classifier.classify(request("wget/1.21"), "100.64.1.9"));
+        assertEquals(2, suspicious("ip_burst"));
+    }
+
+    @Test
+    void disabledClassifierCountsEveryClick() {
+        ClickClassifierService disabled = classifier(false);
+        assertEquals(ClickVerdict.HUMAN, disabled.classify(request(null), "100.64.1.11"));
+        assertEquals(ClickVerdict.HUMAN, disabled.classify(request("curl/8.4.0"), "100.64.1.11"));
+    }
+
+    private ClickClassifierService classifier(boolean enabled) {
+        return new ClickClassifierServiceImpl(enabled, List.of("bot", "curl", "wget"), 3600, BURST_MAX_CLICKS, 4,
+                1024, "salt", meterRegistry);
+    }
+
+    private double suspicious(String reason) {
+        return meterRegistry.get("clicks.suspicious").tag("reason", reason).counter().count();
+    }
+
+    private static MockHttpServletRequest request(String userAgent) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (userAgent != null) {
+            request.addHeader("User-Agent", userAgent);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,119 @@
+package com.bryam.urlshortener.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.repository.UrlClickCounterRepository;
+import com.bryam.urlshortener.store.UrlStore;
+
+//Compactación de las filas de clicks pendientes en los contadores de la url
+//Bloques de dos filas para recorrer varios bloques, y la tarea programada no corre durante las pruebas
+@SpringBootTest(properties = { "app.clicks.compaction.batch-size=2", "app.clicks.compaction.interval-ms=3600000" })
+@ActiveProfiles("test")
+class ClickCounterServiceTest {
+
+    @Autowired
+    private ClickCounterService clickCounterService;
+
+    @Autowired
+    private UrlStore urlStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UrlClickCounterRepository clickCounterRepository;
+
+    @MockitoSpyBean
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void foldsEveryShardRowIntoTheUrlCounters() {
+        Long urlId = createUrl("compact301");
+        click(urlId, 0, 3);
+        click(urlId, 5, 2);
+        click(urlId, 9, 1);
+        clickCounterRepository.incrementSuspicious(urlId, 5);
+        clickCounterRepository.incrementSuspicious(urlId, 11);
+
+        clickCounterService.compact();
+
+        assertEquals(6, urlCounter(urlId, "counter_clicks_total"));
+        assertEquals(2, urlCounter(urlId, "counter_clicks_suspicious"));
+        // Las filas que quedaron en cero se eliminan
+        assertEquals(0, shardRows(urlId));
+        assertEquals(0, clickCounterService.pendingClicks(urlId).clicks());
+    }
+
+    @Test
+    void clicksArrivingDuringTheCompactionAreKept() {
+        // Sin otras filas pendientes, la fila de la prueba queda en el primer bloque
+        clickCounterService.compact();
+        Long urlId = createUrl("compact302");
+        click(urlId, 4, 2);
+        clickCounterRepository.incrementSuspicious(urlId, 4);
+
+        // Un click llega después de leer el bloque y antes de restarlo
+        AtomicBoolean arrived = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (arrived.compareAndSet(false, true)) {
+                clickCounterRepository.increment(urlId, 4);
+                clickCounterRepository.incrementSuspicious(urlId, 4);
+            }
+            return invocation.callRealMethod();
+        }).when(transactionTemplate).execute(any(TransactionCallback.class));
+
+        clickCounterService.compact();
+
+        // Solo se pasa a la url lo que se leyó, la fila conserva el click nuevo y no se elimina
+        assertEquals(2, urlCounter(urlId, "counter_clicks_total"));
+        assertEquals(1, urlCounter(urlId, "counter_clicks_suspicious"));
+        assertEquals(1, shardRows(urlId));
+        assertEquals(1, clickCounterService.pendingClicks(urlId).clicks());
+        assertEquals(1, clickCounterService.pendingClicks(urlId).suspiciousClicks());
+
+        clickCounterService.compact();
+
+        assertEquals(3, urlCounter(urlId, "counter_clicks_total"));
+        assertEquals(2, urlCounter(urlId, "counter_clicks_suspicious"));
+        assertEquals(0, shardRows(urlId));
+    }
+
+    private Long createUrl(String shortCode) {
+        return urlStore.create(Url.builder()
+                .shortCode(shortCode)
+                .originalUrl("https://example.com/compact/" + shortCode)
+                .typeUrl(TypeUrl.REGISTERED)
+                .userId(301L)
+                .build()).getId();
+    }
+
+    private void click(Long urlId, int shard, int clicks) {
+        for (int i = 0; i < clicks; i++) {
+            clickCounterRepository.increment(urlId, shard);
+        }
+    }
+
+    private long urlCounter(Long urlId, String column) {
+        return jdbcTemplate.queryForObject("SELECT " + column + " FROM urls WHERE id = ?", Long.class, urlId);
+    }
+
+    private long shardRows(Long urlId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM url_click_counters WHERE url_id = ?", Long.class,
+                urlId);
+    }
+}
@@ -0,0 +1,213 @@
+package com.bryam.urlshortener.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bryam.urlshortener.dto.request.ShortenUrlRequestDTO;
+import com.bryam.urlshortener.dto.response.GlobalStatsResponseDTO;
+import com.bryam.urlshortener.model.GlobalStat;
+import com.bryam.urlshortener.repository.GlobalStatRepository;
+import com.bryam.urlshortener.service.impl.GlobalStatsServiceImpl;
+
+//Estadísticas globales: incrementos en memoria, guardado aditivo y recalculo desde las tablas
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.admin.token=" + GlobalStatsServiceTest.ADMIN_TOKEN)
+@ActiveProfiles("test")
+class GlobalStatsServiceTest {
+
+    static final String ADMIN_TOKEN = "stats-admin-token";
+
+    private static final String REBUILD_JOB_NAME = "global-stats-rebuild";
+
+    @Autowired
+    private GlobalStatsServiceImpl globalStatsService;
+
+    @Autowired
+    private GlobalStatRepository globalStatRepository;
+
+    @Autowired
+    private UrlService urlService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @AfterEach
+    void releaseRebuildLock() {
+        jdbcTemplate.update("DELETE FROM job_locks WHERE name = ?", REBUILD_JOB_NAME);
+    }
+
+    @Test
+    void flushAddsTheIncrementsOfEveryInstance() {
+        globalStatsService.flush();
+        long before = storedLifetime("clicks");
+
+        for (int i = 0; i < 3; i++) {
+            globalStatsService.clickRecorded(false);
+        }
+        // Otra instancia guarda sus propios incrementos sobre la misma fila
+        transactionTemplate.executeWithoutResult(status -> globalStatRepository
+                .addValue("clicks", GlobalStat.LIFETIME_DAY, 5L, LocalDateTime.now()));
+        globalStatsService.flush();
+
+        assertEquals(before + 8, storedLifetime("clicks"));
+        assertEquals(0, globalStatsService.flush());
+    }
+
+    @Test
+    void readsIncludePendingIncrementsAndDoNotChangeAfterTheFlush() {
+        globalStatsService.flush();
+        GlobalStatsResponseDTO before = globalStatsService.getGlobalStats();
+
+        for (int i = 0; i < 4; i++) {
+            globalStatsService.clickRecorded(false);
+        }
+        globalStatsService.clickRecorded(true);
+
+        GlobalStatsResponseDTO pending = globalStatsService.getGlobalStats();
+        assertEquals(before.getClicksTotalResponse() + 4, pending.getClicksTotalResponse());
+        assertEquals(before.getClicksTodayResponse() + 4, pending.getClicksTodayResponse());
+        assertEquals(before.getClicksSuspiciousResponse() + 1, pending.getClicksSuspiciousResponse());
+
+        globalStatsService.flush();
+        GlobalStatsResponseDTO flushed = globalStatsService.getGlobalStats();
+        assertEquals(pending.getClicksTotalResponse(), flushed.getClicksTotalResponse());
+        assertEquals(pending.getClicksTodayResponse(), flushed.getClicksTodayResponse());
+        assertEquals(pending.getClicksSuspiciousResponse(), flushed.getClicksSuspiciousResponse());
+    }
+
+    @Test
+    void rebuildCountsTheTablesWithoutAddingPendingIncrementsTwice() {
+        // Cada creación deja un incremento pendiente que la reconstrucción ya encuentra en la tabla
+        shortenRegistered(3801L, "https://example.com/stats/rebuild/1");
+        shortenRegistered(3801L, "https://example.com/stats/rebuild/2");
+
+        globalStatsService.rebuild();
+
+        GlobalStatsResponseDTO stats = globalStatsService.getGlobalStats();
+        assertEquals(countRows("urls") + countRows("urls_archive"), stats.getUrlsTotalResponse());
+        assertEquals(countRows("urls WHERE state_url = 'ACTIVE' AND type_url = 'REGISTERED'"),
+                stats.getUrlsByStateAndTypeResponse().get("ACTIVE.REGISTERED"));
+        assertNotNull(stats.getRebuiltAtResponse());
+    }
+
+    @Test
+    void periodicRebuildOnlyRunsWithTheJobLock() {
+        globalStatsService.rebuild();
+        long registered = storedLifetime("urls.ACTIVE.REGISTERED");
+        jdbcTemplate.update("UPDATE global_stats SET stat_value = stat_value + 100 "
+                + "WHERE stat_key = 'urls.ACTIVE.REGISTERED' AND bucket_day = ?", GlobalStat.LIFETIME_DAY);
+
+        // Otra instancia tiene el bloqueo, el desvío se queda hasta el siguiente recalculo
+        jdbcTemplate.update("DELETE FROM job_locks WHERE name = ?", REBUILD_JOB_NAME);
+        jdbcTemplate.update("INSERT INTO job_locks (name, locked_until, locked_at, locked_by) VALUES (?, ?, ?, ?)",
+                REBUILD_JOB_NAME, LocalDateTime.now().plusHours(1), LocalDateTime.now(), "other-instance");
+        globalStatsService.scheduledRebuild();
+        assertEquals(registered + 100, storedLifetime("urls.ACTIVE.REGISTERED"));
+
+        jdbcTemplate.update("UPDATE job_locks SET locked_until = ? WHERE name = ?",
+                LocalDateTime.now().minusSeconds(1), REBUILD_JOB_NAME);
+        globalStatsService.scheduledRebuild();
+        assertEquals(registered, storedLifetime("urls.ACTIVE.REGISTERED"));
+    }
+
+    @Test
+    void clicksRecordedWhileRebuildingAreNotLost() throws Exception {
+        globalStatsService.flush();
+        long before = storedLifetime("clicks");
+        int threads = 4;
+        int clicksPerThread = 500;
+        CountDownLatch ready = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    ready.await();
+                    for (int i = 0; i < clicksPerThread; i++) {
+                        globalStatsService.clickRecorded(false);
+                    }
+                    return null;
+                }));
+            }
+            ready.countDown();
+            for (int i = 0; i < 3; i++) {
+                globalStatsService.rebuild();
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        globalStatsService.flush();
+
+        assertEquals(before + threads * clicksPerThread, storedLifetime("clicks"));
+    }
+
+    @Test
+    void adminStatsRequireTheToken() {
+        assertEquals(HttpStatus.FORBIDDEN, getStats(null).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, getStats("wrong-token").getStatusCode());
+
+        ResponseEntity<String> response = getStats(ADMIN_TOKEN);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("\"urlsTotalResponse\""), response.getBody());
+        assertEquals("no-store", response.getHeaders().getCacheControl());
+    }
+
+    private ResponseEntity<String> getStats(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        if (token != null) {
+            headers.set("X-Admin-Token", token);
+        }
+        return restTemplate.exchange("/api/admin/stats", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private long storedLifetime(String key) {
+        List<Long> values = jdbcTemplate.queryForList(
+                "SELECT stat_value FROM global_stats WHERE stat_key = ? AND bucket_day = ?", Long.class,
+                key, GlobalStat.LIFETIME_DAY);
+        return values.isEmpty() ? 0 : values.get(0);
+    }
+
+    private long countRows(String tableAndFilter) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tableAndFilter, Long.class);
+    }
+
+    private void shortenRegistered(Long userId, String originalUrl) {
+        urlService.shortenRegisteredUrl(ShortenUrlRequestDTO.builder()
+                .originalUrlRequest(originalUrl)
+                .build(), userId);
+    }
+}
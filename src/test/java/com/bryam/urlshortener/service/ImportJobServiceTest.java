@@ -0,0 +1,239 @@
+package com.bryam.urlshortener.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.bryam.urlshortener.dto.response.ImportJobResponseDTO;
+import com.bryam.urlshortener.model.ImportJob;
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.ImportJobState;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.repository.ImportJobRepository;
+import com.bryam.urlshortener.service.impl.ImportJobServiceImpl;
+import com.bryam.urlshortener.store.UrlStore;
+
+//Importación masiva: columnas de cada linea, slugs usados, bloques con conflicto y trabajos retomados
+@SpringBootTest
+@ActiveProfiles("test")
+class ImportJobServiceTest {
+
+    @Autowired
+    private ImportJobServiceImpl importJobService;
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
+    @MockitoSpyBean
+    private UrlStore urlStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.imports.directory}")
+    private String directory;
+
+    @Test
+    void slugColumnIsDetectedByTheUrlFormat() throws Exception {
+        ImportJob job = importAndWait(701L,
+                "httpdocs,https://example.com/manual",
+                "https://example.com/a,b",
+                "\"quoted1\",\"https://example.com/quoted\"");
+
+        assertEquals(3, job.getRowsImported());
+        assertEquals(0, job.getRowsFailed());
+        // Un slug que empieza con http sigue siendo un slug
+        assertEquals("https://example.com/manual", originalUrl("httpdocs"));
+        assertEquals("https://example.com/quoted", originalUrl("quoted1"));
+        // Sin slug la coma es parte de la url
+        assertEquals(1, countUrls(701L, "https://example.com/a,b"));
+    }
+
+    @Test
+    void onlyAHeaderRowIsSkipped() throws Exception {
+        // Un slug que empieza con slug en la primera linea es una fila, no el encabezado
+        ImportJob first = importAndWait(705L,
+                "slugger705,https://example.com/slugger",
+                "next705,https://example.com/next");
+        assertEquals(2, first.getRowsRead());
+        assertEquals(2, first.getRowsImported());
+        assertEquals("https://example.com/slugger", originalUrl("slugger705"));
+
+        ImportJob quoted = importAndWait(706L,
+                "\"Slug\",\"Original_URL\"",
+                "row706,https://example.com/row");
+        assertEquals(1, quoted.getRowsImported());
+        assertEquals(0, quoted.getRowsFailed());
+    }
+
+    @Test
+    void duplicateAndTakenSlugsAreReported() throws Exception {
+        urlStore.create(Url.builder()
+                .shortCode("taken702")
+                .originalUrl("https://example.com/owner")
+                .typeUrl(TypeUrl.REGISTERED)
+                .userId(1702L)
+                .build());
+
+        ImportJob job = importAndWait(702L,
+                "slug,original_url",
+                "taken702,https://example.com/taken",
+                "dup702,https://example.com/first",
+                "dup702,https://example.com/second",
+                "ok702,not-a-url");
+
+        assertEquals(5, job.getRowsRead());
+        assertEquals(1, job.getRowsImported());
+        assertEquals(3, job.getRowsFailed());
+        assertEquals("https://example.com/first", originalUrl("dup702"));
+
+        List<String> report = Files.readAllLines(importJobService.getFailureReport(job.getId(), 702L));
+        assertEquals(4, report.size(), String.join("\n", report));
+        assertTrue(report.get(1).startsWith("2,taken702,") && report.get(1).contains("already in use"), report.get(1));
+        assertTrue(report.get(2).startsWith("4,dup702,") && report.get(2).contains("already in use"), report.get(2));
+        assertTrue(report.get(3).startsWith("5,ok702,not-a-url,"), report.get(3));
+    }
+
+    @Test
+    void blockWithAConflictFallsBackToSingleRows() throws Exception {
+        urlStore.create(Url.builder()
+                .shortCode("race703")
+                .originalUrl("https://example.com/owner")
+                .typeUrl(TypeUrl.REGISTERED)
+                .userId(1703L)
+                .build());
+        // Como si otra petición tomara el slug entre la verificación y el INSERT del bloque
+        doReturn(Set.of()).when(urlStore).findExistingShortCodes(anyCollection());
+
+        ImportJob job = importAndWait(703L,
+                "first703,https://example.com/first",
+                "race703,https://example.com/race",
+                "https://example.com/generated");
+
+        assertEquals(ImportJobState.COMPLETED, job.getState());
+        assertEquals(2, job.getRowsImported());
+        assertEquals(1, job.getRowsFailed());
+        assertEquals("https://example.com/first", originalUrl("first703"));
+        assertEquals("https://example.com/owner", originalUrl("race703"));
+        assertEquals(2, countUrls(703L, null));
+    }
+
+    @Test
+    void resumedJobSkipsTheConfirmedLines() throws Exception {
+        // Un trabajo que se detuvo después de confirmar las dos primeras lineas
+        for (int i = 1; i <= 2; i++) {
+            urlStore.create(Url.builder()
+                    .shortCode("resume70" + i)
+                    .originalUrl("https://example.com/resume/" + i)
+                    .typeUrl(TypeUrl.REGISTERED)
+                    .userId(704L)
+                    .build());
+        }
+        ImportJob stopped = importJobRepository.save(ImportJob.builder()
+                .userId(704L)
+                .fileName("resume.csv")
+                .state(ImportJobState.RUNNING)
+                .rowsRead(2)
+                .rowsImported(2)
+                .createdAt(LocalDateTime.now())
+                .startedAt(LocalDateTime.now())
+                .build());
+        Files.writeString(Path.of(directory, stopped.getId() + ".csv"), String.join("\n",
+                "resume701,https://example.com/resume/1",
+                "resume702,https://example.com/resume/2",
+                "resume703,https://example.com/resume/3",
+                "https://example.com/resume/4"), StandardCharsets.UTF_8);
+
+        importJobService.resumePendingJobs();
+        ImportJob job = waitFor(stopped.getId());
+
+        assertEquals(ImportJobState.COMPLETED, job.getState());
+        assertEquals(4, job.getRowsRead());
+        assertEquals(4, job.getRowsImported());
+        assertEquals(0, job.getRowsFailed());
+        assertEquals(4, countUrls(704L, null));
+        assertEquals(1, countUrls(704L, "https://example.com/resume/1"));
+    }
+
+    @Test
+    void resumedJobReportsEachFailedLineOnce() throws Exception {
+        // Se detuvo después de escribir en el reporte el rechazo de la linea 2, sin confirmar ese bloque
+        ImportJob stopped = importJobRepository.save(ImportJob.builder()
+                .userId(707L)
+                .fileName("resume-failures.csv")
+                .state(ImportJobState.RUNNING)
+                .rowsRead(1)
+                .rowsFailed(1)
+                .createdAt(LocalDateTime.now())
+                .startedAt(LocalDateTime.now())
+                .build());
+        Files.writeString(Path.of(directory, stopped.getId() + ".csv"), String.join("\n",
+                "first707,not-a-url",
+                "second707,not-a-url",
+                "third707,https://example.com/third"), StandardCharsets.UTF_8);
+        Files.writeString(Path.of(directory, stopped.getId() + ".failures.csv"), String.join("\n",
+                "line,slug,original_url,reason",
+                "1,first707,not-a-url,Invalid URL",
+                "2,second707,not-a-url,Invalid URL",
+                ""), StandardCharsets.UTF_8);
+
+        importJobService.resumePendingJobs();
+        ImportJob job = waitFor(stopped.getId());
+
+        assertEquals(ImportJobState.COMPLETED, job.getState());
+        assertEquals(2, job.getRowsFailed());
+        assertEquals(1, job.getRowsImported());
+        List<String> report = Files.readAllLines(importJobService.getFailureReport(job.getId(), 707L));
+        assertEquals(3, report.size(), String.join("\n", report));
+        assertTrue(report.get(1).startsWith("1,first707,"), report.get(1));
+        assertTrue(report.get(2).startsWith("2,second707,"), report.get(2));
+    }
+
+    private ImportJob importAndWait(Long userId, String... lines) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "urls.csv", "text/csv",
+                String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        ImportJobResponseDTO submitted = importJobService.submit(file, userId);
+        return waitFor(submitted.getJobIdResponse());
+    }
+
+    // El trabajo corre en segundo plano, se espera a que termine
+    private ImportJob waitFor(Long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ImportJob job = importJobRepository.findById(jobId).orElseThrow();
+            if (job.getState() == ImportJobState.COMPLETED || job.getState() == ImportJobState.FAILED) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        throw new IllegalStateException("Import job " + jobId + " did not finish");
+    }
+
+    private String originalUrl(String shortCode) {
+        return urlStore.findByShortCode(shortCode).orElseThrow().getOriginalUrl();
+    }
+
+    private long countUrls(Long userId, String originalUrl) {
+        return originalUrl == null
+                ? jdbcTemplate.queryForObject("SELECT COUNT(*) FROM urls WHERE user_id = ?", Long.class, userId)
+                : jdbcTemplate.queryForObject("SELECT COUNT(*) FROM urls WHERE user_id = ? AND original_url = ?",
+                        Long.class, userId, originalUrl);
+    }
+}
@@ -0,0 +1,103 @@
+package com.bryam.urlshortener.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+//Envuelve el DataSource de la aplicación para registrar las sentencias SQL que ejecuta cada llamada
+//Solo se registran las sentencias del hilo que llama a record, las tareas programadas no se mezclan
+//Un lote de executeBatch cuenta como una sola sentencia, es un solo viaje a la base de datos
+@TestConfiguration(proxyBeanMethods = false)
+public class SqlStatementRecorder {
+
+    private static final ThreadLocal<List<String>> RECORDING = new ThreadLocal<>();
+
+    // Sentencias ejecutadas por la acción en el hilo actual, en orden
+    public static List<String> record(Runnable action) {
+        List<String> statements = new ArrayList<>();
+        List<String> previous = RECORDING.get();
+        RECORDING.set(statements);
+        try {
+            action.run();
+        } finally {
+            RECORDING.set(previous);
+        }
+        return statements;
+    }
+
+    // El bean dataSource es el exterior en todas las configuraciones, con réplicas o particiones envuelve al ruteo
+    @Bean
+    static BeanPostProcessor statementRecordingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return proxy(DataSource.class, dataSource, null);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, String sql) {
+        return (T) Proxy.newProxyInstance(SqlStatementRecorder.class.getClassLoader(), new Class<?>[] { type },
+                new Recorder(target, sql));
+    }
+
+    // Las conexiones y sentencias que se obtienen a través del proxy también se envuelven
+    private record Recorder(Object target, String sql) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                recordStatement(name, args);
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, statement, null);
+            }
+            if (result instanceof Connection connection) {
+                return proxy(Connection.class, connection, null);
+            }
+            return result;
+        }
+
+        private void recordStatement(String method, Object[] args) {
+            List<String> statements = RECORDING.get();
+            if (statements == null) {
+                return;
+            }
+            // Las sentencias simples reciben el SQL en execute, las preparadas lo recibieron al crearse
+            String statement = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+            statements.add("executeBatch".equals(method) ? "[batch] " + statement : statement);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.bryam.urlshortener.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.bryam.urlshortener.dto.request.ShortenUrlRequestDTO;
+import com.bryam.urlshortener.dto.response.ShortenUrlResponseDTO;
+import com.bryam.urlshortener.exception.CodeExistsException;
+import com.bryam.urlshortener.exception.UrlExpiredException;
+import com.bryam.urlshortener.repository.UrlRepository;
+
+//Archivado de urls frías con INSERT ... SELECT y su regreso a la tabla urls
+//El archivado recorre toda la tabla, las pruebas solo revisan sus propias urls
+@SpringBootTest
+@ActiveProfiles("test")
+class UrlArchiveServiceTest {
+
+    @Autowired
+    private UrlArchiveService urlArchiveService;
+
+    @Autowired
+    private UrlService urlService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private UrlRepository urlRepository;
+
+    @Test
+    void movesDeletedAndLongExpiredUrlsWithTheirCounters() {
+        String deleted = shortenAnonymous("https://example.com/archive/deleted", "100.64.36.1");
+        String expired = shortenAnonymous("https://example.com/archive/expired", "100.64.36.2");
+        String recentlyExpired = shortenAnonymous("https://example.com/archive/recent", "100.64.36.3");
+        String active = shortenAnonymous("https://example.com/archive/active", "100.64.36.4");
+        jdbcTemplate.update("UPDATE urls SET state_url = 'DELETED', counter_clicks_total = 7 WHERE short_code = ?",
+                deleted);
+        expire(expired, 30);
+        expire(recentlyExpired, 1);
+        Map<String, Object> before = urlRow(expired);
+
+        urlArchiveService.archiveColdUrls();
+
+        assertEquals(0, countIn("urls", deleted));
+        assertEquals(0, countIn("urls", expired));
+        assertEquals(1, countIn("urls_archive", deleted));
+        assertEquals(1, countIn("urls_archive", expired));
+        assertEquals(1, countIn("urls", recentlyExpired));
+        assertEquals(1, countIn("urls", active));
+
+        // La copia conserva el id, el hash y los contadores
+        Map<String, Object> archived = jdbcTemplate.queryForMap(
+                "SELECT * FROM urls_archive WHERE short_code = ?", expired);
+        for (String column : new String[] { "ID", "FULL_HASH", "ORIGINAL_URL", "COUNTER_CLICKS_TOTAL",
+                "TIMES_REACTIVATED", "EXPIRATION_DATE" }) {
+            assertEquals(before.get(column), archived.get(column), column);
+        }
+        assertEquals(7L, ((Number) jdbcTemplate.queryForObject(
+                "SELECT counter_clicks_total FROM urls_archive WHERE short_code = ?", Object.class, deleted))
+                .longValue());
+    }
+
+    @Test
+    void batchIsRolledBackWhenCopiedAndDeletedRowsDiffer() {
+        String code = shortenAnonymous("https://example.com/archive/mismatch", "100.64.36.5");
+        jdbcTemplate.update("UPDATE urls SET state_url = 'DELETED' WHERE short_code = ?", code);
+
+        // El DELETE no encuentra filas, como si las urls cambiaran de estado después de la copia
+        doReturn(0).when(urlRepository).deleteArchivedByIds(anyList(), anyString(), anyString(), any());
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> urlArchiveService.archiveColdUrls());
+
+        assertTrue(error.getMessage().startsWith("Archive batch mismatch"), error.getMessage());
+        assertEquals(1, countIn("urls", code));
+        assertEquals(0, countIn("urls_archive", code));
+    }
+
+    @Test
+    void anonymousReshortenRestoresAnArchivedExpiredUrl() {
+        String originalUrl = "https://example.com/archive/restore";
+        String code = shortenAnonymous(originalUrl, "100.64.36.6");
+        Map<String, Object> before = urlRow(code);
+        jdbcTemplate.update("UPDATE urls SET counter_clicks_total = 12 WHERE short_code = ?", code);
+        LocalDateTime expiration = expire(code, 30);
+        urlArchiveService.archiveColdUrls();
+        assertEquals(1, countIn("urls_archive", code));
+
+        // Mientras esta archivada la redirección responde que expiró, con la fecha separada del mensaje
+        UrlExpiredException error = assertThrows(UrlExpiredException.class,
+                () -> urlService.getUrlForRedirection(code, browserRequest("100.64.36.7")));
+        assertEquals("This link expired on " + expiration.toLocalDate(), error.getMessage());
+
+        ShortenUrlResponseDTO restored = urlService.shortenAnonymousUrl(ShortenUrlRequestDTO.builder()
+                .originalUrlRequest(originalUrl)
+                .build(), browserRequest("100.64.36.6"));
+
+        assertEquals(code, restored.getUrlCodeResponse());
+        assertEquals(1, restored.getTimesReactivatedResponse());
+        assertEquals(0, countIn("urls_archive", code));
+        Map<String, Object> after = urlRow(code);
+        assertEquals(before.get("ID"), after.get("ID"));
+        assertEquals("ACTIVE", after.get("STATE_URL"));
+        assertEquals(12L, ((Number) after.get("COUNTER_CLICKS_TOTAL")).longValue());
+    }
+
+    @Test
+    void anonymousReshortenOfAnArchivedDeletedUrlIsRejected() {
+        String originalUrl = "https://example.com/archive/removed";
+        String code = shortenAnonymous(originalUrl, "100.64.36.8");
+        jdbcTemplate.update("UPDATE urls SET state_url = 'DELETED' WHERE short_code = ?", code);
+        urlArchiveService.archiveColdUrls();
+
+        assertThrows(CodeExistsException.class, () -> shortenAnonymous(originalUrl, "100.64.36.8"));
+        assertEquals(0, countIn("urls", code));
+        assertEquals(1, countIn("urls_archive", code));
+    }
+
+    private LocalDateTime expire(String code, int daysAgo) {
+        LocalDateTime expiration = LocalDateTime.now().minusDays(daysAgo).withNano(0);
+        jdbcTemplate.update("UPDATE urls SET state_url = 'EXPIRED', expiration_date = ? WHERE short_code = ?",
+                expiration, code);
+        return expiration;
+    }
+
+    private Map<String, Object> urlRow(String code) {
+        return jdbcTemplate.queryForMap("SELECT * FROM urls WHERE short_code = ?", code);
+    }
+
+    private int countIn(String table, String code) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE short_code = ?",
+                Integer.class, code);
+    }
+
+    private String shortenAnonymous(String originalUrl, String ip) {
+        return urlService.shortenAnonymousUrl(ShortenUrlRequestDTO.builder()
+                .originalUrlRequest(originalUrl)
+                .build(), browserRequest(ip)).getUrlCodeResponse();
+    }
+
+    private static MockHttpServletRequest browserRequest(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(ip);
+        request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/120.0 Safari/537.36");
+        return request;
+    }
+}
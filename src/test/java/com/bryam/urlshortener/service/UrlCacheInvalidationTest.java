@@ -0,0 +1,130 @@
+package com.bryam.urlshortener.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bryam.urlshortener.dto.request.ShortenUrlRequestDTO;
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.store.UrlStore;
+
+//Cada escritura que cambia lo que ve la redirección saca la url de la cache de segundo nivel,
+//la siguiente búsqueda por código ya la ve cambiada
+//La compactación de clicks no la saca, la redirección sigue sin ir a la base de datos
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(SqlStatementRecorder.class)
+class UrlCacheInvalidationTest {
+
+    @Autowired
+    private UrlService urlService;
+
+    @Autowired
+    private UrlArchiveService urlArchiveService;
+
+    @Autowired
+    private UrlStore urlStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compactionKeepsTheUrlCached() {
+        String code = shortenRegistered(4001L, "https://example.com/cache/compaction");
+        Url url = cachedLookup(code);
+
+        transactionTemplate.executeWithoutResult(status -> urlStore.addClicks(Map.of(url.getId(), 5), Map.of()));
+
+        List<String> statements = SqlStatementRecorder.record(() -> urlStore.findByShortCode(code).orElseThrow());
+        assertTrue(statements.isEmpty(), () -> String.join("\n", statements));
+        // Las estadísticas leen los contadores de la tabla, no de la cache
+        assertEquals(5, urlService.getUrlStatistics(code, 4001L).getCounterClicksTotalResponse());
+    }
+
+    @Test
+    void updateIsVisibleToTheNextLookup() {
+        String code = shortenRegistered(4002L, "https://example.com/cache/update");
+        cachedLookup(code);
+
+        urlService.updateDestinationUrl(code, "https://example.com/cache/updated", 4002L);
+
+        assertEquals("https://example.com/cache/updated", lookup(code).getOriginalUrl());
+    }
+
+    @Test
+    void deleteIsVisibleToTheNextLookup() {
+        String code = shortenRegistered(4003L, "https://example.com/cache/delete");
+        cachedLookup(code);
+
+        urlService.deleteUrl(code, 4003L);
+
+        assertEquals(StateUrl.DELETED, lookup(code).getStateUrl());
+    }
+
+    @Test
+    void expireAndReactivateAreVisibleToTheNextLookup() {
+        String originalUrl = "https://example.com/cache/reactivate";
+        String code = shortenAnonymous(originalUrl, "100.64.40.1");
+        Url url = cachedLookup(code);
+
+        // El barrido corre después de la fecha de expiración
+        LocalDateTime sweep = url.getExpirationDateTime().plusMinutes(1);
+        Integer expired = transactionTemplate.execute(status -> urlStore.expireByIds(List.of(url.getId()), sweep));
+        assertEquals(1, expired);
+        assertEquals(StateUrl.EXPIRED, cachedLookup(code).getStateUrl());
+
+        shortenAnonymous(originalUrl, "100.64.40.1");
+
+        Url reactivated = lookup(code);
+        assertEquals(StateUrl.ACTIVE, reactivated.getStateUrl());
+        assertEquals(1, reactivated.getTimesReactivated());
+    }
+
+    @Test
+    void archiveIsVisibleToTheNextLookup() {
+        String code = shortenRegistered(4004L, "https://example.com/cache/archive");
+        urlService.deleteUrl(code, 4004L);
+        assertEquals(StateUrl.DELETED, cachedLookup(code).getStateUrl());
+
+        urlArchiveService.archiveColdUrls();
+
+        assertTrue(urlStore.findByShortCode(code).isEmpty());
+    }
+
+    // Dos búsquedas, la segunda ya se resuelve con la cache
+    private Url cachedLookup(String code) {
+        lookup(code);
+        return lookup(code);
+    }
+
+    private Url lookup(String code) {
+        return urlStore.findByShortCode(code).orElseThrow();
+    }
+
+    private String shortenRegistered(Long userId, String originalUrl) {
+        return urlService.shortenRegisteredUrl(ShortenUrlRequestDTO.builder()
+                .originalUrlRequest(originalUrl)
+                .build(), userId).getUrlCodeResponse();
+    }
+
+    private String shortenAnonymous(String originalUrl, String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(ip);
+        request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/120.0 Safari/537.36");
+        return urlService.shortenAnonymousUrl(ShortenUrlRequestDTO.builder()
+                .originalUrlRequest(originalUrl)
+                .build(), request).getUrlCodeResponse();
+    }
+}
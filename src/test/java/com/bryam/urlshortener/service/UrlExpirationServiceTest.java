@@ -0,0 +1,94 @@
+package com.bryam.urlshortener.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.bryam.urlshortener.dto.request.ShortenUrlRequestDTO;
+import com.bryam.urlshortener.store.UrlStore;
+
+//Barrido de urls anónimas vencidas por bloques acotados y avanzando por id
+//Bloques de dos urls y dos bloques por ejecución, la tarea programada no corre durante las pruebas
+@SpringBootTest(properties = { "app.expiration.sweep.batch-size=2", "app.expiration.sweep.max-batches=2",
+        "app.expiration.sweep.interval-ms=3600000" })
+@ActiveProfiles("test")
+class UrlExpirationServiceTest {
+
+    @Autowired
+    private UrlExpirationService urlExpirationService;
+
+    @Autowired
+    private UrlService urlService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private UrlStore urlStore;
+
+    @Test
+    void eachRunIsBoundedAndMovesPastTheLastId() {
+        List<String> due = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            due.add(shortenAnonymous("https://example.com/expiration/due/" + i, "100.64.26." + i));
+        }
+        String notDue = shortenAnonymous("https://example.com/expiration/not-due", "100.64.26.6");
+        for (String code : due) {
+            jdbcTemplate.update("UPDATE urls SET expiration_date = ? WHERE short_code = ?",
+                    LocalDateTime.now().minusHours(1), code);
+        }
+        clearInvocations(urlStore);
+
+        // Dos bloques de dos, la quinta url queda para la siguiente ejecución
+        assertEquals(4, urlExpirationService.expireAnonymousUrls());
+        ArgumentCaptor<Long> lastIds = ArgumentCaptor.forClass(Long.class);
+        verify(urlStore, times(2)).findIdsToExpire(any(LocalDateTime.class), lastIds.capture(), eq(2));
+        assertEquals(List.of(0L, idOf(due.get(1))), lastIds.getAllValues());
+        assertEquals("ACTIVE", stateOf(due.get(4)));
+
+        assertEquals(1, urlExpirationService.expireAnonymousUrls());
+        assertEquals(0, urlExpirationService.expireAnonymousUrls());
+
+        for (String code : due) {
+            assertEquals("EXPIRED", stateOf(code));
+        }
+        assertEquals("ACTIVE", stateOf(notDue));
+    }
+
+    private long idOf(String code) {
+        return jdbcTemplate.queryForObject("SELECT id FROM urls WHERE short_code = ?", Long.class, code);
+    }
+
+    private String stateOf(String code) {
+        return jdbcTemplate.queryForObject("SELECT state_url FROM urls WHERE short_code = ?", String.class, code);
+    }
+
+    private String shortenAnonymous(String originalUrl, String ip) {
+        return urlService.shortenAnonymousUrl(ShortenUrlRequestDTO.builder()
+                .originalUrlRequest(originalUrl)
+                .build(), browserRequest(ip)).getUrlCodeResponse();
+    }
+
+    private static MockHttpServletRequest browserRequest(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(ip);
+        request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/120.0 Safari/537.36");
+        return request;
+    }
+}
@@ -0,0 +1,130 @@
+package com.bryam.urlshortener.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.ExportFormat;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.store.UrlStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//Exportación masiva de urls: formato de cada fila, reanudación por id y descarga comprimida
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.admin.token=" + UrlExportServiceTest.ADMIN_TOKEN)
+@ActiveProfiles("test")
+class UrlExportServiceTest {
+
+    static final String ADMIN_TOKEN = "export-admin-token";
+
+    @Autowired
+    private UrlExportService urlExportService;
+
+    @Autowired
+    private UrlStore urlStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void csvQuotesCommasQuotesAndLineBreaks() throws IOException {
+        Url url = registered(801L, "export801", "https://example.com/a,b?q=\"x\"\nnext");
+
+        List<String> lines = export(ExportFormat.CSV, url.getId() - 1);
+
+        assertEquals(2, lines.size(), String.join("\n", lines));
+        assertTrue(lines.get(0).startsWith("id,short_code,original_url,"), lines.get(0));
+        // El salto de linea queda dentro de las comillas, la fila ocupa dos lineas del archivo
+        assertEquals(url.getId() + ",export801,\"https://example.com/a,b?q=\"\"x\"\"\nnext\",REGISTERED,ACTIVE,",
+                lines.get(1).substring(0, lines.get(1).indexOf("ACTIVE,") + "ACTIVE,".length()));
+    }
+
+    @Test
+    void ndjsonResumesAfterTheLastExportedId() throws IOException {
+        Url first = registered(802L, "export802a", "https://example.com/first");
+        Url second = registered(802L, "export802b", "https://example.com/second");
+        Url third = registered(802L, "export802c", "https://example.com/third");
+
+        List<String> lines = export(ExportFormat.NDJSON, first.getId());
+
+        // Solo las filas después del cursor, en orden de id y sin repetir la del cursor
+        assertEquals(2, lines.size(), String.join("\n", lines));
+        JsonNode resumed = objectMapper.readTree(lines.get(0));
+        assertEquals(second.getId(), resumed.get("id").asLong());
+        assertEquals("export802b", resumed.get("shortCode").asText());
+        assertEquals("https://example.com/second", resumed.get("originalUrl").asText());
+        assertEquals(802L, resumed.get("userId").asLong());
+        assertEquals(third.getId(), objectMapper.readTree(lines.get(1)).get("id").asLong());
+    }
+
+    @Test
+    void adminEndpointStreamsAGzipFile() throws IOException {
+        Url url = registered(803L, "export803", "https://example.com/download");
+
+        ResponseEntity<byte[]> response = download(ADMIN_TOKEN, url.getId() - 1);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/gzip", response.getHeaders().getContentType().toString());
+        assertTrue(response.getHeaders().getContentDisposition().getFilename()
+                .endsWith("-after-" + (url.getId() - 1) + ".csv.gz"));
+
+        String csv;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            csv = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> lines = csv.lines().toList();
+        assertEquals(2, lines.size(), csv);
+        assertTrue(lines.get(1).startsWith(url.getId() + ",export803,https://example.com/download,"), lines.get(1));
+    }
+
+    @Test
+    void adminEndpointRequiresTheToken() {
+        assertEquals(HttpStatus.FORBIDDEN, download("wrong-token", 0L).getStatusCode());
+    }
+
+    private Url registered(Long userId, String shortCode, String originalUrl) {
+        return urlStore.create(Url.builder()
+                .shortCode(shortCode)
+                .originalUrl(originalUrl)
+                .typeUrl(TypeUrl.REGISTERED)
+                .userId(userId)
+                .build());
+    }
+
+    // Filas del archivo, un salto de linea dentro de comillas separa la fila en dos lineas
+    private List<String> export(ExportFormat format, Long afterId) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        urlExportService.exportUrls(format, afterId, output);
+        String text = output.toString(StandardCharsets.UTF_8);
+        return format == ExportFormat.CSV ? List.of(text.split("\n(?=\\d+,|$)")) : text.lines().toList();
+    }
+
+    private ResponseEntity<byte[]> download(String token, Long afterId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Admin-Token", token);
+        return restTemplate.exchange("/api/admin/export?format=CSV&afterId=" + afterId, HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class);
+    }
+}
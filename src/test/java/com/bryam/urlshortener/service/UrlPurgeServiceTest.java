@@ -0,0 +1,176 @@
+package com.bryam.urlshortener.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.repository.UrlArchiveRepository;
+import com.bryam.urlshortener.repository.UrlClickCounterRepository;
+import com.bryam.urlshortener.service.impl.UrlPurgeServiceImpl;
+
+//Purga física de urls archivadas: bloques acotados, simulación, punto de control y regulador adaptativo
+//Bloques de 2 a 4 urls y una latencia objetivo alta, así solo el DELETE que se demora a propósito reduce el bloque
+@SpringBootTest(properties = { "app.purge.cron=-", "app.purge.min-batch-size=2", "app.purge.max-batch-size=4",
+        "app.purge.target-latency-ms=1000", "app.purge.min-pause-ms=1", "app.purge.max-pause-ms=4" })
+@ActiveProfiles("test")
+class UrlPurgeServiceTest {
+
+    private static final String JOB_NAME = "url-purge";
+
+    @Autowired
+    private UrlPurgeServiceImpl urlPurgeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private UrlArchiveRepository urlArchiveRepository;
+
+    @MockitoSpyBean
+    private UrlClickCounterRepository clickCounterRepository;
+
+    @BeforeEach
+    void clearArchive() {
+        jdbcTemplate.update("DELETE FROM urls_archive");
+        jdbcTemplate.update("DELETE FROM job_checkpoints WHERE name = ?", JOB_NAME);
+    }
+
+    @Test
+    void purgesOnlyDeadUrlsInGrowingBatches() {
+        for (long id = 101; id <= 107; id++) {
+            archive(id, StateUrl.EXPIRED, 100, 0);
+        }
+        // Vencida hace menos de 90 días pero con pocos clicks
+        archive(108, StateUrl.EXPIRED, 40, 2);
+        archive(109, StateUrl.EXPIRED, 40, 10);
+        archive(110, StateUrl.EXPIRED, 5, 0);
+        archive(111, StateUrl.DELETED, 100, 0);
+
+        assertEquals(8, urlPurgeService.purgeDeadUrls());
+
+        assertEquals(List.of(109L, 110L, 111L),
+                jdbcTemplate.queryForList("SELECT id FROM urls_archive ORDER BY id", Long.class));
+        // Cada DELETE rápido agranda el bloque hasta el máximo, y cada bloque sigue después del anterior
+        assertEquals(List.of(0L, 102L, 105L, 108L), purgeQueries().lastIds());
+        assertEquals(List.of(2, 3, 4, 4), purgeQueries().limits());
+    }
+
+    @Test
+    void slowDeleteShrinksTheBatch() {
+        for (long id = 201; id <= 212; id++) {
+            archive(id, StateUrl.EXPIRED, 100, 0);
+        }
+        // El tercer bloque tarda mas que la latencia objetivo, las urls de la prueba no tienen contadores
+        AtomicInteger deletes = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (deletes.incrementAndGet() == 3) {
+                Thread.sleep(1100);
+            }
+            return 0;
+        }).when(clickCounterRepository).deleteByUrlIds(anyList());
+
+        assertEquals(12, urlPurgeService.purgeDeadUrls());
+
+        assertEquals(List.of(2, 3, 4, 2, 3, 4), purgeQueries().limits());
+    }
+
+    @Test
+    void dryRunCountsWithoutDeletingOrMovingTheCheckpoint() {
+        for (long id = 301; id <= 305; id++) {
+            archive(id, StateUrl.EXPIRED, 100, 0);
+        }
+        saveCheckpoint(303);
+
+        ReflectionTestUtils.setField(urlPurgeService, "dryRun", true);
+        try {
+            // La simulación recorre toda la tabla sin importar el punto de control
+            assertEquals(5, urlPurgeService.purgeDeadUrls());
+        } finally {
+            ReflectionTestUtils.setField(urlPurgeService, "dryRun", false);
+        }
+
+        assertEquals(5, countArchived());
+        assertEquals(303, checkpoint());
+    }
+
+    @Test
+    void interruptedRunIsResumedFromTheCheckpoint() {
+        for (long id = 401; id <= 406; id++) {
+            archive(id, StateUrl.EXPIRED, 100, 0);
+        }
+
+        // La pausa después del primer bloque se interrumpe, el progreso queda guardado
+        Thread.currentThread().interrupt();
+        try {
+            assertEquals(2, urlPurgeService.purgeDeadUrls());
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(402, checkpoint());
+
+        // Las urls anteriores al punto de control que vuelvan a cumplir la condición esperan a la siguiente vuelta
+        archive(400, StateUrl.EXPIRED, 100, 0);
+        assertEquals(4, urlPurgeService.purgeDeadUrls());
+        assertEquals(List.of(400L), jdbcTemplate.queryForList("SELECT id FROM urls_archive", Long.class));
+        // Al terminar la tabla la siguiente ejecución empieza desde el principio
+        assertEquals(0, checkpoint());
+
+        assertEquals(1, urlPurgeService.purgeDeadUrls());
+        assertEquals(0, countArchived());
+    }
+
+    private PurgeQueries purgeQueries() {
+        ArgumentCaptor<Long> lastIds = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Limit> limits = ArgumentCaptor.forClass(Limit.class);
+        verify(urlArchiveRepository, atLeastOnce()).findIdsToPurge(any(), any(), any(),
+                anyInt(), lastIds.capture(), limits.capture());
+        return new PurgeQueries(lastIds.getAllValues(),
+                limits.getAllValues().stream().map(Limit::max).toList());
+    }
+
+    private void archive(long id, StateUrl state, int expiredDaysAgo, int clicks) {
+        LocalDateTime expiration = LocalDateTime.now().minusDays(expiredDaysAgo);
+        jdbcTemplate.update("INSERT INTO urls_archive (id, short_code, original_url, type_url, state_url, "
+                + "creation_date, expiration_date, counter_clicks_total, is_perzonalized, archived_at) "
+                + "VALUES (?, ?, ?, 'ANONYMOUS', ?, ?, ?, ?, FALSE, ?)",
+                id, "purge" + id, "https://example.com/purge/" + id, state.name(), expiration.minusDays(7),
+                expiration, clicks, LocalDateTime.now());
+    }
+
+    private void saveCheckpoint(long lastId) {
+        jdbcTemplate.update("INSERT INTO job_checkpoints (name, last_id, updated_at) VALUES (?, ?, ?)",
+                JOB_NAME, lastId, LocalDateTime.now());
+    }
+
+    private long checkpoint() {
+        return jdbcTemplate.queryForObject("SELECT last_id FROM job_checkpoints WHERE name = ?", Long.class,
+                JOB_NAME);
+    }
+
+    private long countArchived() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM urls_archive", Long.class);
+    }
+
+    private record PurgeQueries(List<Long> lastIds, List<Integer> limits) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.bryam.urlshortener.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bryam.urlshortener.dto.request.ShortenUrlRequestDTO;
+import com.bryam.urlshortener.dto.response.ShortenUrlResponseDTO;
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.store.UrlStore;
+import com.bryam.urlshortener.util.HashUtil;
+
+//Cantidad máxima de sentencias SQL por llamada a los servicios de urls
+//Una consulta de mas en el camino de una petición hace fallar la compilación, el mensaje lista las sentencias
+//Se cuentan lecturas y escrituras del hilo de la llamada, las tareas programadas no entran en la cuenta
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(SqlStatementRecorder.class)
+class UrlServiceStatementCountTest {
+
+    @Autowired
+    private UrlService urlService;
+
+    @Autowired
+    private ValidatorUrlService validatorUrlService;
+
+    @Autowired
+    private UrlStore urlStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void redirectWithAWarmCacheOnlyWritesTheClickCounter() {
+        String code = shortenRegistered(901L, "https://example.com/count/redirect", null).getUrlCodeResponse();
+        MockHttpServletRequest request = browserRequest("100.64.9.1");
+        urlService.getUrlForRedirection(code, request);
+
+        List<String> statements = assertStatements(1, () -> urlService.getUrlForRedirection(code, request));
+        assertTrue(statements.get(0).contains("url_click_counters"), statements.get(0));
+    }
+
+    @Test
+    void anonymousShortenOfANewUrl() {
+        // Hash en las dos tablas, códigos candidatos en las dos tablas y el INSERT
+        assertStatements(5, () -> shortenAnonymous("https://example.com/count/new", "100.64.9.2"));
+    }
+
+    @Test
+    void anonymousShortenWithCollisionsChecksEveryLengthAtOnce() {
+        String originalUrl = "https://example.com/count/collision";
+        String fullHash = HashUtil.generateHash(validatorUrlService.normalizeUrl(originalUrl));
+        for (int length = 7; length <= 9; length++) {
+            urlStore.create(Url.builder()
+                    .shortCode(HashUtil.extractCode(fullHash, length))
+                    .originalUrl("https://example.com/count/taken/" + length)
+                    .typeUrl(TypeUrl.REGISTERED)
+                    .userId(902L)
+                    .build());
+        }
+
+        AtomicReference<ShortenUrlResponseDTO> created = new AtomicReference<>();
+        assertStatements(5, () -> created.set(shortenAnonymous(originalUrl, "100.64.9.3")));
+        assertEquals(HashUtil.extractCode(fullHash, 10), created.get().getUrlCodeResponse());
+    }
+
+    @Test
+    void anonymousShortenOfAnActiveUrlReusesItWithOneQuery() {
+        String originalUrl = "https://example.com/count/reuse";
+        shortenAnonymous(originalUrl, "100.64.9.4");
+
+        assertStatements(1, () -> shortenAnonymous(originalUrl, "100.64.9.4"));
+    }
+
+    @Test
+    void anonymousShortenOfAnExpiredUrlOnlyUpdatesTheReactivatedColumns() {
+        String originalUrl = "https://example.com/count/reactivate";
+        String code = shortenAnonymous(originalUrl, "100.64.9.5").getUrlCodeResponse();
+        jdbcTemplate.update("UPDATE urls SET state_url = 'EXPIRED' WHERE short_code = ?", code);
+
+        // Búsqueda por hash y la actualización, sin volver a leer ni guardar la entidad completa
+        AtomicReference<ShortenUrlResponseDTO> reactivated = new AtomicReference<>();
+        assertStatements(2, () -> reactivated.set(shortenAnonymous(originalUrl, "100.64.9.5")));
+        assertEquals(1, reactivated.get().getTimesReactivatedResponse());
+    }
+
+    @Test
+    void registeredShortenWithAGeneratedCode() {
+        // Limite diario, el INSERT y el código calculado con el id asignado
+        assertStatements(3, () -> shortenRegistered(903L, "https://example.com/count/generated", null));
+    }
+
+    @Test
+    void registeredShortenWithACustomSlug() {
+        // Limite diario, el slug en las dos tablas y el INSERT
+        assertStatements(4, () -> shortenRegistered(904L, "https://example.com/count/slug", "count904"));
+    }
+
+    @Test
+    void ownerOperations() {
+        String code = shortenRegistered(905L, "https://example.com/count/owner", null).getUrlCodeResponse();
+
+        // Contadores compactados, clicks pendientes y visitantes únicos
+        assertStatements(3, () -> urlService.getUrlStatistics(code, 905L));
+        assertStatements(1, () -> urlService.streamUserUrls(905L, null, 20, url -> { }));
+        // Dueño de la url y la escritura, la url se vuelve a leer si una escritura anterior la sacó de la cache
+        assertStatements(2, () -> urlService.updateDestinationUrl(code, "https://example.com/count/moved", 905L));
+        assertStatements(2, () -> urlService.deleteUrl(code, 905L));
+        assertEquals(StateUrl.DELETED, urlStore.findByShortCode(code).orElseThrow().getStateUrl());
+    }
+
+    private static List<String> assertStatements(int max, Runnable action) {
+        List<String> statements = SqlStatementRecorder.record(action);
+        assertTrue(statements.size() <= max, () -> "Expected at most " + max + " SQL statements but "
+                + statements.size() + " were executed:\n" + String.join("\n", statements));
+        return statements;
+    }
+
+    private ShortenUrlResponseDTO shortenAnonymous(String originalUrl, String ip) {
+        return urlService.shortenAnonymousUrl(ShortenUrlRequestDTO.builder()
+                .originalUrlRequest(originalUrl)
+                .build(), browserRequest(ip));
+    }
+
+    private ShortenUrlResponseDTO shortenRegistered(Long userId, String originalUrl, String customSlug) {
+        return urlService.shortenRegisteredUrl(ShortenUrlRequestDTO.builder()
+                .originalUrlRequest(originalUrl)
+                .customSlugRequest(customSlug)
+                .build(), userId);
+    }
+
+    private static MockHttpServletRequest browserRequest(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(ip);
+        request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/120.0 Safari/537.36");
+        return request;
+    }
+}
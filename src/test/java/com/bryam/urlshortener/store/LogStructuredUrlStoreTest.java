@@ -0,0 +1,227 @@
+package com.bryam.urlshortener.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.FsyncPolicy;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.repository.projection.UrlExportProjection;
+import com.bryam.urlshortener.repository.projection.UrlSummaryProjection;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LogStructuredUrlStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private LogStructuredUrlStore store;
+
+    @AfterEach
+    void close() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    void createsAndFindsByEveryIndex() throws IOException {
+        store = open();
+
+        Url anonymous = store.create(anonymous("hash-a", "https://example.com/a"));
+        Url registered = store.create(registered(7L, null, "https://example.com/b"), id -> "b62-" + id);
+
+        assertEquals(1L, anonymous.getId());
+        assertEquals("b62-2", registered.getShortCode());
+        assertEquals("https://example.com/a", store.findByFullHash("hash-a").orElseThrow().getOriginalUrl());
+        assertEquals("https://example.com/b", store.findById(2L).orElseThrow().getOriginalUrl());
+        assertEquals(StateUrl.ACTIVE, store.findByShortCode("b62-2").orElseThrow().getStateUrl());
+        assertEquals(2L, store.findIdByShortCodeAndUserId("b62-2", 7L).orElseThrow());
+        assertTrue(store.findIdByShortCodeAndUserId("b62-2", 8L).isEmpty());
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> store.create(registered(7L, "b62-2", "https://example.com/c")));
+    }
+
+    @Test
+    void createsABlockOnlyWhenEveryCodeIsFree() throws IOException {
+        store = open();
+        store.create(registered(7L, "taken", "https://example.com/a"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> store.createAll(List.of(
+                registered(7L, "free", "https://example.com/b"),
+                registered(7L, "taken", "https://example.com/c")), id -> "b62-" + id));
+        assertTrue(store.findByShortCode("free").isEmpty());
+
+        List<Url> created = store.createAll(List.of(
+                registered(7L, "free", "https://example.com/b"),
+                registered(7L, null, "https://example.com/c")), id -> "b62-" + id);
+        assertEquals(List.of("free", "b62-3"), created.stream().map(Url::getShortCode).toList());
+        assertEquals(Set.of("taken", "free"),
+                store.findExistingShortCodes(List.of("taken", "free", "other")));
+    }
+
+    @Test
+    void conditionalUpdatesOnlyApplyOnce() throws IOException {
+        store = open();
+        Url url = store.create(registered(7L, "mine", "https://example.com/a"));
+
+        assertFalse(store.markDeleted(url.getId(), 8L));
+        assertTrue(store.updateOriginalUrl(url.getId(), 7L, "https://example.com/new"));
+        assertTrue(store.markDeleted(url.getId(), 7L));
+        assertFalse(store.markDeleted(url.getId(), 7L));
+        assertFalse(store.updateOriginalUrl(url.getId(), 7L, "https://example.com/late"));
+
+        Url stored = store.findByShortCode("mine").orElseThrow();
+        assertEquals(StateUrl.DELETED, stored.getStateUrl());
+        assertEquals("https://example.com/new", stored.getOriginalUrl());
+    }
+
+    @Test
+    void expiresAndReactivatesAnonymousUrls() throws IOException {
+        store = open();
+        LocalDateTime now = LocalDateTime.now();
+        Url expired = store.create(anonymous("hash-a", "https://example.com/a").toBuilder()
+                .expirationDateTime(now.minusDays(1)).build());
+        store.create(anonymous("hash-b", "https://example.com/b").toBuilder()
+                .expirationDateTime(now.plusDays(1)).build());
+
+        List<Long> ids = store.findIdsToExpire(now, 0L, 10);
+        assertEquals(List.of(expired.getId()), ids);
+        assertEquals(1, store.expireByIds(ids, now));
+        assertEquals(0, store.expireByIds(ids, now));
+
+        assertTrue(store.reactivateExpired(expired.getId(), now, now.plusDays(30)));
+        assertFalse(store.reactivateExpired(expired.getId(), now, now.plusDays(30)));
+        assertEquals(1, store.findByShortCode("hash-a").orElseThrow().getTimesReactivated());
+    }
+
+    @Test
+    void pagesUserUrlsNewestFirst() throws IOException {
+        store = open();
+        for (int i = 0; i < 5; i++) {
+            store.create(registered(7L, "u" + i, "https://example.com/" + i));
+        }
+        store.create(registered(8L, "other", "https://example.com/other"));
+
+        List<UrlSummaryProjection> first = store.streamUserUrls(7L, null, null, 3).toList();
+        UrlSummaryProjection last = first.get(first.size() - 1);
+        List<UrlSummaryProjection> second = store
+                .streamUserUrls(7L, last.creationDateTime(), last.id(), 3).toList();
+
+        assertEquals(List.of("u4", "u3", "u2"), first.stream().map(UrlSummaryProjection::shortCode).toList());
+        assertEquals(List.of("u1", "u0"), second.stream().map(UrlSummaryProjection::shortCode).toList());
+        assertEquals(5, store.countByUserIdCreatedAfter(7L, LocalDateTime.now().minusMinutes(1)));
+    }
+
+    @Test
+    void streamsEveryUrlInIdOrderAfterTheCursor() throws IOException {
+        store = open();
+        for (int i = 0; i < 5; i++) {
+            store.create(registered((long) (i % 2), "e" + i, "https://example.com/" + i));
+        }
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L),
+                store.streamAll(0L).map(UrlExportProjection::id).toList());
+        assertEquals(List.of("e3", "e4"),
+                store.streamAll(3L).map(UrlExportProjection::shortCode).toList());
+    }
+
+    @Test
+    void recoversTheIndexAndDropsATornTail() throws IOException {
+        store = open();
+        Url url = store.create(registered(7L, "keep", "https://example.com/a"));
+        store.addClicks(Map.of(url.getId(), 3), Map.of(url.getId(), 1));
+        store.close();
+
+        // Un registro a medio escribir al final del archivo, como tras una caída
+        try (FileChannel channel = FileChannel.open(directory.resolve(LogStructuredUrlStore.FILE_NAME),
+                StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 100, 1, 2, 3 }));
+        }
+
+        store = open();
+        Url recovered = store.findByShortCode("keep").orElseThrow();
+        assertEquals(3, recovered.getCounterClicksTotal());
+        assertEquals(1, recovered.getCounterClicksSuspicious());
+
+        // Los ids siguen después del mayor recuperado
+        assertEquals(2L, store.create(registered(7L, "next", "https://example.com/b")).getId());
+    }
+
+    @Test
+    void refusesToStartWithArchivingEnabled() {
+        // El archivado movería filas de la tabla urls, que con este almacenamiento esta vacía
+        assertThrows(IllegalStateException.class, () -> new LogStructuredUrlStore(new SimpleMeterRegistry(),
+                directory.toString(), FsyncPolicy.NEVER, 0.5, 16, true));
+    }
+
+    @Test
+    void compactionKeepsOnlyTheLatestVersions() throws IOException {
+        store = open();
+        Url url = store.create(registered(7L, "hot", "https://example.com/a"));
+        store.create(registered(7L, "cold", "https://example.com/b"));
+        for (int i = 0; i < 50; i++) {
+            store.addClicks(Map.of(url.getId(), 1), Map.of());
+        }
+        long before = Files.size(directory.resolve(LogStructuredUrlStore.FILE_NAME));
+        assertTrue(store.deadRatio() > 0.9);
+
+        store.compact();
+
+        assertTrue(Files.size(directory.resolve(LogStructuredUrlStore.FILE_NAME)) < before / 10);
+        assertEquals(0.0, store.deadRatio());
+        assertEquals(50, store.findByShortCode("hot").orElseThrow().getCounterClicksTotal());
+
+        // Después de reabrir se lee el archivo compactado
+        store.close();
+        store = open();
+        assertEquals(50, store.findByShortCode("hot").orElseThrow().getCounterClicksTotal());
+        assertEquals("https://example.com/b", store.findByShortCode("cold").orElseThrow().getOriginalUrl());
+    }
+
+    private LogStructuredUrlStore open() throws IOException {
+        LogStructuredUrlStore opened = new LogStructuredUrlStore(new SimpleMeterRegistry(), directory.toString(),
+                FsyncPolicy.NEVER, 0.5, 16, false);
+        opened.open();
+        return opened;
+    }
+
+    private static Url anonymous(String fullHash, String originalUrl) {
+        return Url.builder()
+                .shortCode(fullHash)
+                .fullHash(fullHash)
+                .originalUrl(originalUrl)
+                .typeUrl(TypeUrl.ANONYMOUS)
+                .build();
+    }
+
+    private static Url registered(Long userId, String shortCode, String originalUrl) {
+        return Url.builder()
+                .shortCode(shortCode)
+                .originalUrl(originalUrl)
+                .typeUrl(TypeUrl.REGISTERED)
+                .userId(userId)
+                .build();
+    }
+}
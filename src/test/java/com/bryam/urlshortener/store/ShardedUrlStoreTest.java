@@ -0,0 +1,223 @@
+package com.bryam.urlshortener.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bryam.urlshortener.dto.request.ShortenUrlRequestDTO;
+import com.bryam.urlshortener.dto.response.ShortenUrlResponseDTO;
+import com.bryam.urlshortener.model.Url;
+import com.bryam.urlshortener.model.enums.StateUrl;
+import com.bryam.urlshortener.model.enums.TypeUrl;
+import com.bryam.urlshortener.repository.projection.StateTypeCountProjection;
+import com.bryam.urlshortener.repository.projection.UrlExportProjection;
+import com.bryam.urlshortener.repository.projection.UrlSummaryProjection;
+import com.bryam.urlshortener.service.CodeGeneratorService;
+import com.bryam.urlshortener.util.ShardKeyUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+//Tres bases H2 en memoria como particiones de urls, el resto de las tablas en la principal del perfil test
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.store.type=sharded",
+        "app.store.sharded.urls=" + ShardedUrlStoreTest.SHARD_0 + "," + ShardedUrlStoreTest.SHARD_1 + ","
+                + ShardedUrlStoreTest.SHARD_2,
+        "app.store.sharded.initialize-schema=true",
+        "app.archive.enabled=false"
+})
+@ActiveProfiles("test")
+class ShardedUrlStoreTest {
+
+    static final String SHARD_0 = "jdbc:h2:mem:url_shard_0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String SHARD_1 = "jdbc:h2:mem:url_shard_1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String SHARD_2 = "jdbc:h2:mem:url_shard_2;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private final List<JdbcTemplate> shards = List.of(SHARD_0, SHARD_1, SHARD_2).stream()
+            .map(url -> new JdbcTemplate(new DriverManagerDataSource(url, "sa", "")))
+            .toList();
+
+    @Autowired
+    private UrlStore urlStore;
+
+    @Autowired
+    private CodeGeneratorService codeGeneratorService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void everyUrlIsStoredInTheShardOfItsCode() {
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            codes.add(shorten(601L, "https://example.com/generated/" + i, null).getUrlCodeResponse());
+        }
+        codes.add(shorten(601L, "https://example.com/custom", "custom601").getUrlCodeResponse());
+
+        for (String code : codes) {
+            int shard = ShardKeyUtil.shardOfCode(code, 3);
+            Long id = shards.get(shard).queryForObject("SELECT id FROM urls WHERE short_code = ?", Long.class, code);
+            assertEquals(shard, ShardKeyUtil.shardOfId(id, 3));
+
+            assertEquals(id, urlStore.findByShortCode(code).orElseThrow().getId());
+            assertEquals(code, urlStore.findById(id).orElseThrow().getShortCode());
+        }
+
+        // Los códigos generados se reparten entre todas las particiones y la tabla de la principal queda vacía
+        for (JdbcTemplate shard : shards) {
+            assertTrue(shard.queryForObject("SELECT COUNT(*) FROM urls WHERE user_id = 601", Long.class) > 0);
+        }
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM urls", Long.class));
+    }
+
+    @Test
+    void listsAndAggregatesGatherEveryShard() {
+        for (int i = 0; i < 9; i++) {
+            urlStore.create(registered(602L, null, "https://example.com/list/" + i),
+                    codeGeneratorService::generateCodeBase62);
+        }
+
+        List<UrlSummaryProjection> first = urlStore.streamUserUrls(602L, null, null, 5).toList();
+        UrlSummaryProjection last = first.get(first.size() - 1);
+        List<UrlSummaryProjection> second = urlStore
+                .streamUserUrls(602L, last.creationDateTime(), last.id(), 5).toList();
+
+        List<String> listed = new ArrayList<>(first.stream().map(UrlSummaryProjection::originalUrl).toList());
+        second.stream().map(UrlSummaryProjection::originalUrl).forEach(listed::add);
+        assertEquals(9, listed.size());
+        for (int i = 0; i < 9; i++) {
+            assertEquals("https://example.com/list/" + (8 - i), listed.get(i));
+        }
+        assertEquals(9, urlStore.countByUserIdCreatedAfter(602L, LocalDateTime.now().minusMinutes(1)));
+
+        long registered = urlStore.countByStateAndType().stream()
+                .filter(row -> row.stateUrl() == StateUrl.ACTIVE && row.typeUrl() == TypeUrl.REGISTERED)
+                .mapToLong(StateTypeCountProjection::urls)
+                .sum();
+        long stored = shards.stream()
+                .mapToLong(shard -> shard.queryForObject(
+                        "SELECT COUNT(*) FROM urls WHERE state_url = 'ACTIVE' AND type_url = 'REGISTERED'", Long.class))
+                .sum();
+        assertEquals(stored, registered);
+
+        List<Long> exported = urlStore.streamAll(0L).map(UrlExportProjection::id).toList();
+        assertEquals(exported.stream().sorted().toList(), exported);
+        assertEquals(shards.stream().mapToLong(shard -> shard.queryForObject("SELECT COUNT(*) FROM urls",
+                Long.class)).sum(), exported.size());
+    }
+
+    @Test
+    void aBlockIsCreatedInEveryShardOrInNone() {
+        urlStore.create(registered(603L, "taken603", "https://example.com/taken"));
+
+        List<Url> block = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            block.add(registered(603L, null, "https://example.com/block/" + i));
+        }
+        block.add(registered(603L, "taken603", "https://example.com/again"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> urlStore.createAll(block, codeGeneratorService::generateCodeBase62));
+        assertEquals(1, urlStore.countByUserIdCreatedAfter(603L, LocalDateTime.now().minusMinutes(1)));
+
+        List<Url> created = urlStore.createAll(block.subList(0, 6).stream()
+                .map(url -> registered(603L, null, url.getOriginalUrl()))
+                .toList(), codeGeneratorService::generateCodeBase62);
+        assertEquals(7, urlStore.countByUserIdCreatedAfter(603L, LocalDateTime.now().minusMinutes(1)));
+
+        // Los clicks se suman en la partición de cada id
+        Url clicked = created.get(0);
+        urlStore.addClicks(Map.of(clicked.getId(), 4), Map.of());
+        assertEquals(4, urlStore.findByShortCode(clicked.getShortCode()).orElseThrow().getCounterClicksTotal());
+    }
+
+    @Test
+    void refusesToStartWithArchivingEnabled() {
+        // El archivado movería filas de la tabla urls de la base principal, que con este almacenamiento esta vacía
+        // La verificación es lo primero del constructor, las dependencias no llegan a usarse
+        assertThrows(IllegalStateException.class, () -> new ShardedUrlStore(null, null, null, null,
+                new SimpleMeterRegistry(), 1, false, true));
+    }
+
+    @Test
+    void writesCommitAndRollBackWithTheCallerTransaction() {
+        // Dentro de la transacción la url se lee desde la sesión de su partición antes de confirmar
+        String committed = transactionTemplate.execute(status -> {
+            Url url = urlStore.create(registered(604L, null, "https://example.com/commit"),
+                    codeGeneratorService::generateCodeBase62);
+            assertEquals(url.getId(), urlStore.findByShortCode(url.getShortCode()).orElseThrow().getId());
+            assertEquals(0L, shards.get(ShardKeyUtil.shardOfCode(url.getShortCode(), 3))
+                    .queryForObject("SELECT COUNT(*) FROM urls WHERE user_id = 604", Long.class));
+            return url.getShortCode();
+        });
+        assertTrue(urlStore.findByShortCode(committed).isPresent());
+
+        // Un error después de escribir en dos particiones las deshace junto con la transacción principal
+        List<String> rolledBack = new ArrayList<>();
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 2; i++) {
+                rolledBack.add(urlStore.create(registered(605L, null, "https://example.com/rollback/" + i),
+                        codeGeneratorService::generateCodeBase62).getShortCode());
+            }
+            urlStore.markDeleted(urlStore.findByShortCode(committed).orElseThrow().getId(), 604L);
+            throw new IllegalStateException("Caller failed");
+        }));
+
+        assertEquals(2, rolledBack.stream().map(code -> ShardKeyUtil.shardOfCode(code, 3)).distinct().count());
+        for (String code : rolledBack) {
+            assertTrue(urlStore.findByShortCode(code).isEmpty(), code);
+        }
+        assertEquals(0L, shards.stream()
+                .mapToLong(shard -> shard.queryForObject("SELECT COUNT(*) FROM urls WHERE user_id = 605", Long.class))
+                .sum());
+        assertEquals(StateUrl.ACTIVE, urlStore.findByShortCode(committed).orElseThrow().getStateUrl());
+    }
+
+    private ShortenUrlResponseDTO shorten(Long userId, String originalUrl, String slug) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-User-Id", userId.toString());
+        ShortenUrlRequestDTO request = ShortenUrlRequestDTO.builder()
+                .originalUrlRequest(originalUrl)
+                .customSlugRequest(slug)
+                .build();
+
+        ResponseEntity<ShortenUrlResponseDTO> created = restTemplate.exchange("/api/shorten/authenticated",
+                HttpMethod.POST, new HttpEntity<>(request, headers), ShortenUrlResponseDTO.class);
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        return created.getBody();
+    }
+
+    private static Url registered(Long userId, String shortCode, String originalUrl) {
+        return Url.builder()
+                .shortCode(shortCode)
+                .originalUrl(originalUrl)
+                .typeUrl(TypeUrl.REGISTERED)
+                .userId(userId)
+                .build();
+    }
+}